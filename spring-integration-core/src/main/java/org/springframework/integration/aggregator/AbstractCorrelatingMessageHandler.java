@@ -42,6 +42,7 @@ import org.springframework.integration.channel.NullChannel;
 import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.handler.AbstractMessageProducingHandler;
 import org.springframework.integration.handler.DiscardingMessageHandler;
+import org.springframework.integration.store.ConcurrentMessageGroupStore;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.SimpleMessageGroup;
@@ -50,6 +51,7 @@ import org.springframework.integration.store.UniqueExpiryCallback;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
 import org.springframework.integration.support.locks.DefaultLockRegistry;
 import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.integration.support.locks.PassThruLockRegistry;
 import org.springframework.integration.util.UUIDConverter;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -93,6 +95,8 @@ import org.springframework.util.CollectionUtils;
 public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageProducingHandler
 		implements DiscardingMessageHandler, ApplicationEventPublisherAware, Lifecycle {
 
+	private static final Lock NO_LOCK = new PassThruLockRegistry().obtain(AbstractCorrelatingMessageHandler.class);
+
 	private final Comparator<Message<?>> sequenceNumberComparator = new MessageSequenceComparator();
 
 	private final Map<UUID, ScheduledFuture<?>> expireGroupScheduledFutures = new ConcurrentHashMap<>();
@@ -349,6 +353,16 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 					+ "using a SimpleSequenceSizeReleaseStrategy");
 		}
 
+		if (isLockFree()) {
+			Assert.state(this.messageStore instanceof ConcurrentMessageGroupStore,
+					"A lock-free aggregator requires a ConcurrentMessageGroupStore");
+			Assert.state(this.releaseStrategy instanceof SimpleSequenceSizeReleaseStrategy
+							|| this.releaseStrategy instanceof MessageCountReleaseStrategy,
+					"A lock-free aggregator requires a SimpleSequenceSizeReleaseStrategy "
+							+ "or a MessageCountReleaseStrategy");
+			Assert.state(this.groupTimeoutExpression == null, "A lock-free aggregator does not support group timeouts");
+		}
+
 		/*
 		 * Disallow any further changes to the lock registry
 		 * (checked in the setter).
@@ -445,6 +459,11 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 			this.logger.debug("Handling message with correlationKey [" + correlationKey + "]: " + message);
 		}
 
+		if (isLockFree()) {
+			processMessageLockFree(message, correlationKey);
+			return;
+		}
+
 		UUID groupIdUuid = UUIDConverter.getUUID(correlationKey);
 		Lock lock = this.lockRegistry.obtain(groupIdUuid.toString());
 
@@ -506,6 +525,28 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		return noOutput;
 	}
 
+	/*
+	 * The message is added and the group is released in a single atomic update of the store,
+	 * so only the thread which completes the group releases it and no lock is needed.
+	 */
+	private void processMessageLockFree(Message<?> message, Object correlationKey) {
+		if (!this.expireGroupScheduledFutures.isEmpty()) {
+			cancelScheduledFutureIfAny(correlationKey, UUIDConverter.getUUID(correlationKey), true);
+		}
+		MessageGroup messageGroup = ((ConcurrentMessageGroupStore) this.messageStore)
+				.addMessageToGroup(correlationKey, message, this.releaseStrategy::canRelease,
+						isExpireGroupsUponCompletion());
+		if (messageGroup == null) {
+			discardMessage(message);
+		}
+		else if (messageGroup.isComplete()) {
+			completeGroup(message, correlationKey, messageGroup, NO_LOCK);
+			if (!isExpireGroupsUponCompletion() && this.minimumTimeoutForEmptyGroups > 0) {
+				removeEmptyGroupAfterTimeout(messageGroup, this.minimumTimeoutForEmptyGroups);
+			}
+		}
+	}
+
 	private void cancelScheduledFutureIfAny(Object correlationKey, UUID groupIdUuid, boolean mayInterruptIfRunning) {
 		ScheduledFuture<?> scheduledFuture = this.expireGroupScheduledFutures.remove(groupIdUuid);
 		if (scheduledFuture != null) {
@@ -521,6 +562,20 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		return false;
 	}
 
+	/**
+	 * Return true to accumulate the messages without locking the groups; the store must be a
+	 * {@link ConcurrentMessageGroupStore} and the release strategy a
+	 * {@link SimpleSequenceSizeReleaseStrategy} or a {@link MessageCountReleaseStrategy}.
+	 * A group is then released by the atomic store update which completes it, instead of by
+	 * {@link #afterRelease(MessageGroup, Collection)}.
+	 * @return true for lock-free aggregation.
+	 * @since 5.2
+	 * @see AggregatingMessageHandler#setLockFree(boolean)
+	 */
+	protected boolean isLockFree() {
+		return false;
+	}
+
 	private void removeEmptyGroupAfterTimeout(MessageGroup messageGroup, long timeout) {
 		Object groupId = messageGroup.getGroupId();
 		UUID groupUuid = UUIDConverter.getUUID(groupId);
@@ -649,6 +704,10 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 	}
 
 	protected void forceComplete(MessageGroup group) { // NOSONAR Complexity
+		if (isLockFree()) {
+			forceCompleteLockFree(group);
+			return;
+		}
 		Object correlationKey = group.getGroupId();
 		// UUIDConverter is no-op if already converted
 		UUID groupId = UUIDConverter.getUUID(correlationKey);
@@ -748,6 +807,38 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		}
 	}
 
+	/*
+	 * The group is released (or removed when empty) only if it has not changed since it was
+	 * selected for expiry; its messages are then no longer in the store, even if they can't
+	 * be sent.
+	 */
+	private void forceCompleteLockFree(MessageGroup group) {
+		Object correlationKey = group.getGroupId();
+		if (!this.expireGroupScheduledFutures.isEmpty()) {
+			cancelScheduledFutureIfAny(correlationKey, UUIDConverter.getUUID(correlationKey), false);
+		}
+		ConcurrentMessageGroupStore store = (ConcurrentMessageGroupStore) this.messageStore;
+		if (group.size() == 0) {
+			if (group.getLastModified() <= (System.currentTimeMillis() - this.minimumTimeoutForEmptyGroups)
+					&& store.releaseMessageGroup(group, true) && this.logger.isDebugEnabled()) {
+
+				this.logger.debug("Removing empty group: " + correlationKey);
+			}
+		}
+		else if (store.releaseMessageGroup(group, this.expireGroupsUponTimeout)) {
+			if (this.releaseStrategy.canRelease(group)) {
+				completeGroup(correlationKey, group, NO_LOCK);
+			}
+			else {
+				expireGroup(correlationKey, group, NO_LOCK);
+			}
+		}
+		else if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Group expiry candidate (" + correlationKey +
+					") has changed - it may be reconsidered for a future expiration");
+		}
+	}
+
 	protected void remove(MessageGroup group) {
 		Object correlationKey = group.getGroupId();
 		this.messageStore.removeMessageGroup(correlationKey);
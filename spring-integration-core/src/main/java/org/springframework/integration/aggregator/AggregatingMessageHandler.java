@@ -16,12 +16,16 @@
 
 package org.springframework.integration.aggregator;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
 
 /**
  * Aggregator specific implementation of {@link AbstractCorrelatingMessageHandler}.
@@ -36,8 +40,12 @@ import org.springframework.messaging.Message;
  */
 public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler {
 
+	private static final int REMOVE_BATCH_SIZE = 100;
+
 	private volatile boolean expireGroupsUponCompletion = false;
 
+	private boolean lockFree;
+
 	public AggregatingMessageHandler(MessageGroupProcessor processor, MessageGroupStore store,
 			CorrelationStrategy correlationStrategy, ReleaseStrategy releaseStrategy) {
 		super(processor, store, correlationStrategy, releaseStrategy);
@@ -67,9 +75,44 @@ public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler
 		return this.expireGroupsUponCompletion;
 	}
 
+	/**
+	 * Set to true to aggregate without obtaining a lock from the
+	 * {@link org.springframework.integration.support.locks.LockRegistry} for each message:
+	 * each message is added to its group and the group is released in a single atomic update
+	 * of a {@link org.springframework.integration.store.ConcurrentMessageGroupStore}.
+	 * Requires such a store, a {@link SimpleSequenceSizeReleaseStrategy} (the default) or a
+	 * {@link MessageCountReleaseStrategy} and no group timeout.
+	 * Groups expired by a {@link org.springframework.integration.store.MessageGroupStoreReaper}
+	 * or evicted by the store are removed from it before their messages are sent.
+	 * @param lockFree true for lock-free aggregation.
+	 * @since 5.2
+	 */
+	public void setLockFree(boolean lockFree) {
+		this.lockFree = lockFree;
+	}
+
+	@Override
+	protected boolean isLockFree() {
+		return this.lockFree;
+	}
+
+	@Override
+	protected void onInit() {
+		super.onInit();
+		MessageGroupProcessor outputProcessor = getOutputProcessor();
+		if (outputProcessor instanceof StreamingAggregatingMessageGroupProcessor) {
+			Assert.state(!this.lockFree, "A StreamingAggregatingMessageGroupProcessor can't be used for lock-free "
+					+ "aggregation");
+			((StreamingAggregatingMessageGroupProcessor) outputProcessor).setMessageStore(getMessageStore());
+			((StreamingAggregatingMessageGroupProcessor) outputProcessor).setTrackIterations(true);
+		}
+	}
+
 	/**
 	 * Complete the group and remove all its messages.
 	 * If the {@link #expireGroupsUponCompletion} is true, then remove group fully.
+	 * With a {@link StreamingAggregatingMessageGroupProcessor}, the messages (or the group)
+	 * are removed when the iterator released for the group is closed.
 	 * @param messageGroup the group to clean up.
 	 * @param completedMessages The completed messages. Ignored in this implementation.
 	 */
@@ -79,16 +122,62 @@ public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler
 		MessageGroupStore messageStore = getMessageStore();
 		messageStore.completeGroup(groupId);
 
-		if (this.expireGroupsUponCompletion) {
-			remove(messageGroup);
-		}
-		else {
-			if (messageStore instanceof SimpleMessageStore) {
-				((SimpleMessageStore) messageStore).clearMessageGroup(groupId);
+		afterIteration(groupId, () -> {
+			if (this.expireGroupsUponCompletion) {
+				remove(messageGroup);
 			}
 			else {
-				messageStore.removeMessagesFromGroup(groupId, messageGroup.getMessages());
+				if (messageStore instanceof SimpleMessageStore) {
+					((SimpleMessageStore) messageStore).clearMessageGroup(groupId);
+				}
+				else if (getOutputProcessor() instanceof StreamingAggregatingMessageGroupProcessor) {
+					removeMessagesInBatches(messageStore, groupId);
+				}
+				else {
+					messageStore.removeMessagesFromGroup(groupId, messageGroup.getMessages());
+				}
 			}
+		});
+	}
+
+	@Override
+	protected void remove(MessageGroup group) {
+		Object groupId = group.getGroupId();
+		if (isIterating(groupId)) {
+			// no more messages are added to the group while it is iterated
+			getMessageStore().completeGroup(groupId);
+		}
+		afterIteration(groupId, () -> super.remove(group));
+	}
+
+	private static void removeMessagesInBatches(MessageGroupStore messageStore, Object groupId) {
+		List<Message<?>> messages = new ArrayList<>(REMOVE_BATCH_SIZE);
+		try (CloseableIterator<Message<?>> iterator = messageStore.iterateMessagesForGroup(groupId)) {
+			while (iterator.hasNext()) {
+				messages.add(iterator.next());
+				if (messages.size() == REMOVE_BATCH_SIZE) {
+					messageStore.removeMessagesFromGroup(groupId, messages);
+					messages.clear();
+				}
+			}
+		}
+		if (!messages.isEmpty()) {
+			messageStore.removeMessagesFromGroup(groupId, messages);
+		}
+	}
+
+	private boolean isIterating(Object groupId) {
+		MessageGroupProcessor outputProcessor = getOutputProcessor();
+		return outputProcessor instanceof StreamingAggregatingMessageGroupProcessor
+				&& ((StreamingAggregatingMessageGroupProcessor) outputProcessor).isIterating(groupId);
+	}
+
+	private void afterIteration(Object groupId, Runnable action) {
+		if (isIterating(groupId)) {
+			((StreamingAggregatingMessageGroupProcessor) getOutputProcessor()).afterIteration(groupId, action);
+		}
+		else {
+			action.run();
 		}
 	}
 
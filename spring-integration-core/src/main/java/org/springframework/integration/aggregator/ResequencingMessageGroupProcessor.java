@@ -20,13 +20,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 
 import org.springframework.integration.StaticMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.messaging.Message;
 
 /**
  * This class implements all the strategy interfaces needed for a default resequencer.
+ * <p>
+ * The contiguous sequence is taken from the sequence number index of a
+ * {@link SimpleMessageGroup} when available, so only the released messages are
+ * visited; other groups are sorted in full.
  *
  * @author Iwein Fuld
  * @author Dave Syer
@@ -43,6 +50,13 @@ public class ResequencingMessageGroupProcessor implements MessageGroupProcessor
 		Collection<Message<?>> messages = group.getMessages();
 
 		if (messages.size() > 0) {
+			if (group instanceof SimpleMessageGroup) {
+				NavigableMap<Integer, Message<?>> messagesBySequence =
+						((SimpleMessageGroup) group).getMessagesBySequence();
+				if (messagesBySequence != null) {
+					return contiguousSequence(messagesBySequence);
+				}
+			}
 			List<Message<?>> sorted = new ArrayList<>(messages);
 			sorted.sort(this.comparator);
 			ArrayList<Message<?>> partialSequence = new ArrayList<>();
@@ -63,6 +77,20 @@ public class ResequencingMessageGroupProcessor implements MessageGroupProcessor
 		return null;
 	}
 
+	private List<Message<?>> contiguousSequence(NavigableMap<Integer, Message<?>> messagesBySequence) {
+		List<Message<?>> partialSequence = new ArrayList<>();
+		int previousSequence = messagesBySequence.firstKey() - 1;
+		for (Map.Entry<Integer, Message<?>> entry : messagesBySequence.entrySet()) {
+			if (entry.getKey() - 1 > previousSequence) {
+				//there is a gap in the sequence here
+				break;
+			}
+			previousSequence = entry.getKey();
+			partialSequence.add(entry.getValue());
+		}
+		return partialSequence;
+	}
+
 	private Integer extractSequenceNumber(Message<?> message) {
 		return StaticMessageHeaderAccessor.getSequenceNumber(message);
 	}
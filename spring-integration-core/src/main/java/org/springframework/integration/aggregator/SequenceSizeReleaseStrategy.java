@@ -19,12 +19,14 @@ package org.springframework.integration.aggregator;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.NavigableMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.messaging.Message;
 
 /**
@@ -58,7 +60,8 @@ public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
 	/**
 	 * Construct an instance that supports releasing partial sequences if
 	 * releasePartialSequences is true. This can be an expensive operation on large
-	 * groups.
+	 * groups, unless they are {@link SimpleMessageGroup}s, which keep their messages
+	 * indexed by sequence number.
 	 * @param releasePartialSequences true to allow the release of partial sequences.
 	 */
 	public SequenceSizeReleaseStrategy(boolean releasePartialSequences) {
@@ -69,7 +72,8 @@ public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
 	 * Flag that determines if partial sequences are allowed. If true then as soon as
 	 * enough messages arrive that can be ordered they will be released, provided they
 	 * all have sequence numbers greater than those already released.
-	 * This can be an expensive operation for large groups.
+	 * This can be an expensive operation for large groups, unless they are
+	 * {@link SimpleMessageGroup}s, which keep their messages indexed by sequence number.
 	 * @param releasePartialSequences true when partial sequences should be released.
 	 */
 	public void setReleasePartialSequences(boolean releasePartialSequences) {
@@ -86,10 +90,7 @@ public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
 			if (logger.isTraceEnabled()) {
 				logger.trace("Considering partial release of group [" + messageGroup + "]");
 			}
-			Collection<Message<?>> messages = messageGroup.getMessages();
-			Message<?> minMessage = Collections.min(messages, this.comparator);
-
-			int nextSequenceNumber = new IntegrationMessageHeaderAccessor(minMessage).getSequenceNumber();
+			int nextSequenceNumber = findMinSequenceNumber(messageGroup);
 			int lastReleasedMessageSequence = messageGroup.getLastReleasedMessageSequenceNumber();
 
 			if (nextSequenceNumber - lastReleasedMessageSequence == 1) {
@@ -111,4 +112,17 @@ public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
 		return canRelease;
 	}
 
+	private int findMinSequenceNumber(MessageGroup messageGroup) {
+		if (messageGroup instanceof SimpleMessageGroup) {
+			NavigableMap<Integer, Message<?>> messagesBySequence =
+					((SimpleMessageGroup) messageGroup).getMessagesBySequence();
+			if (messagesBySequence != null) {
+				return messagesBySequence.firstKey();
+			}
+		}
+		Collection<Message<?>> messages = messageGroup.getMessages();
+		Message<?> minMessage = Collections.min(messages, this.comparator);
+		return new IntegrationMessageHeaderAccessor(minMessage).getSequenceNumber();
+	}
+
 }
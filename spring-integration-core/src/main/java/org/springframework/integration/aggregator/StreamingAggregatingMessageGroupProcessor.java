@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.MessageGroupStore;
+import org.springframework.integration.util.CloseableIterator;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
+
+/**
+ * This implementation of MessageGroupProcessor will pass the payloads of the messages
+ * from the MessageGroup on in a single message with a {@link CloseableIterator} as a
+ * payload. The iterator reads the messages from the {@link MessageGroupStore} only as it
+ * is iterated (see {@link MessageGroupStore#iterateMessagesForGroup(Object)}), so the
+ * messages of a large group don't all have to be on the heap at once.
+ * <p>
+ * When used by an {@link AggregatingMessageHandler}, the store is that of the handler,
+ * and the group is marked complete on release but its messages are only removed when the
+ * iterator is closed; this happens when it is read to the end, otherwise the consumer
+ * must close it (as a splitter does).
+ * <p>
+ * Since reading all the messages to aggregate their headers would defeat the purpose,
+ * the headers of the output message are by default those of one message of the group,
+ * except the id, timestamp and sequence headers.
+ *
+ * @since 5.2
+ */
+public class StreamingAggregatingMessageGroupProcessor extends AbstractAggregatingMessageGroupProcessor {
+
+	private final Map<Object, GroupIterator> iterators = new ConcurrentHashMap<>();
+
+	private MessageGroupStore messageStore;
+
+	private boolean trackIterations;
+
+	public StreamingAggregatingMessageGroupProcessor() {
+		setHeadersFunction(StreamingAggregatingMessageGroupProcessor::headersOfOneMessage);
+	}
+
+	/**
+	 * Set the store to read the messages from.
+	 * An {@link AggregatingMessageHandler} sets its own store.
+	 * @param messageStore the store.
+	 */
+	public void setMessageStore(MessageGroupStore messageStore) {
+		Assert.notNull(messageStore, "'messageStore' must not be null");
+		this.messageStore = messageStore;
+	}
+
+	/**
+	 * Keep track of the released iterators until the handler defers the group removal
+	 * with {@link #afterIteration(Object, Runnable)}; only set by the
+	 * {@link AggregatingMessageHandler}, which always does.
+	 * @param trackIterations true to track the iterators.
+	 */
+	void setTrackIterations(boolean trackIterations) {
+		this.trackIterations = trackIterations;
+	}
+
+	@Override
+	protected Object aggregatePayloads(MessageGroup group, Map<String, Object> defaultHeaders) {
+		Assert.state(this.messageStore != null, "A 'messageStore' is required");
+		Object groupId = group.getGroupId();
+		GroupIterator iterator = new GroupIterator(groupId, this.messageStore.iterateMessagesForGroup(groupId));
+		if (this.trackIterations) {
+			this.iterators.put(groupId, iterator);
+		}
+		return iterator;
+	}
+
+	boolean isIterating(Object groupId) {
+		return this.iterators.containsKey(groupId);
+	}
+
+	/**
+	 * Run the action when the iterator over the group is closed, or immediately if it
+	 * is already closed.
+	 * @param groupId the group id.
+	 * @param action the action.
+	 */
+	void afterIteration(Object groupId, Runnable action) {
+		GroupIterator iterator = this.iterators.remove(groupId);
+		if (iterator == null || !iterator.runAfterClose(action)) {
+			action.run();
+		}
+	}
+
+	private static Map<String, Object> headersOfOneMessage(MessageGroup group) {
+		Map<String, Object> headers = new HashMap<>();
+		Message<?> message = group.getOne();
+		if (message != null) {
+			headers.putAll(message.getHeaders());
+			headers.remove(MessageHeaders.ID);
+			headers.remove(MessageHeaders.TIMESTAMP);
+			headers.remove(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE);
+			headers.remove(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER);
+		}
+		return headers;
+	}
+
+	private final class GroupIterator implements CloseableIterator<Object> {
+
+		private final Object groupId;
+
+		private final CloseableIterator<Message<?>> messages;
+
+		private boolean closed;
+
+		private Runnable afterClose;
+
+		GroupIterator(Object groupId, CloseableIterator<Message<?>> messages) {
+			this.groupId = groupId;
+			this.messages = messages;
+		}
+
+		@Override
+		public boolean hasNext() {
+			boolean hasNext = !isClosed() && this.messages.hasNext();
+			if (!hasNext) {
+				close();
+			}
+			return hasNext;
+		}
+
+		@Override
+		public Object next() {
+			return this.messages.next().getPayload();
+		}
+
+		synchronized boolean runAfterClose(Runnable action) {
+			if (this.closed) {
+				return false;
+			}
+			this.afterClose = action;
+			return true;
+		}
+
+		private synchronized boolean isClosed() {
+			return this.closed;
+		}
+
+		@Override
+		public void close() {
+			Runnable action;
+			synchronized (this) {
+				if (this.closed) {
+					return;
+				}
+				this.closed = true;
+				action = this.afterClose;
+			}
+			StreamingAggregatingMessageGroupProcessor.this.iterators.remove(this.groupId, this);
+			this.messages.close();
+			if (action != null) {
+				action.run();
+			}
+		}
+
+	}
+
+}
@@ -65,8 +65,8 @@ public class TimeoutCountSequenceSizeReleaseStrategy implements ReleaseStrategy
 
 	@Override
 	public boolean canRelease(MessageGroup messages) {
-		long elapsedTime = System.currentTimeMillis() - findEarliestTimestamp(messages);
-		return messages.isComplete() || messages.getMessages().size() >= this.threshold || elapsedTime > this.timeout;
+		return messages.isComplete() || messages.size() >= this.threshold
+				|| System.currentTimeMillis() - findEarliestTimestamp(messages) > this.timeout;
 	}
 
 	/**
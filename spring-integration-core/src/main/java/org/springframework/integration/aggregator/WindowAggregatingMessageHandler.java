@@ -0,0 +1,568 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.context.Lifecycle;
+import org.springframework.integration.handler.AbstractMessageProducingHandler;
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.MessageGroupStore;
+import org.springframework.integration.store.SimpleMessageGroup;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+
+/**
+ * The {@link AbstractMessageProducingHandler} implementation for batching messages into
+ * windows, without a {@link MessageGroupStore} group, release strategy or scheduled
+ * task per window.
+ * <p>
+ * The messages of each window are kept in an in-memory ring buffer per correlation key;
+ * the windows with a timespan are released by a single timer task on the
+ * {@link TaskScheduler}, which checks the earliest window deadlines every
+ * {@link #setTimerInterval(Duration) timer interval}.
+ * A released window is passed to the {@link MessageGroupProcessor}
+ * ({@link DefaultAggregatingMessageGroupProcessor} by default) as a
+ * {@link SimpleMessageGroup}, and the result is sent to the output channel.
+ * <p>
+ * The {@link WindowType} determines when a window is released.
+ * <p>
+ * When a {@link #setMessageStore(MessageGroupStore) message store} is provided, the
+ * messages are also stored in it (in a group per correlation key) until they leave
+ * their window, or until the output of their window has been sent, and the windows are
+ * restored from the store on {@link #start()}.
+ * Otherwise, the pending windows are released on {@link #stop()}.
+ * <p>
+ * When the output of a tumbling or session window cannot be built or sent, its messages
+ * are put back in the window, so they are released again (with the messages added in
+ * the meantime) with the next message that fills the window, after the window timespan,
+ * or on {@link #stop()} (on {@link #start()} with a message store); the exception is
+ * thrown to the sender of the message which filled the window, or logged by the timer.
+ *
+ * @since 5.2
+ */
+public class WindowAggregatingMessageHandler extends AbstractMessageProducingHandler implements Lifecycle {
+
+	/**
+	 * The correlation key of the single window used when no {@link CorrelationStrategy}
+	 * is provided.
+	 */
+	public static final String DEFAULT_WINDOW_KEY = "window";
+
+	private final Map<Object, Window> windows = new ConcurrentHashMap<>();
+
+	private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>();
+
+	private final WindowType windowType;
+
+	private CorrelationStrategy correlationStrategy;
+
+	private int windowSize;
+
+	private int windowSlide = 1;
+
+	private long windowTimespan;
+
+	private Duration timerInterval = Duration.ofMillis(10);
+
+	private MessageGroupProcessor outputProcessor = new DefaultAggregatingMessageGroupProcessor();
+
+	private MessageGroupStore messageStore;
+
+	private volatile ScheduledFuture<?> timer;
+
+	private volatile boolean running;
+
+	/**
+	 * Create an instance for the provided type of windows.
+	 * @param windowType the type of windows.
+	 */
+	public WindowAggregatingMessageHandler(WindowType windowType) {
+		Assert.notNull(windowType, "'windowType' must not be null");
+		this.windowType = windowType;
+	}
+
+	/**
+	 * Configure a {@link CorrelationStrategy} to determine the window of the incoming
+	 * messages. By default, all the messages go to the same window.
+	 * @param correlationStrategy the {@link CorrelationStrategy} to use.
+	 */
+	public void setCorrelationStrategy(CorrelationStrategy correlationStrategy) {
+		Assert.notNull(correlationStrategy, "'correlationStrategy' must not be null");
+		this.correlationStrategy = correlationStrategy;
+	}
+
+	/**
+	 * Specify the number of messages in a window: a tumbling or session window is
+	 * released when it reaches this size; a sliding window holds the last messages up to
+	 * this size. Required for sliding windows.
+	 * @param windowSize the size.
+	 */
+	public void setWindowSize(int windowSize) {
+		Assert.isTrue(windowSize > 0, "'windowSize' must be greater than 0");
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Specify the number of messages after which a sliding window is released again.
+	 * Defaults to 1.
+	 * @param windowSlide the slide.
+	 */
+	public void setWindowSlide(int windowSlide) {
+		Assert.isTrue(windowSlide > 0, "'windowSlide' must be greater than 0");
+		this.windowSlide = windowSlide;
+	}
+
+	/**
+	 * Specify the time after which a tumbling window is released, counted from its first
+	 * message, or the inactivity gap after which a session window is released.
+	 * Required for session windows; not supported for sliding windows.
+	 * @param windowTimespan the timespan.
+	 */
+	public void setWindowTimespan(Duration windowTimespan) {
+		Assert.isTrue(windowTimespan != null && !windowTimespan.isNegative() && !windowTimespan.isZero(),
+				"'windowTimespan' must be positive");
+		this.windowTimespan = windowTimespan.toMillis();
+	}
+
+	/**
+	 * Specify how often the timer checks for windows to release when they have a
+	 * timespan; windows are released up to this interval after their deadline.
+	 * Defaults to 10 milliseconds.
+	 * @param timerInterval the interval.
+	 */
+	public void setTimerInterval(Duration timerInterval) {
+		Assert.isTrue(timerInterval != null && !timerInterval.isNegative() && !timerInterval.isZero(),
+				"'timerInterval' must be positive");
+		this.timerInterval = timerInterval;
+	}
+
+	/**
+	 * Specify the {@link MessageGroupProcessor} to build the output from a released
+	 * window. Defaults to a {@link DefaultAggregatingMessageGroupProcessor}.
+	 * @param outputProcessor the processor.
+	 */
+	public void setOutputProcessor(MessageGroupProcessor outputProcessor) {
+		Assert.notNull(outputProcessor, "'outputProcessor' must not be null");
+		this.outputProcessor = outputProcessor;
+	}
+
+	/**
+	 * Specify a {@link MessageGroupStore} to keep the messages in while they are in a
+	 * window, so the windows can be restored after a restart. The store should be
+	 * dedicated to this handler (or use a dedicated region), since all its groups are
+	 * restored as windows.
+	 * @param messageStore the store.
+	 */
+	public void setMessageStore(MessageGroupStore messageStore) {
+		this.messageStore = messageStore;
+	}
+
+	@Override
+	public String getComponentType() {
+		return "window-aggregator";
+	}
+
+	@Override
+	protected void onInit() {
+		super.onInit();
+		switch (this.windowType) {
+			case SLIDING:
+				Assert.state(this.windowSize > 0, "A 'windowSize' is required for sliding windows");
+				Assert.state(this.windowTimespan == 0, "A 'windowTimespan' is not supported for sliding windows");
+				Assert.state(this.windowSlide <= this.windowSize,
+						"The 'windowSlide' must not be greater than the 'windowSize'");
+				break;
+			case SESSION:
+				Assert.state(this.windowTimespan > 0, "A 'windowTimespan' is required for session windows");
+				break;
+			default:
+				Assert.state(this.windowSize > 0 || this.windowTimespan > 0,
+						"A 'windowSize' or a 'windowTimespan' is required for tumbling windows");
+		}
+		if (this.outputProcessor instanceof BeanFactoryAware && getBeanFactory() != null) {
+			((BeanFactoryAware) this.outputProcessor).setBeanFactory(getBeanFactory());
+		}
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!this.running) {
+			if (this.messageStore != null) {
+				restoreWindows();
+			}
+			if (this.windowTimespan > 0) {
+				TaskScheduler taskScheduler = getTaskScheduler();
+				Assert.state(taskScheduler != null, "A 'taskScheduler' is required for windows with a timespan");
+				this.timer = taskScheduler.scheduleAtFixedRate(this::releaseDueWindows, this.timerInterval.toMillis());
+			}
+			this.running = true;
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.running) {
+			this.running = false;
+			if (this.timer != null) {
+				this.timer.cancel(false);
+				this.timer = null;
+			}
+			synchronized (this.deadlines) {
+				this.deadlines.clear();
+			}
+			if (this.messageStore == null) {
+				for (Window window : this.windows.values()) {
+					release(window, window.releasePending());
+				}
+			}
+			this.windows.clear();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	protected void handleMessageInternal(Message<?> message) {
+		Assert.state(this.running,
+				"The 'WindowAggregatingMessageHandler' has not been started to accept incoming messages");
+		add(correlationKey(message), message, true);
+	}
+
+	@Override
+	protected boolean shouldCopyRequestHeaders() {
+		return false;
+	}
+
+	private Object correlationKey(Message<?> message) {
+		if (this.correlationStrategy == null) {
+			return DEFAULT_WINDOW_KEY;
+		}
+		Object key = this.correlationStrategy.getCorrelationKey(message);
+		Assert.state(key != null, () -> "Null correlation not allowed.  Maybe the CorrelationStrategy is failing?");
+		return key;
+	}
+
+	private void add(Object key, Message<?> message, boolean store) {
+		while (true) {
+			Window window = this.windows.computeIfAbsent(key, Window::new);
+			List<Message<?>> released;
+			synchronized (window) {
+				if (window.removed) {
+					continue;
+				}
+				released = window.add(message, store);
+			}
+			release(window, released);
+			return;
+		}
+	}
+
+	private void restoreWindows() {
+		this.windows.clear();
+		List<MessageGroup> groups = new ArrayList<>();
+		this.messageStore.iterator().forEachRemaining(groups::add);
+		for (MessageGroup group : groups) {
+			List<Message<?>> messages = new ArrayList<>(group.getMessages());
+			if (!messages.isEmpty()) {
+				Object key = correlationKey(messages.get(0));
+				for (Message<?> message : messages) {
+					add(key, message, false);
+				}
+			}
+		}
+	}
+
+	private void schedule(Window window, long deadline) {
+		synchronized (this.deadlines) {
+			this.deadlines.add(new Deadline(deadline, window));
+		}
+	}
+
+	private void releaseDueWindows() {
+		long now = System.currentTimeMillis();
+		while (true) {
+			Deadline due;
+			synchronized (this.deadlines) {
+				due = this.deadlines.peek();
+				if (due == null || due.time > now) {
+					return;
+				}
+				this.deadlines.poll();
+			}
+			Window window = due.window;
+			List<Message<?>> released;
+			synchronized (window) {
+				released = window.expire(now);
+			}
+			try {
+				release(window, released);
+			}
+			catch (RuntimeException e) {
+				if (this.logger.isWarnEnabled()) {
+					this.logger.warn("The window [" + window.key + "] is rescheduled by the reason of:", e);
+				}
+			}
+		}
+	}
+
+	private void release(Window window, @Nullable List<Message<?>> messages) {
+		if (messages != null && !messages.isEmpty()) {
+			try {
+				Object result = this.outputProcessor.processMessageGroup(new SimpleMessageGroup(messages, window.key));
+				sendOutputs(result, messages.get(messages.size() - 1));
+			}
+			catch (RuntimeException e) {
+				if (this.windowType != WindowType.SLIDING) {
+					window.restore(messages);
+				}
+				throw e;
+			}
+			if (this.windowType != WindowType.SLIDING) {
+				window.released(messages);
+			}
+		}
+	}
+
+	/**
+	 * The types of windows.
+	 */
+	public enum WindowType {
+
+		/**
+		 * Consecutive, non-overlapping windows, released when they reach the window size
+		 * or when the window timespan has elapsed since their first message.
+		 */
+		TUMBLING,
+
+		/**
+		 * A window over the last messages up to the window size, released each time the
+		 * window slide number of messages has been added once it is full.
+		 */
+		SLIDING,
+
+		/**
+		 * Windows released when no message has been added for the window timespan, or
+		 * when they reach the window size.
+		 */
+		SESSION
+
+	}
+
+	private final class Window {
+
+		private final Object key;
+
+		private Message<?>[] buffer;
+
+		private int head;
+
+		private int count;
+
+		private int added;
+
+		private long start;
+
+		private long lastAdded;
+
+		private boolean scheduled;
+
+		private boolean removed;
+
+		Window(Object key) {
+			this.key = key;
+			int size = WindowAggregatingMessageHandler.this.windowSize;
+			this.buffer = new Message<?>[size > 0 ? size : 16];
+		}
+
+		@Nullable
+		List<Message<?>> add(Message<?> message, boolean store) {
+			WindowAggregatingMessageHandler handler = WindowAggregatingMessageHandler.this;
+			if (store && handler.messageStore != null) {
+				handler.messageStore.addMessagesToGroup(this.key, message);
+			}
+			long now = System.currentTimeMillis();
+			if (this.count == 0) {
+				this.start = now;
+			}
+			this.lastAdded = now;
+			this.added++;
+			if (handler.windowType == WindowType.SLIDING) {
+				if (this.count == this.buffer.length) {
+					Message<?> evicted = this.buffer[this.head];
+					this.head = (this.head + 1) % this.buffer.length;
+					this.count--;
+					if (handler.messageStore != null) {
+						handler.messageStore.removeMessagesFromGroup(this.key, evicted);
+					}
+				}
+				append(message);
+				return this.count == this.buffer.length && this.added >= handler.windowSlide
+						? messages(false)
+						: null;
+			}
+			append(message);
+			// more than the size when the messages of a failed release have been restored
+			if (handler.windowSize > 0 && this.count >= handler.windowSize) {
+				return messages(true);
+			}
+			if (handler.windowTimespan > 0 && !this.scheduled) {
+				this.scheduled = true;
+				handler.schedule(this, deadline());
+			}
+			return null;
+		}
+
+		@Nullable
+		List<Message<?>> expire(long now) {
+			this.scheduled = false;
+			if (this.count == 0 || this.removed) {
+				return null;
+			}
+			long deadline = deadline();
+			if (deadline > now) {
+				this.scheduled = true;
+				WindowAggregatingMessageHandler.this.schedule(this, deadline);
+				return null;
+			}
+			return messages(true);
+		}
+
+		@Nullable
+		synchronized List<Message<?>> releasePending() {
+			if (WindowAggregatingMessageHandler.this.windowType == WindowType.SLIDING) {
+				return this.added > 0 ? messages(false) : null;
+			}
+			return this.count > 0 ? messages(true) : null;
+		}
+
+		private long deadline() {
+			return (WindowAggregatingMessageHandler.this.windowType == WindowType.SESSION ? this.lastAdded : this.start)
+					+ WindowAggregatingMessageHandler.this.windowTimespan;
+		}
+
+		private void append(Message<?> message) {
+			if (this.count == this.buffer.length) {
+				Message<?>[] grown = new Message<?>[this.buffer.length * 2];
+				for (int i = 0; i < this.count; i++) {
+					grown[i] = this.buffer[(this.head + i) % this.buffer.length];
+				}
+				this.buffer = grown;
+				this.head = 0;
+			}
+			this.buffer[(this.head + this.count) % this.buffer.length] = message;
+			this.count++;
+		}
+
+		private List<Message<?>> messages(boolean clear) {
+			List<Message<?>> messages = new ArrayList<>(this.count);
+			for (int i = 0; i < this.count; i++) {
+				int index = (this.head + i) % this.buffer.length;
+				messages.add(this.buffer[index]);
+				if (clear) {
+					this.buffer[index] = null;
+				}
+			}
+			this.added = 0;
+			if (clear) {
+				this.head = 0;
+				this.count = 0;
+			}
+			return messages;
+		}
+
+		/*
+		 * Called when the output of the released messages could not be sent: they are put
+		 * back before the messages added in the meantime (they are still in the store), and
+		 * the window is released again a full timespan later, if it has a timespan.
+		 */
+		void restore(List<Message<?>> messages) {
+			WindowAggregatingMessageHandler handler = WindowAggregatingMessageHandler.this;
+			synchronized (this) {
+				if (!this.removed) {
+					List<Message<?>> added = messages(true);
+					messages.forEach(this::append);
+					added.forEach(this::append);
+					long now = System.currentTimeMillis();
+					this.start = now;
+					this.lastAdded = now;
+					if (handler.windowTimespan > 0 && !this.scheduled) {
+						this.scheduled = true;
+						handler.schedule(this, deadline());
+					}
+					return;
+				}
+			}
+			// the window has been released and removed in the meantime
+			for (Message<?> message : messages) {
+				handler.add(this.key, message, false);
+			}
+		}
+
+		/*
+		 * Called once the output of the released messages has been sent: only then are they
+		 * removed from the store, so they are restored if the output could not be sent.
+		 * The window is removed unless messages have been added to it in the meantime.
+		 */
+		synchronized void released(List<Message<?>> messages) {
+			MessageGroupStore messageStore = WindowAggregatingMessageHandler.this.messageStore;
+			if (messageStore != null) {
+				messageStore.removeMessagesFromGroup(this.key, messages);
+			}
+			if (this.count == 0 && !this.removed
+					&& (messageStore == null || messageStore.messageGroupSize(this.key) == 0)) {
+
+				if (messageStore != null) {
+					messageStore.removeMessageGroup(this.key);
+				}
+				this.removed = WindowAggregatingMessageHandler.this.windows.remove(this.key, this);
+			}
+		}
+
+	}
+
+	private static final class Deadline implements Comparable<Deadline> {
+
+		private final long time;
+
+		private final Window window;
+
+		Deadline(long time, Window window) {
+			this.time = time;
+			this.window = window;
+		}
+
+		@Override
+		public int compareTo(Deadline other) {
+			return Long.compare(this.time, other.time);
+		}
+
+	}
+
+}
@@ -16,12 +16,12 @@
 
 package org.springframework.integration.channel;
 
-import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -100,8 +100,17 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 	private TimerFacade failureTimer;
 
+	private final Map<String, TimerFacade> exceptionTimers = new ConcurrentHashMap<>();
+
+	/**
+	 * True when a send requires no message history, conversion, interceptors or metrics,
+	 * so that it can go straight to {@link #doSend(Message, long)}.
+	 */
+	private volatile boolean plainSend = true;
+
 	public AbstractMessageChannel() {
 		this.interceptors = new ChannelInterceptorList(logger);
+		this.interceptors.changeCallback = this::updateSendPath;
 	}
 
 	@Override
@@ -112,6 +121,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	@Override
 	public void setShouldTrack(boolean shouldTrack) {
 		this.shouldTrack = shouldTrack;
+		updateSendPath();
 	}
 
 	@Override
@@ -132,6 +142,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			this.statsEnabled = false;
 			this.managementOverrides.statsConfigured = true;
 		}
+		updateSendPath();
 	}
 
 	@Override
@@ -148,6 +159,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		this.statsEnabled = statsEnabled;
 		this.channelMetrics.setFullStatsEnabled(statsEnabled);
 		this.managementOverrides.statsConfigured = true;
+		updateSendPath();
 	}
 
 	@Override
@@ -190,6 +202,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public void setDatatypes(Class<?>... datatypes) {
 		this.datatypes = (datatypes != null && datatypes.length > 0)
 				? datatypes : new Class<?>[0];
+		updateSendPath();
 	}
 
 	/**
@@ -419,18 +432,33 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 	public boolean send(Message<?> messageArg, long timeout) {
 		Assert.notNull(messageArg, "message must not be null");
 		Assert.notNull(messageArg.getPayload(), "message payload must not be null");
+		if (this.plainSend && !(this.loggingEnabled && logger.isDebugEnabled())) {
+			try {
+				return doSend(messageArg, timeout);
+			}
+			catch (Exception ex) {
+				throw IntegrationUtils.wrapInDeliveryExceptionIfNecessary(messageArg,
+						() -> "failed to send Message to channel '" + this.getComponentName() + "'", ex);
+			}
+		}
+		return sendAndProcess(messageArg, timeout);
+	}
+
+	private boolean sendAndProcess(Message<?> messageArg, long timeout) { // NOSONAR complexity
 		Message<?> message = messageArg;
 		if (this.shouldTrack) {
 			message = MessageHistory.write(message, this, getMessageBuilderFactory());
 		}
 
-		Deque<ChannelInterceptor> interceptorStack = null;
+		ChannelInterceptorList interceptorList = this.interceptors;
+		ChannelInterceptor[] interceptorArray = interceptorList.interceptorArray;
+		int appliedInterceptors = 0;
 		boolean sent = false;
 		boolean metricsProcessed = false;
 		org.springframework.integration.support.management.MetricsContext metricsContext = null;
 		boolean countsAreEnabled = this.countsEnabled;
-		ChannelInterceptorList interceptorList = this.interceptors;
 		AbstractMessageChannelMetrics metrics = this.channelMetrics;
+		MetricsCaptor captor = this.metricsCaptor;
 		SampleFacade sample = null;
 		try {
 			message = convertPayloadIfNecessary(message);
@@ -438,17 +466,23 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			if (debugEnabled) {
 				logger.debug("preSend on channel '" + this + "', message: " + message);
 			}
-			if (interceptorList.getSize() > 0) {
-				interceptorStack = new ArrayDeque<>();
-				message = interceptorList.preSend(message, this, interceptorStack);
+			for (; appliedInterceptors < interceptorArray.length; appliedInterceptors++) {
+				Message<?> previous = message;
+				message = interceptorArray[appliedInterceptors].preSend(message, this);
 				if (message == null) {
+					if (logger.isDebugEnabled()) {
+						logger.debug(interceptorArray[appliedInterceptors].getClass().getSimpleName()
+								+ " returned null from preSend, i.e. precluding the send.");
+					}
+					interceptorList.afterSendCompletion(previous, this, false, null,
+							interceptorArray, appliedInterceptors);
 					return false;
 				}
 			}
 			if (countsAreEnabled) {
 				metricsContext = metrics.beforeSend();
-				if (this.metricsCaptor != null) {
-					sample = this.metricsCaptor.start();
+				if (captor != null) {
+					sample = captor.start();
 				}
 				sent = doSend(message, timeout);
 				if (sample != null) {
@@ -464,27 +498,38 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			if (debugEnabled) {
 				logger.debug("postSend (sent=" + sent + ") on channel '" + this + "', message: " + message);
 			}
-			if (interceptorStack != null) {
-				interceptorList.postSend(message, this, sent);
-				interceptorList.afterSendCompletion(message, this, sent, null, interceptorStack);
+			if (interceptorArray.length > 0) {
+				for (ChannelInterceptor interceptor : interceptorArray) {
+					interceptor.postSend(message, this, sent);
+				}
+				interceptorList.afterSendCompletion(message, this, sent, null,
+						interceptorArray, appliedInterceptors);
 			}
 			return sent;
 		}
 		catch (Exception ex) {
 			if (countsAreEnabled && !metricsProcessed) {
 				if (sample != null) {
-					sample.stop(buildSendTimer(false, ex.getClass().getSimpleName()));
+					sample.stop(failureTimer(ex));
 				}
 				metrics.afterSend(metricsContext, false);
 			}
-			if (interceptorStack != null) {
-				interceptorList.afterSendCompletion(message, this, sent, ex, interceptorStack);
+			if (interceptorArray.length > 0) {
+				interceptorList.afterSendCompletion(message, this, sent, ex, interceptorArray, appliedInterceptors);
 			}
 			throw IntegrationUtils.wrapInDeliveryExceptionIfNecessary(message,
 					() -> "failed to send Message to channel '" + this.getComponentName() + "'", ex);
 		}
 	}
 
+	private void updateSendPath() {
+		this.plainSend =
+				!this.shouldTrack
+						&& !this.countsEnabled
+						&& this.datatypes.length == 0
+						&& this.interceptors.getSize() == 0;
+	}
+
 	private TimerFacade sendTimer(boolean sent) {
 		if (sent) {
 			if (this.successTimer == null) {
@@ -500,6 +545,11 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		}
 	}
 
+	private TimerFacade failureTimer(Exception ex) {
+		return this.exceptionTimers.computeIfAbsent(ex.getClass().getSimpleName(),
+				exception -> buildSendTimer(false, exception));
+	}
+
 	private TimerFacade buildSendTimer(boolean success, String exception) {
 		TimerFacade timer = this.metricsCaptor.timerBuilder(SEND_TIMER_NAME)
 				.tag("type", "channel")
@@ -576,6 +626,14 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 		private int size;
 
+		/**
+		 * A snapshot of the interceptors for the send path, which iterates it by index
+		 * instead of allocating an iterator and an interceptor stack for each message.
+		 */
+		private volatile ChannelInterceptor[] interceptorArray = new ChannelInterceptor[0];
+
+		private Runnable changeCallback;
+
 		public ChannelInterceptorList(Log logger) {
 			this.logger = logger;
 		}
@@ -584,7 +642,9 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			synchronized (this.interceptors) {
 				this.interceptors.clear();
 				this.size = interceptors.size();
-				return this.interceptors.addAll(interceptors);
+				boolean changed = this.interceptors.addAll(interceptors);
+				interceptorsChanged();
+				return changed;
 			}
 		}
 
@@ -594,12 +654,22 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 		public boolean add(ChannelInterceptor interceptor) {
 			this.size++;
-			return this.interceptors.add(interceptor);
+			boolean added = this.interceptors.add(interceptor);
+			interceptorsChanged();
+			return added;
 		}
 
 		public void add(int index, ChannelInterceptor interceptor) {
 			this.size++;
 			this.interceptors.add(index, interceptor);
+			interceptorsChanged();
+		}
+
+		private void interceptorsChanged() {
+			this.interceptorArray = this.interceptors.toArray(new ChannelInterceptor[0]);
+			if (this.changeCallback != null) {
+				this.changeCallback.run();
+			}
 		}
 
 		@Nullable
@@ -647,6 +717,31 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			}
 		}
 
+		/**
+		 * Invoke {@link ChannelInterceptor#afterSendCompletion} on the first
+		 * {@code applied} interceptors of the provided snapshot, in reverse order.
+		 * @param message the message.
+		 * @param channel the channel.
+		 * @param sent whether the message has been sent.
+		 * @param ex the exception, if any.
+		 * @param interceptorSnapshot the interceptors the send operation started with.
+		 * @param applied the number of interceptors whose {@code preSend} has been applied.
+		 * @since 5.2
+		 */
+		void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent,
+				@Nullable Exception ex, ChannelInterceptor[] interceptorSnapshot, int applied) {
+
+			for (int i = applied - 1; i >= 0; i--) {
+				ChannelInterceptor interceptor = interceptorSnapshot[i];
+				try {
+					interceptor.afterSendCompletion(message, channel, sent, ex);
+				}
+				catch (Exception ex2) {
+					this.logger.error("Exception from afterSendCompletion in " + interceptor, ex2);
+				}
+			}
+		}
+
 		public boolean preReceive(MessageChannel channel, Deque<ChannelInterceptor> interceptorStack) {
 			if (this.size > 0) {
 				for (ChannelInterceptor interceptor : this.interceptors) {
@@ -697,6 +792,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		public boolean remove(ChannelInterceptor interceptor) {
 			if (this.interceptors.remove(interceptor)) {
 				this.size--;
+				interceptorsChanged();
 				return true;
 			}
 			else {
@@ -709,6 +805,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			ChannelInterceptor removed = this.interceptors.remove(index);
 			if (removed != null) {
 				this.size--;
+				interceptorsChanged();
 			}
 			return removed;
 		}
@@ -17,6 +17,8 @@
 package org.springframework.integration.channel;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 
@@ -28,6 +30,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.util.Assert;
 
 /**
  * Base class for all pollable channels.
@@ -139,6 +142,102 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 		}
 	}
 
+	/**
+	 * Receive up to {@code maxMessages} available messages from this channel in one
+	 * operation. If the channel contains no messages, this method will block until the
+	 * first message arrives or the allotted timeout elapses; the remaining messages
+	 * are only taken if they are immediately available. The timeout semantics are the
+	 * same as for {@link #receive(long)}.
+	 * <p>
+	 * The {@link ChannelInterceptor#preReceive} callbacks are invoked once for the
+	 * whole batch, whereas {@link ChannelInterceptor#postReceive} and
+	 * {@link ChannelInterceptor#afterReceiveCompletion} are invoked for each received
+	 * message; a message for which a {@code postReceive} returns {@code null} or throws
+	 * an exception is not included in the result (the exception is logged, or thrown if
+	 * no message of the batch is left).
+	 * @param maxMessages the maximum number of messages to receive.
+	 * @param timeout the timeout in milliseconds.
+	 * @return the received messages; an empty list if no message is available within
+	 * the allotted time or the receiving thread is interrupted.
+	 * @since 5.2
+	 */
+	public List<Message<?>> receive(int maxMessages, long timeout) { // NOSONAR complexity
+		Assert.isTrue(maxMessages > 0, "'maxMessages' must be greater than 0");
+		ChannelInterceptorList interceptorList = getIChannelInterceptorList();
+		Deque<ChannelInterceptor> interceptorStack = null;
+		boolean counted = false;
+		boolean countsEnabled = isCountsEnabled();
+		List<Message<?>> result;
+		RuntimeException postReceiveFailure = null;
+		try {
+			if (isLoggingEnabled() && logger.isTraceEnabled()) {
+				logger.trace("preReceive on channel '" + this + "'");
+			}
+			if (interceptorList.getSize() > 0) {
+				interceptorStack = new ArrayDeque<>();
+
+				if (!interceptorList.preReceive(this, interceptorStack)) {
+					return Collections.emptyList();
+				}
+			}
+			List<Message<?>> messages = doReceive(maxMessages, timeout);
+			if (messages.isEmpty()) {
+				interceptorList.afterReceiveCompletion(null, this, null, interceptorStack);
+				return messages;
+			}
+			if (countsEnabled) {
+				for (int i = 0; i < messages.size(); i++) {
+					incrementReceiveCounter();
+					getMetrics().afterReceive();
+				}
+				counted = true;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("postReceive on channel '" + this + "', messages: " + messages);
+			}
+			result = messages;
+			if (interceptorStack != null) {
+				result = new ArrayList<>(messages.size());
+				for (Message<?> message : messages) {
+					try {
+						Message<?> intercepted = interceptorList.postReceive(message, this);
+						interceptorList.afterReceiveCompletion(intercepted, this, null, interceptorStack);
+						if (intercepted != null) {
+							result.add(intercepted);
+						}
+					}
+					catch (RuntimeException ex) {
+						if (countsEnabled) {
+							incrementReceiveErrorCounter(ex);
+						}
+						interceptorList.afterReceiveCompletion(message, this, ex, interceptorStack);
+						if (postReceiveFailure == null) {
+							postReceiveFailure = ex;
+						}
+						else {
+							postReceiveFailure.addSuppressed(ex);
+						}
+					}
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			if (countsEnabled && !counted) {
+				incrementReceiveErrorCounter(ex);
+			}
+			interceptorList.afterReceiveCompletion(null, this, ex, interceptorStack);
+			throw ex;
+		}
+		if (postReceiveFailure != null) {
+			if (result.isEmpty()) {
+				throw postReceiveFailure;
+			}
+			logger.error("postReceive failed for some messages of the batch on channel '" + this
+					+ "'; returning the other messages", postReceiveFailure);
+		}
+		return result;
+	}
+
 	private void incrementReceiveCounter() {
 		MetricsCaptor metricsCaptor = getMetricsCaptor();
 		if (metricsCaptor != null) {
@@ -232,4 +331,29 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 	@Nullable
 	protected abstract Message<?> doReceive(long timeout);
 
+	/**
+	 * Receive up to {@code maxMessages} messages, waiting for the first one according
+	 * to the same timeout semantics as {@link #doReceive(long)}. The default
+	 * implementation calls {@link #doReceive(long)} for the first message and then
+	 * {@code doReceive(0)} until {@code maxMessages} is reached or no message is
+	 * immediately available; subclasses should override it to take the whole batch
+	 * from the underlying store in a single operation.
+	 * @param maxMessages the maximum number of messages to receive.
+	 * @param timeout The timeout.
+	 * @return the messages; never null.
+	 * @since 5.2
+	 */
+	protected List<Message<?>> doReceive(int maxMessages, long timeout) {
+		List<Message<?>> messages = new ArrayList<>();
+		Message<?> message = doReceive(timeout);
+		while (message != null) {
+			messages.add(message);
+			if (messages.size() >= maxMessages) {
+				break;
+			}
+			message = doReceive(0);
+		}
+		return messages;
+	}
+
 }
@@ -19,21 +19,37 @@ package org.springframework.integration.channel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 
+import org.springframework.integration.support.management.metrics.GaugeFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.util.Assert;
 
 import reactor.core.publisher.ConnectableFlux;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
+import reactor.util.concurrent.Queues;
 
 /**
  * The {@link AbstractMessageChannel} implementation for the
  * Reactive Streams {@link Publisher} based on the Project Reactor {@link Flux}.
+ * <p>
+ * By default, sent messages are pushed to the subscribers regardless of their demand.
+ * Since version 5.2, the channel can be created with a bounded buffer instead:
+ * messages are then only emitted as requested by the subscribers and the
+ * {@link OverflowStrategy} determines what happens to a message sent while the buffer
+ * is full. Each subscriber requests messages in batches of the configured
+ * {@code prefetch} size.
  *
  * @author Artem Bilan
  * @author Gary Russell
@@ -43,12 +59,28 @@ import reactor.core.publisher.FluxSink;
 public class FluxMessageChannel extends AbstractMessageChannel
 		implements Publisher<Message<?>>, ReactiveStreamsSubscribableChannel {
 
+	private static final String BUFFER_SIZE_NAME = "spring.integration.channel.buffer.size";
+
+	private static final String BUFFER_DROPPED_NAME = "spring.integration.channel.buffer.dropped";
+
 	private final List<Subscriber<? super Message<?>>> subscribers = new ArrayList<>();
 
 	private final Map<Publisher<Message<?>>, ConnectableFlux<?>> publishers = new ConcurrentHashMap<>();
 
 	private final Flux<Message<?>> flux;
 
+	private final BlockingQueue<Message<?>> buffer;
+
+	private final OverflowStrategy overflowStrategy;
+
+	private final int prefetch;
+
+	private final AtomicInteger wip = new AtomicInteger();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final List<GaugeFacade> gauges = new ArrayList<>();
+
 	private FluxSink<Message<?>> sink;
 
 	public FluxMessageChannel() {
@@ -56,21 +88,176 @@ public class FluxMessageChannel extends AbstractMessageChannel
 				Flux.<Message<?>>create(emitter -> this.sink = emitter, FluxSink.OverflowStrategy.IGNORE)
 						.publish()
 						.autoConnect();
+		this.buffer = null;
+		this.overflowStrategy = null;
+		this.prefetch = 0;
+	}
+
+	/**
+	 * Create a channel which holds up to {@code bufferSize} messages until they are
+	 * requested by the subscribers, with a default {@code prefetch} of
+	 * {@link Queues#SMALL_BUFFER_SIZE}.
+	 * @param bufferSize the buffer size.
+	 * @param overflowStrategy the strategy to apply when the buffer is full.
+	 * @since 5.2
+	 */
+	public FluxMessageChannel(int bufferSize, OverflowStrategy overflowStrategy) {
+		this(bufferSize, overflowStrategy, Queues.SMALL_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a channel which holds up to {@code bufferSize} messages until they are
+	 * requested by the subscribers, which request them in batches of {@code prefetch}.
+	 * Up to {@code prefetch} more messages may be in flight between the buffer and the
+	 * subscribers.
+	 * @param bufferSize the buffer size.
+	 * @param overflowStrategy the strategy to apply when the buffer is full.
+	 * @param prefetch the number of messages requested at once by each subscriber.
+	 * @since 5.2
+	 */
+	public FluxMessageChannel(int bufferSize, OverflowStrategy overflowStrategy, int prefetch) {
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be greater than 0");
+		Assert.notNull(overflowStrategy, "'overflowStrategy' must not be null");
+		Assert.isTrue(prefetch > 0, "'prefetch' must be greater than 0");
+		this.buffer = new ArrayBlockingQueue<>(bufferSize);
+		this.overflowStrategy = overflowStrategy;
+		this.prefetch = prefetch;
+		this.flux =
+				Flux.<Message<?>>create(emitter -> {
+					this.sink = emitter;
+					emitter.onRequest(n -> drain());
+				}, FluxSink.OverflowStrategy.ERROR)
+						.publish(prefetch)
+						.autoConnect();
+	}
+
+	/**
+	 * Return the number of messages waiting in the buffer for the subscribers' demand;
+	 * always 0 when the channel has no buffer.
+	 * @return the number of buffered messages.
+	 * @since 5.2
+	 */
+	public int getBufferedCount() {
+		return this.buffer != null ? this.buffer.size() : 0;
+	}
+
+	/**
+	 * Return the number of messages dropped because the buffer was full.
+	 * @return the number of dropped messages.
+	 * @since 5.2
+	 */
+	public long getDroppedCount() {
+		return this.dropped.get();
+	}
+
+	@Override
+	public void registerMetricsCaptor(MetricsCaptor metricsCaptor) {
+		super.registerMetricsCaptor(metricsCaptor);
+		if (this.buffer != null) {
+			String name = getComponentName() == null ? "unknown" : getComponentName();
+			this.gauges.add(metricsCaptor.gaugeBuilder(BUFFER_SIZE_NAME, this, (c) -> getBufferedCount())
+					.tag("name", name)
+					.description("The number of messages waiting in the buffer")
+					.build());
+			this.gauges.add(metricsCaptor.gaugeBuilder(BUFFER_DROPPED_NAME, this, (c) -> getDroppedCount())
+					.tag("name", name)
+					.description("The number of messages dropped because the buffer was full")
+					.build());
+		}
 	}
 
 	@Override
 	protected boolean doSend(Message<?> message, long timeout) {
 		Assert.state(this.subscribers.size() > 0,
 				() -> "The [" + this + "] doesn't have subscribers to accept messages");
-		this.sink.next(message);
-		return true;
+		if (this.buffer == null) {
+			this.sink.next(message);
+			return true;
+		}
+		boolean buffered = offer(message, timeout);
+		drain();
+		return buffered;
+	}
+
+	private boolean offer(Message<?> message, long timeout) {
+		if (this.buffer.offer(message)) {
+			return true;
+		}
+		switch (this.overflowStrategy) {
+			case BLOCK:
+				return offerAndWait(message, timeout);
+			case DROP_LATEST:
+				messageDropped(message);
+				return true;
+			case DROP_OLDEST:
+				do {
+					Message<?> oldest = this.buffer.poll();
+					if (oldest != null) {
+						messageDropped(oldest);
+					}
+				}
+				while (!this.buffer.offer(message));
+				return true;
+			default:
+				throw new MessageDeliveryException(message,
+						"The buffer of [" + this + "] is full (" + this.buffer.size() + " messages)");
+		}
+	}
+
+	private boolean offerAndWait(Message<?> message, long timeout) {
+		try {
+			if (timeout < 0) {
+				this.buffer.put(message);
+				return true;
+			}
+			return this.buffer.offer(message, timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void messageDropped(Message<?> message) {
+		this.dropped.incrementAndGet();
+		if (logger.isDebugEnabled()) {
+			logger.debug("The buffer of [" + this + "] is full; dropped " + message);
+		}
+	}
+
+	/*
+	 * Emit as many buffered messages as requested; only one thread at a time emits,
+	 * the others just make sure it loops once more.
+	 */
+	private void drain() {
+		if (this.wip.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		do {
+			FluxSink<Message<?>> emitter = this.sink;
+			if (emitter != null) {
+				long requested = emitter.requestedFromDownstream();
+				Message<?> message;
+				while (requested-- > 0 && (message = this.buffer.poll()) != null) {
+					emitter.next(message);
+				}
+			}
+			missed = this.wip.addAndGet(-missed);
+		}
+		while (missed != 0);
 	}
 
 	@Override
 	public void subscribe(Subscriber<? super Message<?>> subscriber) {
 		this.subscribers.add(subscriber);
 
-		this.flux.doOnCancel(() -> this.subscribers.remove(subscriber))
+		Flux<Message<?>> fluxToSubscribe = this.flux;
+		if (this.buffer != null) {
+			fluxToSubscribe = fluxToSubscribe.limitRate(this.prefetch);
+		}
+
+		fluxToSubscribe.doOnCancel(() -> this.subscribers.remove(subscriber))
 				.retry()
 				.subscribe(subscriber);
 
@@ -94,4 +281,40 @@ public class FluxMessageChannel extends AbstractMessageChannel
 		}
 	}
 
+	@Override
+	public void destroy() {
+		super.destroy();
+		this.gauges.forEach(GaugeFacade::remove);
+		this.gauges.clear();
+	}
+
+	/**
+	 * The strategy to apply when a message is sent while the buffer is full.
+	 * @since 5.2
+	 */
+	public enum OverflowStrategy {
+
+		/**
+		 * Wait for room in the buffer, up to the send timeout; the send returns
+		 * {@code false} if the timeout elapses.
+		 */
+		BLOCK,
+
+		/**
+		 * Drop the oldest buffered message to make room for the sent one.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * Drop the sent message.
+		 */
+		DROP_LATEST,
+
+		/**
+		 * Reject the sent message with a {@link MessageDeliveryException}.
+		 */
+		ERROR
+
+	}
+
 }
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.MessageDispatchingException;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.integration.dispatcher.LoadBalancingStrategy;
+import org.springframework.integration.dispatcher.PartitionedDispatcher;
+import org.springframework.integration.dispatcher.RoundRobinLoadBalancingStrategy;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.support.management.metrics.CounterFacade;
+import org.springframework.integration.support.management.metrics.MeterFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link AbstractExecutorChannel} that hashes a partition key of each message onto
+ * one of a fixed number of partitions, each of them served by a single dedicated thread.
+ * Messages with the same partition key are therefore handled in the order they were sent,
+ * while messages with different keys are handled concurrently.
+ * <p>
+ * The partition key is the {@link IntegrationMessageHeaderAccessor#CORRELATION_ID} header
+ * by default; it can be taken from another header, computed by a SpEL expression or
+ * by a {@link Function}. The message id is used when the key is {@code null}.
+ * <p>
+ * Each partition queue can be bounded, in which case {@link #send(Message, long)} blocks
+ * while the target partition is full, up to the provided timeout.
+ * <p>
+ * The partitions do not take work from each other, which would break the per-key
+ * ordering; a slow message delays the other keys of its partition.
+ *
+ * @since 5.2
+ *
+ * @see PartitionedDispatcher
+ */
+public class PartitionedChannel extends AbstractExecutorChannel {
+
+	private static final String PARTITION_QUEUE_SIZE_NAME = "spring.integration.channel.partition.queue.size";
+
+	private static final String PARTITION_HANDLED_NAME = "spring.integration.channel.partition.handled";
+
+	private final List<MeterFacade> meters = new ArrayList<>();
+
+	private Function<Message<?>, Object> partitionKeyFunction =
+			message -> message.getHeaders().get(IntegrationMessageHeaderAccessor.CORRELATION_ID);
+
+	private Expression partitionKeyExpression;
+
+	private EvaluationContext evaluationContext;
+
+	private ThreadFactory threadFactory;
+
+	/**
+	 * Create a channel with the provided number of partitions and unbounded
+	 * partition queues.
+	 * @param partitionCount the number of partitions.
+	 */
+	public PartitionedChannel(int partitionCount) {
+		this(partitionCount, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create a channel with the provided number of partitions, each of them able to hold up to
+	 * {@code capacity} messages waiting to be handled.
+	 * @param partitionCount the number of partitions.
+	 * @param capacity the capacity of each partition queue.
+	 */
+	public PartitionedChannel(int partitionCount, int capacity) {
+		super(null);
+		PartitionedDispatcher partitionedDispatcher =
+				new PartitionedDispatcher(partitionCount, capacity, this::partitionKey);
+		partitionedDispatcher.setLoadBalancingStrategy(new RoundRobinLoadBalancingStrategy());
+		this.dispatcher = partitionedDispatcher;
+	}
+
+	/**
+	 * Compute the partition key from the provided header.
+	 * @param headerName the header name.
+	 */
+	public void setPartitionKeyHeader(String headerName) {
+		Assert.hasText(headerName, "'headerName' must not be empty");
+		setPartitionKeyFunction(message -> message.getHeaders().get(headerName));
+	}
+
+	/**
+	 * Compute the partition key with a SpEL expression evaluated against the message.
+	 * @param partitionKeyExpression the expression.
+	 */
+	public void setPartitionKeyExpression(Expression partitionKeyExpression) {
+		Assert.notNull(partitionKeyExpression, "'partitionKeyExpression' must not be null");
+		this.partitionKeyExpression = partitionKeyExpression;
+	}
+
+	/**
+	 * Compute the partition key with a {@link Function}.
+	 * @param partitionKeyFunction the function.
+	 */
+	public void setPartitionKeyFunction(Function<Message<?>, Object> partitionKeyFunction) {
+		Assert.notNull(partitionKeyFunction, "'partitionKeyFunction' must not be null");
+		this.partitionKeyFunction = partitionKeyFunction;
+		this.partitionKeyExpression = null;
+	}
+
+	/**
+	 * Set the {@link ThreadFactory} for the partition threads.
+	 * Defaults to a factory creating daemon threads named after the channel.
+	 * @param threadFactory the factory.
+	 */
+	public void setThreadFactory(ThreadFactory threadFactory) {
+		Assert.notNull(threadFactory, "'threadFactory' must not be null");
+		this.threadFactory = threadFactory;
+		getDispatcher().setThreadFactory(threadFactory);
+	}
+
+	/**
+	 * Specify whether the handlers should be failed over within a partition.
+	 * By default, they are.
+	 * @param failover The failover boolean.
+	 */
+	public void setFailover(boolean failover) {
+		getDispatcher().setFailover(failover);
+	}
+
+	/**
+	 * Provide a {@link LoadBalancingStrategy} for the handlers within a partition.
+	 * Defaults to a {@link RoundRobinLoadBalancingStrategy}.
+	 * @param loadBalancingStrategy The load balancing strategy implementation.
+	 */
+	public void setLoadBalancingStrategy(@Nullable LoadBalancingStrategy loadBalancingStrategy) {
+		getDispatcher().setLoadBalancingStrategy(loadBalancingStrategy);
+	}
+
+	/**
+	 * Return the number of partitions.
+	 * @return the number of partitions.
+	 */
+	public int getPartitionCount() {
+		return getDispatcher().getPartitionCount();
+	}
+
+	/**
+	 * Return the number of messages waiting in the queue of the provided partition.
+	 * @param partition the partition index.
+	 * @return the queue size.
+	 */
+	public int getPartitionQueueSize(int partition) {
+		return getDispatcher().getPartitionQueueSize(partition);
+	}
+
+	/**
+	 * Return the number of messages handled by the provided partition.
+	 * @param partition the partition index.
+	 * @return the handled count.
+	 */
+	public long getPartitionHandledCount(int partition) {
+		return getDispatcher().getPartitionHandledCount(partition);
+	}
+
+	@Override
+	public String getComponentType() {
+		return "partitioned-channel";
+	}
+
+	@Override
+	protected PartitionedDispatcher getDispatcher() {
+		return (PartitionedDispatcher) this.dispatcher;
+	}
+
+	@Override
+	protected void onInit() {
+		super.onInit();
+		PartitionedDispatcher partitionedDispatcher = getDispatcher();
+		BeanFactory beanFactory = getBeanFactory();
+		if (beanFactory != null) {
+			partitionedDispatcher.setErrorHandler(ChannelUtils.getErrorHandler(beanFactory));
+		}
+		if (this.threadFactory == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(getComponentName() + "-partition-");
+			threadFactory.setDaemon(true);
+			partitionedDispatcher.setThreadFactory(threadFactory);
+		}
+		if (this.maxSubscribers == null) {
+			this.maxSubscribers =
+					getIntegrationProperty(IntegrationProperties.CHANNELS_MAX_UNICAST_SUBSCRIBERS, Integer.class);
+		}
+		partitionedDispatcher.setMaxSubscribers(this.maxSubscribers);
+		partitionedDispatcher.setMessageHandlingTaskDecorator(task -> {
+			if (PartitionedChannel.this.executorInterceptorsSize > 0) {
+				return new MessageHandlingTask(task);
+			}
+			else {
+				return task;
+			}
+		});
+		if (this.partitionKeyExpression != null) {
+			this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(beanFactory);
+		}
+	}
+
+	@Override
+	public void registerMetricsCaptor(MetricsCaptor metricsCaptor) {
+		super.registerMetricsCaptor(metricsCaptor);
+		String name = getComponentName() == null ? "unknown" : getComponentName();
+		for (int i = 0; i < getPartitionCount(); i++) {
+			int partition = i;
+			this.meters.add(metricsCaptor.gaugeBuilder(PARTITION_QUEUE_SIZE_NAME, this,
+					(c) -> getPartitionQueueSize(partition))
+					.tag("name", name)
+					.tag("partition", Integer.toString(partition))
+					.description("The number of messages waiting in the partition queue")
+					.build());
+			CounterFacade handledCounter = metricsCaptor.counterBuilder(PARTITION_HANDLED_NAME)
+					.tag("name", name)
+					.tag("partition", Integer.toString(partition))
+					.description("The number of messages handled by the partition")
+					.build();
+			this.meters.add(handledCounter);
+			getDispatcher().setPartitionHandledCounter(partition, handledCounter);
+		}
+	}
+
+	@Override
+	protected boolean doSend(Message<?> message, long timeout) {
+		try {
+			return getDispatcher().dispatch(message, timeout);
+		}
+		catch (MessageDispatchingException e) {
+			String description = e.getMessage() + " for channel '" + this.getFullChannelName() + "'.";
+			throw new MessageDeliveryException(message, description, e);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		super.destroy();
+		for (int i = 0; i < getPartitionCount(); i++) {
+			getDispatcher().setPartitionHandledCounter(i, null);
+		}
+		this.meters.forEach(MeterFacade::remove);
+		this.meters.clear();
+		getDispatcher().shutdown();
+	}
+
+	@Nullable
+	private Object partitionKey(Message<?> message) {
+		Expression expression = this.partitionKeyExpression;
+		if (expression != null) {
+			if (this.evaluationContext == null) {
+				this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
+			}
+			return expression.getValue(this.evaluationContext, message);
+		}
+		return this.partitionKeyFunction.apply(message);
+	}
+
+}
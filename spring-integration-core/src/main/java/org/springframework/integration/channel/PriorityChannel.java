@@ -17,12 +17,14 @@
 package org.springframework.integration.channel;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroupQueue;
 import org.springframework.integration.store.PriorityCapableChannelMessageStore;
+import org.springframework.integration.util.PriorityBucketQueue;
 import org.springframework.integration.util.UpperBound;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -43,7 +45,7 @@ public class PriorityChannel extends QueueChannel {
 
 	private final AtomicLong sequenceCounter = new AtomicLong();
 
-	private final boolean useMessageStore;
+	private final boolean wrapMessages;
 
 	/**
 	 * Create a channel with an unbounded queue. Message priority will be
@@ -88,7 +90,28 @@ public class PriorityChannel extends QueueChannel {
 	public PriorityChannel(int capacity, @Nullable Comparator<Message<?>> comparator) {
 		super(new PriorityBlockingQueue<>(11, new SequenceFallbackComparator(comparator)));
 		this.upperBound = new UpperBound(capacity);
-		this.useMessageStore = false;
+		this.wrapMessages = true;
+	}
+
+	/**
+	 * Create a channel with the specified queue capacity, backed by a
+	 * {@link PriorityBucketQueue} with one lock-free FIFO bucket per priority from
+	 * {@code 0} to {@code priorityBuckets - 1}, as determined by
+	 * {@link IntegrationMessageHeaderAccessor#getPriority()}. Sending and receiving are
+	 * O(1) and messages are never compared with each other, which makes this variant
+	 * better suited to high concurrency when the set of priorities is small and known.
+	 * Messages with a priority outside of that range are ordered with the fallback
+	 * {@link Comparator}, if provided, or otherwise go to the nearest bucket.
+	 * If the capacity is a non-positive value, the queue will be unbounded.
+	 * @param capacity The capacity.
+	 * @param priorityBuckets The number of priority buckets.
+	 * @param fallbackComparator The comparator for out of range priorities.
+	 * @since 5.2
+	 */
+	public PriorityChannel(int capacity, int priorityBuckets, @Nullable Comparator<Message<?>> fallbackComparator) {
+		super(new PriorityBucketQueue<>(priorityBuckets, PriorityChannel::priority, fallbackComparator));
+		this.upperBound = new UpperBound(capacity);
+		this.wrapMessages = false;
 	}
 
 	/**
@@ -110,7 +133,7 @@ public class PriorityChannel extends QueueChannel {
 	public PriorityChannel(MessageGroupQueue messageGroupQueue) {
 		super(messageGroupQueue);
 		this.upperBound = new UpperBound(0);
-		this.useMessageStore = true;
+		this.wrapMessages = false;
 	}
 
 	@Override
@@ -123,7 +146,7 @@ public class PriorityChannel extends QueueChannel {
 		if (!this.upperBound.tryAcquire(timeout)) {
 			return false;
 		}
-		if (!this.useMessageStore) {
+		if (this.wrapMessages) {
 			return super.doSend(new MessageWrapper(message), 0);
 		}
 		else {
@@ -135,7 +158,7 @@ public class PriorityChannel extends QueueChannel {
 	protected Message<?> doReceive(long timeout) {
 		Message<?> message = super.doReceive(timeout);
 		if (message != null) {
-			if (!this.useMessageStore) {
+			if (this.wrapMessages) {
 				message = ((MessageWrapper) message).getRootMessage();
 			}
 			this.upperBound.release();
@@ -143,6 +166,23 @@ public class PriorityChannel extends QueueChannel {
 		return message;
 	}
 
+	@Override
+	protected List<Message<?>> doReceive(int maxMessages, long timeout) {
+		List<Message<?>> messages = super.doReceive(maxMessages, timeout);
+		if (!messages.isEmpty()) {
+			if (this.wrapMessages) {
+				messages.replaceAll(message -> ((MessageWrapper) message).getRootMessage());
+			}
+			this.upperBound.release(messages.size());
+		}
+		return messages;
+	}
+
+	private static int priority(Message<?> message) {
+		Number priority = message.getHeaders().get(IntegrationMessageHeaderAccessor.PRIORITY, Number.class);
+		return priority != null ? priority.intValue() : 0;
+	}
+
 	private static final class SequenceFallbackComparator implements Comparator<Message<?>> {
 
 		private final Comparator<Message<?>> targetComparator;
@@ -158,18 +198,12 @@ public class PriorityChannel extends QueueChannel {
 				compareResult = this.targetComparator.compare(message1, message2);
 			}
 			else {
-				Integer priority1 = new IntegrationMessageHeaderAccessor(message1).getPriority();
-				Integer priority2 = new IntegrationMessageHeaderAccessor(message2).getPriority();
-
-				priority1 = priority1 != null ? priority1 : 0;
-				priority2 = priority2 != null ? priority2 : 0;
-				compareResult = priority2.compareTo(priority1);
+				compareResult = Integer.compare(priority(message2), priority(message1));
 			}
 
 			if (compareResult == 0) {
-				Long sequence1 = ((MessageWrapper) message1).getSequence();
-				Long sequence2 = ((MessageWrapper) message2).getSequence();
-				compareResult = sequence1.compareTo(sequence2);
+				compareResult = Long.compare(((MessageWrapper) message1).getSequence(),
+						((MessageWrapper) message2).getSequence());
 			}
 			return compareResult;
 		}
@@ -44,6 +44,8 @@ public class PublishSubscribeChannel extends AbstractExecutorChannel {
 
 	private int minSubscribers;
 
+	private int batchSize = 1;
+
 	/**
 	 * Create a PublishSubscribeChannel that will use an {@link Executor}
 	 * to invoke the handlers. If this is null, each invocation will occur in
@@ -124,6 +126,22 @@ public class PublishSubscribeChannel extends AbstractExecutorChannel {
 		getDispatcher().setMinSubscribers(minSubscribers);
 	}
 
+	/**
+	 * Set the maximum number of messages handled by a single Executor task for each
+	 * subscriber. With a value greater than 1, the messages are queued per subscriber
+	 * and handed over to it in runs of up to this number per task, which greatly
+	 * reduces the number of tasks submitted to the Executor when sending at a high
+	 * rate to many subscribers, while preserving the order for each subscriber.
+	 * Only applies when an Executor is provided. Default: 1.
+	 * @param batchSize the maximum number of messages per task.
+	 * @since 5.2
+	 * @see BroadcastingDispatcher#setBatchSize(int)
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+		getDispatcher().setBatchSize(batchSize);
+	}
+
 	/**
 	 * Callback method for initialization.
 	 */
@@ -146,6 +164,7 @@ public class PublishSubscribeChannel extends AbstractExecutorChannel {
 			dispatcherToUse.setIgnoreFailures(this.ignoreFailures);
 			dispatcherToUse.setApplySequence(this.applySequence);
 			dispatcherToUse.setMinSubscribers(this.minSubscribers);
+			dispatcherToUse.setBatchSize(this.batchSize);
 			this.dispatcher = dispatcherToUse;
 		}
 		else if (this.errorHandler != null) {
@@ -25,6 +25,7 @@ import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.integration.core.MessageSelector;
+import org.springframework.integration.store.MessageGroupQueue;
 import org.springframework.integration.support.management.QueueChannelManagement;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -111,6 +112,49 @@ public class QueueChannel extends AbstractPollableChannel implements QueueChanne
 
 	@Override
 	protected Message<?> doReceive(long timeout) {
+		return pollQueue(timeout);
+	}
+
+	/**
+	 * Receive up to {@code maxMessages} messages from the underlying queue: the first one
+	 * according to the provided timeout, the rest via a single
+	 * {@link BlockingQueue#drainTo(java.util.Collection, int)} call. A
+	 * {@link MessageGroupQueue} is drained with one store lock acquisition for the whole batch.
+	 * @param maxMessages the maximum number of messages to receive.
+	 * @param timeout The timeout.
+	 * @return the messages.
+	 * @since 5.2
+	 */
+	@Override
+	protected List<Message<?>> doReceive(int maxMessages, long timeout) {
+		if (this.queue instanceof MessageGroupQueue) {
+			List<Message<?>> messages = new ArrayList<>();
+			try {
+				((MessageGroupQueue) this.queue).drainTo(messages, maxMessages, timeout, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return messages;
+		}
+		else if (this.queue instanceof BlockingQueue) {
+			List<Message<?>> messages = new ArrayList<>();
+			Message<?> message = pollQueue(timeout);
+			if (message != null) {
+				messages.add(message);
+				if (maxMessages > 1) {
+					((BlockingQueue<Message<?>>) this.queue).drainTo(messages, maxMessages - 1);
+				}
+			}
+			return messages;
+		}
+		else {
+			return super.doReceive(maxMessages, timeout);
+		}
+	}
+
+	@Nullable
+	private Message<?> pollQueue(long timeout) {
 		try {
 			if (timeout > 0) {
 				if (this.queue instanceof BlockingQueue) {
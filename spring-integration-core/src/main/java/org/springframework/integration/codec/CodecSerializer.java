@@ -0,0 +1,306 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.codec.kryo.MessageCodec;
+import org.springframework.integration.codec.kryo.MessageKryoRegistrar;
+import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.StreamUtils;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/**
+ * A {@link Serializer} and {@link Deserializer} delegating to a {@link Codec}, for the
+ * persistent message stores, for example a {@code JdbcMessageStore}
+ * ({@code setSerializer()} and {@code setDeserializer()}), instead of the Java
+ * serialization.
+ * <p>
+ * The data is written in a versioned format: a magic number, the format version, flags,
+ * the class name of the object and the data encoded by the {@link Codec}, compressed
+ * when it is larger than the compression threshold (when set).
+ * The data without the magic number, such as the data written by the Java serialization
+ * before this serializer was configured, is read by the legacy {@link Deserializer}
+ * (Java deserialization with the {@link #addWhiteListPatterns(String...) white list} by
+ * default), so the existing data stays readable.
+ * <p>
+ * The {@link #addWhiteListPatterns(String...) white list} is also checked for the class
+ * of each decoded object before it is decoded and, with the default codec, for all the
+ * classes which Kryo loads by name while decoding it.
+ *
+ * @param <T> the type of the serialized objects; {@code Message<?>} for the message
+ * stores and {@code Object} when other objects (such as the group metadata) are stored too.
+ *
+ * @since 5.2
+ */
+public class CodecSerializer<T> implements Serializer<T>, Deserializer<T> {
+
+	private static final byte[] MAGIC = { 'S', 'I', 'C', 'S' };
+
+	private static final int VERSION = 1;
+
+	private static final int FLAG_COMPRESSED = 0x01;
+
+	private final Codec codec;
+
+	private final Map<String, Class<?>> types = new ConcurrentHashMap<>();
+
+	private final Set<String> whiteListPatterns = new CopyOnWriteArraySet<>();
+
+	private final WhiteListDeserializingConverter whiteListDeserializingConverter =
+			new WhiteListDeserializingConverter();
+
+	private Deserializer<?> legacyDeserializer;
+
+	private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+	private int compressionThreshold = -1;
+
+	private int compressionLevel = Deflater.BEST_SPEED;
+
+	/**
+	 * Construct an instance delegating to a Kryo {@link MessageCodec} preserving the
+	 * message ids and timestamps; requires Kryo on the class path.
+	 * @see MessageKryoRegistrar#setPreserveIdAndTimestamp(boolean)
+	 */
+	public CodecSerializer() {
+		this.codec = new MessageCodec(idPreservingRegistrar()) {
+
+			@Override
+			protected void configureKryoInstance(Kryo kryo) {
+				super.configureKryoInstance(kryo);
+				kryo.setClassLoader(new WhiteListClassLoader());
+			}
+
+		};
+	}
+
+	/**
+	 * Construct an instance delegating to the provided {@link Codec}; a Kryo
+	 * {@link MessageCodec} must be configured to preserve the message ids and timestamps,
+	 * for the message stores.
+	 * @param codec the codec.
+	 */
+	public CodecSerializer(Codec codec) {
+		Assert.notNull(codec, "'codec' must not be null");
+		this.codec = codec;
+	}
+
+	private static MessageKryoRegistrar idPreservingRegistrar() {
+		MessageKryoRegistrar registrar = new MessageKryoRegistrar();
+		registrar.setPreserveIdAndTimestamp(true);
+		return registrar;
+	}
+
+	/**
+	 * Set the size, in bytes, above which the encoded data is compressed (with
+	 * {@link Deflater}); the compressed data is only kept when it is smaller.
+	 * Default -1: no compression.
+	 * @param compressionThreshold the threshold.
+	 */
+	public void setCompressionThreshold(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	/**
+	 * Set the {@link Deflater} compression level, trading the compression ratio for the
+	 * speed. Default {@link Deflater#BEST_SPEED}.
+	 * @param compressionLevel the level (0-9).
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		Assert.isTrue(compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION,
+				"'compressionLevel' must be in [0, 9]");
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Set the {@link Deserializer} for the data not written by this serializer.
+	 * Defaults to the Java deserialization, checking the
+	 * {@link #addWhiteListPatterns(String...) white list}.
+	 * @param legacyDeserializer the deserializer.
+	 */
+	public void setLegacyDeserializer(Deserializer<?> legacyDeserializer) {
+		Assert.notNull(legacyDeserializer, "'legacyDeserializer' must not be null");
+		this.legacyDeserializer = legacyDeserializer;
+	}
+
+	/**
+	 * Add patterns for packages/classes that are allowed to be deserialized: by the
+	 * codec (the class of each object and, with the default codec, the classes Kryo
+	 * loads by name) and by the default legacy (Java) deserialization. A class can be
+	 * fully qualified or a wildcard '*' is allowed at the beginning or end of the class
+	 * name. Examples: {@code com.foo.*}, {@code *.MyClass}.
+	 * All the classes are allowed when no pattern is added.
+	 * @param patterns the patterns.
+	 */
+	public void addWhiteListPatterns(String... patterns) {
+		Assert.notNull(patterns, "'patterns' must not be null");
+		this.whiteListDeserializingConverter.addWhiteListPatterns(patterns);
+		for (String pattern : patterns) {
+			this.whiteListPatterns.add(pattern);
+		}
+	}
+
+	/**
+	 * Set the {@link ClassLoader} to load the classes of the decoded objects.
+	 * @param classLoader the class loader.
+	 */
+	public void setClassLoader(ClassLoader classLoader) {
+		Assert.notNull(classLoader, "'classLoader' must not be null");
+		this.classLoader = classLoader;
+	}
+
+	@Override
+	public void serialize(T object, OutputStream outputStream) throws IOException {
+		Assert.notNull(object, "'object' must not be null");
+		byte[] data = this.codec.encode(object);
+		int flags = 0;
+		if (this.compressionThreshold >= 0 && data.length > this.compressionThreshold) {
+			byte[] compressed = compress(data);
+			if (compressed.length < data.length) {
+				data = compressed;
+				flags |= FLAG_COMPRESSED;
+			}
+		}
+		DataOutputStream dataOutput = new DataOutputStream(outputStream);
+		dataOutput.write(MAGIC);
+		dataOutput.writeByte(VERSION);
+		dataOutput.writeByte(flags);
+		dataOutput.writeUTF(object.getClass().getName());
+		dataOutput.write(data);
+		dataOutput.flush();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T deserialize(InputStream inputStream) throws IOException {
+		byte[] bytes = StreamUtils.copyToByteArray(inputStream);
+		if (!hasMagic(bytes)) {
+			if (this.legacyDeserializer != null) {
+				return (T) this.legacyDeserializer.deserialize(new ByteArrayInputStream(bytes));
+			}
+			else {
+				return (T) this.whiteListDeserializingConverter.convert(bytes);
+			}
+		}
+		DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(bytes));
+		dataInput.skipBytes(MAGIC.length);
+		int version = dataInput.readUnsignedByte();
+		if (version > VERSION) {
+			throw new IOException("Unsupported format version " + version + "; the highest supported is " + VERSION);
+		}
+		int flags = dataInput.readUnsignedByte();
+		Class<?> type = resolveType(dataInput.readUTF());
+		InputStream data = dataInput;
+		if ((flags & FLAG_COMPRESSED) != 0) {
+			data = new InflaterInputStream(dataInput);
+		}
+		return (T) this.codec.decode(StreamUtils.copyToByteArray(data), type);
+	}
+
+	private byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2);
+		Deflater deflater = new Deflater(this.compressionLevel);
+		try (DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(bytes, deflater)) {
+			deflaterOutput.write(data);
+		}
+		finally {
+			deflater.end();
+		}
+		return bytes.toByteArray();
+	}
+
+	private static boolean hasMagic(byte[] bytes) {
+		if (bytes.length < MAGIC.length) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (bytes[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Class<?> resolveType(String className) throws IOException {
+		Class<?> type = this.types.get(className);
+		if (type == null) {
+			try {
+				type = loadWhiteListed(className);
+			}
+			catch (ClassNotFoundException | LinkageError e) {
+				throw new IOException("Failed to load the class of the encoded object: " + className, e);
+			}
+			this.types.put(className, type);
+		}
+		return type;
+	}
+
+	/*
+	 * Load the class without initializing it and check it against the white list, like
+	 * the WhiteListDeserializingConverter does.
+	 */
+	private Class<?> loadWhiteListed(String className) throws ClassNotFoundException {
+		Class<?> type = ClassUtils.forName(className, this.classLoader);
+		if (this.whiteListPatterns.isEmpty() || type.isArray() || type.isPrimitive() || type.equals(String.class)
+				|| Number.class.isAssignableFrom(type)) {
+			return type;
+		}
+		for (String pattern : this.whiteListPatterns) {
+			if (PatternMatchUtils.simpleMatch(pattern, className)) {
+				return type;
+			}
+		}
+		throw new SecurityException("Attempt to deserialize unauthorized " + type);
+	}
+
+	/**
+	 * Loads the classes which Kryo resolves by name with the white list check.
+	 */
+	private final class WhiteListClassLoader extends ClassLoader {
+
+		WhiteListClassLoader() {
+			super(null);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			return loadWhiteListed(name);
+		}
+
+	}
+
+}
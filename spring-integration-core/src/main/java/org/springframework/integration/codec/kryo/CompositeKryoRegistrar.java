@@ -22,6 +22,7 @@ import java.util.List;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Registration;
 
 /**
@@ -42,6 +43,19 @@ public class CompositeKryoRegistrar extends AbstractKryoRegistrar {
 		}
 	}
 
+	/**
+	 * Register the types with each delegate, so they can also configure the Kryo
+	 * instance beyond their registrations.
+	 * @param kryo the Kryo instance.
+	 * @since 5.2
+	 */
+	@Override
+	public void registerTypes(Kryo kryo) {
+		for (KryoRegistrar registrar : this.delegates) {
+			registrar.registerTypes(kryo);
+		}
+	}
+
 	@Override
 	public final List<Registration> getRegistrations() {
 		List<Registration> registrations = new ArrayList<Registration>();
@@ -16,6 +16,9 @@
 
 package org.springframework.integration.codec.kryo;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * {@link PojoCodec} configured to encode/decode {@code Message<?>}s.
  * @author Gary Russell
@@ -41,4 +44,26 @@ public class MessageCodec extends PojoCodec {
 		super(registrar);
 	}
 
+	/**
+	 * Construct an instance using a custom registrar for message headers, and the provided
+	 * registrars for the header value and payload types (such as a
+	 * {@link KryoClassListRegistrar}), so only their registration ids are written instead
+	 * of their class names.
+	 * @param registrar the registrar.
+	 * @param typeRegistrars the registrars for the header value and payload types.
+	 * @since 5.2
+	 */
+	public MessageCodec(MessageKryoRegistrar registrar, List<KryoRegistrar> typeRegistrars) {
+		super(messageRegistrars(registrar, typeRegistrars));
+	}
+
+	private static List<KryoRegistrar> messageRegistrars(MessageKryoRegistrar registrar,
+			List<KryoRegistrar> typeRegistrars) {
+
+		List<KryoRegistrar> registrars = new ArrayList<>();
+		registrars.add(registrar);
+		registrars.addAll(typeRegistrars);
+		return registrars;
+	}
+
 }
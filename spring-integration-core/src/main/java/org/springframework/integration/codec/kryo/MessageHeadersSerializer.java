@@ -18,7 +18,9 @@ package org.springframework.integration.codec.kryo;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
+import org.springframework.integration.support.PersistentMessageHeaders;
 import org.springframework.messaging.MessageHeaders;
 
 import com.esotericsoftware.kryo.Kryo;
@@ -32,6 +34,17 @@ import com.esotericsoftware.kryo.io.Output;
  * @since 4.2
  */
 class MessageHeadersSerializer extends Serializer<MessageHeaders> {
+
+	private final boolean preserveIdAndTimestamp;
+
+	MessageHeadersSerializer() {
+		this(false);
+	}
+
+	MessageHeadersSerializer(boolean preserveIdAndTimestamp) {
+		this.preserveIdAndTimestamp = preserveIdAndTimestamp;
+	}
+
 	@Override
 	public void write(Kryo kryo, Output output, MessageHeaders headers) {
 		HashMap<String, Object> map = new HashMap<String, Object>();
@@ -47,7 +60,32 @@ class MessageHeadersSerializer extends Serializer<MessageHeaders> {
 	public MessageHeaders read(Kryo kryo, Input input, Class<MessageHeaders> type) {
 		@SuppressWarnings("unchecked")
 		Map<String, Object> headers = kryo.readObject(input, HashMap.class);
-		return new MessageHeaders(headers);
+		if (PersistentMessageHeaders.class.isAssignableFrom(type)) {
+			return this.preserveIdAndTimestamp
+					? new DecodedPersistentMessageHeaders(headers)
+					: new PersistentMessageHeaders(headers);
+		}
+		return this.preserveIdAndTimestamp ? new DecodedMessageHeaders(headers) : new MessageHeaders(headers);
+	}
+
+	private static final class DecodedMessageHeaders extends MessageHeaders {
+
+		private static final long serialVersionUID = 1L;
+
+		DecodedMessageHeaders(Map<String, Object> headers) {
+			super(headers, (UUID) headers.get(ID), (Long) headers.get(TIMESTAMP));
+		}
+
+	}
+
+	private static final class DecodedPersistentMessageHeaders extends PersistentMessageHeaders {
+
+		private static final long serialVersionUID = 1L;
+
+		DecodedPersistentMessageHeaders(Map<String, Object> headers) {
+			super(headers, (UUID) headers.get(ID), (Long) headers.get(TIMESTAMP));
+		}
+
 	}
 
 }
@@ -22,6 +22,7 @@ import java.util.List;
 import org.springframework.integration.support.MutableMessageHeaders;
 import org.springframework.messaging.MessageHeaders;
 
+import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Registration;
 
 /**
@@ -36,6 +37,8 @@ public class MessageKryoRegistrar extends AbstractKryoRegistrar {
 
 	private volatile int mutableMessageHeadersRegistrationId = RegistrationIds.DEFAULT_MUTABLE_MESSAGEHEADERS_ID;
 
+	private volatile boolean preserveIdAndTimestamp;
+
 	/**
 	 * Set the registration id for {@code MessageHeaders}.
 	 * @param messageHeadersRegistrationId the id, default 41.
@@ -52,11 +55,35 @@ public class MessageKryoRegistrar extends AbstractKryoRegistrar {
 		this.mutableMessageHeadersRegistrationId = mutableMessageHeadersRegistrationId;
 	}
 
+	/**
+	 * Set to true to decode the {@code MessageHeaders} with their encoded id and
+	 * timestamp (as the Java deserialization does) instead of new ones; required when the
+	 * messages are persisted, such as in a message store. Default false.
+	 * @param preserveIdAndTimestamp true to preserve the id and timestamp.
+	 * @since 5.2
+	 */
+	public void setPreserveIdAndTimestamp(boolean preserveIdAndTimestamp) {
+		this.preserveIdAndTimestamp = preserveIdAndTimestamp;
+	}
+
+	/**
+	 * Register the types and also use the {@code MessageHeaders} serializer by default
+	 * for the other {@code MessageHeaders} subclasses (such as the decoded headers or the
+	 * {@link org.springframework.integration.support.PersistentMessageHeaders}), since
+	 * Kryo looks up the registered serializers by exact type.
+	 * @param kryo the Kryo instance.
+	 * @since 5.2
+	 */
+	@Override
+	public void registerTypes(Kryo kryo) {
+		super.registerTypes(kryo);
+		kryo.addDefaultSerializer(MessageHeaders.class, kryo.getRegistration(MessageHeaders.class).getSerializer());
+	}
 
 	@Override
 	public List<Registration> getRegistrations() {
 		return Arrays.asList(
-				new Registration(MessageHeaders.class, new MessageHeadersSerializer(),
+				new Registration(MessageHeaders.class, new MessageHeadersSerializer(this.preserveIdAndTimestamp),
 						this.messageHeadersRegistrationId),
 				new Registration(MutableMessageHeaders.class, new MutableMessageHeadersSerializer(),
 						this.mutableMessageHeadersRegistrationId));
@@ -24,8 +24,11 @@ import org.objenesis.strategy.StdInstantiatorStrategy;
 import org.springframework.util.CollectionUtils;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
 
 /**
  * Kryo Codec that can encode and decode arbitrary types. Classes and associated
@@ -42,6 +45,8 @@ public class PojoCodec extends AbstractKryoCodec {
 
 	private final boolean useReferences;
 
+	private volatile boolean compatibleFields;
+
 	public PojoCodec() {
 		this.kryoRegistrar = null;
 		this.useReferences = true;
@@ -87,6 +92,20 @@ public class PojoCodec extends AbstractKryoCodec {
 		this.useReferences = useReferences;
 	}
 
+	/**
+	 * Set to true to write the objects with a {@link CompatibleFieldSerializer}, so the
+	 * data written before fields are added to or removed from their classes can still be
+	 * read, at the cost of some space; classes registered with a plain
+	 * {@link FieldSerializer} (such as by a {@link KryoClassListRegistrar}) are switched to
+	 * a {@link CompatibleFieldSerializer} too. Must be set before the codec is used.
+	 * Default false.
+	 * @param compatibleFields true to tolerate the class changes.
+	 * @since 5.2
+	 */
+	public void setCompatibleFields(boolean compatibleFields) {
+		this.compatibleFields = compatibleFields;
+	}
+
 	@Override
 	protected void doEncode(Kryo kryo, Object object, Output output) {
 		kryo.writeObject(output, object);
@@ -100,8 +119,19 @@ public class PojoCodec extends AbstractKryoCodec {
 	@Override
 	protected void configureKryoInstance(Kryo kryo) {
 		kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+		if (this.compatibleFields) {
+			kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
+		}
 		if (this.kryoRegistrar != null) {
 			this.kryoRegistrar.registerTypes(kryo);
+			if (this.compatibleFields) {
+				for (Registration registration : this.kryoRegistrar.getRegistrations()) {
+					if (FieldSerializer.class.equals(registration.getSerializer().getClass())) {
+						kryo.getRegistration(registration.getId())
+								.setSerializer(new CompatibleFieldSerializer<>(kryo, registration.getType()));
+					}
+				}
+			}
 		}
 		kryo.setReferences(this.useReferences);
 	}
@@ -72,6 +72,7 @@ import org.springframework.integration.support.converter.ConfigurableCompositeMe
 import org.springframework.integration.support.converter.DefaultDatatypeChannelMessageConverter;
 import org.springframework.integration.support.json.JacksonPresent;
 import org.springframework.integration.support.utils.IntegrationUtils;
+import org.springframework.integration.util.VirtualThreadTaskExecutor;
 import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.ClassUtils;
@@ -305,6 +306,8 @@ class DefaultConfiguringBeanFactoryPostProcessor
 					.addPropertyValue("poolSize", IntegrationProperties
 							.getExpressionFor(IntegrationProperties.TASK_SCHEDULER_POOL_SIZE))
 					.addPropertyValue("threadNamePrefix", "task-scheduler-")
+					.addPropertyValue("threadFactory", "#{T(" + VirtualThreadTaskExecutor.class.getName()
+							+ ").threadFactoryIfEnabled(beanFactory, 'task-scheduler-')}")
 					.addPropertyValue("rejectedExecutionHandler", new CallerRunsPolicy())
 					.addPropertyReference("errorHandler",
 							ChannelUtils.MESSAGE_PUBLISHING_ERROR_HANDLER_BEAN_NAME)
@@ -77,6 +77,15 @@ public final class IntegrationProperties {
 	 */
 	public static final String ENDPOINTS_NO_AUTO_STARTUP = INTEGRATION_PROPERTIES_PREFIX + "endpoints.noAutoStartup";
 
+	/**
+	 * Specifies whether the thread pools created by the framework itself (the default
+	 * {@code taskScheduler} bean, the default executor of TCP connection factories and
+	 * of the {@code RedisLockRegistry}) should use virtual threads when the JVM supports them.
+	 * @since 5.2
+	 * @see org.springframework.integration.util.VirtualThreadTaskExecutor
+	 */
+	public static final String VIRTUAL_THREADS = INTEGRATION_PROPERTIES_PREFIX + "virtualThreads";
+
 	private static Properties defaults;
 
 	static {
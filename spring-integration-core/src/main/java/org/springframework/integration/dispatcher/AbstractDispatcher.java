@@ -50,6 +50,8 @@ public abstract class AbstractDispatcher implements MessageDispatcher {
 	private final OrderedAwareCopyOnWriteArraySet<MessageHandler> handlers =
 			new OrderedAwareCopyOnWriteArraySet<MessageHandler>();
 
+	private volatile MessageHandler[] handlerArray = new MessageHandler[0];
+
 	private volatile MessageHandler theOneHandler;
 
 	/**
@@ -70,6 +72,18 @@ public abstract class AbstractDispatcher implements MessageDispatcher {
 		return this.handlers.asUnmodifiableSet();
 	}
 
+	/**
+	 * Return an immutable snapshot of this dispatcher's handlers in dispatch order.
+	 * The array is re-published on every subscription change, so the dispatching
+	 * thread can index into it without locking or allocating an iterator.
+	 * Callers must not modify the returned array.
+	 * @return The message handlers.
+	 * @since 5.2
+	 */
+	protected MessageHandler[] getHandlerArray() {
+		return this.handlerArray;
+	}
+
 	/**
 	 * Add the handler to the internal Set.
 	 *
@@ -81,12 +95,7 @@ public abstract class AbstractDispatcher implements MessageDispatcher {
 		Assert.notNull(handler, "handler must not be null");
 		Assert.isTrue(this.handlers.size() < this.maxSubscribers, "Maximum subscribers exceeded");
 		boolean added = this.handlers.add(handler);
-		if (this.handlers.size() == 1) {
-			this.theOneHandler = handler;
-		}
-		else {
-			this.theOneHandler = null;
-		}
+		handlersChanged();
 		return added;
 	}
 
@@ -99,15 +108,16 @@ public abstract class AbstractDispatcher implements MessageDispatcher {
 	public synchronized boolean removeHandler(MessageHandler handler) {
 		Assert.notNull(handler, "handler must not be null");
 		boolean removed = this.handlers.remove(handler);
-		if (this.handlers.size() == 1) {
-			this.theOneHandler = this.handlers.iterator().next();
-		}
-		else {
-			this.theOneHandler = null;
-		}
+		handlersChanged();
 		return removed;
 	}
 
+	private void handlersChanged() {
+		MessageHandler[] snapshot = this.handlers.toArray(new MessageHandler[0]);
+		this.handlerArray = snapshot;
+		this.theOneHandler = snapshot.length == 1 ? snapshot[0] : null;
+	}
+
 	protected boolean tryOptimizedDispatch(Message<?> message) {
 		MessageHandler handler = this.theOneHandler;
 		if (handler != null) {
@@ -130,7 +140,7 @@ public abstract class AbstractDispatcher implements MessageDispatcher {
 
 	@Override
 	public int getHandlerCount() {
-		return this.handlers.size();
+		return this.handlerArray.length;
 	}
 
 }
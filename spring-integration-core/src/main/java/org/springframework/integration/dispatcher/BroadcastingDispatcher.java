@@ -17,8 +17,13 @@
 package org.springframework.integration.dispatcher;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
@@ -46,6 +51,10 @@ import org.springframework.util.Assert;
  * <p>
  * If the 'requireSubscribers' flag is set to <code>true</code>, the sent message is considered as non-dispatched
  * and rejected to the caller with the {@code "Dispatcher has no subscribers"} {@link MessageDispatchingException}.
+ * <p>
+ * When an Executor is provided and the 'batchSize' is greater than 1, the messages are queued per handler
+ * and each handler is served by at most one Executor task at a time, which handles up to 'batchSize' queued
+ * messages in order before yielding; see {@link #setBatchSize(int)}.
  *
  * @author Mark Fisher
  * @author Iwein Fuld
@@ -71,6 +80,10 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 
 	private volatile MessageHandlingTaskDecorator messageHandlingTaskDecorator = task -> task;
 
+	private final Map<MessageHandler, HandlerMailbox> mailboxes = new ConcurrentHashMap<>();
+
+	private volatile int batchSize = 1;
+
 	private BeanFactory beanFactory;
 
 
@@ -126,6 +139,25 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 		this.minSubscribers = minSubscribers;
 	}
 
+	/**
+	 * Set the maximum number of messages a single Executor task handles for one handler.
+	 * With the default of 1, each message is submitted to the Executor as a separate task
+	 * for each handler. With a greater value, the messages are queued per handler instead
+	 * and a task is only submitted when there is none in progress for that handler;
+	 * this task then handles the queued messages in order, up to this number, before
+	 * submitting a new task for the rest (if any), so other tasks get a chance to run.
+	 * This reduces the Executor submissions to one per run of messages under load, while
+	 * keeping the per-handler order. An exception thrown by a handler ends the task
+	 * (after submitting a new one for the remaining messages) and is propagated to the
+	 * Executor. Ignored when there is no Executor.
+	 * @param batchSize the maximum number of messages per task.
+	 * @since 5.2
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
 	public void setMessageHandlingTaskDecorator(MessageHandlingTaskDecorator messageHandlingTaskDecorator) {
 		Assert.notNull(messageHandlingTaskDecorator, "'messageHandlingTaskDecorator' must not be null.");
 		this.messageHandlingTaskDecorator = messageHandlingTaskDecorator;
@@ -146,6 +178,24 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 		return this.messageBuilderFactory;
 	}
 
+	@Override
+	public synchronized boolean addHandler(MessageHandler handler) {
+		boolean added = super.addHandler(handler);
+		if (added) {
+			this.mailboxes.put(handler, new HandlerMailbox(handler));
+		}
+		return added;
+	}
+
+	@Override
+	public synchronized boolean removeHandler(MessageHandler handler) {
+		boolean removed = super.removeHandler(handler);
+		if (removed) {
+			this.mailboxes.remove(handler);
+		}
+		return removed;
+	}
+
 	@Override // NOSONAR complexity
 	public boolean dispatch(Message<?> message) {
 		int dispatched = 0;
@@ -172,8 +222,15 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 			}
 
 			if (this.executor != null) {
-				Runnable task = createMessageHandlingTask(handler, messageToSend);
-				this.executor.execute(task);
+				// no mailbox for a handler removed since the snapshot was taken
+				HandlerMailbox mailbox = this.batchSize > 1 ? this.mailboxes.get(handler) : null;
+				if (mailbox != null) {
+					mailbox.enqueue(messageToSend);
+				}
+				else {
+					Runnable task = createMessageHandlingTask(handler, messageToSend);
+					this.executor.execute(task);
+				}
 				dispatched++;
 			}
 			else {
@@ -238,4 +295,55 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 		}
 	}
 
+	/**
+	 * The messages waiting for a handler when batching; at most one task at a time drains them.
+	 */
+	private final class HandlerMailbox implements Runnable {
+
+		private final MessageHandler handler;
+
+		private final Queue<Message<?>> messages = new ConcurrentLinkedQueue<>();
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		HandlerMailbox(MessageHandler handler) {
+			this.handler = handler;
+		}
+
+		void enqueue(Message<?> message) {
+			this.messages.offer(message);
+			schedule();
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					BroadcastingDispatcher.this.executor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				int limit = BroadcastingDispatcher.this.batchSize;
+				Message<?> message;
+				for (int i = 0; i < limit && (message = this.messages.poll()) != null; i++) {
+					createMessageHandlingTask(this.handler, message).run();
+				}
+			}
+			finally {
+				this.scheduled.set(false);
+				if (!this.messages.isEmpty()) {
+					schedule();
+				}
+			}
+		}
+
+	}
+
 }
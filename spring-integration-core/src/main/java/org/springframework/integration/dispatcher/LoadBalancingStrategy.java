@@ -34,4 +34,20 @@ public interface LoadBalancingStrategy {
 
 	Iterator<MessageHandler> getHandlerIterator(Message<?> message, Collection<MessageHandler> handlers);
 
+	/**
+	 * Return the index of the handler to try first for the provided message; the
+	 * dispatcher then tries the rest of the handlers in order, wrapping around at
+	 * {@code size}. This lets the dispatcher index directly into its handler snapshot
+	 * instead of requesting an {@link Iterator} for every message. Strategies that
+	 * cannot be expressed as a start index return a negative value (the default),
+	 * in which case {@link #getHandlerIterator(Message, Collection)} is used.
+	 * @param message the message to dispatch.
+	 * @param size the number of handlers; always greater than 1.
+	 * @return the start index, or a negative value to use the iterator.
+	 * @since 5.2
+	 */
+	default int getNextHandlerStartIndex(Message<?> message, int size) {
+		return -1;
+	}
+
 }
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dispatcher;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.integration.MessageDispatchingException;
+import org.springframework.integration.support.management.metrics.CounterFacade;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * An {@link AbstractDispatcher} implementation that distributes messages over a fixed
+ * number of partitions according to a key computed from each message.
+ * Every partition has its own bounded queue, consumed by a single dedicated thread, so
+ * messages with the same key are handled in the order they were dispatched, while
+ * messages with different keys are handled concurrently.
+ * <p>
+ * When a partition queue is full, the sender blocks until there is room or the provided
+ * timeout elapses.
+ * <p>
+ * The handlers subscribed to this dispatcher are shared by all the partitions; within a
+ * partition they are invoked via a {@link UnicastingDispatcher}, so the usual
+ * load-balancing and failover options apply.
+ * <p>
+ * Partitions never take work from each other, since that would break the per-key
+ * ordering: a slow message delays the other keys of its partition.
+ * <p>
+ * The partition threads are started on the first message for the partition and stopped by
+ * {@link #shutdown()}; they are daemon threads unless another {@link ThreadFactory} is
+ * provided.
+ *
+ * @since 5.2
+ */
+public class PartitionedDispatcher extends AbstractDispatcher {
+
+	private final Function<Message<?>, Object> partitionKeyFunction;
+
+	private final Partition[] partitions;
+
+	private ThreadFactory threadFactory = daemonThreadFactory("partition-thread-");
+
+	private MessageHandlingTaskDecorator messageHandlingTaskDecorator = task -> task;
+
+	private ErrorHandler errorHandler;
+
+	private volatile boolean running = true;
+
+	/**
+	 * Create a dispatcher with the provided number of unbounded partitions.
+	 * @param partitionCount the number of partitions.
+	 * @param partitionKeyFunction the function to compute a partition key for a message;
+	 * the message id is used when it returns null.
+	 */
+	public PartitionedDispatcher(int partitionCount, Function<Message<?>, Object> partitionKeyFunction) {
+		this(partitionCount, Integer.MAX_VALUE, partitionKeyFunction);
+	}
+
+	/**
+	 * Create a dispatcher with the provided number of partitions, each of them able to hold
+	 * up to {@code capacity} messages waiting to be handled.
+	 * @param partitionCount the number of partitions.
+	 * @param capacity the capacity of each partition queue.
+	 * @param partitionKeyFunction the function to compute a partition key for a message;
+	 * the message id is used when it returns null.
+	 */
+	public PartitionedDispatcher(int partitionCount, int capacity,
+			Function<Message<?>, Object> partitionKeyFunction) {
+
+		Assert.isTrue(partitionCount > 0, "'partitionCount' must be greater than 0");
+		Assert.isTrue(capacity > 0, "'capacity' must be greater than 0");
+		Assert.notNull(partitionKeyFunction, "'partitionKeyFunction' must not be null");
+		this.partitionKeyFunction = partitionKeyFunction;
+		this.partitions = new Partition[partitionCount];
+		for (int i = 0; i < partitionCount; i++) {
+			this.partitions[i] = new Partition(capacity);
+		}
+	}
+
+	/**
+	 * Set the {@link ThreadFactory} for the partition threads.
+	 * Defaults to a factory creating daemon threads.
+	 * Only affects partitions which have not been started yet.
+	 * @param threadFactory the factory.
+	 */
+	public void setThreadFactory(ThreadFactory threadFactory) {
+		Assert.notNull(threadFactory, "'threadFactory' must not be null");
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Set a {@link MessageHandlingTaskDecorator} to wrap the handling of each message
+	 * on its partition thread.
+	 * @param messageHandlingTaskDecorator the decorator.
+	 */
+	public void setMessageHandlingTaskDecorator(MessageHandlingTaskDecorator messageHandlingTaskDecorator) {
+		Assert.notNull(messageHandlingTaskDecorator, "'messageHandlingTaskDecorator' must not be null.");
+		this.messageHandlingTaskDecorator = messageHandlingTaskDecorator;
+	}
+
+	/**
+	 * Set an {@link ErrorHandler} for exceptions thrown while handling a message on a
+	 * partition thread. Such exceptions are logged if no error handler is provided.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(@Nullable ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Specify whether the handlers should be failed over within a partition.
+	 * @param failover the failover flag.
+	 * @see UnicastingDispatcher#setFailover(boolean)
+	 */
+	public void setFailover(boolean failover) {
+		for (Partition partition : this.partitions) {
+			partition.dispatcher.setFailover(failover);
+		}
+	}
+
+	/**
+	 * Provide a {@link LoadBalancingStrategy} for the handlers within a partition.
+	 * @param loadBalancingStrategy the load balancing strategy implementation.
+	 * @see UnicastingDispatcher#setLoadBalancingStrategy(LoadBalancingStrategy)
+	 */
+	public void setLoadBalancingStrategy(@Nullable LoadBalancingStrategy loadBalancingStrategy) {
+		for (Partition partition : this.partitions) {
+			partition.dispatcher.setLoadBalancingStrategy(loadBalancingStrategy);
+		}
+	}
+
+	@Override
+	public synchronized boolean addHandler(MessageHandler handler) {
+		boolean added = super.addHandler(handler);
+		if (added) {
+			for (Partition partition : this.partitions) {
+				partition.dispatcher.addHandler(handler);
+			}
+		}
+		return added;
+	}
+
+	@Override
+	public synchronized boolean removeHandler(MessageHandler handler) {
+		boolean removed = super.removeHandler(handler);
+		if (removed) {
+			for (Partition partition : this.partitions) {
+				partition.dispatcher.removeHandler(handler);
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Return the number of partitions.
+	 * @return the number of partitions.
+	 */
+	public int getPartitionCount() {
+		return this.partitions.length;
+	}
+
+	/**
+	 * Return the number of messages waiting in the queue of the provided partition.
+	 * @param partition the partition index.
+	 * @return the queue size.
+	 */
+	public int getPartitionQueueSize(int partition) {
+		return this.partitions[partition].queue.size();
+	}
+
+	/**
+	 * Return the number of messages handled (successfully or not) by the provided partition.
+	 * @param partition the partition index.
+	 * @return the handled count.
+	 */
+	public long getPartitionHandledCount(int partition) {
+		return this.partitions[partition].handledCount.get();
+	}
+
+	/**
+	 * Set a counter to increment for each message handled (successfully or not) by the
+	 * provided partition, in addition to {@link #getPartitionHandledCount(int)}.
+	 * @param partition the partition index.
+	 * @param handledCounter the counter; null to remove it.
+	 */
+	public void setPartitionHandledCounter(int partition, @Nullable CounterFacade handledCounter) {
+		this.partitions[partition].handledCounter = handledCounter;
+	}
+
+	/**
+	 * Dispatch the message to its partition, blocking while the partition queue is full.
+	 * @param message the message.
+	 * @return true if the message was queued.
+	 */
+	@Override
+	public boolean dispatch(Message<?> message) {
+		return dispatch(message, -1);
+	}
+
+	/**
+	 * Dispatch the message to its partition, waiting up to the provided timeout for room in
+	 * the partition queue. A negative timeout waits indefinitely.
+	 * @param message the message.
+	 * @param timeout the timeout in milliseconds.
+	 * @return true if the message was queued.
+	 * @throws MessageDispatchingException if there are no subscribers or the dispatcher
+	 * is (or has been, while waiting) shut down.
+	 */
+	public boolean dispatch(Message<?> message, long timeout) {
+		if (getHandlerCount() == 0) {
+			throw new MessageDispatchingException(message, "Dispatcher has no subscribers");
+		}
+		if (!this.running) {
+			throw new MessageDispatchingException(message, "Dispatcher has been shut down");
+		}
+		return this.partitions[partitionFor(message)].offer(message, timeout);
+	}
+
+	/**
+	 * Stop the partition threads; messages still waiting in the partition queues are
+	 * discarded and the subsequent dispatches are rejected.
+	 */
+	public void shutdown() {
+		this.running = false;
+		for (Partition partition : this.partitions) {
+			partition.stop();
+		}
+	}
+
+	private static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+		threadFactory.setDaemon(true);
+		return threadFactory;
+	}
+
+	private int partitionFor(Message<?> message) {
+		Object key = this.partitionKeyFunction.apply(message);
+		if (key == null) {
+			key = message.getHeaders().getId();
+		}
+		int hash = key.hashCode();
+		hash ^= hash >>> 16; // NOSONAR magic number
+		return Math.abs(hash % this.partitions.length);
+	}
+
+	private void handleError(Throwable throwable) {
+		ErrorHandler handler = this.errorHandler;
+		if (handler != null) {
+			try {
+				handler.handleError(throwable);
+				return;
+			}
+			catch (Exception ex) {
+				this.logger.error("Exception from the error handler " + handler, ex);
+			}
+		}
+		this.logger.error("Failed to handle message on partition thread", throwable);
+	}
+
+	private final class Partition implements Runnable {
+
+		private final UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+
+		private final MessageHandler partitionHandler = this.dispatcher::dispatch;
+
+		private final BlockingQueue<Message<?>> queue;
+
+		private final AtomicLong handledCount = new AtomicLong();
+
+		private volatile CounterFacade handledCounter;
+
+		private volatile Thread thread;
+
+		Partition(int capacity) {
+			this.queue = new LinkedBlockingQueue<>(capacity);
+		}
+
+		boolean offer(Message<?> message, long timeout) {
+			if (this.thread == null) {
+				start();
+			}
+			boolean offered;
+			try {
+				if (timeout < 0) {
+					this.queue.put(message);
+					offered = true;
+				}
+				else {
+					offered = this.queue.offer(message, timeout, TimeUnit.MILLISECONDS);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			// the queue was cleared and its thread stopped by a concurrent shutdown
+			if (offered && !PartitionedDispatcher.this.running && this.queue.remove(message)) {
+				throw new MessageDispatchingException(message, "Dispatcher has been shut down");
+			}
+			return offered;
+		}
+
+		private synchronized void start() {
+			if (this.thread == null && PartitionedDispatcher.this.running) {
+				Thread partitionThread = PartitionedDispatcher.this.threadFactory.newThread(this);
+				partitionThread.start();
+				this.thread = partitionThread;
+			}
+		}
+
+		synchronized void stop() {
+			Thread partitionThread = this.thread;
+			if (partitionThread != null) {
+				partitionThread.interrupt();
+			}
+			int discarded = this.queue.size();
+			if (discarded > 0 && PartitionedDispatcher.this.logger.isWarnEnabled()) {
+				PartitionedDispatcher.this.logger.warn("Discarding " + discarded + " message(s) on shutdown");
+			}
+			this.queue.clear();
+		}
+
+		@Override
+		public void run() {
+			while (PartitionedDispatcher.this.running) {
+				Message<?> message;
+				try {
+					message = this.queue.take();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				try {
+					PartitionedDispatcher.this.messageHandlingTaskDecorator.decorate(task(message)).run();
+				}
+				catch (Throwable ex) { // NOSONAR - keep the partition thread alive
+					handleError(ex);
+				}
+				finally {
+					this.handledCount.incrementAndGet();
+					CounterFacade counter = this.handledCounter;
+					if (counter != null) {
+						counter.increment();
+					}
+				}
+			}
+		}
+
+		private MessageHandlingRunnable task(Message<?> message) {
+			return new MessageHandlingRunnable() {
+
+				@Override
+				public void run() {
+					Partition.this.partitionHandler.handleMessage(message);
+				}
+
+				@Override
+				public Message<?> getMessage() {
+					return message;
+				}
+
+				@Override
+				public MessageHandler getMessageHandler() {
+					return Partition.this.partitionHandler;
+				}
+
+			};
+		}
+
+	}
+
+}
@@ -82,6 +82,11 @@ public class RoundRobinLoadBalancingStrategy implements LoadBalancingStrategy {
 		};
 	}
 
+	@Override
+	public int getNextHandlerStartIndex(Message<?> message, int size) {
+		return getNextHandlerStartIndex(size);
+	}
+
 	/**
 	 * Keeps track of the last index over multiple dispatches. Each invocation
 	 * of this method will increment the index by one, overflowing at
@@ -19,7 +19,6 @@ package org.springframework.integration.dispatcher;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.Executor;
 
 import org.springframework.integration.MessageDispatchingException;
@@ -133,11 +132,45 @@ public class UnicastingDispatcher extends AbstractDispatcher {
 		if (tryOptimizedDispatch(message)) {
 			return true;
 		}
-		boolean success = false;
-		Iterator<MessageHandler> handlerIterator = getHandlerIterator(message);
+		MessageHandler[] handlers = getHandlerArray();
+		if (handlers.length == 0) {
+			throw new MessageDispatchingException(message, "Dispatcher has no subscribers");
+		}
+		int startIndex = 0;
+		if (this.loadBalancingStrategy != null) {
+			startIndex = this.loadBalancingStrategy.getNextHandlerStartIndex(message, handlers.length);
+			if (startIndex < 0) {
+				return doDispatch(message, this.loadBalancingStrategy.getHandlerIterator(message, getHandlers()));
+			}
+		}
+		return doDispatch(message, handlers, startIndex);
+	}
+
+	/**
+	 * Try the handlers from the snapshot starting at {@code startIndex} and
+	 * wrapping around, without allocating unless a handler fails.
+	 */
+	private boolean doDispatch(Message<?> message, MessageHandler[] handlers, int startIndex) {
+		int size = handlers.length;
+		List<RuntimeException> exceptions = null;
+		for (int i = 0; i < size; i++) {
+			MessageHandler handler = handlers[(startIndex + i) % size];
+			try {
+				handler.handleMessage(message);
+				return true; // we have a winner.
+			}
+			catch (Exception ex) {
+				exceptions = handleFailure(ex, handler, message, exceptions, i == size - 1);
+			}
+		}
+		return false;
+	}
+
+	private boolean doDispatch(Message<?> message, Iterator<MessageHandler> handlerIterator) {
 		if (!handlerIterator.hasNext()) {
 			throw new MessageDispatchingException(message, "Dispatcher has no subscribers");
 		}
+		boolean success = false;
 		List<RuntimeException> exceptions = null;
 		while (!success && handlerIterator.hasNext()) {
 			MessageHandler handler = handlerIterator.next();
@@ -146,34 +179,28 @@ public class UnicastingDispatcher extends AbstractDispatcher {
 				success = true; // we have a winner.
 			}
 			catch (Exception ex) {
-				RuntimeException runtimeException =
-						IntegrationUtils.wrapInDeliveryExceptionIfNecessary(message,
-								() -> "Dispatcher failed to deliver Message", ex);
-				if (exceptions == null) {
-					exceptions = new ArrayList<>();
-				}
-				exceptions.add(runtimeException);
-				boolean isLast = !handlerIterator.hasNext();
-				if (!isLast && this.failover) {
-					logExceptionBeforeFailOver(ex, handler, message);
-				}
-				handleExceptions(exceptions, message, isLast);
+				exceptions = handleFailure(ex, handler, message, exceptions, !handlerIterator.hasNext());
 			}
 		}
 		return success;
 	}
 
-	/**
-	 * Returns the iterator that will be used to loop over the handlers.
-	 * Delegates to a {@link LoadBalancingStrategy} if available. Otherwise,
-	 * it simply returns the Iterator for the existing handler List.
-	 */
-	private Iterator<MessageHandler> getHandlerIterator(Message<?> message) {
-		Set<MessageHandler> handlers = getHandlers();
-		if (this.loadBalancingStrategy != null) {
-			return this.loadBalancingStrategy.getHandlerIterator(message, handlers);
+	private List<RuntimeException> handleFailure(Exception ex, MessageHandler handler, Message<?> message,
+			@Nullable List<RuntimeException> exceptions, boolean isLast) {
+
+		RuntimeException runtimeException =
+				IntegrationUtils.wrapInDeliveryExceptionIfNecessary(message,
+						() -> "Dispatcher failed to deliver Message", ex);
+		List<RuntimeException> allExceptions = exceptions;
+		if (allExceptions == null) {
+			allExceptions = new ArrayList<>();
+		}
+		allExceptions.add(runtimeException);
+		if (!isLast && this.failover) {
+			logExceptionBeforeFailOver(ex, handler, message);
 		}
-		return handlers.iterator();
+		handleExceptions(allExceptions, message, isLast);
+		return allExceptions;
 	}
 
 	private void logExceptionBeforeFailOver(Exception ex, MessageHandler handler, Message<?> message) {
@@ -103,6 +103,17 @@ public class AggregatorSpec extends CorrelationHandlerSpec<AggregatorSpec, Aggre
 		return _this();
 	}
 
+	/**
+	 * @param lockFree true to aggregate without locking the groups.
+	 * @return the aggregator spec.
+	 * @since 5.2
+	 * @see AggregatingMessageHandler#setLockFree(boolean)
+	 */
+	public AggregatorSpec lockFree(boolean lockFree) {
+		this.handler.setLockFree(lockFree);
+		return _this();
+	}
+
 	/**
 	 * Configure a {@link Function} to merge and compute headers for reply
 	 * based on the completed {@link MessageGroup}.
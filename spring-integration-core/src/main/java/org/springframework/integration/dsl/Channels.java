@@ -120,6 +120,14 @@ public class Channels {
 		return MessageChannels.executor(id, executor);
 	}
 
+	public PartitionedChannelSpec partitioned(int partitionCount) {
+		return MessageChannels.partitioned(partitionCount);
+	}
+
+	public PartitionedChannelSpec partitioned(String id, int partitionCount) {
+		return MessageChannels.partitioned(id, partitionCount);
+	}
+
 
 	public FluxMessageChannelSpec flux() {
 		return MessageChannels.flux();
@@ -17,6 +17,9 @@
 package org.springframework.integration.dsl;
 
 import org.springframework.integration.channel.FluxMessageChannel;
+import org.springframework.util.Assert;
+
+import reactor.util.concurrent.Queues;
 
 /**
  * @author Artem Bilan
@@ -26,8 +29,64 @@ import org.springframework.integration.channel.FluxMessageChannel;
  */
 public class FluxMessageChannelSpec extends MessageChannelSpec<FluxMessageChannelSpec, FluxMessageChannel> {
 
+	private int bufferSize;
+
+	private FluxMessageChannel.OverflowStrategy overflowStrategy = FluxMessageChannel.OverflowStrategy.BLOCK;
+
+	private int prefetch = Queues.SMALL_BUFFER_SIZE;
+
 	FluxMessageChannelSpec() {
-		this.channel = new FluxMessageChannel();
+		super();
+	}
+
+	/**
+	 * Hold up to this number of messages until they are requested by the subscribers.
+	 * By default, messages are emitted regardless of the subscribers' demand.
+	 * @param bufferSize the buffer size.
+	 * @return the spec.
+	 * @since 5.2
+	 */
+	public FluxMessageChannelSpec bufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	/**
+	 * Set the strategy to apply when a message is sent while the buffer is full.
+	 * Defaults to {@link FluxMessageChannel.OverflowStrategy#BLOCK}.
+	 * Requires a {@link #bufferSize(int)}.
+	 * @param overflowStrategy the overflow strategy.
+	 * @return the spec.
+	 * @since 5.2
+	 */
+	public FluxMessageChannelSpec overflowStrategy(FluxMessageChannel.OverflowStrategy overflowStrategy) {
+		this.overflowStrategy = overflowStrategy;
+		return this;
+	}
+
+	/**
+	 * Set the number of messages requested at once by each subscriber.
+	 * Defaults to {@link Queues#SMALL_BUFFER_SIZE}. Requires a {@link #bufferSize(int)}.
+	 * @param prefetch the prefetch.
+	 * @return the spec.
+	 * @since 5.2
+	 */
+	public FluxMessageChannelSpec prefetch(int prefetch) {
+		this.prefetch = prefetch;
+		return this;
+	}
+
+	@Override
+	protected FluxMessageChannel doGet() {
+		if (this.bufferSize > 0) {
+			this.channel = new FluxMessageChannel(this.bufferSize, this.overflowStrategy, this.prefetch);
+		}
+		else {
+			Assert.state(this.prefetch == Queues.SMALL_BUFFER_SIZE,
+					"A 'prefetch' can only be specified together with a 'bufferSize'.");
+			this.channel = new FluxMessageChannel();
+		}
+		return super.doGet();
 	}
 
 }
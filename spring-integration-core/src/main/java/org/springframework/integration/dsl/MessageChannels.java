@@ -81,6 +81,14 @@ public final class MessageChannels {
 		return executor(executor).id(id);
 	}
 
+	public static PartitionedChannelSpec partitioned(int partitionCount) {
+		return new PartitionedChannelSpec(partitionCount);
+	}
+
+	public static PartitionedChannelSpec partitioned(String id, int partitionCount) {
+		return partitioned(partitionCount).id(id);
+	}
+
 	public static RendezvousChannelSpec rendezvous() {
 		return new RendezvousChannelSpec();
 	}
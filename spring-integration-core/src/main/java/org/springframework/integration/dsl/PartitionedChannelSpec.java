@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dsl;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+
+import org.springframework.expression.Expression;
+import org.springframework.integration.channel.PartitionedChannel;
+import org.springframework.messaging.Message;
+
+/**
+ * A {@link LoadBalancingChannelSpec} for the {@link PartitionedChannel}.
+ *
+ * @since 5.2
+ */
+public class PartitionedChannelSpec extends LoadBalancingChannelSpec<PartitionedChannelSpec, PartitionedChannel> {
+
+	private final int partitionCount;
+
+	private int capacity = Integer.MAX_VALUE;
+
+	private String partitionKeyHeader;
+
+	private Expression partitionKeyExpression;
+
+	private Function<Message<?>, Object> partitionKeyFunction;
+
+	private ThreadFactory threadFactory;
+
+	PartitionedChannelSpec(int partitionCount) {
+		this.partitionCount = partitionCount;
+	}
+
+	/**
+	 * Bound each partition queue to the provided capacity; senders block while the target
+	 * partition is full.
+	 * @param capacity the capacity of each partition queue.
+	 * @return the spec.
+	 */
+	public PartitionedChannelSpec capacity(int capacity) {
+		this.capacity = capacity;
+		return this;
+	}
+
+	/**
+	 * Use the value of the provided header as the partition key.
+	 * @param headerName the header name.
+	 * @return the spec.
+	 */
+	public PartitionedChannelSpec partitionKey(String headerName) {
+		this.partitionKeyHeader = headerName;
+		return this;
+	}
+
+	/**
+	 * Compute the partition key with a SpEL expression evaluated against the message.
+	 * @param expression the expression.
+	 * @return the spec.
+	 */
+	public PartitionedChannelSpec partitionKeyExpression(String expression) {
+		return partitionKeyExpression(PARSER.parseExpression(expression));
+	}
+
+	/**
+	 * Compute the partition key with a SpEL expression evaluated against the message.
+	 * @param expression the expression.
+	 * @return the spec.
+	 */
+	public PartitionedChannelSpec partitionKeyExpression(Expression expression) {
+		this.partitionKeyExpression = expression;
+		return this;
+	}
+
+	/**
+	 * Compute the partition key with a {@link Function}.
+	 * @param partitionKeyFunction the function.
+	 * @return the spec.
+	 */
+	public PartitionedChannelSpec partitionKeyFunction(Function<Message<?>, Object> partitionKeyFunction) {
+		this.partitionKeyFunction = partitionKeyFunction;
+		return this;
+	}
+
+	/**
+	 * Provide a {@link ThreadFactory} for the partition threads.
+	 * @param threadFactory the factory.
+	 * @return the spec.
+	 */
+	public PartitionedChannelSpec threadFactory(ThreadFactory threadFactory) {
+		this.threadFactory = threadFactory;
+		return this;
+	}
+
+	@Override
+	protected PartitionedChannel doGet() {
+		this.channel = new PartitionedChannel(this.partitionCount, this.capacity);
+		this.channel.setLoadBalancingStrategy(this.loadBalancingStrategy);
+		if (this.partitionKeyHeader != null) {
+			this.channel.setPartitionKeyHeader(this.partitionKeyHeader);
+		}
+		if (this.partitionKeyFunction != null) {
+			this.channel.setPartitionKeyFunction(this.partitionKeyFunction);
+		}
+		if (this.partitionKeyExpression != null) {
+			this.channel.setPartitionKeyExpression(this.partitionKeyExpression);
+		}
+		if (this.threadFactory != null) {
+			this.channel.setThreadFactory(this.threadFactory);
+		}
+		if (this.failover != null) {
+			this.channel.setFailover(this.failover);
+		}
+		if (this.maxSubscribers != null) {
+			this.channel.setMaxSubscribers(this.maxSubscribers);
+		}
+		return super.doGet();
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.integration.dsl;
 
+import java.time.Duration;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
@@ -40,6 +41,18 @@ public final class PollerFactory {
 		return Pollers.trigger(trigger);
 	}
 
+	/**
+	 * Create a {@link PollerSpec} with an adaptive trigger.
+	 * @param basePeriod the delay after a poll which was neither full nor empty.
+	 * @param maxPeriod the maximum delay after consecutive empty polls.
+	 * @return the poller spec.
+	 * @since 5.2
+	 * @see Pollers#adaptive(Duration, Duration)
+	 */
+	public PollerSpec adaptive(Duration basePeriod, Duration maxPeriod) {
+		return Pollers.adaptive(basePeriod, maxPeriod);
+	}
+
 	public PollerSpec cron(String cronExpression) {
 		return Pollers.cron(cronExpression);
 	}
@@ -132,6 +132,21 @@ public final class PollerSpec extends IntegrationComponentSpec<PollerSpec, Polle
 		return this;
 	}
 
+	/**
+	 * Specify the maximum number of messages a polling consumer takes from its
+	 * {@link org.springframework.integration.channel.AbstractPollableChannel}
+	 * in a single receive operation.
+	 * Defaults to {@code 1}.
+	 * @param receiveBatchSize the batch size to use.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see org.springframework.integration.endpoint.PollingConsumer#setReceiveBatchSize(int)
+	 */
+	public PollerSpec receiveBatchSize(int receiveBatchSize) {
+		this.target.setReceiveBatchSize(receiveBatchSize);
+		return this;
+	}
+
 	/**
 	 * Specify AOP {@link Advice}s for the {@code pollingTask}.
 	 * @param advice the {@link Advice}s to use.
@@ -20,6 +20,7 @@ import java.time.Duration;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.integration.util.AdaptivePollingTrigger;
 import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.scheduling.support.PeriodicTrigger;
@@ -103,6 +104,19 @@ public final class Pollers {
 		return new PollerSpec(new CronTrigger(cronExpression, timeZone));
 	}
 
+	/**
+	 * Create a {@link PollerSpec} with an {@link AdaptivePollingTrigger}: the delay
+	 * between polls shrinks (down to zero) while polls return {@code maxMessagesPerPoll}
+	 * messages and grows exponentially (up to the {@code maxPeriod}) on empty polls.
+	 * @param basePeriod the delay after a poll which was neither full nor empty.
+	 * @param maxPeriod the maximum delay after consecutive empty polls.
+	 * @return the poller spec.
+	 * @since 5.2
+	 */
+	public static PollerSpec adaptive(Duration basePeriod, Duration maxPeriod) {
+		return new PollerSpec(new AdaptivePollingTrigger(basePeriod, maxPeriod));
+	}
+
 	private Pollers() {
 	}
 
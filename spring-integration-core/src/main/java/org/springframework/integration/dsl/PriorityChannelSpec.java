@@ -37,6 +37,8 @@ public class PriorityChannelSpec extends MessageChannelSpec<PriorityChannelSpec,
 
 	private MessageGroupQueue messageGroupQueue;
 
+	private int priorityBuckets;
+
 	PriorityChannelSpec() {
 		super();
 	}
@@ -51,6 +53,20 @@ public class PriorityChannelSpec extends MessageChannelSpec<PriorityChannelSpec,
 		return this;
 	}
 
+	/**
+	 * Back the channel with a fixed number of lock-free FIFO priority buckets instead of
+	 * a comparator-ordered queue. A {@link #comparator(Comparator)}, if any, is then only
+	 * used for the messages with a priority outside of {@code [0, priorityBuckets)}.
+	 * @param priorityBuckets the number of priority buckets.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see PriorityChannel#PriorityChannel(int, int, Comparator)
+	 */
+	public PriorityChannelSpec priorityBuckets(int priorityBuckets) {
+		this.priorityBuckets = priorityBuckets;
+		return this;
+	}
+
 	public PriorityChannelSpec messageStore(PriorityCapableChannelMessageStore messageGroupStore, Object groupId) {
 		this.messageGroupQueue = new MessageGroupQueue(messageGroupStore, groupId);
 		this.messageGroupQueue.setPriority(true);
@@ -61,10 +77,15 @@ public class PriorityChannelSpec extends MessageChannelSpec<PriorityChannelSpec,
 	protected PriorityChannel doGet() {
 		Assert.state(!(this.comparator != null && this.messageGroupQueue != null),
 				"Only one of 'comparator' or 'messageGroupStore' can be specified.");
+		Assert.state(!(this.priorityBuckets > 0 && this.messageGroupQueue != null),
+				"Only one of 'priorityBuckets' or 'messageGroupStore' can be specified.");
 
 		if (this.messageGroupQueue != null) {
 			this.channel = new PriorityChannel(this.messageGroupQueue);
 		}
+		else if (this.priorityBuckets > 0) {
+			this.channel = new PriorityChannel(this.capacity, this.priorityBuckets, this.comparator);
+		}
 		else {
 			this.channel = new PriorityChannel(this.capacity, this.comparator);
 		}
@@ -65,4 +65,16 @@ public class PublishSubscribeChannelSpec<S extends PublishSubscribeChannelSpec<S
 		return _this();
 	}
 
+	/**
+	 * Set the maximum number of messages handled by a single executor task for each subscriber.
+	 * @param batchSize the maximum number of messages per task.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see PublishSubscribeChannel#setBatchSize(int)
+	 */
+	public S batchSize(int batchSize) {
+		this.channel.setBatchSize(batchSize);
+		return _this();
+	}
+
 }
@@ -22,7 +22,9 @@ import java.util.concurrent.locks.Lock;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.store.ChannelMessageStore;
 import org.springframework.integration.store.MessageGroupQueue;
+import org.springframework.integration.util.MpmcArrayBlockingQueue;
 import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
 
 /**
  * @author Artem Bilan
@@ -35,6 +37,8 @@ public class QueueChannelSpec extends MessageChannelSpec<QueueChannelSpec, Queue
 
 	protected Integer capacity; // NOSONAR
 
+	protected MpmcArrayBlockingQueue.WaitStrategy waitStrategy; // NOSONAR
+
 	QueueChannelSpec() {
 		super();
 	}
@@ -47,11 +51,43 @@ public class QueueChannelSpec extends MessageChannelSpec<QueueChannelSpec, Queue
 		this.capacity = capacity;
 	}
 
+	/**
+	 * Back the channel with a lock-free {@link MpmcArrayBlockingQueue} instead of a
+	 * {@link java.util.concurrent.LinkedBlockingQueue}, using the
+	 * {@link MpmcArrayBlockingQueue.WaitStrategy#PARK} wait strategy.
+	 * Requires a capacity.
+	 * @return the current {@link QueueChannelSpec}.
+	 * @since 5.2
+	 * @see #lockFree(MpmcArrayBlockingQueue.WaitStrategy)
+	 */
+	public QueueChannelSpec lockFree() {
+		return lockFree(MpmcArrayBlockingQueue.WaitStrategy.PARK);
+	}
+
+	/**
+	 * Back the channel with a lock-free {@link MpmcArrayBlockingQueue} instead of a
+	 * {@link java.util.concurrent.LinkedBlockingQueue}, using the provided
+	 * {@link MpmcArrayBlockingQueue.WaitStrategy} for blocking sends and receives.
+	 * Requires a capacity.
+	 * @param waitStrategyToSet the wait strategy.
+	 * @return the current {@link QueueChannelSpec}.
+	 * @since 5.2
+	 */
+	public QueueChannelSpec lockFree(MpmcArrayBlockingQueue.WaitStrategy waitStrategyToSet) {
+		Assert.notNull(waitStrategyToSet, "'waitStrategy' must not be null");
+		this.waitStrategy = waitStrategyToSet;
+		return this;
+	}
+
 	@Override
 	protected QueueChannel doGet() {
 		if (this.queue != null) {
 			this.channel = new QueueChannel(this.queue);
 		}
+		else if (this.waitStrategy != null) {
+			Assert.state(this.capacity != null, "A 'capacity' is required for a lock-free queue");
+			this.channel = new QueueChannel(new MpmcArrayBlockingQueue<>(this.capacity, this.waitStrategy));
+		}
 		else if (this.capacity != null) {
 			this.channel = new QueueChannel(this.capacity);
 		}
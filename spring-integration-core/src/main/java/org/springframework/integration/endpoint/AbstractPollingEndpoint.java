@@ -18,11 +18,14 @@ package org.springframework.integration.endpoint;
 
 import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.aopalliance.aop.Advice;
@@ -39,6 +42,7 @@ import org.springframework.integration.transaction.IntegrationResourceHolder;
 import org.springframework.integration.transaction.IntegrationResourceHolderSynchronization;
 import org.springframework.integration.transaction.PassThroughTransactionSynchronizationFactory;
 import org.springframework.integration.transaction.TransactionSynchronizationFactory;
+import org.springframework.integration.util.AdaptivePollingTrigger;
 import org.springframework.integration.util.ErrorHandlingTaskExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -87,7 +91,7 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 
 	private TransactionSynchronizationFactory transactionSynchronizationFactory;
 
-	private volatile Callable<Message<?>> pollingTask;
+	private volatile Callable<List<Message<?>>> pollingTask;
 
 	private volatile Flux<Message<?>> pollingFlux;
 
@@ -128,6 +132,16 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		this.maxMessagesPerPoll = maxMessagesPerPoll;
 	}
 
+	/**
+	 * Return the maximum number of messages handled per poll; zero or negative for no
+	 * limit.
+	 * @return the maximum number of messages per poll.
+	 * @since 5.2
+	 */
+	public long getMaxMessagesPerPoll() {
+		return this.maxMessagesPerPoll;
+	}
+
 	public void setErrorHandler(ErrorHandler errorHandler) {
 		this.errorHandler = errorHandler;
 	}
@@ -240,7 +254,7 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 	}
 
 	@SuppressWarnings("unchecked")
-	private Callable<Message<?>> createPollingTask() {
+	private Callable<List<Message<?>>> createPollingTask() {
 		List<Advice> receiveOnlyAdviceChain = null;
 		if (!CollectionUtils.isEmpty(this.adviceChain)) {
 			receiveOnlyAdviceChain = this.adviceChain.stream()
@@ -248,7 +262,7 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 					.collect(Collectors.toList());
 		}
 
-		Callable<Message<?>> task = this::doPoll;
+		Callable<List<Message<?>>> task = this::doPoll;
 
 		List<Advice> advices = this.adviceChain;
 		if (!CollectionUtils.isEmpty(advices)) {
@@ -258,7 +272,7 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 						.filter(advice -> !isReceiveOnlyAdvice(advice))
 						.forEach(proxyFactory::addAdvice);
 			}
-			task = (Callable<Message<?>>) proxyFactory.getProxy(this.beanClassLoader);
+			task = (Callable<List<Message<?>>>) proxyFactory.getProxy(this.beanClassLoader);
 		}
 		if (!CollectionUtils.isEmpty(receiveOnlyAdviceChain)) {
 			applyReceiveOnlyAdviceChain(receiveOnlyAdviceChain);
@@ -271,11 +285,17 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		return () ->
 				this.taskExecutor.execute(() -> {
 					int count = 0;
-					while (this.initialized && (this.maxMessagesPerPoll <= 0 || count < this.maxMessagesPerPoll)) {
-						if (pollForMessage() == null) {
-							break;
+					try {
+						while (this.initialized && (this.maxMessagesPerPoll <= 0 || count < this.maxMessagesPerPoll)) {
+							int received = pollForMessages().size();
+							if (received == 0) {
+								break;
+							}
+							count += received;
 						}
-						count++;
+					}
+					finally {
+						pollCompleted(count);
 					}
 				});
 	}
@@ -300,32 +320,50 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 								.doOnNext(l ->
 										triggerContext.update(triggerContext.lastScheduledExecutionTime(),
 												new Date(), null))
-								.flatMapMany(l ->
-										Flux
-												.<Message<?>>generate(fluxSink -> {
-													Message<?> message = pollForMessage();
-													if (message != null) {
-														fluxSink.next(message);
-													}
-													else {
-														fluxSink.complete();
-													}
-												})
-												.take(this.maxMessagesPerPoll)
-												.subscribeOn(Schedulers.fromExecutor(this.taskExecutor))
-												.doOnComplete(() ->
-														triggerContext
-																.update(triggerContext.lastScheduledExecutionTime(),
-																		triggerContext.lastActualExecutionTime(),
-																		new Date())
-												)), 1)
+								.flatMapMany(l -> {
+									AtomicInteger count = new AtomicInteger();
+									return Flux
+											.<List<Message<?>>>generate(fluxSink -> {
+												List<Message<?>> messages = pollForMessages();
+												if (!messages.isEmpty()) {
+													fluxSink.next(messages);
+												}
+												else {
+													fluxSink.complete();
+												}
+											})
+											.flatMapIterable(Function.identity())
+											.doOnNext(message -> count.incrementAndGet())
+											.take(this.maxMessagesPerPoll)
+											.subscribeOn(Schedulers.fromExecutor(this.taskExecutor))
+											.doOnComplete(() -> {
+												pollCompleted(count.get());
+												triggerContext
+														.update(triggerContext.lastScheduledExecutionTime(),
+																triggerContext.lastActualExecutionTime(),
+																new Date());
+											});
+								}), 1)
 				.repeat(this::isRunning)
 				.doOnSubscribe(subs -> this.subscription = subs);
 	}
 
-	private Message<?> pollForMessage() {
+	/*
+	 * Without a maxMessagesPerPoll, a poll drains the source, so it is full when it
+	 * received any message.
+	 */
+	private void pollCompleted(int count) {
+		if (this.trigger instanceof AdaptivePollingTrigger) {
+			boolean full = this.maxMessagesPerPoll > 0 ? count >= this.maxMessagesPerPoll : count > 0;
+			((AdaptivePollingTrigger) this.trigger).pollCompleted(count, full);
+		}
+	}
+
+	private List<Message<?>> pollForMessages() {
 		try {
-			return this.pollingTask.call();
+			List<Message<?>> messages = this.pollingTask.call();
+			// an advice returns null to skip the poll
+			return messages != null ? messages : Collections.emptyList();
 		}
 		catch (Exception e) {
 			if (e instanceof MessagingException) {
@@ -352,35 +390,66 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		}
 	}
 
-	private Message<?> doPoll() {
+	private List<Message<?>> doPoll() {
 		IntegrationResourceHolder holder = bindResourceHolderIfNecessary(getResourceKey(), getResourceToBind());
-		Message<?> message;
+		List<Message<?>> messages;
 		try {
-			message = receiveMessage();
+			messages = receiveMessages();
 		}
 		catch (Exception e) {
 			if (Thread.interrupted()) {
 				if (logger.isDebugEnabled()) {
 					logger.debug("Poll interrupted - during stop()? : " + e.getMessage());
 				}
-				return null;
+				return Collections.emptyList();
 			}
 			else {
 				throw (RuntimeException) e;
 			}
 		}
 
-		if (message == null) {
+		if (messages.isEmpty()) {
 			if (this.logger.isDebugEnabled()) {
 				this.logger.debug("Received no Message during the poll, returning 'false'");
 			}
-			return null;
+		}
+		else if (messages.size() == 1) {
+			messageReceived(holder, messages.get(0));
 		}
 		else {
-			messageReceived(holder, message);
+			messagesReceived(holder, messages);
 		}
 
-		return message;
+		return messages;
+	}
+
+	/*
+	 * Handle each message of a batch like a single message; in a transaction, the first
+	 * failure is thrown immediately to roll back the whole batch, otherwise the remaining
+	 * messages are handled before it is thrown.
+	 */
+	private void messagesReceived(IntegrationResourceHolder holder, List<Message<?>> messages) {
+		boolean transactional = TransactionSynchronizationManager.isActualTransactionActive();
+		RuntimeException failure = null;
+		for (Message<?> message : messages) {
+			try {
+				messageReceived(holder, message);
+			}
+			catch (RuntimeException ex) {
+				if (transactional) {
+					throw ex;
+				}
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
 	}
 
 	private void messageReceived(IntegrationResourceHolder holder, Message<?> message) {
@@ -425,6 +494,19 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 	 */
 	protected abstract Message<?> receiveMessage();
 
+	/**
+	 * Obtain the next messages (if any are available) to handle in a single poll; each
+	 * message is handled like a single received message and counts toward
+	 * {@code maxMessagesPerPoll}. By default, the single message obtained by
+	 * {@link #receiveMessage()}, if any.
+	 * @return the messages; empty if none is available.
+	 * @since 5.2
+	 */
+	protected List<Message<?>> receiveMessages() {
+		Message<?> message = receiveMessage();
+		return message != null ? Collections.singletonList(message) : Collections.emptyList();
+	}
+
 	/**
 	 * Handle a message.
 	 * @param message The message.
@@ -24,6 +24,7 @@ import java.util.List;
 import org.reactivestreams.Subscriber;
 
 import org.springframework.context.Lifecycle;
+import org.springframework.integration.channel.AbstractPollableChannel;
 import org.springframework.integration.channel.ExecutorChannelInterceptorAware;
 import org.springframework.integration.channel.NullChannel;
 import org.springframework.integration.channel.ReactiveStreamsSubscribableChannel;
@@ -60,6 +61,8 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 
 	private volatile long receiveTimeout = 1000;
 
+	private volatile int receiveBatchSize = 1;
+
 	public PollingConsumer(PollableChannel inputChannel, MessageHandler handler) {
 		Assert.notNull(inputChannel, "inputChannel must not be null");
 		Assert.notNull(handler, "handler must not be null");
@@ -82,6 +85,29 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 		this.receiveTimeout = receiveTimeout;
 	}
 
+	/**
+	 * Set the maximum number of messages to take from an {@link AbstractPollableChannel}
+	 * in a single {@link AbstractPollableChannel#receive(int, long)} operation.
+	 * All the messages of a batch are handled within the poll that received them (and
+	 * its transaction, if any), each one counting toward {@code maxMessagesPerPoll}
+	 * (a batch is not larger than it); this amortizes the channel lock, interceptor and
+	 * metrics overhead. A poll stops receiving once {@code maxMessagesPerPoll} is
+	 * reached, so its last batch can take it over by up to {@code receiveBatchSize - 1}
+	 * messages.
+	 * If handling a message fails in a transaction, the exception is thrown immediately,
+	 * so the transaction rollback covers the whole batch; otherwise, the remaining
+	 * messages of the batch are still handled and the first exception is thrown after
+	 * them (with the subsequent ones suppressed). Ignored for other
+	 * {@link PollableChannel} implementations and for reactive endpoints. Defaults to 1
+	 * (no batching).
+	 * @param receiveBatchSize the batch size.
+	 * @since 5.2
+	 */
+	public void setReceiveBatchSize(int receiveBatchSize) {
+		Assert.isTrue(receiveBatchSize > 0, "'receiveBatchSize' must be greater than 0");
+		this.receiveBatchSize = receiveBatchSize;
+	}
+
 	@Override
 	public MessageChannel getInputChannel() {
 		return this.inputChannel;
@@ -204,6 +230,19 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 				: this.inputChannel.receive();
 	}
 
+	@Override
+	protected List<Message<?>> receiveMessages() {
+		if (this.receiveBatchSize > 1 && this.inputChannel instanceof AbstractPollableChannel && !isReactive()) {
+			long maxMessagesPerPoll = getMaxMessagesPerPoll();
+			int batchSize = maxMessagesPerPoll > 0
+					? (int) Math.min(this.receiveBatchSize, maxMessagesPerPoll)
+					: this.receiveBatchSize;
+			return ((AbstractPollableChannel) this.inputChannel)
+					.receive(batchSize, this.receiveTimeout >= 0 ? this.receiveTimeout : -1);
+		}
+		return super.receiveMessages();
+	}
+
 	@Override
 	protected Object getResourceToBind() {
 		return this.inputChannel;
@@ -17,6 +17,7 @@
 package org.springframework.integration.history;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -35,6 +36,7 @@ import org.springframework.integration.support.MessageBuilderFactory;
 import org.springframework.integration.support.MutableMessage;
 import org.springframework.integration.support.MutableMessageBuilderFactory;
 import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.messaging.support.GenericMessage;
@@ -84,12 +86,11 @@ public final class MessageHistory implements List<Properties>, Serializable {
 		Message<T> message = messageArg;
 		Assert.notNull(message, "Message must not be null");
 		Assert.notNull(component, "Component must not be null");
-		Properties metadata = extractMetadata(component);
-		if (!metadata.isEmpty()) {
+		String name = component.getComponentName();
+		if (name != null && !name.startsWith("org.springframework.integration")) {
 			MessageHistory previousHistory = message.getHeaders().get(HEADER_NAME, MessageHistory.class);
-			List<Properties> components = (previousHistory != null) ?
-					new ArrayList<Properties>(previousHistory) : new ArrayList<Properties>();
-			components.add(metadata);
+			Hops components = new Hops(previousHistory != null ? previousHistory.components : null, name,
+					component.getComponentType(), System.currentTimeMillis());
 			MessageHistory history = new MessageHistory(components);
 
 			if (message instanceof MutableMessage) {
@@ -267,23 +268,6 @@ public final class MessageHistory implements List<Properties>, Serializable {
 	}
 
 
-	private static Properties extractMetadata(NamedComponent component) {
-		Entry entry = new Entry();
-		String name = component.getComponentName();
-		String type = component.getComponentType();
-		if (name != null && !name.startsWith("org.springframework.integration")) {
-			entry.setName(name);
-			if (type != null) {
-				entry.setType(type);
-			}
-		}
-		if (!entry.isEmpty()) {
-			entry.setTimestamp(Long.toString(System.currentTimeMillis()));
-		}
-		return entry;
-	}
-
-
 	/**
 	 * Inner class for each Entry in the history.
 	 */
@@ -315,4 +299,104 @@ public final class MessageHistory implements List<Properties>, Serializable {
 
 	}
 
+
+	/**
+	 * The components of a history as an immutable linked list of hops which shares all but
+	 * its last hop with the history it was derived from, so writing a history costs O(1)
+	 * regardless of its length.
+	 * The {@link Entry} of each hop and the list as a whole are only materialized when read;
+	 * expanding a hop drops the list cached by any of its predecessors, so a chain holds
+	 * one cached list rather than one per hop.
+	 * Serialized as a plain list of entries.
+	 */
+	private static final class Hops extends AbstractList<Properties> implements Serializable {
+
+		@Nullable
+		private final Hops previous;
+
+		@Nullable
+		private final List<Properties> root;
+
+		private final String name;
+
+		@Nullable
+		private final String type;
+
+		private final long timestamp;
+
+		private final int size;
+
+		private transient volatile Entry entry;
+
+		private transient volatile Properties[] expanded;
+
+		Hops(@Nullable List<Properties> previous, String name, @Nullable String type, long timestamp) {
+			if (previous instanceof Hops) {
+				this.previous = (Hops) previous;
+				this.root = null;
+			}
+			else {
+				this.previous = null;
+				this.root = previous != null ? new ArrayList<>(previous) : Collections.emptyList();
+			}
+			this.name = name;
+			this.type = type;
+			this.timestamp = timestamp;
+			this.size = (this.previous != null ? this.previous.size : this.root.size()) + 1;
+		}
+
+		@Override
+		public Properties get(int index) {
+			return expand()[index];
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+		private Properties[] expand() {
+			Properties[] properties = this.expanded;
+			if (properties == null) {
+				properties = new Properties[this.size];
+				Hops hop = this;
+				int index = this.size - 1;
+				while (true) {
+					if (hop != this) {
+						hop.expanded = null;
+					}
+					properties[index--] = hop.entry();
+					if (hop.previous == null) {
+						for (int i = 0; i <= index; i++) {
+							properties[i] = hop.root.get(i);
+						}
+						break;
+					}
+					hop = hop.previous;
+				}
+				this.expanded = properties;
+			}
+			return properties;
+		}
+
+		private Entry entry() {
+			Entry entry = this.entry;
+			if (entry == null) {
+				entry = new Entry();
+				entry.setName(this.name);
+				if (this.type != null) {
+					entry.setType(this.type);
+				}
+				entry.setTimestamp(Long.toString(this.timestamp));
+				this.entry = entry;
+			}
+			return entry;
+		}
+
+		private Object writeReplace() {
+			return new ArrayList<>(this);
+		}
+
+	}
+
 }
@@ -50,6 +50,8 @@ public class PollerMetadata {
 
 	private volatile long receiveTimeout = 1000;
 
+	private volatile int receiveBatchSize = 1;
+
 	private volatile ErrorHandler errorHandler;
 
 	private volatile List<Advice> adviceChain;
@@ -114,6 +116,22 @@ public class PollerMetadata {
 		return this.receiveTimeout;
 	}
 
+	/**
+	 * Set the maximum number of messages a polling consumer takes from its
+	 * channel in a single receive operation.
+	 * @param receiveBatchSize the batch size.
+	 * @since 5.2
+	 * @see org.springframework.integration.endpoint.PollingConsumer#setReceiveBatchSize(int)
+	 */
+	public void setReceiveBatchSize(int receiveBatchSize) {
+		Assert.isTrue(receiveBatchSize > 0, "'receiveBatchSize' must be greater than 0");
+		this.receiveBatchSize = receiveBatchSize;
+	}
+
+	public int getReceiveBatchSize() {
+		return this.receiveBatchSize;
+	}
+
 	public void setAdviceChain(List<Advice> adviceChain) {
 		this.adviceChain = adviceChain;
 	}
@@ -18,13 +18,16 @@ package org.springframework.integration.store;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
@@ -353,6 +356,21 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 		return messages;
 	}
 
+	/**
+	 * Iterate over the ids held by the group metadata, retrieving each message only when
+	 * it is reached. Messages removed from the store in the meantime are skipped.
+	 * @param groupId The group id to retrieve messages for.
+	 * @return the iterator over the messages for group.
+	 * @since 5.2
+	 */
+	@Override
+	public CloseableIterator<Message<?>> iterateMessagesForGroup(Object groupId) {
+		MessageGroupMetadata groupMetadata = getGroupMetadata(groupId);
+		Iterator<UUID> messageIds =
+				groupMetadata != null ? groupMetadata.messageIdIterator() : Collections.emptyIterator();
+		return new MessageIdIterator(messageIds);
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public Iterator<MessageGroup> iterator() {
@@ -426,4 +444,39 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 
 	}
 
+	private final class MessageIdIterator implements CloseableIterator<Message<?>> {
+
+		private final Iterator<UUID> messageIds;
+
+		private Message<?> next;
+
+		MessageIdIterator(Iterator<UUID> messageIds) {
+			this.messageIds = messageIds;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.next == null && this.messageIds.hasNext()) {
+				this.next = getMessage(this.messageIds.next());
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public Message<?> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Message<?> message = this.next;
+			this.next = null;
+			return message;
+		}
+
+		@Override
+		public void close() {
+			this.next = null;
+		}
+
+	}
+
 }
@@ -18,6 +18,7 @@ package org.springframework.integration.store;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 
 import org.apache.commons.logging.Log;
@@ -105,6 +106,38 @@ public abstract class AbstractMessageGroupStore extends AbstractBatchingMessageG
 		this.lazyLoadMessageGroups = lazyLoadMessageGroups;
 	}
 
+	/**
+	 * Return true if the result of the {@link #getMessageGroup(Object)} is a lazy-load proxy.
+	 * @return the lazy-load flag.
+	 * @since 5.2
+	 * @see #setLazyLoadMessageGroups(boolean)
+	 */
+	protected boolean isLazyLoadMessageGroups() {
+		return this.lazyLoadMessageGroups;
+	}
+
+	/**
+	 * Create a lazy-load proxy for a group whose size is already known, so it is not
+	 * retrieved again. When {@code streaming}, each iteration over the group messages
+	 * retrieves them with {@link #iterateMessagesForGroup(Object)}, instead of loading
+	 * (and holding) all of them; the other operations on the messages still load them.
+	 * @param groupId the group id.
+	 * @param timestamp the group creation time.
+	 * @param complete the group completion flag.
+	 * @param size the number of messages in the group.
+	 * @param streaming true to stream the messages on each iteration.
+	 * @return the group.
+	 * @since 5.2
+	 */
+	protected MessageGroup createLazyMessageGroup(Object groupId, long timestamp, boolean complete, int size,
+			boolean streaming) {
+
+		SimpleMessageGroup original = new SimpleMessageGroup(Collections.emptyList(), groupId, timestamp, complete);
+		PersistentMessageGroup messageGroup = new PersistentMessageGroup(this, original, streaming);
+		messageGroup.setSize(size);
+		return messageGroup;
+	}
+
 	@Override
 	public void registerMessageGroupExpiryCallback(MessageGroupCallback callback) {
 		if (callback instanceof UniqueExpiryCallback) {
@@ -126,7 +159,7 @@ public abstract class AbstractMessageGroupStore extends AbstractBatchingMessageG
 	public synchronized int expireMessageGroups(long timeout) {
 		int count = 0;
 		long threshold = System.currentTimeMillis() - timeout;
-		for (MessageGroup group : this) {
+		for (MessageGroup group : getExpiryCandidates(threshold)) {
 
 			long timestamp = group.getTimestamp();
 			if (this.isTimeoutOnIdle() && group.getLastModified() > 0) {
@@ -141,6 +174,20 @@ public abstract class AbstractMessageGroupStore extends AbstractBatchingMessageG
 		return count;
 	}
 
+	/**
+	 * Return the groups to be checked by {@link #expireMessageGroups(long)}; this must
+	 * include at least every group whose timestamp (or last modified time when
+	 * {@link #isTimeoutOnIdle()}) is at or before the threshold. The default
+	 * implementation returns all the groups; stores which can select the due groups
+	 * more cheaply, via an index or a query, override it.
+	 * @param threshold the time at or before which groups are expired.
+	 * @return the candidate groups.
+	 * @since 5.2
+	 */
+	protected Iterable<MessageGroup> getExpiryCandidates(long threshold) {
+		return this;
+	}
+
 	/**
 	 * Used by expireMessageGroups. We need to return a snapshot of the group
 	 * at the time the reaper runs, so we can properly detect if the
@@ -191,7 +238,13 @@ public abstract class AbstractMessageGroupStore extends AbstractBatchingMessageG
 		return getMessageGroup(groupId);
 	}
 
-	private void expire(MessageGroup group) {
+	/**
+	 * Invoke the expiry callbacks for the group; if any of them fails, the others are
+	 * still invoked and the first exception is rethrown.
+	 * @param group the group to expire.
+	 * @since 5.2
+	 */
+	protected void expire(MessageGroup group) {
 
 		RuntimeException exception = null;
 
@@ -16,6 +16,9 @@
 
 package org.springframework.integration.store;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.messaging.Message;
 
@@ -64,6 +67,26 @@ public interface BasicMessageGroupStore {
 	 */
 	Message<?> pollMessageFromGroup(Object groupId);
 
+	/**
+	 * Poll up to the given number of Messages from this {@link MessageGroup} (in FIFO
+	 * style if supported by the implementation) while also removing the polled messages.
+	 * The default implementation calls {@link #pollMessageFromGroup(Object)} until the
+	 * group is empty or the number is reached; implementations may claim the whole batch
+	 * at once.
+	 * @param groupId The group identifier.
+	 * @param maxMessages The maximum number of messages to poll.
+	 * @return The messages; empty if none.
+	 * @since 5.2
+	 */
+	default List<Message<?>> pollMessagesFromGroup(Object groupId, int maxMessages) {
+		List<Message<?>> messages = new ArrayList<>();
+		Message<?> message;
+		while (messages.size() < maxMessages && (message = pollMessageFromGroup(groupId)) != null) {
+			messages.add(message);
+		}
+		return messages;
+	}
+
 	/**
 	 * Remove the message group with this id.
 	 *
@@ -0,0 +1,826 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * An in-memory {@link MessageGroupStore} for large numbers of small, short-lived groups.
+ * <p>
+ * Each group is an immutable snapshot which is replaced by compare-and-set on every
+ * change, so the store needs no {@link org.springframework.integration.support.locks.LockRegistry}
+ * and {@link #getMessageGroup(Object)} returns a consistent group which is never modified
+ * afterwards; its mutating methods throw {@link UnsupportedOperationException}.
+ * Adding a message appends it to the group's messages in place unless a concurrent update
+ * of the group appended first, so it costs O(1) amortized; removing messages copies the
+ * remaining ones.
+ * <p>
+ * The groups are also indexed by creation time:
+ * <ul>
+ * <li>{@link #expireMessageGroups(long)} (and therefore the {@link MessageGroupStoreReaper})
+ * only visits the groups which are due, unless {@link #setTimeoutOnIdle(boolean) timeoutOnIdle}
+ * is set;</li>
+ * <li>when a {@link #setMaxGroups(int) maximum number of groups} or a
+ * {@link #setMaxWeight(long, ToLongFunction) maximum weight} is configured, the oldest
+ * groups are evicted when it is exceeded: the expiry callbacks are invoked for them, as if
+ * they had been expired by the reaper, and they are removed if the callbacks did not
+ * remove them. The callbacks are invoked on the {@link #setEvictionExecutor(Executor)
+ * eviction executor}, not on the thread which added the message.</li>
+ * </ul>
+ * <p>
+ * {@link #addMessageToGroup(Object, Message, Predicate, boolean)} and
+ * {@link #releaseMessageGroup(MessageGroup, boolean)} combine an update with the release
+ * of the group in a single atomic transition, so an aggregator can use this store without
+ * locking the group; see
+ * {@link org.springframework.integration.aggregator.AggregatingMessageHandler#setLockFree(boolean)}.
+ *
+ * @since 5.2
+ */
+public class ConcurrentMessageGroupStore extends AbstractMessageGroupStore {
+
+	private static final String MESSAGE_GROUP_FOR_GROUP_ID = "MessageGroup for groupId '";
+
+	private final ConcurrentMap<Object, Group> groups = new ConcurrentHashMap<>();
+
+	private final ConcurrentLinkedDeque<Created> creationOrder = new ConcurrentLinkedDeque<>();
+
+	private final AtomicInteger creationOrderSize = new AtomicInteger();
+
+	private final AtomicLong serial = new AtomicLong();
+
+	private final AtomicLong messageCount = new AtomicLong();
+
+	private final AtomicLong weight = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final Queue<Group> pendingEvictions = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger pendingEvictionGroups = new AtomicInteger();
+
+	private final AtomicLong pendingEvictionWeight = new AtomicLong();
+
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	private Executor evictionExecutor = new SimpleAsyncTaskExecutor("concurrentMessageGroupStore-eviction-");
+
+	private int maxGroups;
+
+	private long maxWeight;
+
+	private ToLongFunction<Message<?>> weigher = message -> 1;
+
+	public ConcurrentMessageGroupStore() {
+		super(false);
+	}
+
+	/**
+	 * Set the maximum number of groups; the oldest groups are evicted when it is exceeded.
+	 * Default 0 (unbounded).
+	 * @param maxGroups the maximum number of groups.
+	 */
+	public void setMaxGroups(int maxGroups) {
+		Assert.isTrue(maxGroups >= 0, "'maxGroups' must not be negative");
+		this.maxGroups = maxGroups;
+	}
+
+	/**
+	 * Set the maximum total weight of the messages in all the groups; the oldest groups are
+	 * evicted when it is exceeded. Default 0 (unbounded).
+	 * @param maxWeight the maximum weight.
+	 * @param weigher the function to determine the weight of a message, such as its size in bytes.
+	 */
+	public void setMaxWeight(long maxWeight, ToLongFunction<Message<?>> weigher) {
+		Assert.isTrue(maxWeight >= 0, "'maxWeight' must not be negative");
+		Assert.notNull(weigher, "'weigher' must not be null");
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+	}
+
+	/**
+	 * Set the executor to invoke the expiry callbacks for the evicted groups. The thread
+	 * which adds a message may hold a lock which a callback needs, such as the group lock of
+	 * an aggregator, so the callbacks are not invoked on that thread. The evicted groups
+	 * are processed one at a time and are not counted against the limits in the meantime.
+	 * Default {@link SimpleAsyncTaskExecutor}.
+	 * @param evictionExecutor the executor.
+	 */
+	public void setEvictionExecutor(Executor evictionExecutor) {
+		Assert.notNull(evictionExecutor, "'evictionExecutor' must not be null");
+		this.evictionExecutor = evictionExecutor;
+	}
+
+	@Override
+	public void setLazyLoadMessageGroups(boolean lazyLoadMessageGroups) {
+		throw new UnsupportedOperationException(
+				"The lazy-load isn't supported for in-memory 'ConcurrentMessageGroupStore'");
+	}
+
+	/**
+	 * Return the number of groups evicted because the store was full.
+	 * @return the number of evicted groups.
+	 */
+	@ManagedAttribute
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * Return the total weight of the messages in all the groups.
+	 * @return the weight.
+	 */
+	@ManagedAttribute
+	public long getWeight() {
+		return this.weight.get();
+	}
+
+	@Override
+	@ManagedAttribute
+	public int getMessageGroupCount() {
+		return this.groups.size();
+	}
+
+	@Override
+	@ManagedAttribute
+	public int getMessageCountForAllMessageGroups() {
+		return (int) this.messageCount.get();
+	}
+
+	@Override
+	public MessageGroup getMessageGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		MessageGroup group = this.groups.get(groupId);
+		return group != null ? group : getMessageGroupFactory().create(groupId);
+	}
+
+	@Override
+	public void addMessagesToGroup(Object groupId, Message<?>... messages) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		Assert.notNull(messages, "'messages' must not be null");
+		long now = System.currentTimeMillis();
+		while (true) {
+			Group group = this.groups.get(groupId);
+			if (group == null) {
+				Group newGroup = Group.EMPTY.with(groupId, this.serial.incrementAndGet(), now, messages, this.weigher);
+				if (this.groups.putIfAbsent(groupId, newGroup) == null) {
+					pruneCreationOrder();
+					this.creationOrder.offer(new Created(groupId, newGroup.serial, now));
+					this.creationOrderSize.incrementAndGet();
+					changed(Group.EMPTY, newGroup);
+					break;
+				}
+			}
+			else {
+				Group newGroup = group.with(groupId, group.serial, now, messages, this.weigher);
+				if (newGroup == group || this.groups.replace(groupId, group, newGroup)) {
+					changed(group, newGroup);
+					break;
+				}
+			}
+		}
+		evictIfNecessary(groupId);
+	}
+
+	/**
+	 * Add the message to the group unless the group is complete and, if the group with the
+	 * message then satisfies the release condition, release it in the same atomic update:
+	 * the group is removed if {@code removeOnRelease}, otherwise its messages are removed
+	 * and it is marked complete, so later messages are not added to it.
+	 * The release condition may be evaluated more than once when the group is updated
+	 * concurrently.
+	 * @param groupId the group id.
+	 * @param message the message.
+	 * @param releaseCondition the condition to release the group.
+	 * @param removeOnRelease true to remove the group when it is released.
+	 * @return the group with the message, which is complete if it was released by this
+	 * call, or null if the group was already complete and the message was not added.
+	 */
+	@Nullable
+	public MessageGroup addMessageToGroup(Object groupId, Message<?> message,
+			Predicate<? super MessageGroup> releaseCondition, boolean removeOnRelease) {
+
+		Assert.notNull(groupId, "'groupId' must not be null");
+		Assert.notNull(message, "'message' must not be null");
+		Assert.notNull(releaseCondition, "'releaseCondition' must not be null");
+		Message<?>[] messages = { message };
+		long now = System.currentTimeMillis();
+		while (true) {
+			Group group = this.groups.get(groupId);
+			if (group == null) {
+				Group newGroup = Group.EMPTY.with(groupId, this.serial.incrementAndGet(), now, messages, this.weigher);
+				boolean release = releaseCondition.test(newGroup);
+				if (release && removeOnRelease) {
+					return newGroup.completed();
+				}
+				Group groupToStore = release ? newGroup.released() : newGroup;
+				if (this.groups.putIfAbsent(groupId, groupToStore) == null) {
+					pruneCreationOrder();
+					this.creationOrder.offer(new Created(groupId, groupToStore.serial, now));
+					this.creationOrderSize.incrementAndGet();
+					changed(Group.EMPTY, groupToStore);
+					evictIfNecessary(groupId);
+					return release ? newGroup.completed() : newGroup;
+				}
+			}
+			else if (group.complete) {
+				return null;
+			}
+			else {
+				Group newGroup = group.with(groupId, group.serial, now, messages, this.weigher);
+				if (newGroup != group && releaseCondition.test(newGroup)) {
+					if (release(group, newGroup, removeOnRelease)) {
+						return newGroup.completed();
+					}
+				}
+				else if (newGroup == group || this.groups.replace(groupId, group, newGroup)) {
+					changed(group, newGroup);
+					evictIfNecessary(groupId);
+					return newGroup;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Release the group if it has not changed since the provided snapshot was obtained from
+	 * this store: the group is removed if {@code remove}, otherwise its messages are removed
+	 * and it is marked complete.
+	 * @param group the group snapshot.
+	 * @param remove true to remove the group.
+	 * @return true if the group was released.
+	 */
+	public boolean releaseMessageGroup(MessageGroup group, boolean remove) {
+		Assert.notNull(group, "'group' must not be null");
+		Group current = this.groups.get(group.getGroupId());
+		return current == group && release(current, current, remove);
+	}
+
+	private boolean release(Group group, Group groupToRelease, boolean remove) {
+		if (remove) {
+			if (this.groups.remove(group.groupId, group)) {
+				changed(group, Group.EMPTY);
+				return true;
+			}
+		}
+		else {
+			Group released = groupToRelease.released();
+			if (this.groups.replace(group.groupId, group, released)) {
+				changed(group, released);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void removeMessagesFromGroup(Object groupId, Collection<Message<?>> messages) {
+		update(groupId, group -> group.without(messages, this.weigher), "remove Message(s) from the MessageGroup");
+	}
+
+	@Override
+	public void removeMessageGroup(Object groupId) {
+		Group group = this.groups.remove(groupId);
+		if (group != null) {
+			changed(group, Group.EMPTY);
+		}
+	}
+
+	@Override
+	public void setLastReleasedSequenceNumberForGroup(Object groupId, int sequenceNumber) {
+		update(groupId, group -> group.withLastReleasedSequenceNumber(sequenceNumber),
+				"set 'lastReleasedSequenceNumber'");
+	}
+
+	@Override
+	public void completeGroup(Object groupId) {
+		update(groupId, Group::completed, "complete the MessageGroup");
+	}
+
+	@Override
+	@Nullable
+	public Message<?> pollMessageFromGroup(Object groupId) {
+		while (true) {
+			Group group = this.groups.get(groupId);
+			Message<?> message = group != null ? group.getOne() : null;
+			if (message == null) {
+				return null;
+			}
+			Group newGroup = group.without(Collections.singletonList(message), this.weigher);
+			if (this.groups.replace(groupId, group, newGroup)) {
+				changed(group, newGroup);
+				return message;
+			}
+		}
+	}
+
+	@Override
+	public int messageGroupSize(Object groupId) {
+		Group group = this.groups.get(groupId);
+		return group != null ? group.size : 0;
+	}
+
+	@Override
+	public MessageGroupMetadata getGroupMetadata(Object groupId) {
+		return new MessageGroupMetadata(getMessageGroup(groupId));
+	}
+
+	@Override
+	@Nullable
+	public Message<?> getOneMessageFromGroup(Object groupId) {
+		return getMessageGroup(groupId).getOne();
+	}
+
+	@Override
+	public Collection<Message<?>> getMessagesForGroup(Object groupId) {
+		return getMessageGroup(groupId).getMessages();
+	}
+
+	@Override
+	public Iterator<MessageGroup> iterator() {
+		return Collections.<MessageGroup>unmodifiableCollection(this.groups.values()).iterator();
+	}
+
+	/**
+	 * Expire the groups created before the timeout, visiting them in creation order and
+	 * stopping at the first one which is not due; when {@link #isTimeoutOnIdle()}, all the
+	 * groups are visited.
+	 * @param timeout the timeout.
+	 * @return the number of expired groups.
+	 */
+	@Override
+	public synchronized int expireMessageGroups(long timeout) {
+		if (isTimeoutOnIdle()) {
+			return super.expireMessageGroups(timeout);
+		}
+		int count = 0;
+		long threshold = System.currentTimeMillis() - timeout;
+		for (Created created : this.creationOrder) {
+			if (created.timestamp > threshold) {
+				break;
+			}
+			Group group = this.groups.get(created.groupId);
+			if (group != null && group.serial == created.serial) {
+				count++;
+				expire(group);
+			}
+		}
+		pruneCreationOrder();
+		return count;
+	}
+
+	private void update(Object groupId, UnaryOperator<Group> change, String operation) {
+		while (true) {
+			Group group = this.groups.get(groupId);
+			Assert.notNull(group, () -> MESSAGE_GROUP_FOR_GROUP_ID + groupId + "' " +
+					"can not be located while attempting to " + operation);
+			Group newGroup = change.apply(group);
+			if (newGroup == group || this.groups.replace(groupId, group, newGroup)) {
+				changed(group, newGroup);
+				return;
+			}
+		}
+	}
+
+	private void changed(Group oldGroup, Group newGroup) {
+		this.messageCount.addAndGet(newGroup.size - oldGroup.size);
+		this.weight.addAndGet(newGroup.weight - oldGroup.weight);
+	}
+
+	/*
+	 * Drop the index entries of the groups which no longer exist at the head of the
+	 * creation order; short-lived groups are mostly removed in creation order. If a
+	 * long-lived group holds the head, sweep the whole index once it gets too large.
+	 */
+	private void pruneCreationOrder() {
+		Created created;
+		while ((created = this.creationOrder.peek()) != null && !isCurrent(created)) {
+			if (this.creationOrder.remove(created)) {
+				this.creationOrderSize.decrementAndGet();
+			}
+		}
+		if (this.creationOrderSize.get() > 2 * this.groups.size() + 1024) {
+			this.creationOrder.forEach(c -> {
+				if (!isCurrent(c) && this.creationOrder.remove(c)) {
+					this.creationOrderSize.decrementAndGet();
+				}
+			});
+		}
+	}
+
+	private boolean isCurrent(Created created) {
+		Group group = this.groups.get(created.groupId);
+		return group != null && group.serial == created.serial;
+	}
+
+	private boolean isFull() {
+		return (this.maxGroups > 0 && this.groups.size() - this.pendingEvictionGroups.get() > this.maxGroups)
+				|| (this.maxWeight > 0 && this.weight.get() - this.pendingEvictionWeight.get() > this.maxWeight);
+	}
+
+	private void evictIfNecessary(Object currentGroupId) {
+		while (isFull()) {
+			Created oldest = this.creationOrder.poll();
+			if (oldest == null) {
+				break;
+			}
+			if (oldest.groupId.equals(currentGroupId)) {
+				this.creationOrder.offerFirst(oldest);
+				break;
+			}
+			this.creationOrderSize.decrementAndGet();
+			Group group = this.groups.get(oldest.groupId);
+			if (group != null && group.serial == oldest.serial) {
+				this.pendingEvictionGroups.incrementAndGet();
+				this.pendingEvictionWeight.addAndGet(group.weight);
+				this.pendingEvictions.offer(group);
+			}
+		}
+		scheduleEvictions();
+	}
+
+	private void scheduleEvictions() {
+		if (!this.pendingEvictions.isEmpty() && this.evicting.compareAndSet(false, true)) {
+			try {
+				this.evictionExecutor.execute(this::evictPending);
+			}
+			catch (RuntimeException e) {
+				this.evicting.set(false);
+				throw e;
+			}
+		}
+	}
+
+	private void evictPending() {
+		try {
+			Group pending;
+			while ((pending = this.pendingEvictions.poll()) != null) {
+				try {
+					Group group = this.groups.get(pending.groupId);
+					if (group != null && group.serial == pending.serial) {
+						evict(group);
+					}
+				}
+				finally {
+					this.pendingEvictionGroups.decrementAndGet();
+					this.pendingEvictionWeight.addAndGet(-pending.weight);
+				}
+			}
+		}
+		finally {
+			this.evicting.set(false);
+		}
+		scheduleEvictions();
+	}
+
+	private void evict(Group group) {
+		this.evictionCount.incrementAndGet();
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Evicting " + group);
+		}
+		try {
+			expire(group);
+		}
+		catch (RuntimeException e) {
+			this.logger.error("Exception while evicting " + group, e);
+		}
+		Group current = this.groups.get(group.groupId);
+		if (current != null && current.serial == group.serial && this.groups.remove(group.groupId, current)) {
+			changed(current, Group.EMPTY);
+		}
+	}
+
+	/**
+	 * An immutable snapshot of a group.
+	 */
+	private static final class Group implements MessageGroup {
+
+		static final Group EMPTY = new Group(null, 0, 0, 0, Slots.NONE, 0, 0, false, 0);
+
+		private final Object groupId;
+
+		private final long serial;
+
+		private final long timestamp;
+
+		private final long lastModified;
+
+		private final Slots slots;
+
+		private final int size;
+
+		private final long weight;
+
+		private final boolean complete;
+
+		private final int lastReleasedSequenceNumber;
+
+		Group(Object groupId, long serial, long timestamp, long lastModified, Slots slots, int size, // NOSONAR
+				long weight, boolean complete, int lastReleasedSequenceNumber) {
+
+			this.groupId = groupId;
+			this.serial = serial;
+			this.timestamp = timestamp;
+			this.lastModified = lastModified;
+			this.slots = slots;
+			this.size = size;
+			this.weight = weight;
+			this.complete = complete;
+			this.lastReleasedSequenceNumber = lastReleasedSequenceNumber;
+		}
+
+		/*
+		 * Like the SimpleMessageGroup, a group holds each message only once.
+		 * The messages are appended to the slots of this group in place when no other group
+		 * has claimed the next slot; otherwise, or when the slots are full, they are copied.
+		 */
+		Group with(Object groupId, long serial, long now, Message<?>[] messagesToAdd,
+				ToLongFunction<Message<?>> weigher) {
+
+			Slots newSlots = this.slots;
+			int newSize = this.size;
+			long newWeight = this.weight;
+			for (Message<?> message : messagesToAdd) {
+				if (message != null && !newSlots.contains(message, newSize)) {
+					newSlots = newSlots.claim(newSize);
+					newSlots.set(newSize++, message);
+					newWeight += weigher.applyAsLong(message);
+				}
+			}
+			if (this == EMPTY) {
+				return new Group(groupId, serial, now, now, newSlots, newSize, newWeight, false, 0);
+			}
+			if (newSize == this.size) {
+				return this;
+			}
+			return new Group(this.groupId, this.serial, this.timestamp, now, newSlots, newSize,
+					newWeight, this.complete, this.lastReleasedSequenceNumber);
+		}
+
+		Group without(Collection<Message<?>> messagesToRemove, ToLongFunction<Message<?>> weigher) {
+			Message<?>[] newMessages = new Message<?>[this.size];
+			int newSize = 0;
+			long newWeight = this.weight;
+			for (int i = 0; i < this.size; i++) {
+				Message<?> message = this.slots.messages[i];
+				if (messagesToRemove.contains(message)) {
+					newWeight -= weigher.applyAsLong(message);
+				}
+				else {
+					newMessages[newSize++] = message;
+				}
+			}
+			if (newSize == this.size) {
+				return this;
+			}
+			return new Group(this.groupId, this.serial, this.timestamp, System.currentTimeMillis(),
+					newSize == 0 ? Slots.NONE : new Slots(newMessages, newSize), newSize, newWeight, this.complete,
+					this.lastReleasedSequenceNumber);
+		}
+
+		Group withLastReleasedSequenceNumber(int sequenceNumber) {
+			return new Group(this.groupId, this.serial, this.timestamp, System.currentTimeMillis(), this.slots,
+					this.size, this.weight, this.complete, sequenceNumber);
+		}
+
+		Group completed() {
+			return new Group(this.groupId, this.serial, this.timestamp, System.currentTimeMillis(), this.slots,
+					this.size, this.weight, true, this.lastReleasedSequenceNumber);
+		}
+
+		Group released() {
+			return new Group(this.groupId, this.serial, this.timestamp, System.currentTimeMillis(), Slots.NONE,
+					0, 0, true, this.lastReleasedSequenceNumber);
+		}
+
+		@Override
+		public boolean canAdd(Message<?> message) {
+			return true;
+		}
+
+		@Override
+		public Collection<Message<?>> getMessages() {
+			return Collections.unmodifiableList(messageList());
+		}
+
+		@Override
+		public Object getGroupId() {
+			return this.groupId;
+		}
+
+		@Override
+		public int getLastReleasedMessageSequenceNumber() {
+			return this.lastReleasedSequenceNumber;
+		}
+
+		@Override
+		public boolean isComplete() {
+			return this.complete;
+		}
+
+		@Override
+		public int getSequenceSize() {
+			if (this.size == 0) {
+				return 0;
+			}
+			Number sequenceSize = this.slots.messages[0].getHeaders()
+					.get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE, Number.class);
+			return sequenceSize != null ? sequenceSize.intValue() : 0;
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+		@Override
+		@Nullable
+		public Message<?> getOne() {
+			return this.size > 0 ? this.slots.messages[0] : null;
+		}
+
+		@Override
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		@Override
+		public long getLastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public void add(Message<?> messageToAdd) {
+			throw immutable();
+		}
+
+		@Override
+		public boolean remove(Message<?> messageToRemove) {
+			throw immutable();
+		}
+
+		@Override
+		public void setLastReleasedMessageSequenceNumber(int sequenceNumber) {
+			throw immutable();
+		}
+
+		@Override
+		public void complete() {
+			throw immutable();
+		}
+
+		@Override
+		public void setLastModified(long lastModified) {
+			throw immutable();
+		}
+
+		@Override
+		public void clear() {
+			throw immutable();
+		}
+
+		private List<Message<?>> messageList() {
+			return Arrays.asList(this.slots.messages).subList(0, this.size);
+		}
+
+		private UnsupportedOperationException immutable() {
+			return new UnsupportedOperationException("The groups of a ConcurrentMessageGroupStore are immutable; "
+					+ "use the store operations instead");
+		}
+
+		@Override
+		public String toString() {
+			return "MessageGroup{" +
+					"groupId=" + this.groupId +
+					", messages=" + messageList() +
+					", timestamp=" + this.timestamp +
+					", lastModified=" + this.lastModified +
+					'}';
+		}
+
+	}
+
+	/**
+	 * The messages of a group, shared by the snapshots derived from it by appending. Each
+	 * slot is claimed and written only once, so a snapshot only sees the slots below its
+	 * size, which never change. The positions of the messages are indexed once the slots
+	 * outgrow a linear scan.
+	 */
+	private static final class Slots {
+
+		private static final int INDEX_THRESHOLD = 8;
+
+		static final Slots NONE = new Slots(new Message<?>[0], 0);
+
+		private final Message<?>[] messages;
+
+		private final AtomicInteger claimed;
+
+		@Nullable
+		private final Map<Message<?>, Integer> positions;
+
+		Slots(Message<?>[] messages, int size) {
+			this.messages = messages;
+			this.claimed = new AtomicInteger(size);
+			if (messages.length > INDEX_THRESHOLD) {
+				this.positions = new ConcurrentHashMap<>(messages.length);
+				for (int i = 0; i < size; i++) {
+					this.positions.putIfAbsent(messages[i], i);
+				}
+			}
+			else {
+				this.positions = null;
+			}
+		}
+
+		boolean contains(Message<?> message, int size) {
+			if (this.positions != null) {
+				Integer position = this.positions.get(message);
+				return position != null && position < size;
+			}
+			for (int i = 0; i < size; i++) {
+				if (this.messages[i].equals(message)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/*
+		 * Claim the slot at the index (the size of the claiming snapshot) in these slots or,
+		 * if it is taken or beyond the capacity, in a copy of the slots below it.
+		 */
+		Slots claim(int index) {
+			if (index < this.messages.length && this.claimed.compareAndSet(index, index + 1)) {
+				return this;
+			}
+			Message<?>[] messages = new Message<?>[Math.max(4, index * 2)];
+			System.arraycopy(this.messages, 0, messages, 0, index);
+			Slots copy = new Slots(messages, index);
+			copy.claimed.set(index + 1);
+			return copy;
+		}
+
+		void set(int index, Message<?> message) {
+			this.messages[index] = message;
+			if (this.positions != null) {
+				this.positions.put(message, index);
+			}
+		}
+
+	}
+
+	private static final class Created {
+
+		private final Object groupId;
+
+		private final long serial;
+
+		private final long timestamp;
+
+		Created(Object groupId, long serial, long timestamp) {
+			this.groupId = groupId;
+			this.serial = serial;
+			this.timestamp = timestamp;
+		}
+
+	}
+
+}
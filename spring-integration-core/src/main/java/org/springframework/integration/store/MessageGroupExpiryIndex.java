@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * A time-bucketed index of group ids: each group is held in the bucket of the time it
+ * was indexed at, so {@link #pollDue(long)} visits only the buckets at or before a
+ * threshold instead of every group.
+ * Buckets are {@code resolution} milliseconds wide, so the polled ids may include groups
+ * indexed up to {@code resolution} milliseconds after the threshold; callers check the
+ * actual group timestamps.
+ *
+ * @since 5.2
+ */
+final class MessageGroupExpiryIndex {
+
+	private final long resolution;
+
+	private final NavigableMap<Long, Set<Object>> buckets = new TreeMap<>();
+
+	private final Map<Object, Long> groupToBucket = new HashMap<>();
+
+	MessageGroupExpiryIndex(long resolution) {
+		Assert.isTrue(resolution > 0, "'resolution' must be greater than 0");
+		this.resolution = resolution;
+	}
+
+	/**
+	 * Index the group at the provided time, moving it if it is already indexed.
+	 * @param groupId the group id.
+	 * @param timestamp the time.
+	 */
+	synchronized void add(Object groupId, long timestamp) {
+		Long bucket = timestamp - Math.floorMod(timestamp, this.resolution);
+		Long previous = this.groupToBucket.put(groupId, bucket);
+		if (previous != null) {
+			if (previous.equals(bucket)) {
+				return;
+			}
+			removeFromBucket(previous, groupId);
+		}
+		this.buckets.computeIfAbsent(bucket, key -> new HashSet<>()).add(groupId);
+	}
+
+	synchronized void remove(Object groupId) {
+		Long bucket = this.groupToBucket.remove(groupId);
+		if (bucket != null) {
+			removeFromBucket(bucket, groupId);
+		}
+	}
+
+	/**
+	 * Remove and return the ids in the buckets starting at or before the threshold.
+	 * @param threshold the threshold.
+	 * @return the ids.
+	 */
+	synchronized List<Object> pollDue(long threshold) {
+		List<Object> due = new ArrayList<>();
+		Iterator<Set<Object>> iterator = this.buckets.headMap(threshold, true).values().iterator();
+		while (iterator.hasNext()) {
+			for (Object groupId : iterator.next()) {
+				this.groupToBucket.remove(groupId);
+				due.add(groupId);
+			}
+			iterator.remove();
+		}
+		return due;
+	}
+
+	synchronized int size() {
+		return this.groupToBucket.size();
+	}
+
+	private void removeFromBucket(Long bucket, Object groupId) {
+		Set<Object> groups = this.buckets.get(bucket);
+		if (groups != null && groups.remove(groupId) && groups.isEmpty()) {
+			this.buckets.remove(bucket);
+		}
+	}
+
+}
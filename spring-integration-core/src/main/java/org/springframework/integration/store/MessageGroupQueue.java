@@ -20,6 +20,7 @@ import java.util.AbstractQueue;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -65,6 +66,10 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 
 	private final Condition messageStoreNotEmpty;
 
+	private boolean addOutsideLock;
+
+	private int pendingAdds;
+
 	public MessageGroupQueue(BasicMessageGroupStore messageGroupStore, Object groupId) {
 		this(messageGroupStore, groupId, DEFAULT_CAPACITY, new ReentrantLock(true));
 	}
@@ -116,6 +121,19 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 		}
 	}
 
+	/**
+	 * Set to true to add the offered messages to the store without holding the
+	 * 'storeLock', so that the store can coalesce concurrent additions (such as the JDBC
+	 * stores with a write batch window); the capacity is then reserved under the lock
+	 * and the in-progress additions count against it. When true, the offered messages
+	 * are no longer added by {@link #doOffer(Message)}. Default false.
+	 * @param addOutsideLock true to add the messages without holding the lock.
+	 * @since 5.2
+	 */
+	public void setAddOutsideLock(boolean addOutsideLock) {
+		this.addOutsideLock = addOutsideLock;
+	}
+
 	@Override
 	public Iterator<Message<?>> iterator() {
 		return getMessages().iterator();
@@ -237,12 +255,7 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 		try {
 			lock.lockInterruptibly();
 			try {
-				Message<?> message = this.messageGroupStore.pollMessageFromGroup(this.groupId);
-				for (int i = 0; i < maxElements && message != null; i++) {
-					list.add(message);
-					message = this.messageGroupStore.pollMessageFromGroup(this.groupId);
-				}
-				this.messageStoreNotFull.signal();
+				doDrain(list, maxElements);
 			}
 			finally {
 				lock.unlock();
@@ -256,14 +269,79 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 		return collection.size() - originalSize;
 	}
 
+	/**
+	 * Remove at most the given number of messages from this queue and add them to the
+	 * given collection, waiting up to the specified wait time if necessary for the first
+	 * message to become available. The whole batch is taken while holding the store lock
+	 * once. A negative timeout means wait indefinitely.
+	 * @param collection the collection to transfer messages into.
+	 * @param maxElements the maximum number of messages to transfer.
+	 * @param timeout how long to wait for the first message.
+	 * @param unit the {@link TimeUnit} for the timeout.
+	 * @return the number of messages transferred.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * @since 5.2
+	 */
+	public int drainTo(Collection<? super Message<?>> collection, int maxElements, long timeout, TimeUnit unit)
+			throws InterruptedException {
+
+		Assert.notNull(collection, "'collection' must not be null");
+		int originalSize = collection.size();
+		ArrayList<Message<?>> list = new ArrayList<>();
+		long timeoutInNanos = unit.toNanos(timeout);
+		final Lock lock = this.storeLock;
+		lock.lockInterruptibly();
+		try {
+			if (timeout < 0) {
+				while (this.size() == 0) {
+					this.messageStoreNotEmpty.await();
+				}
+			}
+			else {
+				while (this.size() == 0 && timeoutInNanos > 0) {
+					timeoutInNanos = this.messageStoreNotEmpty.awaitNanos(timeoutInNanos);
+				}
+			}
+			doDrain(list, maxElements);
+		}
+		finally {
+			lock.unlock();
+		}
+		collection.addAll(list);
+		return collection.size() - originalSize;
+	}
+
+	/**
+	 * It is assumed that the 'storeLock' is being held by the caller, otherwise
+	 * IllegalMonitorStateException may be thrown
+	 * @param list the list to add polled messages to.
+	 * @param maxElements the maximum number of messages to poll.
+	 * @since 5.2
+	 */
+	protected void doDrain(List<Message<?>> list, int maxElements) {
+		if (list.size() < maxElements) {
+			list.addAll(this.messageGroupStore.pollMessagesFromGroup(this.groupId, maxElements - list.size()));
+		}
+		if (!list.isEmpty()) {
+			this.messageStoreNotFull.signalAll();
+		}
+	}
+
 	@Override
 	public boolean offer(Message<?> message) {
 		boolean offered = true;
+		boolean reserved = false;
 		final Lock lock = this.storeLock;
 		try {
 			lock.lockInterruptibly();
 			try {
-				offered = this.doOffer(message);
+				if (this.addOutsideLock) {
+					offered = reserve();
+					reserved = offered;
+				}
+				else {
+					offered = this.doOffer(message);
+				}
 			}
 			finally {
 				lock.unlock();
@@ -272,6 +350,9 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 		catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 		}
+		if (reserved) {
+			addReserved(message);
+		}
 		return offered;
 	}
 
@@ -279,40 +360,59 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 	public boolean offer(Message<?> message, long timeout, TimeUnit unit) throws InterruptedException {
 		long timeoutInNanos = unit.toNanos(timeout);
 		boolean offered = false;
+		boolean reserved = false;
 
 		final Lock lock = this.storeLock;
 		lock.lockInterruptibly();
 		try {
 			if (this.capacity != Integer.MAX_VALUE) {
-				while (this.size() == this.capacity && timeoutInNanos > 0) {
+				while (this.size() + this.pendingAdds >= this.capacity && timeoutInNanos > 0) {
 					timeoutInNanos = this.messageStoreNotFull.awaitNanos(timeoutInNanos);
 				}
 			}
 			if (timeoutInNanos > 0) {
-				offered = this.doOffer(message);
+				if (this.addOutsideLock) {
+					offered = reserve();
+					reserved = offered;
+				}
+				else {
+					offered = this.doOffer(message);
+				}
 			}
 		}
 		finally {
 			lock.unlock();
 		}
+		if (reserved) {
+			addReserved(message);
+		}
 		return offered;
 	}
 
 	@Override
 	public void put(Message<?> message) throws InterruptedException {
+		boolean reserved = false;
 		final Lock lock = this.storeLock;
 		lock.lockInterruptibly();
 		try {
 			if (this.capacity != Integer.MAX_VALUE) {
-				while (this.size() == this.capacity) {
+				while (this.size() + this.pendingAdds >= this.capacity) {
 					this.messageStoreNotFull.await();
 				}
 			}
-			this.doOffer(message);
+			if (this.addOutsideLock) {
+				reserved = reserve();
+			}
+			else {
+				this.doOffer(message);
+			}
 		}
 		finally {
 			lock.unlock();
 		}
+		if (reserved) {
+			addReserved(message);
+		}
 	}
 
 	@Override
@@ -357,6 +457,50 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 		return message;
 	}
 
+	/**
+	 * Reserve the capacity for a message, which is then added to the store by
+	 * {@link #addReserved(Message)} without holding the 'storeLock'.
+	 * It is assumed that the 'storeLock' is being held by the caller.
+	 * @return true if the capacity was reserved.
+	 */
+	private boolean reserve() {
+		if (this.capacity == Integer.MAX_VALUE || this.size() + this.pendingAdds < this.capacity) {
+			this.pendingAdds++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Add a message to the store without holding the 'storeLock', so the store can
+	 * coalesce concurrent additions (such as the JDBC stores with a write batch window),
+	 * then signal a consumer; the reserved capacity is released if the addition fails.
+	 * @param message the message.
+	 */
+	private void addReserved(Message<?> message) {
+		boolean added = false;
+		try {
+			this.messageGroupStore.addMessageToGroup(this.groupId, message);
+			added = true;
+		}
+		finally {
+			final Lock lock = this.storeLock;
+			lock.lock();
+			try {
+				this.pendingAdds--;
+				if (added) {
+					this.messageStoreNotEmpty.signal();
+				}
+				else {
+					this.messageStoreNotFull.signal();
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+
 	/**
 	 * It is assumed that the 'storeLock' is being held by the caller, otherwise
 	 * IllegalMonitorStateException may be thrown
@@ -365,7 +509,7 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 	 */
 	protected boolean doOffer(Message<?> message) {
 		boolean offered = false;
-		if (this.capacity == Integer.MAX_VALUE || this.size() < this.capacity) {
+		if (this.capacity == Integer.MAX_VALUE || this.size() + this.pendingAdds < this.capacity) {
 			this.messageGroupStore.addMessageToGroup(this.groupId, message);
 			offered = true;
 			this.messageStoreNotEmpty.signal();
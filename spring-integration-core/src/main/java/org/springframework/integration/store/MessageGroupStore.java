@@ -18,7 +18,10 @@ package org.springframework.integration.store;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.function.Function;
 
+import org.springframework.integration.util.CloseableIterator;
+import org.springframework.integration.util.FunctionIterator;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.messaging.Message;
@@ -142,6 +145,20 @@ public interface MessageGroupStore extends BasicMessageGroupStore {
 	 */
 	Collection<Message<?>> getMessagesForGroup(Object groupId);
 
+	/**
+	 * Iterate over the messages for the provided group id, in the same order as
+	 * {@link #getMessagesForGroup(Object)}. Stores which can read the messages lazily
+	 * override this method so that not all the messages of a large group have to be on the
+	 * heap at once; by default, the {@link #getMessagesForGroup(Object)} result is iterated.
+	 * The iterator must be closed if it is not read to the end.
+	 * @param groupId The group id to retrieve messages for.
+	 * @return the iterator over the messages for group.
+	 * @since 5.2
+	 */
+	default CloseableIterator<Message<?>> iterateMessagesForGroup(Object groupId) {
+		return new FunctionIterator<>(getMessagesForGroup(groupId), Function.identity());
+	}
+
 	/**
 	 * Invoked when a MessageGroupStore expires a group.
 	 */
@@ -20,11 +20,13 @@ import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.messaging.Message;
 
 /**
@@ -41,13 +43,20 @@ class PersistentMessageGroup implements MessageGroup {
 
 	private final MessageGroup original;
 
+	private final boolean streaming;
+
 	private volatile Message<?> oneMessage;
 
 	private volatile int size;
 
 	PersistentMessageGroup(MessageGroupStore messageGroupStore, MessageGroup original) {
+		this(messageGroupStore, original, false);
+	}
+
+	PersistentMessageGroup(MessageGroupStore messageGroupStore, MessageGroup original, boolean streaming) {
 		this.messageGroupStore = messageGroupStore;
 		this.original = original;
+		this.streaming = streaming;
 	}
 
 	public void setSize(int size) {
@@ -216,6 +225,14 @@ class PersistentMessageGroup implements MessageGroup {
 
 		@Override
 		public Iterator<Message<?>> iterator() {
+			if (this.collection == null && PersistentMessageGroup.this.streaming) {
+				Object groupId = PersistentMessageGroup.this.original.getGroupId();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Streaming messages for messageGroup: " + groupId);
+				}
+				return new StreamingIterator(
+						PersistentMessageGroup.this.messageGroupStore.iterateMessagesForGroup(groupId));
+			}
 			load();
 			return this.collection.iterator();
 		}
@@ -227,4 +244,41 @@ class PersistentMessageGroup implements MessageGroup {
 
 	}
 
+	/**
+	 * Closes the store iterator once it is exhausted, since the callers of
+	 * {@link Collection#iterator()} do not close it.
+	 */
+	private static final class StreamingIterator implements Iterator<Message<?>> {
+
+		private final CloseableIterator<Message<?>> delegate;
+
+		private boolean closed;
+
+		StreamingIterator(CloseableIterator<Message<?>> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.closed) {
+				return false;
+			}
+			boolean hasNext = this.delegate.hasNext();
+			if (!hasNext) {
+				this.closed = true;
+				this.delegate.close();
+			}
+			return hasNext;
+		}
+
+		@Override
+		public Message<?> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return this.delegate.next();
+		}
+
+	}
+
 }
@@ -16,14 +16,19 @@
 
 package org.springframework.integration.store;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 
@@ -46,7 +51,9 @@ public class SimpleMessageGroup implements MessageGroup {
 
 	private final Collection<Message<?>> messages;
 
-	private final Set<Integer> sequences = new HashSet<>();
+	private final NavigableMap<Integer, Message<?>> sequences = new TreeMap<>();
+
+	private final Map<Integer, List<Message<?>>> duplicateSequences = new HashMap<>();
 
 	private final long timestamp;
 
@@ -119,8 +126,26 @@ public class SimpleMessageGroup implements MessageGroup {
 
 	@Override
 	public boolean remove(Message<?> message) {
-		this.sequences.remove(message.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER));
-		return this.messages.remove(message);
+		if (!this.messages.remove(message)) {
+			return false;
+		}
+		Integer sequence = sequenceNumber(message);
+		List<Message<?>> duplicates = this.duplicateSequences.get(sequence);
+		if (message.equals(this.sequences.get(sequence))) {
+			if (duplicates != null) {
+				this.sequences.put(sequence, duplicates.remove(0));
+			}
+			else {
+				this.sequences.remove(sequence);
+			}
+		}
+		else if (duplicates != null) {
+			duplicates.remove(message);
+		}
+		if (duplicates != null && duplicates.isEmpty()) {
+			this.duplicateSequences.remove(sequence);
+		}
+		return true;
 	}
 
 	@Override
@@ -129,9 +154,19 @@ public class SimpleMessageGroup implements MessageGroup {
 	}
 
 	private boolean addMessage(Message<?> message) {
+		if (!this.messages.add(message)) {
+			return false;
+		}
+		Integer sequence = sequenceNumber(message);
+		if (this.sequences.putIfAbsent(sequence, message) != null) {
+			this.duplicateSequences.computeIfAbsent(sequence, key -> new ArrayList<>(1)).add(message);
+		}
+		return true;
+	}
+
+	private static Integer sequenceNumber(Message<?> message) {
 		Integer sequence = message.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, Integer.class);
-		this.sequences.add(sequence != null ? sequence : 0);
-		return this.messages.add(message);
+		return sequence != null ? sequence : 0;
 	}
 
 	@Override
@@ -161,10 +196,12 @@ public class SimpleMessageGroup implements MessageGroup {
 
 	@Override
 	public int getSequenceSize() {
-		if (size() == 0) {
+		Message<?> one = getOne();
+		if (one == null) {
 			return 0;
 		}
-		return new IntegrationMessageHeaderAccessor(getOne()).getSequenceSize();
+		Number sequenceSize = one.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE, Number.class);
+		return sequenceSize != null ? sequenceSize.intValue() : 0;
 	}
 
 	@Override
@@ -184,6 +221,7 @@ public class SimpleMessageGroup implements MessageGroup {
 	public void clear() {
 		this.messages.clear();
 		this.sequences.clear();
+		this.duplicateSequences.clear();
 	}
 
 	/**
@@ -194,7 +232,24 @@ public class SimpleMessageGroup implements MessageGroup {
 	 * @since 4.3.7
 	 */
 	public boolean containsSequence(Integer sequence) {
-		return this.sequences.contains(sequence);
+		return sequence != null && this.sequences.containsKey(sequence);
+	}
+
+	/**
+	 * Return the messages of this group keyed and ordered by their sequence number header
+	 * (0 for messages without one). The index is maintained as messages are added and
+	 * removed, so release strategies and processors can find the lowest sequence number
+	 * or the contiguous run of sequence numbers without sorting the whole group.
+	 * @return an unmodifiable view of the index, or null if it doesn't hold exactly the
+	 * messages of this group, i.e. when several messages have the same sequence number.
+	 * @since 5.2
+	 */
+	@Nullable
+	public NavigableMap<Integer, Message<?>> getMessagesBySequence() {
+		if (!this.duplicateSequences.isEmpty() || this.sequences.size() != this.messages.size()) {
+			return null;
+		}
+		return Collections.unmodifiableNavigableMap(this.sequences);
 	}
 
 	@Override
@@ -16,9 +16,11 @@
 
 package org.springframework.integration.store;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -56,6 +58,8 @@ public class SimpleMessageStore extends AbstractMessageGroupStore
 
 	private static final String INTERRUPTED_WHILE_OBTAINING_LOCK = "Interrupted while obtaining lock";
 
+	private static final long EXPIRY_INDEX_RESOLUTION = 1000L;
+
 	private final ConcurrentMap<UUID, Message<?>> idToMessage = new ConcurrentHashMap<UUID, Message<?>>();
 
 	private final ConcurrentMap<Object, MessageGroup> groupIdToMessageGroup =
@@ -63,6 +67,10 @@ public class SimpleMessageStore extends AbstractMessageGroupStore
 
 	private final ConcurrentMap<Object, UpperBound> groupToUpperBound = new ConcurrentHashMap<Object, UpperBound>();
 
+	private final MessageGroupExpiryIndex expiryIndex = new MessageGroupExpiryIndex(EXPIRY_INDEX_RESOLUTION);
+
+	private volatile boolean useExpiryIndex = true;
+
 	private final int groupCapacity;
 
 	private final int individualCapacity;
@@ -162,6 +170,18 @@ public class SimpleMessageStore extends AbstractMessageGroupStore
 		this.copyOnGet = copyOnGet;
 	}
 
+	/**
+	 * Set to false to visit all the groups returned by {@link #iterator()} in
+	 * {@link #expireMessageGroups(long)} instead of only the due groups of the expiry
+	 * index; subclasses which supply their own groups through an overridden
+	 * {@link #iterator()} must set it to false. Default true.
+	 * @param useExpiryIndex false to not use the expiry index.
+	 * @since 5.2
+	 */
+	public void setUseExpiryIndex(boolean useExpiryIndex) {
+		this.useExpiryIndex = useExpiryIndex;
+	}
+
 	public void setLockRegistry(LockRegistry lockRegistry) {
 		Assert.notNull(lockRegistry, "The LockRegistry cannot be null");
 		Assert.isTrue(!(this.isUsed), "Cannot change the lock registry after the store has been used");
@@ -294,6 +314,7 @@ public class SimpleMessageStore extends AbstractMessageGroupStore
 						group.add(message);
 					}
 					this.groupToUpperBound.put(groupId, upperBound);
+					this.expiryIndex.add(groupId, group.getTimestamp());
 				}
 				else {
 					upperBound = this.groupToUpperBound.get(groupId);
@@ -334,6 +355,7 @@ public class SimpleMessageStore extends AbstractMessageGroupStore
 					UpperBound upperBound = this.groupToUpperBound.remove(groupId);
 					Assert.state(upperBound != null, UPPER_BOUND_MUST_NOT_BE_NULL);
 					upperBound.release(this.groupCapacity);
+					this.expiryIndex.remove(groupId);
 				}
 			}
 			finally {
@@ -383,6 +405,35 @@ public class SimpleMessageStore extends AbstractMessageGroupStore
 		return new HashSet<MessageGroup>(this.groupIdToMessageGroup.values()).iterator();
 	}
 
+	/**
+	 * Return the groups indexed at or before the threshold, re-indexing each one at its
+	 * current expiry time: a group which is not yet due (or is not removed when expired)
+	 * is visited again once that time is reached.
+	 * The index is not used when {@link #setUseExpiryIndex(boolean) useExpiryIndex} is false.
+	 * @param threshold the time at or before which groups are expired.
+	 * @return the candidate groups.
+	 * @since 5.2
+	 */
+	@Override
+	protected Iterable<MessageGroup> getExpiryCandidates(long threshold) {
+		if (!this.useExpiryIndex) {
+			return super.getExpiryCandidates(threshold);
+		}
+		List<MessageGroup> candidates = new ArrayList<>();
+		for (Object groupId : this.expiryIndex.pollDue(threshold)) {
+			MessageGroup group = this.groupIdToMessageGroup.get(groupId);
+			if (group != null) {
+				candidates.add(group);
+				long timestamp = group.getTimestamp();
+				if (isTimeoutOnIdle() && group.getLastModified() > 0) {
+					timestamp = group.getLastModified();
+				}
+				this.expiryIndex.add(groupId, timestamp);
+			}
+		}
+		return candidates;
+	}
+
 	@Override
 	public void setLastReleasedSequenceNumberForGroup(Object groupId, int sequenceNumber) {
 		Lock lock = this.lockRegistry.obtain(groupId);
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * An immutable hash array mapped trie from header names to values.
+ * Adding or removing an entry copies only the nodes on the path to that entry
+ * (O(log32 n)) and shares all the other nodes with the original map.
+ *
+ * @since 5.2
+ */
+final class PersistentHeaderMap {
+
+	static final PersistentHeaderMap EMPTY = new PersistentHeaderMap(BitmapNode.EMPTY, 0);
+
+	private static final int BITS = 5;
+
+	private static final int MASK = 0x1f;
+
+	private final Node root;
+
+	private final int size;
+
+	private PersistentHeaderMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	@Nullable
+	Object get(String key) {
+		return this.root.find(0, key.hashCode(), key);
+	}
+
+	boolean containsKey(String key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Return a map with the provided entry, or this map if it already contains that
+	 * exact value for the key.
+	 */
+	PersistentHeaderMap with(String key, Object value) {
+		boolean[] added = new boolean[1];
+		Node newRoot = this.root.with(0, key.hashCode(), key, value, added);
+		if (newRoot == this.root) {
+			return this;
+		}
+		return new PersistentHeaderMap(newRoot, added[0] ? this.size + 1 : this.size);
+	}
+
+	/**
+	 * Return a map without the provided key, or this map if it does not contain it.
+	 */
+	PersistentHeaderMap without(String key) {
+		Node newRoot = this.root.without(0, key.hashCode(), key);
+		if (newRoot == this.root) {
+			return this;
+		}
+		if (newRoot == null) {
+			return EMPTY;
+		}
+		return new PersistentHeaderMap(newRoot, this.size - 1);
+	}
+
+	void forEach(BiConsumer<String, Object> action) {
+		this.root.forEach(action);
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private static Node createNode(int shift, String key1, Object value1, int hash2, String key2, Object value2) {
+		int hash1 = key1.hashCode();
+		if (hash1 == hash2) {
+			return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+		}
+		boolean[] added = new boolean[1];
+		return BitmapNode.EMPTY
+				.with(shift, hash1, key1, value1, added)
+				.with(shift, hash2, key2, value2, added);
+	}
+
+	private interface Node {
+
+		@Nullable
+		Object find(int shift, int hash, String key);
+
+		Node with(int shift, int hash, String key, Object value, boolean[] added);
+
+		@Nullable
+		Node without(int shift, int hash, String key);
+
+		void forEach(BiConsumer<String, Object> action);
+
+	}
+
+	/**
+	 * A node with up to 32 slots, each of them holding either a key and its value or
+	 * {@code null} and a sub-node; the bitmap tells which slots are present.
+	 */
+	private static final class BitmapNode implements Node {
+
+		static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		private final int bitmap;
+
+		private final Object[] array;
+
+		BitmapNode(int bitmap, Object[] array) {
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(this.bitmap & (bit - 1));
+		}
+
+		@Override
+		@Nullable
+		public Object find(int shift, int hash, String key) {
+			int bit = bitpos(hash, shift);
+			if ((this.bitmap & bit) == 0) {
+				return null;
+			}
+			int index = index(bit);
+			Object keyOrNull = this.array[2 * index];
+			Object valueOrNode = this.array[2 * index + 1];
+			if (keyOrNull == null) {
+				return ((Node) valueOrNode).find(shift + BITS, hash, key);
+			}
+			return key.equals(keyOrNull) ? valueOrNode : null;
+		}
+
+		@Override
+		public Node with(int shift, int hash, String key, Object value, boolean[] added) {
+			int bit = bitpos(hash, shift);
+			int index = index(bit);
+			if ((this.bitmap & bit) != 0) {
+				Object keyOrNull = this.array[2 * index];
+				Object valueOrNode = this.array[2 * index + 1];
+				if (keyOrNull == null) {
+					Node node = (Node) valueOrNode;
+					Node newNode = node.with(shift + BITS, hash, key, value, added);
+					return newNode == node ? this : new BitmapNode(this.bitmap, set(2 * index + 1, newNode));
+				}
+				if (key.equals(keyOrNull)) {
+					return valueOrNode == value ? this : new BitmapNode(this.bitmap, set(2 * index + 1, value));
+				}
+				added[0] = true;
+				Node subNode = createNode(shift + BITS, (String) keyOrNull, valueOrNode, hash, key, value);
+				Object[] newArray = set(2 * index, null);
+				newArray[2 * index + 1] = subNode;
+				return new BitmapNode(this.bitmap, newArray);
+			}
+			added[0] = true;
+			Object[] newArray = new Object[this.array.length + 2];
+			System.arraycopy(this.array, 0, newArray, 0, 2 * index);
+			newArray[2 * index] = key;
+			newArray[2 * index + 1] = value;
+			System.arraycopy(this.array, 2 * index, newArray, 2 * (index + 1), this.array.length - 2 * index);
+			return new BitmapNode(this.bitmap | bit, newArray);
+		}
+
+		@Override
+		@Nullable
+		public Node without(int shift, int hash, String key) {
+			int bit = bitpos(hash, shift);
+			if ((this.bitmap & bit) == 0) {
+				return this;
+			}
+			int index = index(bit);
+			Object keyOrNull = this.array[2 * index];
+			Object valueOrNode = this.array[2 * index + 1];
+			if (keyOrNull == null) {
+				Node node = (Node) valueOrNode;
+				Node newNode = node.without(shift + BITS, hash, key);
+				if (newNode == node) {
+					return this;
+				}
+				if (newNode != null) {
+					return new BitmapNode(this.bitmap, set(2 * index + 1, newNode));
+				}
+			}
+			else if (!key.equals(keyOrNull)) {
+				return this;
+			}
+			if (this.bitmap == bit) {
+				return null;
+			}
+			Object[] newArray = new Object[this.array.length - 2];
+			System.arraycopy(this.array, 0, newArray, 0, 2 * index);
+			System.arraycopy(this.array, 2 * (index + 1), newArray, 2 * index, newArray.length - 2 * index);
+			return new BitmapNode(this.bitmap ^ bit, newArray);
+		}
+
+		@Override
+		public void forEach(BiConsumer<String, Object> action) {
+			for (int i = 0; i < this.array.length; i += 2) {
+				Object keyOrNull = this.array[i];
+				if (keyOrNull == null) {
+					((Node) this.array[i + 1]).forEach(action);
+				}
+				else {
+					action.accept((String) keyOrNull, this.array[i + 1]);
+				}
+			}
+		}
+
+		private Object[] set(int i, @Nullable Object value) {
+			Object[] newArray = this.array.clone();
+			newArray[i] = value;
+			return newArray;
+		}
+
+	}
+
+	/**
+	 * A node for keys with the same hash code, searched linearly.
+	 */
+	private static final class CollisionNode implements Node {
+
+		private final int hash;
+
+		private final Object[] array;
+
+		CollisionNode(int hash, Object[] array) {
+			this.hash = hash;
+			this.array = array;
+		}
+
+		private int indexOf(String key) {
+			for (int i = 0; i < this.array.length; i += 2) {
+				if (key.equals(this.array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		@Nullable
+		public Object find(int shift, int hash, String key) {
+			int i = indexOf(key);
+			return i < 0 ? null : this.array[i + 1];
+		}
+
+		@Override
+		public Node with(int shift, int hash, String key, Object value, boolean[] added) {
+			if (hash != this.hash) {
+				return new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this })
+						.with(shift, hash, key, value, added);
+			}
+			int i = indexOf(key);
+			if (i >= 0) {
+				if (this.array[i + 1] == value) {
+					return this;
+				}
+				Object[] newArray = this.array.clone();
+				newArray[i + 1] = value;
+				return new CollisionNode(hash, newArray);
+			}
+			added[0] = true;
+			Object[] newArray = Arrays.copyOf(this.array, this.array.length + 2);
+			newArray[this.array.length] = key;
+			newArray[this.array.length + 1] = value;
+			return new CollisionNode(hash, newArray);
+		}
+
+		@Override
+		@Nullable
+		public Node without(int shift, int hash, String key) {
+			int i = indexOf(key);
+			if (i < 0) {
+				return this;
+			}
+			if (this.array.length == 2) {
+				return null;
+			}
+			Object[] newArray = new Object[this.array.length - 2];
+			System.arraycopy(this.array, 0, newArray, 0, i);
+			System.arraycopy(this.array, i + 2, newArray, i, newArray.length - i);
+			return new CollisionNode(hash, newArray);
+		}
+
+		@Override
+		public void forEach(BiConsumer<String, Object> action) {
+			for (int i = 0; i < this.array.length; i += 2) {
+				action.accept((String) this.array[i], this.array[i + 1]);
+			}
+		}
+
+	}
+
+}
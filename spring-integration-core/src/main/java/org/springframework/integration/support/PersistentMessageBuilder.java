@@ -0,0 +1,342 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * A message builder which creates immutable {@link GenericMessage}s with
+ * {@link PersistentMessageHeaders}: building a message from another one with such headers
+ * shares the unchanged headers instead of copying them, so each modified header costs
+ * O(log n) instead of the O(n) copy of the {@link MessageBuilder}.
+ * Otherwise the semantics are those of the {@link MessageBuilder}.
+ *
+ * @param <T> the payload type.
+ *
+ * @since 5.2
+ */
+public final class PersistentMessageBuilder<T> extends AbstractIntegrationMessageBuilder<T> {
+
+	private static final Log logger = LogFactory.getLog(PersistentMessageBuilder.class);
+
+	private static final TypeVerifier TYPE_VERIFIER = new TypeVerifier();
+
+	private final T payload;
+
+	@Nullable
+	private final Message<T> originalMessage;
+
+	private final PersistentMessageHeaders.Fields headers;
+
+	private boolean modified;
+
+	private Set<String> readOnlyHeaders = Collections.emptySet();
+
+	private PersistentMessageBuilder(T payload, @Nullable Message<T> originalMessage) {
+		Assert.notNull(payload, "payload must not be null");
+		this.payload = payload;
+		this.originalMessage = originalMessage;
+		if (originalMessage != null) {
+			MessageHeaders originalHeaders = originalMessage.getHeaders();
+			if (originalHeaders instanceof PersistentMessageHeaders) {
+				this.headers = ((PersistentMessageHeaders) originalHeaders).fields();
+			}
+			else {
+				this.headers = new PersistentMessageHeaders.Fields(originalHeaders);
+			}
+			this.modified = !this.payload.equals(originalMessage.getPayload());
+		}
+		else {
+			this.headers = new PersistentMessageHeaders.Fields(null);
+		}
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance pre-populated with all of the
+	 * headers copied from the provided message. The payload of the provided Message will
+	 * also be used as the payload for the new message.
+	 * @param message the Message from which the payload and all headers will be copied.
+	 * @param <T> The type of the payload.
+	 * @return A PersistentMessageBuilder.
+	 */
+	public static <T> PersistentMessageBuilder<T> fromMessage(Message<T> message) {
+		Assert.notNull(message, "message must not be null");
+		return new PersistentMessageBuilder<>(message.getPayload(), message);
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance with the provided payload.
+	 * @param payload the payload for the new message.
+	 * @param <T> The type of the payload.
+	 * @return A PersistentMessageBuilder.
+	 */
+	public static <T> PersistentMessageBuilder<T> withPayload(T payload) {
+		return new PersistentMessageBuilder<>(payload, null);
+	}
+
+	@Override
+	public T getPayload() {
+		return this.payload;
+	}
+
+	@Override
+	public Map<String, Object> getHeaders() {
+		Map<String, Object> map = new HashMap<>();
+		if (this.originalMessage != null) {
+			map.put(MessageHeaders.ID, this.originalMessage.getHeaders().getId());
+			map.put(MessageHeaders.TIMESTAMP, this.originalMessage.getHeaders().getTimestamp());
+		}
+		this.headers.forEach(map::put);
+		return map;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <V> V getHeader(String key, Class<V> type) {
+		Object value = this.headers.get(key);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for header '" + key + "'. Expected [" + type
+					+ "] but actual type is [" + value.getClass() + "]");
+		}
+		return (V) value;
+	}
+
+	/**
+	 * Set the value for the given header name. If the provided value is {@code null},
+	 * the header will be removed.
+	 * @param headerName The header name.
+	 * @param headerValue The header value.
+	 * @return this PersistentMessageBuilder.
+	 */
+	@Override
+	public PersistentMessageBuilder<T> setHeader(String headerName, @Nullable Object headerValue) {
+		Assert.notNull(headerName, "'headerName' must not be null");
+		if (isReadOnly(headerName)) {
+			throw new IllegalArgumentException("'" + headerName + "' header is read-only");
+		}
+		TYPE_VERIFIER.verify(headerName, headerValue);
+		if (!ObjectUtils.nullSafeEquals(headerValue, this.headers.get(headerName))) {
+			this.modified = true;
+			this.headers.set(headerName, headerValue);
+		}
+		return this;
+	}
+
+	/**
+	 * Set the value for the given header name only if the header name is not already
+	 * associated with a value.
+	 * @param headerName The header name.
+	 * @param headerValue The header value.
+	 * @return this PersistentMessageBuilder.
+	 */
+	@Override
+	public PersistentMessageBuilder<T> setHeaderIfAbsent(String headerName, Object headerValue) {
+		if (this.headers.get(headerName) == null) {
+			setHeader(headerName, headerValue);
+		}
+		return this;
+	}
+
+	/**
+	 * Removes all headers provided via array of 'headerPatterns'. As the name suggests
+	 * the array may contain simple matching patterns for header names. Supported pattern
+	 * styles are: "xxx*", "*xxx", "*xxx*" and "xxx*yyy".
+	 * @param headerPatterns The header patterns.
+	 * @return this PersistentMessageBuilder.
+	 */
+	@Override
+	public PersistentMessageBuilder<T> removeHeaders(String... headerPatterns) {
+		List<String> headersToRemove = new ArrayList<>();
+		for (String pattern : headerPatterns) {
+			if (pattern.contains("*")) {
+				this.headers.forEach((name, value) -> {
+					if (PatternMatchUtils.simpleMatch(pattern, name)) {
+						headersToRemove.add(name);
+					}
+				});
+			}
+			else {
+				headersToRemove.add(pattern);
+			}
+		}
+		for (String headerToRemove : headersToRemove) {
+			if (!isReadOnly(headerToRemove)) {
+				setHeader(headerToRemove, null);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Remove the value for the given header name.
+	 * @param headerName The header name.
+	 * @return this PersistentMessageBuilder.
+	 */
+	@Override
+	public PersistentMessageBuilder<T> removeHeader(String headerName) {
+		if (!isReadOnly(headerName)) {
+			setHeader(headerName, null);
+		}
+		else if (logger.isInfoEnabled()) {
+			logger.info("The header [" + headerName + "] is ignored for removal because it is is readOnly.");
+		}
+		return this;
+	}
+
+	/**
+	 * Copy the name-value pairs from the provided Map. This operation will overwrite any
+	 * existing values. Use {@link #copyHeadersIfAbsent(Map)} to avoid overwriting values.
+	 * Note that the 'id' and 'timestamp' header values will never be overwritten.
+	 * @param headersToCopy The headers to copy.
+	 * @return this PersistentMessageBuilder.
+	 */
+	@Override
+	public PersistentMessageBuilder<T> copyHeaders(@Nullable Map<String, ?> headersToCopy) {
+		if (headersToCopy != null) {
+			headersToCopy.forEach((name, value) -> {
+				if (!isReadOnly(name)) {
+					setHeader(name, value);
+				}
+			});
+		}
+		return this;
+	}
+
+	/**
+	 * Copy the name-value pairs from the provided Map. This operation will <em>not</em>
+	 * overwrite any existing values.
+	 * @param headersToCopy The headers to copy.
+	 * @return this PersistentMessageBuilder.
+	 */
+	@Override
+	public PersistentMessageBuilder<T> copyHeadersIfAbsent(@Nullable Map<String, ?> headersToCopy) {
+		if (headersToCopy != null) {
+			headersToCopy.forEach((name, value) -> {
+				if (!isReadOnly(name)) {
+					setHeaderIfAbsent(name, value);
+				}
+			});
+		}
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	protected List<List<Object>> getSequenceDetails() {
+		return (List<List<Object>>) this.headers.get(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS);
+	}
+
+	@Override
+	@Nullable
+	protected Object getCorrelationId() {
+		return this.headers.get(IntegrationMessageHeaderAccessor.CORRELATION_ID);
+	}
+
+	@Override
+	protected Object getSequenceNumber() {
+		Number sequenceNumber = (Number) this.headers.get(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER);
+		return sequenceNumber != null ? sequenceNumber.intValue() : 0;
+	}
+
+	@Override
+	protected Object getSequenceSize() {
+		Number sequenceSize = (Number) this.headers.get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE);
+		return sequenceSize != null ? sequenceSize.intValue() : 0;
+	}
+
+	/**
+	 * Specify a list of headers which should be considered as read only
+	 * and prohibited from being populated in the message.
+	 * @param readOnlyHeaders the list of headers for {@code readOnly} mode.
+	 * Defaults to {@link MessageHeaders#ID} and {@link MessageHeaders#TIMESTAMP}.
+	 * @return the current {@link PersistentMessageBuilder}
+	 */
+	public PersistentMessageBuilder<T> readOnlyHeaders(@Nullable String... readOnlyHeaders) {
+		if (!ObjectUtils.isEmpty(readOnlyHeaders)) {
+			Assert.noNullElements(readOnlyHeaders, "'readOnlyHeaders' must not be contain null items.");
+			this.readOnlyHeaders = new HashSet<>(Arrays.asList(readOnlyHeaders));
+		}
+		return this;
+	}
+
+	private boolean isReadOnly(String headerName) {
+		return MessageHeaders.ID.equals(headerName) || MessageHeaders.TIMESTAMP.equals(headerName)
+				|| this.readOnlyHeaders.contains(headerName);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Message<T> build() {
+		boolean containsReadOnly = false;
+		for (String readOnly : this.readOnlyHeaders) {
+			if (this.headers.get(readOnly) != null) {
+				containsReadOnly = true;
+				this.headers.set(readOnly, null);
+			}
+		}
+		if (!this.modified && !containsReadOnly && this.originalMessage != null) {
+			return this.originalMessage;
+		}
+		PersistentMessageHeaders messageHeaders = new PersistentMessageHeaders(null, null, this.headers);
+		if (this.payload instanceof Throwable) {
+			return (Message<T>) new ErrorMessage((Throwable) this.payload, messageHeaders);
+		}
+		return new GenericMessage<>(this.payload, messageHeaders);
+	}
+
+	/**
+	 * Exposes the header type checks of the {@link IntegrationMessageHeaderAccessor};
+	 * they don't depend on the state of the accessor.
+	 */
+	private static final class TypeVerifier extends IntegrationMessageHeaderAccessor {
+
+		TypeVerifier() {
+			super((Message<?>) null);
+		}
+
+		void verify(String headerName, @Nullable Object headerValue) {
+			verifyType(headerName, headerValue);
+		}
+
+	}
+
+}
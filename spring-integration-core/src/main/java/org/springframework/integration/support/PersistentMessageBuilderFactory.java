@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import java.util.Arrays;
+
+import org.springframework.messaging.Message;
+
+/**
+ * A {@link MessageBuilderFactory} for {@link PersistentMessageBuilder}s; register it as the
+ * {@code messageBuilderFactory} bean for the framework components to derive messages by
+ * sharing the unchanged headers instead of copying them.
+ *
+ * @since 5.2
+ */
+public class PersistentMessageBuilderFactory implements MessageBuilderFactory {
+
+	private String[] readOnlyHeaders;
+
+	/**
+	 * Specify a list of headers which should be considered as a read only
+	 * and prohibited from the population to the message.
+	 * @param readOnlyHeaders the list of headers for {@code readOnly} mode.
+	 * Defaults to {@link org.springframework.messaging.MessageHeaders#ID}
+	 * and {@link org.springframework.messaging.MessageHeaders#TIMESTAMP}.
+	 */
+	public void setReadOnlyHeaders(String... readOnlyHeaders) {
+		this.readOnlyHeaders = readOnlyHeaders != null ? Arrays.copyOf(readOnlyHeaders, readOnlyHeaders.length) : null;
+	}
+
+	@Override
+	public <T> PersistentMessageBuilder<T> fromMessage(Message<T> message) {
+		return PersistentMessageBuilder.fromMessage(message)
+				.readOnlyHeaders(this.readOnlyHeaders);
+	}
+
+	@Override
+	public <T> PersistentMessageBuilder<T> withPayload(T payload) {
+		return PersistentMessageBuilder.withPayload(payload)
+				.readOnlyHeaders(this.readOnlyHeaders);
+	}
+
+}
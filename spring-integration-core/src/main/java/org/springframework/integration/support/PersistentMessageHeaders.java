@@ -0,0 +1,352 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * An immutable {@link MessageHeaders} which shares its structure with the headers it was
+ * derived from: the {@link #ID}, {@link #TIMESTAMP},
+ * {@link IntegrationMessageHeaderAccessor#CORRELATION_ID},
+ * {@link IntegrationMessageHeaderAccessor#SEQUENCE_NUMBER},
+ * {@link IntegrationMessageHeaderAccessor#SEQUENCE_SIZE} and
+ * {@link IntegrationMessageHeaderAccessor#PRIORITY} headers are held in dedicated fields
+ * and all the other headers in a persistent hash trie, so the
+ * {@link PersistentMessageBuilder} copies only O(log n) entries to derive a message with
+ * a few different headers instead of the whole map.
+ * <p>
+ * Bulk {@link Map} views ({@link #entrySet()}, {@link #keySet()}, {@link #values()}) are
+ * materialized on first use.
+ * Serialized instances are restored with their non-serializable headers removed, like the
+ * standard {@link MessageHeaders}.
+ *
+ * @since 5.2
+ */
+public class PersistentMessageHeaders extends MessageHeaders {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient UUID id;
+
+	private final transient Long timestamp;
+
+	@Nullable
+	private final transient Object correlationId;
+
+	@Nullable
+	private final transient Object sequenceNumber;
+
+	@Nullable
+	private final transient Object sequenceSize;
+
+	@Nullable
+	private final transient Object priority;
+
+	private final transient PersistentHeaderMap others;
+
+	@Nullable
+	private transient Map<String, Object> map;
+
+	/**
+	 * Create headers with the provided entries, a new {@link #ID} and a new
+	 * {@link #TIMESTAMP}, like {@link MessageHeaders#MessageHeaders(Map)}.
+	 * @param headers the headers.
+	 */
+	public PersistentMessageHeaders(@Nullable Map<String, Object> headers) {
+		this(headers, null, null);
+	}
+
+	/**
+	 * Create headers with the provided entries and the provided {@link #ID} and
+	 * {@link #TIMESTAMP}; any id or timestamp entry in the map is ignored.
+	 * @param headers the headers.
+	 * @param id the id; generated if null.
+	 * @param timestamp the timestamp; the current time if null.
+	 */
+	protected PersistentMessageHeaders(@Nullable Map<String, Object> headers, @Nullable UUID id,
+			@Nullable Long timestamp) {
+
+		this(id, timestamp, new Fields(headers));
+	}
+
+	PersistentMessageHeaders(@Nullable UUID id, @Nullable Long timestamp, Fields fields) {
+		super(null, ID_VALUE_NONE, -1L);
+		this.id = id != null ? id : getIdGenerator().generateId();
+		this.timestamp = timestamp != null ? timestamp : System.currentTimeMillis();
+		this.correlationId = fields.correlationId;
+		this.sequenceNumber = fields.sequenceNumber;
+		this.sequenceSize = fields.sequenceSize;
+		this.priority = fields.priority;
+		this.others = fields.others;
+	}
+
+	Fields fields() {
+		Fields fields = new Fields(null);
+		fields.correlationId = this.correlationId;
+		fields.sequenceNumber = this.sequenceNumber;
+		fields.sequenceSize = this.sequenceSize;
+		fields.priority = this.priority;
+		fields.others = this.others;
+		return fields;
+	}
+
+	@Override
+	public UUID getId() {
+		return this.id;
+	}
+
+	@Override
+	public Long getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		if (!(key instanceof String)) {
+			return null;
+		}
+		switch ((String) key) {
+			case ID:
+				return this.id;
+			case TIMESTAMP:
+				return this.timestamp;
+			case IntegrationMessageHeaderAccessor.CORRELATION_ID:
+				return this.correlationId;
+			case IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER:
+				return this.sequenceNumber;
+			case IntegrationMessageHeaderAccessor.SEQUENCE_SIZE:
+				return this.sequenceSize;
+			case IntegrationMessageHeaderAccessor.PRIORITY:
+				return this.priority;
+			default:
+				return this.others.get((String) key);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, Class<T> type) {
+		Object value = get(key);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for header '" +
+					key + "'. Expected [" + type + "] but actual type is [" + value.getClass() + "]");
+		}
+		return (T) value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return toMap().containsValue(value);
+	}
+
+	@Override
+	public int size() {
+		return 2 + (this.correlationId != null ? 1 : 0) + (this.sequenceNumber != null ? 1 : 0)
+				+ (this.sequenceSize != null ? 1 : 0) + (this.priority != null ? 1 : 0) + this.others.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return false;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return toMap().keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return toMap().values();
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return toMap().entrySet();
+	}
+
+	@Override
+	protected Map<String, Object> getRawHeaders() {
+		return toMap();
+	}
+
+	private Map<String, Object> toMap() {
+		Map<String, Object> map = this.map;
+		if (map == null) {
+			Map<String, Object> headers = new LinkedHashMap<>(size() * 2);
+			headers.put(ID, this.id);
+			headers.put(TIMESTAMP, this.timestamp);
+			fields().forEach(headers::put);
+			map = Collections.unmodifiableMap(headers);
+			this.map = map;
+		}
+		return map;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return this == other || (other instanceof Map && toMap().equals(other));
+	}
+
+	@Override
+	public int hashCode() {
+		return toMap().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return toMap().toString();
+	}
+
+	/**
+	 * Replace these headers (or the headers of a subclass) with a serial proxy holding
+	 * their serializable entries.
+	 * @return the serial proxy.
+	 * @throws ObjectStreamException never.
+	 */
+	protected Object writeReplace() throws ObjectStreamException {
+		Map<String, Object> serializable = new HashMap<>();
+		toMap().forEach((name, value) -> {
+			if (value instanceof Serializable) {
+				serializable.put(name, value);
+			}
+		});
+		return new SerializedForm(serializable);
+	}
+
+	/**
+	 * The header values of a {@link PersistentMessageHeaders} under construction.
+	 */
+	static final class Fields {
+
+		Object correlationId;
+
+		Object sequenceNumber;
+
+		Object sequenceSize;
+
+		Object priority;
+
+		PersistentHeaderMap others = PersistentHeaderMap.EMPTY;
+
+		Fields(@Nullable Map<String, Object> headers) {
+			if (headers != null) {
+				headers.forEach((name, value) -> {
+					if (!ID.equals(name) && !TIMESTAMP.equals(name)) {
+						set(name, value);
+					}
+				});
+			}
+		}
+
+		@Nullable
+		Object get(String name) {
+			switch (name) {
+				case IntegrationMessageHeaderAccessor.CORRELATION_ID:
+					return this.correlationId;
+				case IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER:
+					return this.sequenceNumber;
+				case IntegrationMessageHeaderAccessor.SEQUENCE_SIZE:
+					return this.sequenceSize;
+				case IntegrationMessageHeaderAccessor.PRIORITY:
+					return this.priority;
+				default:
+					return this.others.get(name);
+			}
+		}
+
+		/**
+		 * Set or, when the value is null, remove a header.
+		 */
+		void set(String name, @Nullable Object value) {
+			switch (name) {
+				case IntegrationMessageHeaderAccessor.CORRELATION_ID:
+					this.correlationId = value;
+					break;
+				case IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER:
+					this.sequenceNumber = value;
+					break;
+				case IntegrationMessageHeaderAccessor.SEQUENCE_SIZE:
+					this.sequenceSize = value;
+					break;
+				case IntegrationMessageHeaderAccessor.PRIORITY:
+					this.priority = value;
+					break;
+				default:
+					this.others = value != null ? this.others.with(name, value) : this.others.without(name);
+			}
+		}
+
+		void forEach(BiConsumer<String, Object> action) {
+			if (this.correlationId != null) {
+				action.accept(IntegrationMessageHeaderAccessor.CORRELATION_ID, this.correlationId);
+			}
+			if (this.sequenceNumber != null) {
+				action.accept(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, this.sequenceNumber);
+			}
+			if (this.sequenceSize != null) {
+				action.accept(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE, this.sequenceSize);
+			}
+			if (this.priority != null) {
+				action.accept(IntegrationMessageHeaderAccessor.PRIORITY, this.priority);
+			}
+			this.others.forEach(action);
+		}
+
+	}
+
+	private static final class SerializedForm implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final HashMap<String, Object> headers; // NOSONAR - HashMap for serialization
+
+		SerializedForm(Map<String, Object> headers) {
+			this.headers = new HashMap<>(headers);
+		}
+
+		private Object readResolve() throws ObjectStreamException {
+			return new PersistentMessageHeaders(this.headers, (UUID) this.headers.get(ID),
+					(Long) this.headers.get(TIMESTAMP));
+		}
+
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.time.Duration;
+import java.util.Date;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.util.Assert;
+
+/**
+ * A fixed-delay {@link Trigger} for polling endpoints which adapts the delay to the
+ * result of each poll, as reported by the endpoint via {@link #pollCompleted(int, boolean)}:
+ * <ul>
+ * <li>a full poll (the endpoint's {@code maxMessagesPerPoll} was reached or, without a
+ * {@code maxMessagesPerPoll}, any message was received) divides the delay by the
+ * {@code multiplier}, down to the {@code minPeriod} (zero by default), so a busy source is
+ * polled again as soon as possible;</li>
+ * <li>an empty poll multiplies the delay by the {@code multiplier}, up to the
+ * {@code maxPeriod}, so an idle source is polled less and less often;</li>
+ * <li>any other poll resets the delay to the {@code basePeriod}.</li>
+ * </ul>
+ * The delay starts at the {@code basePeriod}; an empty poll after the delay went below
+ * the {@code basePeriod} goes straight back to it.
+ * <p>
+ * Any {@link org.springframework.integration.endpoint.AbstractPollingEndpoint} with this
+ * trigger reports its poll results; an instance must not be shared between endpoints.
+ * With an asynchronous {@code taskExecutor} on the endpoint, the next execution time is
+ * computed when the poll is handed off to the executor, before the poll completes, so
+ * the delay reflects the result of the previous poll and counts from the hand-off.
+ *
+ * @since 5.2
+ */
+public class AdaptivePollingTrigger implements Trigger {
+
+	private final long basePeriod;
+
+	private final long maxPeriod;
+
+	private volatile long minPeriod;
+
+	private volatile double multiplier = 2.0;
+
+	private volatile long period;
+
+	/**
+	 * Create a trigger which starts at the base period and backs off up to the max period.
+	 * @param basePeriod the delay after a poll which was neither full nor empty.
+	 * @param maxPeriod the maximum delay after consecutive empty polls.
+	 */
+	public AdaptivePollingTrigger(Duration basePeriod, Duration maxPeriod) {
+		Assert.notNull(basePeriod, "'basePeriod' must not be null");
+		Assert.notNull(maxPeriod, "'maxPeriod' must not be null");
+		Assert.isTrue(!basePeriod.isNegative(), "'basePeriod' must not be negative");
+		Assert.isTrue(maxPeriod.compareTo(basePeriod) >= 0, "'maxPeriod' must not be less than 'basePeriod'");
+		this.basePeriod = basePeriod.toMillis();
+		this.maxPeriod = maxPeriod.toMillis();
+		this.period = this.basePeriod;
+	}
+
+	/**
+	 * Set the minimum delay after consecutive full polls. Default zero.
+	 * @param minPeriod the minimum period.
+	 */
+	public void setMinPeriod(Duration minPeriod) {
+		Assert.notNull(minPeriod, "'minPeriod' must not be null");
+		Assert.isTrue(!minPeriod.isNegative() && minPeriod.toMillis() <= this.basePeriod,
+				"'minPeriod' must be between zero and 'basePeriod'");
+		this.minPeriod = minPeriod.toMillis();
+	}
+
+	/**
+	 * Set the factor by which the delay grows after an empty poll and shrinks after a full one.
+	 * Default 2.
+	 * @param multiplier the multiplier; must be greater than 1.
+	 */
+	public void setMultiplier(double multiplier) {
+		Assert.isTrue(multiplier > 1, "'multiplier' must be greater than 1");
+		this.multiplier = multiplier;
+	}
+
+	/**
+	 * Return the current delay.
+	 * @return the delay.
+	 */
+	public Duration getPeriod() {
+		return Duration.ofMillis(this.period);
+	}
+
+	/**
+	 * Adapt the delay to the result of a poll.
+	 * @param messageCount the number of messages received by the poll.
+	 * @param full true if the poll stopped because it reached its message limit or, for
+	 * an endpoint without a limit, received any message.
+	 */
+	public void pollCompleted(int messageCount, boolean full) {
+		long current = this.period;
+		if (full) {
+			this.period = Math.max(this.minPeriod, (long) (current / this.multiplier));
+		}
+		else if (messageCount == 0) {
+			if (current < this.basePeriod) {
+				this.period = this.basePeriod;
+			}
+			else {
+				this.period = Math.min(this.maxPeriod, Math.max(1, (long) (current * this.multiplier)));
+			}
+		}
+		else {
+			this.period = this.basePeriod;
+		}
+	}
+
+	@Override
+	public Date nextExecutionTime(TriggerContext triggerContext) {
+		Date lastCompletion = triggerContext.lastCompletionTime();
+		if (lastCompletion == null) {
+			return new Date();
+		}
+		return new Date(lastCompletion.getTime() + this.period);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[basePeriod=" + this.basePeriod + ", maxPeriod=" + this.maxPeriod
+				+ ", period=" + this.period + "]";
+	}
+
+}
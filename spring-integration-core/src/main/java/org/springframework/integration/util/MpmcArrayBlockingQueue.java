@@ -0,0 +1,418 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, lock-free, multi-producer/multi-consumer {@link BlockingQueue} backed by a
+ * pre-allocated ring buffer. Each slot carries a sequence number which producers and
+ * consumers claim with a single CAS on the tail or head counter respectively; no
+ * node objects are allocated per element and no lock is ever taken.
+ * <p>
+ * Blocking operations ({@link #put}, {@link #take} and the timed {@code offer}/{@code poll})
+ * do not use conditions; instead they retry the non-blocking operation, consulting the
+ * configured {@link WaitStrategy} between attempts.
+ * <p>
+ * The {@link #size()}, {@link #iterator()} and {@link #remove(Object)} operations are
+ * weakly consistent: they reflect the state of the queue at some point during
+ * their execution. The {@link #remove(Object)} scans the queue from its head, like
+ * {@link java.util.concurrent.LinkedBlockingQueue#remove(Object)}, and replaces the
+ * element in its slot with a marker which the consumers skip; the slot (and its
+ * capacity) is only released when a consumer reaches it.
+ *
+ * @param <E> the element type.
+ *
+ * @since 5.2
+ */
+public class MpmcArrayBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+	private static final Object REMOVED = new Object();
+
+	private final int capacity;
+
+	private final int mask;
+
+	private final AtomicReferenceArray<Object> buffer;
+
+	private final AtomicLongArray sequences;
+
+	private final PaddedAtomicLong tail = new PaddedAtomicLong();
+
+	private final PaddedAtomicLong head = new PaddedAtomicLong();
+
+	private final WaitStrategy waitStrategy;
+
+	/**
+	 * Create a queue with the provided capacity and the {@link WaitStrategy#PARK} strategy.
+	 * @param capacity the maximum number of elements the queue can hold.
+	 */
+	public MpmcArrayBlockingQueue(int capacity) {
+		this(capacity, WaitStrategy.PARK);
+	}
+
+	/**
+	 * Create a queue with the provided capacity and {@link WaitStrategy}.
+	 * @param capacity the maximum number of elements the queue can hold.
+	 * @param waitStrategy the strategy to use when a blocking operation has to wait.
+	 */
+	public MpmcArrayBlockingQueue(int capacity, WaitStrategy waitStrategy) {
+		Assert.isTrue(capacity > 0, "'capacity' must be greater than 0");
+		Assert.isTrue(capacity <= (1 << 30), "'capacity' must not be greater than 2^30");
+		Assert.notNull(waitStrategy, "'waitStrategy' must not be null");
+		this.capacity = capacity;
+		int ringSize = ringSizeFor(capacity);
+		this.mask = ringSize - 1;
+		this.buffer = new AtomicReferenceArray<>(ringSize);
+		this.sequences = new AtomicLongArray(ringSize);
+		for (int i = 0; i < ringSize; i++) {
+			this.sequences.lazySet(i, i);
+		}
+		this.waitStrategy = waitStrategy;
+	}
+
+	private static int ringSizeFor(int capacity) {
+		int ringSize = 1;
+		while (ringSize < capacity) {
+			ringSize <<= 1;
+		}
+		return ringSize;
+	}
+
+	@Override
+	public boolean offer(E e) {
+		Assert.notNull(e, "'e' must not be null");
+		long position = this.tail.get();
+		int index;
+		while (true) {
+			index = (int) position & this.mask;
+			long difference = this.sequences.get(index) - position;
+			if (difference == 0) {
+				if (position - this.head.get() >= this.capacity) {
+					return false;
+				}
+				if (this.tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+				position = this.tail.get();
+			}
+			else if (difference < 0) {
+				return false;
+			}
+			else {
+				position = this.tail.get();
+			}
+		}
+		this.buffer.lazySet(index, e);
+		this.sequences.lazySet(index, position + 1);
+		return true;
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		while (true) {
+			long position = this.head.get();
+			int index;
+			while (true) {
+				index = (int) position & this.mask;
+				long difference = this.sequences.get(index) - (position + 1);
+				if (difference == 0) {
+					if (this.head.compareAndSet(position, position + 1)) {
+						break;
+					}
+					position = this.head.get();
+				}
+				else if (difference < 0) {
+					return null;
+				}
+				else {
+					position = this.head.get();
+				}
+			}
+			Object e = release(index, position);
+			if (e != REMOVED) {
+				return (E) e;
+			}
+		}
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		while (true) {
+			long position = this.head.get();
+			int index = (int) position & this.mask;
+			long difference = this.sequences.get(index) - (position + 1);
+			if (difference < 0) {
+				return null;
+			}
+			if (difference == 0) {
+				Object e = this.buffer.get(index);
+				if (e == REMOVED) {
+					if (this.head.compareAndSet(position, position + 1)) {
+						release(index, position);
+					}
+				}
+				else if (e != null && this.head.get() == position) {
+					return (E) e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Take the element out of a slot claimed by the consumer and make the slot
+	 * available to the producers of the next round.
+	 * @param index the slot index.
+	 * @param position the claimed head position.
+	 * @return the element or {@link #REMOVED}.
+	 */
+	private Object release(int index, long position) {
+		Object e = this.buffer.getAndSet(index, null);
+		this.sequences.lazySet(index, position + this.mask + 1);
+		return e;
+	}
+
+	@Override
+	public void put(E e) throws InterruptedException {
+		int attempt = 0;
+		while (!offer(e)) {
+			idle(attempt++);
+		}
+	}
+
+	@Override
+	public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		if (offer(e)) {
+			return true;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int attempt = 0;
+		while (!offer(e)) {
+			if (deadline - System.nanoTime() <= 0) {
+				return false;
+			}
+			idle(attempt++);
+		}
+		return true;
+	}
+
+	@Override
+	public E take() throws InterruptedException {
+		int attempt = 0;
+		E e;
+		while ((e = poll()) == null) {
+			idle(attempt++);
+		}
+		return e;
+	}
+
+	@Override
+	@Nullable
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		E e = poll();
+		if (e != null) {
+			return e;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int attempt = 0;
+		while ((e = poll()) == null) {
+			if (deadline - System.nanoTime() <= 0) {
+				return null;
+			}
+			idle(attempt++);
+		}
+		return e;
+	}
+
+	private void idle(int attempt) throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		this.waitStrategy.idle(attempt);
+	}
+
+	@Override
+	public int size() {
+		while (true) {
+			long head = this.head.get();
+			long tail = this.tail.get();
+			if (this.head.get() == head) {
+				return (int) Math.max(0, Math.min(tail - head, this.capacity));
+			}
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return this.capacity - size();
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c, int maxElements) {
+		Assert.notNull(c, "'c' must not be null");
+		Assert.isTrue(c != this, "Cannot drain a queue to itself");
+		int drained = 0;
+		E e;
+		while (drained < maxElements && (e = poll()) != null) {
+			c.add(e);
+			drained++;
+		}
+		return drained;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (o == null) {
+			return false;
+		}
+		long tail = this.tail.get();
+		for (long position = this.head.get(); position < tail; position++) {
+			int index = (int) position & this.mask;
+			Object e = this.buffer.get(index);
+			if (e != null && e != REMOVED && this.sequences.get(index) == position + 1 && o.equals(e)
+					&& this.buffer.compareAndSet(index, e, REMOVED)) {
+
+				peek(); // release the removed slots at the head
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object[] toArray() {
+		List<E> snapshot = new ArrayList<>(size());
+		long position = this.head.get();
+		long tail = this.tail.get();
+		for (; position < tail; position++) {
+			int index = (int) position & this.mask;
+			Object e = this.buffer.get(index);
+			if (e != null && e != REMOVED && this.sequences.get(index) == position + 1) {
+				snapshot.add((E) e);
+			}
+		}
+		return snapshot.toArray();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Iterator<E> iterator() {
+		return Arrays.asList((E[]) toArray()).iterator();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[capacity=" + this.capacity + ", size=" + size() + "]";
+	}
+
+	/**
+	 * Strategy for a blocking operation to wait before retrying against a full or
+	 * empty queue.
+	 */
+	@FunctionalInterface
+	public interface WaitStrategy {
+
+		/**
+		 * Busy-spin: the lowest latency at the cost of burning a core per waiting thread.
+		 */
+		WaitStrategy SPIN = attempt -> {
+			// busy spin
+		};
+
+		/**
+		 * Yield the processor between attempts.
+		 */
+		WaitStrategy YIELD = attempt -> Thread.yield();
+
+		/**
+		 * Spin, then yield, then park the thread for a progressively longer period
+		 * (up to one millisecond) between attempts.
+		 */
+		WaitStrategy PARK = attempt -> {
+			if (attempt < 100) { // NOSONAR magic number
+				return;
+			}
+			if (attempt < 200) { // NOSONAR magic number
+				Thread.yield();
+			}
+			else {
+				LockSupport.parkNanos(1000L << Math.min(attempt - 200, 10)); // NOSONAR magic number
+			}
+		};
+
+		/**
+		 * Called each time a blocking operation could not complete.
+		 * @param attempt the number of previous unsuccessful attempts, starting from 0.
+		 */
+		void idle(int attempt);
+
+	}
+
+	@SuppressWarnings("serial")
+	private static final class PaddedAtomicLong extends AtomicLong {
+
+		// Keep the head and tail counters on separate cache lines
+		long p1; // NOSONAR
+
+		long p2; // NOSONAR
+
+		long p3; // NOSONAR
+
+		long p4; // NOSONAR
+
+		long p5; // NOSONAR
+
+		long p6; // NOSONAR
+
+		long p7; // NOSONAR
+
+		PaddedAtomicLong() {
+			super();
+		}
+
+	}
+
+}
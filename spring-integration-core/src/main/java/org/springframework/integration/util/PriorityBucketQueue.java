@@ -0,0 +1,407 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * An unbounded {@link BlockingQueue} which orders its elements by an integer priority
+ * using a fixed number of buckets, each of them a lock-free FIFO queue.
+ * The priority of an element selects its bucket on insertion; reads scan the buckets
+ * from the highest priority ({@code bucketCount - 1}) down to the lowest ({@code 0}).
+ * Both operations are therefore O(1) in the number of queued elements, and elements
+ * with the same priority are returned in insertion order without any comparison.
+ * <p>
+ * Priorities outside of the bucket range are clamped to the nearest bucket by default.
+ * When a fallback {@link Comparator} is provided, such elements are kept instead in
+ * a comparator-ordered overflow queue (first-in-first-out for equal elements): the
+ * one for priorities above the range is read before any bucket, the one for negative
+ * priorities after all of them.
+ * <p>
+ * Non-blocking operations never take a lock; consumers waiting in {@link #take()} or
+ * the timed {@link #poll(long, TimeUnit)} park on a condition which producers only
+ * signal when there is a waiting consumer.
+ * <p>
+ * The {@link #size()} and {@link #iterator()} operations are weakly consistent, and the
+ * ordering across buckets is only guaranteed for elements which were inserted before the
+ * read started.
+ *
+ * @param <E> the element type.
+ *
+ * @since 5.2
+ */
+public class PriorityBucketQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+	private final ToIntFunction<? super E> priorityFunction;
+
+	private final Queue<E>[] buckets;
+
+	private final Queue<Sequenced<E>> higher;
+
+	private final Queue<Sequenced<E>> lower;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notEmpty = this.lock.newCondition();
+
+	/**
+	 * Create a queue with the provided number of buckets; priorities outside of
+	 * {@code [0, bucketCount)} are clamped.
+	 * @param bucketCount the number of priority buckets.
+	 * @param priorityFunction the function to determine the priority of an element.
+	 */
+	public PriorityBucketQueue(int bucketCount, ToIntFunction<? super E> priorityFunction) {
+		this(bucketCount, priorityFunction, null);
+	}
+
+	/**
+	 * Create a queue with the provided number of buckets; elements with a priority outside of
+	 * {@code [0, bucketCount)} are ordered by the fallback comparator, if provided.
+	 * @param bucketCount the number of priority buckets.
+	 * @param priorityFunction the function to determine the priority of an element.
+	 * @param fallbackComparator the comparator for elements outside of the bucket range;
+	 * if null, their priority is clamped to the nearest bucket.
+	 */
+	@SuppressWarnings("unchecked")
+	public PriorityBucketQueue(int bucketCount, ToIntFunction<? super E> priorityFunction,
+			@Nullable Comparator<? super E> fallbackComparator) {
+
+		Assert.isTrue(bucketCount > 0, "'bucketCount' must be greater than 0");
+		Assert.notNull(priorityFunction, "'priorityFunction' must not be null");
+		this.priorityFunction = priorityFunction;
+		this.buckets = (Queue<E>[]) new Queue<?>[bucketCount];
+		for (int i = 0; i < bucketCount; i++) {
+			this.buckets[i] = new ConcurrentLinkedQueue<>();
+		}
+		if (fallbackComparator != null) {
+			Comparator<Sequenced<E>> comparator =
+					Comparator.<Sequenced<E>, E>comparing(s -> s.element, fallbackComparator)
+							.thenComparingLong(s -> s.sequence);
+			this.higher = new PriorityBlockingQueue<>(11, comparator);
+			this.lower = new PriorityBlockingQueue<>(11, comparator);
+		}
+		else {
+			this.higher = null;
+			this.lower = null;
+		}
+	}
+
+	/**
+	 * Return the number of priority buckets.
+	 * @return the number of buckets.
+	 */
+	public int getBucketCount() {
+		return this.buckets.length;
+	}
+
+	@Override
+	public boolean offer(E e) {
+		Assert.notNull(e, "'e' must not be null");
+		int priority = this.priorityFunction.applyAsInt(e);
+		if (priority >= this.buckets.length) {
+			if (this.higher != null) {
+				this.higher.offer(new Sequenced<>(e, this.sequence.incrementAndGet()));
+			}
+			else {
+				this.buckets[this.buckets.length - 1].offer(e);
+			}
+		}
+		else if (priority < 0) {
+			if (this.lower != null) {
+				this.lower.offer(new Sequenced<>(e, this.sequence.incrementAndGet()));
+			}
+			else {
+				this.buckets[0].offer(e);
+			}
+		}
+		else {
+			this.buckets[priority].offer(e);
+		}
+		this.count.incrementAndGet();
+		if (this.waiters.get() > 0) {
+			signalNotEmpty();
+		}
+		return true;
+	}
+
+	private void signalNotEmpty() {
+		this.lock.lock();
+		try {
+			this.notEmpty.signal();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public E poll() {
+		if (this.count.get() <= 0) {
+			return null;
+		}
+		E e = pollSequenced(this.higher);
+		for (int i = this.buckets.length - 1; e == null && i >= 0; i--) {
+			e = this.buckets[i].poll();
+		}
+		if (e == null) {
+			e = pollSequenced(this.lower);
+		}
+		if (e != null) {
+			this.count.decrementAndGet();
+		}
+		return e;
+	}
+
+	@Nullable
+	private static <E> E pollSequenced(@Nullable Queue<Sequenced<E>> queue) {
+		if (queue != null) {
+			Sequenced<E> sequenced = queue.poll();
+			if (sequenced != null) {
+				return sequenced.element;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	@Nullable
+	public E peek() {
+		E e = peekSequenced(this.higher);
+		for (int i = this.buckets.length - 1; e == null && i >= 0; i--) {
+			e = this.buckets[i].peek();
+		}
+		if (e == null) {
+			e = peekSequenced(this.lower);
+		}
+		return e;
+	}
+
+	@Nullable
+	private static <E> E peekSequenced(@Nullable Queue<Sequenced<E>> queue) {
+		if (queue != null) {
+			Sequenced<E> sequenced = queue.peek();
+			if (sequenced != null) {
+				return sequenced.element;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void put(E e) {
+		offer(e);
+	}
+
+	@Override
+	public boolean offer(E e, long timeout, TimeUnit unit) {
+		return offer(e);
+	}
+
+	@Override
+	public E take() throws InterruptedException {
+		E e = poll();
+		if (e != null) {
+			return e;
+		}
+		this.lock.lockInterruptibly();
+		this.waiters.incrementAndGet();
+		try {
+			while ((e = poll()) == null) {
+				this.notEmpty.await();
+			}
+		}
+		finally {
+			this.waiters.decrementAndGet();
+			this.lock.unlock();
+		}
+		passSignal();
+		return e;
+	}
+
+	@Override
+	@Nullable
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		E e = poll();
+		if (e != null) {
+			return e;
+		}
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		this.waiters.incrementAndGet();
+		try {
+			while ((e = poll()) == null) {
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+		}
+		finally {
+			this.waiters.decrementAndGet();
+			this.lock.unlock();
+		}
+		passSignal();
+		return e;
+	}
+
+	/*
+	 * A signal may have been consumed by a waiter which lost the element to a
+	 * non-blocking poll(); make sure the other waiters get a chance to see what is left.
+	 */
+	private void passSignal() {
+		if (this.waiters.get() > 0 && this.count.get() > 0) {
+			signalNotEmpty();
+		}
+	}
+
+	@Override
+	public int size() {
+		return Math.max(0, this.count.get());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c, int maxElements) {
+		Assert.notNull(c, "'c' must not be null");
+		Assert.isTrue(c != this, "Cannot drain a queue to itself");
+		int drained = 0;
+		E e;
+		while (drained < maxElements && (e = poll()) != null) {
+			c.add(e);
+			drained++;
+		}
+		return drained;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (o == null) {
+			return false;
+		}
+		boolean removed = removeSequenced(this.higher, o);
+		for (int i = this.buckets.length - 1; !removed && i >= 0; i--) {
+			removed = this.buckets[i].remove(o);
+		}
+		if (!removed) {
+			removed = removeSequenced(this.lower, o);
+		}
+		if (removed) {
+			this.count.decrementAndGet();
+		}
+		return removed;
+	}
+
+	private static <E> boolean removeSequenced(@Nullable Queue<Sequenced<E>> queue, Object o) {
+		if (queue != null) {
+			Iterator<Sequenced<E>> iterator = queue.iterator();
+			while (iterator.hasNext()) {
+				Sequenced<E> sequenced = iterator.next();
+				if (o.equals(sequenced.element) && queue.remove(sequenced)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Object[] toArray() {
+		List<E> snapshot = new ArrayList<>(size());
+		addSorted(this.higher, snapshot);
+		for (int i = this.buckets.length - 1; i >= 0; i--) {
+			snapshot.addAll(this.buckets[i]);
+		}
+		addSorted(this.lower, snapshot);
+		return snapshot.toArray();
+	}
+
+	private static <E> void addSorted(@Nullable Queue<Sequenced<E>> queue, List<E> snapshot) {
+		if (queue != null) {
+			@SuppressWarnings("unchecked")
+			Sequenced<E>[] sequenced = (Sequenced<E>[]) queue.toArray(new Sequenced<?>[0]);
+			Arrays.sort(sequenced, ((PriorityBlockingQueue<Sequenced<E>>) queue).comparator());
+			for (Sequenced<E> s : sequenced) {
+				snapshot.add(s.element);
+			}
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Iterator<E> iterator() {
+		return Arrays.asList((E[]) toArray()).iterator();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[buckets=" + this.buckets.length + ", size=" + size() + "]";
+	}
+
+	private static final class Sequenced<E> {
+
+		private final E element;
+
+		private final long sequence;
+
+		Sequenced(E element, long sequence) {
+			this.element = element;
+			this.sequence = sequence;
+		}
+
+	}
+
+}
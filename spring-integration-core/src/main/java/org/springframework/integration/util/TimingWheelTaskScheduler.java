@@ -0,0 +1,352 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link TaskScheduler} which keeps one-time tasks in a hashed timing wheel, for
+ * components scheduling and cancelling a large number of timeouts, such as the group
+ * timeouts of an aggregator or the releases of a {@code DelayHandler}.
+ * <p>
+ * Scheduling and cancelling a one-time task are O(1): the task is only added to
+ * (or, on cancellation, removed from) the wheel bucket for its deadline, instead of a
+ * shared delay queue ordered by deadline.
+ * The wheel is advanced by a single task on the delegate {@link TaskScheduler}, every
+ * tick duration; the due tasks are never run before their scheduled time, but up to one
+ * tick after it, on the provided {@link Executor} (by default, the delegate if it is an
+ * {@link Executor}, otherwise the thread advancing the wheel).
+ * <p>
+ * Periodic and {@link Trigger}-based tasks are scheduled on the delegate.
+ *
+ * @since 5.2
+ */
+public class TimingWheelTaskScheduler implements TaskScheduler, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(TimingWheelTaskScheduler.class);
+
+	private static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(10);
+
+	private static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+	private final TaskScheduler delegate;
+
+	private final long tickNanos;
+
+	private final Bucket[] wheel;
+
+	private final int mask;
+
+	private final Queue<WheelTask> pendingTasks = new ConcurrentLinkedQueue<>();
+
+	private final Queue<WheelTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+
+	private Executor taskExecutor;
+
+	private ErrorHandler errorHandler = TaskUtils.getDefaultErrorHandler(false);
+
+	private volatile long startTime;
+
+	private volatile ScheduledFuture<?> ticker;
+
+	private volatile boolean disposed;
+
+	private long tick;
+
+	/**
+	 * Create an instance with a tick duration of 10 milliseconds and 512 ticks per wheel.
+	 * @param delegate the scheduler to advance the wheel and to schedule the periodic tasks.
+	 */
+	public TimingWheelTaskScheduler(TaskScheduler delegate) {
+		this(delegate, DEFAULT_TICK_DURATION, DEFAULT_TICKS_PER_WHEEL);
+	}
+
+	/**
+	 * Create an instance with the provided tick duration and wheel size.
+	 * @param delegate the scheduler to advance the wheel and to schedule the periodic tasks.
+	 * @param tickDuration the duration of a tick; the resolution of the scheduled times.
+	 * @param ticksPerWheel the number of buckets in the wheel, rounded up to a power of two.
+	 */
+	public TimingWheelTaskScheduler(TaskScheduler delegate, Duration tickDuration, int ticksPerWheel) {
+		Assert.notNull(delegate, "'delegate' must not be null");
+		Assert.isTrue(tickDuration != null && tickDuration.toMillis() > 0,
+				"'tickDuration' must be at least one millisecond");
+		Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= 1 << 30, "'ticksPerWheel' must be in (0, 2^30]");
+		this.delegate = delegate;
+		this.tickNanos = tickDuration.toNanos();
+		int size = Integer.highestOneBit(ticksPerWheel);
+		if (size < ticksPerWheel) {
+			size <<= 1;
+		}
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			this.wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+		this.taskExecutor = delegate instanceof Executor ? (Executor) delegate : Runnable::run;
+	}
+
+	/**
+	 * Set the {@link Executor} to run the due tasks on. Defaults to the delegate scheduler
+	 * when it is an {@link Executor}, otherwise the tasks are run on the thread advancing
+	 * the wheel, and must therefore be short.
+	 * @param taskExecutor the executor.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the {@link ErrorHandler} for the exceptions thrown by the one-time tasks.
+	 * Defaults to logging them.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "'errorHandler' must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+		Assert.state(!this.disposed, "The scheduler has been disposed");
+		startIfNecessary();
+		long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, startTime.getTime() - System.currentTimeMillis()));
+		WheelTask wheelTask = new WheelTask(task, System.nanoTime() - this.startTime + delay);
+		this.pendingTasks.add(wheelTask);
+		return wheelTask;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+		return this.delegate.schedule(task, trigger);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		return this.delegate.scheduleAtFixedRate(task, startTime, period);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		return this.delegate.scheduleAtFixedRate(task, period);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		return this.delegate.scheduleWithFixedDelay(task, startTime, delay);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		return this.delegate.scheduleWithFixedDelay(task, delay);
+	}
+
+	/**
+	 * Stop advancing the wheel and cancel the tasks not run yet.
+	 */
+	@Override
+	public synchronized void destroy() {
+		this.disposed = true;
+		if (this.ticker != null) {
+			this.ticker.cancel(false);
+			this.ticker = null;
+		}
+		WheelTask task;
+		while ((task = this.pendingTasks.poll()) != null) {
+			task.cancel(false);
+		}
+		for (Bucket bucket : this.wheel) {
+			for (task = bucket.head; task != null; task = task.next) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	private void startIfNecessary() {
+		if (this.ticker == null) {
+			synchronized (this) {
+				if (this.ticker == null && !this.disposed) {
+					this.startTime = System.nanoTime();
+					this.ticker = this.delegate.scheduleAtFixedRate(this::advance,
+							TimeUnit.NANOSECONDS.toMillis(this.tickNanos));
+				}
+			}
+		}
+	}
+
+	private synchronized void advance() {
+		long elapsedTicks = (System.nanoTime() - this.startTime) / this.tickNanos;
+		while (this.tick < elapsedTicks && !this.disposed) {
+			removeCancelledTasks();
+			transferPendingTasks();
+			expire(this.wheel[(int) (this.tick & this.mask)]);
+			this.tick++;
+		}
+	}
+
+	private void removeCancelledTasks() {
+		WheelTask task;
+		while ((task = this.cancelledTasks.poll()) != null) {
+			if (task.bucket != null) {
+				task.bucket.remove(task);
+			}
+		}
+	}
+
+	private void transferPendingTasks() {
+		WheelTask task;
+		while ((task = this.pendingTasks.poll()) != null) {
+			if (!task.isCancelled()) {
+				long taskTick = Math.max(task.deadline / this.tickNanos, this.tick);
+				task.remainingRounds = (taskTick - this.tick) / this.wheel.length;
+				this.wheel[(int) (taskTick & this.mask)].add(task);
+			}
+		}
+	}
+
+	private void expire(Bucket bucket) {
+		WheelTask task = bucket.head;
+		while (task != null) {
+			WheelTask next = task.next;
+			if (task.remainingRounds <= 0) {
+				bucket.remove(task);
+				if (!task.isCancelled()) {
+					run(task);
+				}
+			}
+			else {
+				task.remainingRounds--;
+			}
+			task = next;
+		}
+	}
+
+	private void run(WheelTask task) {
+		try {
+			this.taskExecutor.execute(task);
+		}
+		catch (RejectedExecutionException ex) {
+			logger.error("Failed to run the task scheduled in the timing wheel", ex);
+			task.cancel(false);
+		}
+	}
+
+	private final class WheelTask extends FutureTask<Object> implements ScheduledFuture<Object> {
+
+		private final long deadline;
+
+		private long remainingRounds;
+
+		private Bucket bucket;
+
+		private WheelTask prev;
+
+		private WheelTask next;
+
+		WheelTask(Runnable task, long deadline) {
+			super(task, null);
+			this.deadline = deadline;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				TimingWheelTaskScheduler.this.cancelledTasks.add(this);
+			}
+			return cancelled;
+		}
+
+		@Override
+		protected void setException(Throwable ex) {
+			TimingWheelTaskScheduler.this.errorHandler.handleError(ex);
+			super.setException(ex);
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			long elapsed = System.nanoTime() - TimingWheelTaskScheduler.this.startTime;
+			return unit.convert(this.deadline - elapsed, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+		}
+
+	}
+
+	private static final class Bucket {
+
+		private WheelTask head;
+
+		private WheelTask tail;
+
+		void add(WheelTask task) {
+			task.bucket = this;
+			if (this.head == null) {
+				this.head = task;
+				this.tail = task;
+			}
+			else {
+				this.tail.next = task;
+				task.prev = this.tail;
+				this.tail = task;
+			}
+		}
+
+		void remove(WheelTask task) {
+			if (task.prev != null) {
+				task.prev.next = task.next;
+			}
+			else {
+				this.head = task.next;
+			}
+			if (task.next != null) {
+				task.next.prev = task.prev;
+			}
+			else {
+				this.tail = task.prev;
+			}
+			task.bucket = null;
+			task.prev = null;
+			task.next = null;
+		}
+
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link TaskExecutor} that starts a new virtual thread for each task.
+ * Virtual threads are cheap to create and do not hold a platform thread while blocked,
+ * so there is no need to pool them.
+ * <p>
+ * Virtual threads are resolved reflectively, so this class can be loaded on any JVM;
+ * use {@link #isSupported()} to check whether the current one provides them.
+ * <p>
+ * The static {@link #threadFactoryIfEnabled(BeanFactory, String)} is used by the
+ * framework components which create their own thread pools to honor the
+ * {@link IntegrationProperties#VIRTUAL_THREADS} global property.
+ *
+ * @since 5.2
+ */
+public class VirtualThreadTaskExecutor implements TaskExecutor {
+
+	private static final Log logger = LogFactory.getLog(VirtualThreadTaskExecutor.class);
+
+	private static final Method OF_VIRTUAL_METHOD;
+
+	private static final Method NAME_METHOD;
+
+	private static final Method FACTORY_METHOD;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		try {
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builderType.getMethod("name", String.class, long.class);
+			factory = builderType.getMethod("factory");
+			// Fails when virtual threads are a preview feature which is not enabled
+			factory.invoke(ofVirtual.invoke(null));
+		}
+		catch (Exception | LinkageError ex) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL_METHOD = ofVirtual;
+		NAME_METHOD = name;
+		FACTORY_METHOD = factory;
+	}
+
+	private final ThreadFactory threadFactory;
+
+	/**
+	 * Create an executor with the {@code virtual-} thread name prefix.
+	 * @throws IllegalStateException if the JVM does not support virtual threads.
+	 */
+	public VirtualThreadTaskExecutor() {
+		this("virtual-");
+	}
+
+	/**
+	 * Create an executor with the provided thread name prefix.
+	 * @param threadNamePrefix the prefix; threads are numbered from 0.
+	 * @throws IllegalStateException if the JVM does not support virtual threads.
+	 */
+	public VirtualThreadTaskExecutor(String threadNamePrefix) {
+		this.threadFactory = newThreadFactory(threadNamePrefix);
+	}
+
+	/**
+	 * Return the factory used to create the virtual threads.
+	 * @return the thread factory.
+	 */
+	public ThreadFactory getThreadFactory() {
+		return this.threadFactory;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		this.threadFactory.newThread(task).start();
+	}
+
+	/**
+	 * Return true if the current JVM supports virtual threads.
+	 * @return true if virtual threads are supported.
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL_METHOD != null;
+	}
+
+	/**
+	 * Create a {@link ThreadFactory} for virtual threads named with the provided prefix.
+	 * @param threadNamePrefix the prefix; threads are numbered from 0.
+	 * @return the thread factory.
+	 * @throws IllegalStateException if the JVM does not support virtual threads.
+	 */
+	public static ThreadFactory newThreadFactory(String threadNamePrefix) {
+		Assert.notNull(threadNamePrefix, "'threadNamePrefix' must not be null");
+		Assert.state(isSupported(), "Virtual threads are not supported by this JVM");
+		try {
+			Object builder = OF_VIRTUAL_METHOD.invoke(null);
+			builder = NAME_METHOD.invoke(builder, threadNamePrefix, 0L);
+			return (ThreadFactory) FACTORY_METHOD.invoke(builder);
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException("Failed to create a virtual thread factory", ex);
+		}
+	}
+
+	/**
+	 * Return a virtual {@link ThreadFactory} if the {@link IntegrationProperties#VIRTUAL_THREADS}
+	 * global property is {@code true} and the JVM supports virtual threads.
+	 * A warning is logged if the property is set on a JVM without virtual threads.
+	 * @param beanFactory the bean factory to resolve the integration properties from.
+	 * @param threadNamePrefix the prefix for the thread names.
+	 * @return the thread factory, or null if the component should keep its platform threads.
+	 */
+	@Nullable
+	public static ThreadFactory threadFactoryIfEnabled(@Nullable BeanFactory beanFactory, String threadNamePrefix) {
+		if (beanFactory == null
+				|| !Boolean.parseBoolean(IntegrationContextUtils.getIntegrationProperties(beanFactory)
+						.getProperty(IntegrationProperties.VIRTUAL_THREADS))) {
+
+			return null;
+		}
+		if (!isSupported()) {
+			logger.warn("'" + IntegrationProperties.VIRTUAL_THREADS + "' is enabled, but virtual threads "
+					+ "are not supported by this JVM; falling back to platform threads");
+			return null;
+		}
+		return newThreadFactory(threadNamePrefix);
+	}
+
+}
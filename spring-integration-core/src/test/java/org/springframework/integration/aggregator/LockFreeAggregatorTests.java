@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.store.ConcurrentMessageGroupStore;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * @since 5.2
+ */
+public class LockFreeAggregatorTests {
+
+	@Test
+	public void testConcurrentGroups() throws Exception {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		QueueChannel output = new QueueChannel();
+		AggregatingMessageHandler handler = createHandler(store, output);
+		int groups = 200;
+		int groupSize = 8;
+		ExecutorService exec = Executors.newFixedThreadPool(groupSize);
+		for (int i = 0; i < groupSize; i++) {
+			int sequence = i + 1;
+			exec.execute(() -> {
+				for (int group = 0; group < groups; group++) {
+					handler.handleMessage(message(group, sequence, groupSize));
+				}
+			});
+		}
+		exec.shutdown();
+		assertThat(exec.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		Set<String> released = new HashSet<>();
+		Message<?> result;
+		while ((result = output.receive(0)) != null) {
+			List<?> payload = (List<?>) result.getPayload();
+			assertThat(payload).hasSize(groupSize);
+			String first = (String) payload.get(0);
+			assertThat(released.add(first.substring(0, first.length() - 1))).isTrue();
+		}
+		assertThat(released).hasSize(groups);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(0);
+		assertThat(store.getMessageGroupCount()).isEqualTo(groups);
+	}
+
+	@Test
+	public void testLateMessagesAndExpiry() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		QueueChannel output = new QueueChannel();
+		QueueChannel discards = new QueueChannel();
+		AggregatingMessageHandler handler = createHandler(store, output);
+		handler.setDiscardChannel(discards);
+		handler.setSendPartialResultOnExpiry(true);
+
+		handler.handleMessage(message("a", 1, 2));
+		handler.handleMessage(message("a", 2, 2));
+		assertThat(output.receive(0)).isNotNull();
+		assertThat(store.getMessageGroup("a").isComplete()).isTrue();
+		Message<?> late = message("a", 1, 2);
+		handler.handleMessage(late);
+		assertThat(discards.receive(0)).isSameAs(late);
+
+		handler.handleMessage(message("b", 1, 2));
+		assertThat(store.expireMessageGroups(-10000)).isEqualTo(2);
+		Message<?> partial = output.receive(0);
+		assertThat(partial).isNotNull();
+		assertThat(partial.getPayload()).asList().containsExactly("b1");
+		assertThat(output.receive(0)).isNull();
+		assertThat(store.getMessageGroupCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testExpireGroupsUponCompletion() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		QueueChannel output = new QueueChannel();
+		AggregatingMessageHandler handler = createHandler(store, output);
+		handler.setExpireGroupsUponCompletion(true);
+		List<Object> payloads = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			handler.handleMessage(message("a", 1, 2));
+			handler.handleMessage(message("a", 2, 2));
+			payloads.add(output.receive(0).getPayload());
+			assertThat(store.getMessageGroupCount()).isEqualTo(0);
+		}
+		assertThat(payloads).hasSize(2);
+
+		handler.setReleaseStrategy(new MessageCountReleaseStrategy(1));
+		handler.handleMessage(message("b", 1, 2));
+		assertThat(output.receive(0).getPayload()).asList().containsExactly("b1");
+		assertThat(store.getMessageGroupCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testInvalidConfiguration() {
+		AggregatingMessageHandler handler =
+				new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(), new SimpleMessageStore());
+		handler.setLockFree(true);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		assertThatIllegalStateException()
+				.isThrownBy(handler::afterPropertiesSet)
+				.withMessageContaining("ConcurrentMessageGroupStore");
+
+		AggregatingMessageHandler sequenceAware = new AggregatingMessageHandler(
+				new DefaultAggregatingMessageGroupProcessor(), new ConcurrentMessageGroupStore());
+		sequenceAware.setLockFree(true);
+		sequenceAware.setReleaseStrategy(new SequenceSizeReleaseStrategy());
+		sequenceAware.setBeanFactory(mock(BeanFactory.class));
+		assertThatIllegalStateException()
+				.isThrownBy(sequenceAware::afterPropertiesSet)
+				.withMessageContaining("SimpleSequenceSizeReleaseStrategy");
+	}
+
+	private static AggregatingMessageHandler createHandler(ConcurrentMessageGroupStore store, QueueChannel output) {
+		AggregatingMessageHandler handler =
+				new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(), store);
+		handler.setOutputChannel(output);
+		handler.setLockFree(true);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		return handler;
+	}
+
+	private static Message<String> message(Object correlationId, int sequenceNumber, int sequenceSize) {
+		return MessageBuilder.withPayload(correlationId.toString() + sequenceNumber)
+				.setCorrelationId(correlationId)
+				.setSequenceNumber(sequenceNumber)
+				.setSequenceSize(sequenceSize)
+				.build();
+	}
+
+}
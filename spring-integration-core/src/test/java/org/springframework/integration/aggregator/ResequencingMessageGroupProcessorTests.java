@@ -19,6 +19,7 @@ package org.springframework.integration.aggregator;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -68,4 +69,40 @@ public class ResequencingMessageGroupProcessorTests {
 		assertThat(processedMessages.size()).isEqualTo(1);
 	}
 
+	@Test
+	public void shouldUseSequenceIndexAndTrackRemovals() {
+		SimpleMessageGroup group = new SimpleMessageGroup("x");
+		List<Message<?>> messages = new ArrayList<>();
+		for (int i = 10000; i > 0; i--) {
+			Message<?> message = MessageBuilder.withPayload(i).setSequenceNumber(i).setSequenceSize(10000).build();
+			messages.add(0, message);
+			if (i != 5000) {
+				group.add(message);
+			}
+		}
+		assertThat(group.getMessagesBySequence()).hasSize(9999);
+		assertThat(group.getMessagesBySequence().firstKey()).isEqualTo(1);
+		List<?> released = (List<?>) this.processor.processMessageGroup(group);
+		assertThat(released).isEqualTo(messages.subList(0, 4999));
+
+		released.forEach(message -> group.remove((Message<?>) message));
+		group.add(messages.get(4999));
+		assertThat(group.getMessagesBySequence().firstKey()).isEqualTo(5000);
+		assertThat((List<?>) this.processor.processMessageGroup(group)).isEqualTo(messages.subList(4999, 10000));
+	}
+
+	@Test
+	public void shouldFallBackToSortingWithDuplicateSequences() {
+		Message<?> message1 = MessageBuilder.withPayload("foo").setSequenceNumber(1).build();
+		Message<?> message2 = MessageBuilder.withPayload("bar").setSequenceNumber(2).build();
+		Message<?> duplicate = MessageBuilder.withPayload("baz").setSequenceNumber(1).build();
+		SimpleMessageGroup group = new SimpleMessageGroup(Arrays.asList(message2, message1, duplicate), "x");
+		assertThat(group.getMessagesBySequence()).isNull();
+		assertThat(this.processor.processMessageGroup(group)).asList().containsExactly(message1, duplicate, message2);
+		group.remove(message1);
+		assertThat(group.containsSequence(1)).isTrue();
+		assertThat(group.getMessagesBySequence()).containsOnlyKeys(1, 2);
+		assertThat(this.processor.processMessageGroup(group)).asList().containsExactly(duplicate, message2);
+	}
+
 }
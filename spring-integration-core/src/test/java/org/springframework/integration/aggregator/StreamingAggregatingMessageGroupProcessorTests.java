@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.store.AbstractKeyValueMessageStore;
+import org.springframework.integration.store.ConcurrentMessageGroupStore;
+import org.springframework.integration.store.MessageGroupStore;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.integration.util.CloseableIterator;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * @since 5.2
+ */
+public class StreamingAggregatingMessageGroupProcessorTests {
+
+	@Test
+	public void testMessagesRemovedWhenIterated() {
+		SimpleMessageStore store = new SimpleMessageStore();
+		QueueChannel output = new QueueChannel();
+		QueueChannel discards = new QueueChannel();
+		AggregatingMessageHandler handler = createHandler(store, output);
+		handler.setDiscardChannel(discards);
+		for (int i = 1; i <= 3; i++) {
+			handler.handleMessage(message(i, 3));
+		}
+		Message<?> result = output.receive(0);
+		assertThat(result).isNotNull();
+		assertThat(result.getPayload()).isInstanceOf(CloseableIterator.class);
+		assertThat(result.getHeaders())
+				.containsEntry(IntegrationMessageHeaderAccessor.CORRELATION_ID, "corr")
+				.containsEntry("foo", "bar");
+		assertThat(store.getMessageGroup("corr").isComplete()).isTrue();
+		assertThat(store.messageGroupSize("corr")).isEqualTo(3);
+
+		Message<?> late = message(1, 3);
+		handler.handleMessage(late);
+		assertThat(discards.receive(0)).isSameAs(late);
+
+		CloseableIterator<?> payloads = (CloseableIterator<?>) result.getPayload();
+		List<Object> list = new ArrayList<>();
+		payloads.forEachRemaining(list::add);
+		assertThat(list).containsExactly(1, 2, 3);
+		assertThat(store.messageGroupSize("corr")).isEqualTo(0);
+		assertThat(store.getMessageGroupCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testGroupRemovedWhenClosed() {
+		SimpleMessageStore store = new SimpleMessageStore();
+		QueueChannel output = new QueueChannel();
+		AggregatingMessageHandler handler = createHandler(store, output);
+		handler.setExpireGroupsUponCompletion(true);
+		handler.handleMessage(message(1, 2));
+		handler.handleMessage(message(2, 2));
+		CloseableIterator<?> payloads = (CloseableIterator<?>) output.receive(0).getPayload();
+		assertThat(payloads.next()).isEqualTo(1);
+		assertThat(store.getMessageGroupCount()).isEqualTo(1);
+		payloads.close();
+		assertThat(payloads.hasNext()).isFalse();
+		assertThat(store.getMessageGroupCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testIteratedBeforeRelease() {
+		SimpleMessageStore store = new SimpleMessageStore();
+		DirectChannel output = new DirectChannel();
+		List<Object> list = new ArrayList<>();
+		output.subscribe(message -> ((CloseableIterator<?>) message.getPayload()).forEachRemaining(list::add));
+		AggregatingMessageHandler handler = createHandler(store, output);
+		handler.handleMessage(message(2, 2));
+		handler.handleMessage(message(1, 2));
+		assertThat(list).containsExactly(2, 1);
+		assertThat(store.messageGroupSize("corr")).isEqualTo(0);
+		assertThat(store.getMessageGroup("corr").isComplete()).isTrue();
+	}
+
+	@Test
+	public void testNotLockFree() {
+		AggregatingMessageHandler handler = new AggregatingMessageHandler(
+				new StreamingAggregatingMessageGroupProcessor(), new ConcurrentMessageGroupStore());
+		handler.setLockFree(true);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		assertThatIllegalStateException()
+				.isThrownBy(handler::afterPropertiesSet)
+				.withMessageContaining("lock-free");
+	}
+
+	@Test
+	public void testGroupCompletedOnceOnRelease() {
+		SimpleMessageStore store = spy(new SimpleMessageStore());
+		AggregatingMessageHandler handler = createHandler(store, new QueueChannel());
+		handler.handleMessage(message(1, 2));
+		handler.handleMessage(message(2, 2));
+		verify(store).completeGroup("corr");
+	}
+
+	@Test
+	public void testIteratorsNotTrackedWithoutHandler() {
+		SimpleMessageStore store = new SimpleMessageStore();
+		store.addMessagesToGroup("corr", message(1, 1));
+		StreamingAggregatingMessageGroupProcessor processor = new StreamingAggregatingMessageGroupProcessor();
+		processor.setMessageStore(store);
+		processor.setBeanFactory(mock(BeanFactory.class));
+		assertThat(processor.processMessageGroup(store.getMessageGroup("corr"))).isNotNull();
+		assertThat(TestUtils.getPropertyValue(processor, "iterators", Map.class)).isEmpty();
+	}
+
+	@Test
+	public void testMessagesRemovedFromKeyValueStoreAreSkipped() {
+		MapMessageStore store = new MapMessageStore();
+		Message<Integer> removed = message(2, 3);
+		store.addMessagesToGroup("corr", message(1, 3), removed, message(3, 3));
+		store.removeMessage(removed.getHeaders().getId());
+		List<Object> list = new ArrayList<>();
+		try (CloseableIterator<Message<?>> messages = store.iterateMessagesForGroup("corr")) {
+			messages.forEachRemaining(message -> list.add(message.getPayload()));
+		}
+		assertThat(list).containsExactly(1, 3);
+	}
+
+	private static AggregatingMessageHandler createHandler(MessageGroupStore store, MessageChannel output) {
+		AggregatingMessageHandler handler =
+				new AggregatingMessageHandler(new StreamingAggregatingMessageGroupProcessor(), store);
+		handler.setOutputChannel(output);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		return handler;
+	}
+
+	private static Message<Integer> message(int sequenceNumber, int sequenceSize) {
+		return MessageBuilder.withPayload(sequenceNumber)
+				.setCorrelationId("corr")
+				.setSequenceNumber(sequenceNumber)
+				.setSequenceSize(sequenceSize)
+				.setHeader("foo", "bar")
+				.build();
+	}
+
+	private static class MapMessageStore extends AbstractKeyValueMessageStore {
+
+		private final Map<Object, Object> map = new ConcurrentHashMap<>();
+
+		@Override
+		protected Object doRetrieve(Object id) {
+			return this.map.get(id);
+		}
+
+		@Override
+		protected void doStore(Object id, Object objectToStore) {
+			this.map.put(id, objectToStore);
+		}
+
+		@Override
+		protected void doStoreIfAbsent(Object id, Object objectToStore) {
+			this.map.putIfAbsent(id, objectToStore);
+		}
+
+		@Override
+		protected Object doRemove(Object id) {
+			return this.map.remove(id);
+		}
+
+		@Override
+		protected void doRemoveAll(Collection<Object> ids) {
+			ids.forEach(this.map::remove);
+		}
+
+		@Override
+		protected Collection<?> doListKeys(String keyPattern) {
+			return this.map.keySet()
+					.stream()
+					.filter(key -> PatternMatchUtils.simpleMatch(keyPattern, key.toString()))
+					.collect(Collectors.toList());
+		}
+
+	}
+
+}
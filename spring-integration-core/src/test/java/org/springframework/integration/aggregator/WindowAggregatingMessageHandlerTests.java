@@ -0,0 +1,258 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.ListAssert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * @since 5.2
+ */
+class WindowAggregatingMessageHandlerTests {
+
+	private final QueueChannel output = new QueueChannel();
+
+	private ThreadPoolTaskScheduler taskScheduler;
+
+	@BeforeEach
+	void setUp() {
+		this.taskScheduler = new ThreadPoolTaskScheduler();
+		this.taskScheduler.afterPropertiesSet();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.taskScheduler.destroy();
+	}
+
+	@Test
+	void testTumblingBySize() {
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.TUMBLING);
+		handler.setWindowSize(3);
+		handler.setCorrelationStrategy(new HeaderAttributeCorrelationStrategy("key"));
+		start(handler);
+		for (int i = 0; i < 7; i++) {
+			handler.handleMessage(message(i % 2, i));
+		}
+		assertPayloads(this.output.receive(0)).containsExactly(0, 2, 4);
+		assertPayloads(this.output.receive(0)).containsExactly(1, 3, 5);
+		assertThat(this.output.receive(0)).isNull();
+
+		handler.stop();
+		assertPayloads(this.output.receive(0)).containsExactly(6);
+		assertThat(this.output.receive(0)).isNull();
+	}
+
+	@Test
+	void testTumblingByTimespan() {
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.TUMBLING);
+		handler.setWindowSize(10);
+		handler.setWindowTimespan(Duration.ofMillis(100));
+		start(handler);
+		handler.handleMessage(new GenericMessage<>(1));
+		handler.handleMessage(new GenericMessage<>(2));
+		assertPayloads(this.output.receive(10_000)).containsExactly(1, 2);
+
+		handler.handleMessage(new GenericMessage<>(3));
+		assertPayloads(this.output.receive(10_000)).containsExactly(3);
+		handler.stop();
+		assertThat(this.output.receive(0)).isNull();
+	}
+
+	@Test
+	void testSliding() {
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.SLIDING);
+		handler.setWindowSize(3);
+		handler.setWindowSlide(2);
+		start(handler);
+		for (int i = 0; i < 8; i++) {
+			handler.handleMessage(new GenericMessage<>(i));
+		}
+		assertPayloads(this.output.receive(0)).containsExactly(0, 1, 2);
+		assertPayloads(this.output.receive(0)).containsExactly(2, 3, 4);
+		assertPayloads(this.output.receive(0)).containsExactly(4, 5, 6);
+		assertThat(this.output.receive(0)).isNull();
+
+		handler.stop();
+		assertPayloads(this.output.receive(0)).containsExactly(5, 6, 7);
+	}
+
+	@Test
+	void testSession() throws InterruptedException {
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.SESSION);
+		handler.setWindowTimespan(Duration.ofMillis(200));
+		start(handler);
+		for (int i = 0; i < 5; i++) {
+			handler.handleMessage(new GenericMessage<>(i));
+			Thread.sleep(50);
+		}
+		assertPayloads(this.output.receive(10_000)).containsExactly(0, 1, 2, 3, 4);
+		handler.stop();
+	}
+
+	@Test
+	void testRestoreFromMessageStore() {
+		SimpleMessageStore messageStore = new SimpleMessageStore();
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.TUMBLING);
+		handler.setWindowSize(3);
+		handler.setMessageStore(messageStore);
+		start(handler);
+		handler.handleMessage(new GenericMessage<>(1));
+		handler.handleMessage(new GenericMessage<>(2));
+		handler.stop();
+		assertThat(this.output.receive(0)).isNull();
+		assertThat(messageStore.getMessageCountForAllMessageGroups()).isEqualTo(2);
+
+		handler.start();
+		handler.handleMessage(new GenericMessage<>(3));
+		assertPayloads(this.output.receive(0)).containsExactly(1, 2, 3);
+		assertThat(messageStore.getMessageGroupCount()).isEqualTo(0);
+		handler.stop();
+	}
+
+	@Test
+	void testMessagesStayInMessageStoreUntilSent() {
+		SimpleMessageStore messageStore = new SimpleMessageStore();
+		AtomicBoolean fail = new AtomicBoolean(true);
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.TUMBLING);
+		handler.setOutputChannel((message, timeout) -> {
+			if (fail.get()) {
+				throw new MessageDeliveryException(message, "test");
+			}
+			return this.output.send(message, timeout);
+		});
+		handler.setWindowSize(2);
+		handler.setMessageStore(messageStore);
+		start(handler);
+		handler.handleMessage(new GenericMessage<>(1));
+		assertThatExceptionOfType(MessageDeliveryException.class)
+				.isThrownBy(() -> handler.handleMessage(new GenericMessage<>(2)));
+		assertThat(messageStore.getMessageCountForAllMessageGroups()).isEqualTo(2);
+		handler.stop();
+
+		fail.set(false);
+		handler.start();
+		assertPayloads(this.output.receive(0)).containsExactly(1, 2);
+		assertThat(messageStore.getMessageGroupCount()).isEqualTo(0);
+		handler.stop();
+	}
+
+	@Test
+	void testFailedWindowIsReleasedAgainWithNextMessage() {
+		SimpleMessageStore messageStore = new SimpleMessageStore();
+		AtomicBoolean fail = new AtomicBoolean(true);
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.TUMBLING);
+		handler.setOutputChannel((message, timeout) -> {
+			if (fail.get()) {
+				throw new MessageDeliveryException(message, "test");
+			}
+			return this.output.send(message, timeout);
+		});
+		handler.setWindowSize(2);
+		handler.setMessageStore(messageStore);
+		start(handler);
+		handler.handleMessage(new GenericMessage<>(1));
+		assertThatExceptionOfType(MessageDeliveryException.class)
+				.isThrownBy(() -> handler.handleMessage(new GenericMessage<>(2)));
+
+		fail.set(false);
+		handler.handleMessage(new GenericMessage<>(3));
+		assertPayloads(this.output.receive(0)).containsExactly(1, 2, 3);
+		assertThat(messageStore.getMessageGroupCount()).isEqualTo(0);
+		handler.stop();
+	}
+
+	@Test
+	void testFailedWindowIsReleasedAgainAfterTimespan() {
+		AtomicInteger attempts = new AtomicInteger();
+		WindowAggregatingMessageHandler handler = createHandler(WindowAggregatingMessageHandler.WindowType.TUMBLING);
+		handler.setOutputChannel((message, timeout) -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new MessageDeliveryException(message, "test");
+			}
+			return this.output.send(message, timeout);
+		});
+		handler.setWindowTimespan(Duration.ofMillis(100));
+		start(handler);
+		handler.handleMessage(new GenericMessage<>(1));
+		assertPayloads(this.output.receive(10_000)).containsExactly(1);
+		assertThat(attempts.get()).isEqualTo(2);
+		handler.stop();
+		assertThat(this.output.receive(0)).isNull();
+	}
+
+	@Test
+	void testInvalidConfiguration() {
+		WindowAggregatingMessageHandler sliding = createHandler(WindowAggregatingMessageHandler.WindowType.SLIDING);
+		assertThatIllegalStateException()
+				.isThrownBy(sliding::afterPropertiesSet)
+				.withMessageContaining("'windowSize' is required");
+
+		WindowAggregatingMessageHandler session = createHandler(WindowAggregatingMessageHandler.WindowType.SESSION);
+		session.setWindowSize(10);
+		assertThatIllegalStateException()
+				.isThrownBy(session::afterPropertiesSet)
+				.withMessageContaining("'windowTimespan' is required");
+	}
+
+	private WindowAggregatingMessageHandler createHandler(WindowAggregatingMessageHandler.WindowType windowType) {
+		WindowAggregatingMessageHandler handler = new WindowAggregatingMessageHandler(windowType);
+		handler.setOutputChannel(this.output);
+		handler.setTaskScheduler(this.taskScheduler);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		return handler;
+	}
+
+	private static void start(WindowAggregatingMessageHandler handler) {
+		handler.afterPropertiesSet();
+		handler.start();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ListAssert<Object> assertPayloads(Message<?> result) {
+		assertThat(result).isNotNull();
+		return assertThat((List<Object>) result.getPayload());
+	}
+
+	private static Message<Integer> message(Object key, int payload) {
+		return MessageBuilder.withPayload(payload)
+				.setHeader("key", key)
+				.build();
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 5.2
+ */
+class AbstractMessageChannelTests {
+
+	@Test
+	void plainSendDoesNotAllocate() {
+		java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+		CountingChannel channel = new CountingChannel();
+		Message<?> message = new GenericMessage<>("test");
+		for (int i = 0; i < 100_000; i++) {
+			channel.send(message);
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 100_000; i++) {
+			channel.send(message);
+		}
+		long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+		assertThat(channel.count).isEqualTo(200_000);
+		// Tolerate the measurement itself, but not a single object per send
+		assertThat(allocated).isLessThan(100_000);
+	}
+
+	@Test
+	void interceptorsAreAppliedAndCompletedInReverseOrder() {
+		CountingChannel channel = new CountingChannel();
+		List<String> calls = new ArrayList<>();
+		channel.addInterceptor(new RecordingInterceptor("first", calls, false));
+		channel.addInterceptor(new RecordingInterceptor("second", calls, true));
+		channel.addInterceptor(new RecordingInterceptor("third", calls, false));
+		assertThat(channel.send(new GenericMessage<>("test"))).isFalse();
+		assertThat(calls).containsExactly("first.preSend", "second.preSend", "first.afterSendCompletion");
+		assertThat(channel.count).isEqualTo(0);
+
+		calls.clear();
+		channel.removeInterceptor(1);
+		assertThat(channel.send(new GenericMessage<>("test"))).isTrue();
+		assertThat(calls).containsExactly("first.preSend", "third.preSend", "first.postSend", "third.postSend",
+				"third.afterSendCompletion", "first.afterSendCompletion");
+
+		calls.clear();
+		channel.removeInterceptor(1);
+		channel.removeInterceptor(0);
+		assertThat(channel.send(new GenericMessage<>("test"))).isTrue();
+		assertThat(calls).isEmpty();
+		assertThat(channel.count).isEqualTo(2);
+	}
+
+	@Test
+	void plainSendWrapsExceptions() {
+		AbstractMessageChannel channel = new AbstractMessageChannel() {
+
+			@Override
+			protected boolean doSend(Message<?> message, long timeout) {
+				throw new IllegalStateException("test");
+			}
+
+		};
+		assertThatExceptionOfType(MessageDeliveryException.class)
+				.isThrownBy(() -> channel.send(new GenericMessage<>("test")))
+				.withCauseInstanceOf(IllegalStateException.class);
+	}
+
+	private static class CountingChannel extends AbstractMessageChannel {
+
+		private int count;
+
+		CountingChannel() {
+			super();
+		}
+
+		@Override
+		protected boolean doSend(Message<?> message, long timeout) {
+			this.count++;
+			return true;
+		}
+
+	}
+
+	private static class RecordingInterceptor implements ChannelInterceptor {
+
+		private final String name;
+
+		private final List<String> calls;
+
+		private final boolean veto;
+
+		RecordingInterceptor(String name, List<String> calls, boolean veto) {
+			this.name = name;
+			this.calls = calls;
+			this.veto = veto;
+		}
+
+		@Override
+		public Message<?> preSend(Message<?> message, MessageChannel channel) {
+			this.calls.add(this.name + ".preSend");
+			return this.veto ? null : message;
+		}
+
+		@Override
+		public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
+			this.calls.add(this.name + ".postSend");
+		}
+
+		@Override
+		public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent,
+				Exception ex) {
+
+			this.calls.add(this.name + ".afterSendCompletion");
+		}
+
+	}
+
+}
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -29,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -121,6 +123,33 @@ class DirectChannelTests {
 		assertThat(count2.get()).isEqualTo(5000000);
 	}
 
+	@Test
+	void testSendSeveralHandlersDoesNotAllocate() {
+		java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+		DirectChannel channel = new DirectChannel();
+		int[] counts = new int[3];
+		channel.subscribe(message -> counts[0]++);
+		channel.subscribe(message -> counts[1]++);
+		channel.subscribe(message -> counts[2]++);
+		GenericMessage<String> message = new GenericMessage<>("test");
+		for (int i = 0; i < 99_999; i++) {
+			channel.send(message);
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 99_999; i++) {
+			channel.send(message);
+		}
+		long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+		assertThat(counts).containsOnly(66_666);
+		assertThat(allocated).isLessThan(100_000);
+	}
+
 	@Test
 	void testSendPerfFixedSubscriberChannel() {
 		/*
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.integration.dsl.MessageChannels;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.management.micrometer.MicrometerMetricsCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.support.GenericMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @since 5.2
+ */
+class PartitionedChannelTests {
+
+	@Test
+	void messagesWithSameKeyAreHandledInOrderOnOneThread() throws InterruptedException {
+		PartitionedChannel channel = new PartitionedChannel(4);
+		channel.setPartitionKeyHeader("key");
+		Map<Object, List<Integer>> received = new ConcurrentHashMap<>();
+		Map<Object, Set<String>> threads = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(1000);
+		channel.subscribe(message -> {
+			Object key = message.getHeaders().get("key");
+			received.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+					.add((Integer) message.getPayload());
+			threads.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet())
+					.add(Thread.currentThread().getName());
+			latch.countDown();
+		});
+		for (int i = 0; i < 1000; i++) {
+			channel.send(MessageBuilder.withPayload(i).setHeader("key", "k" + (i % 10)).build());
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).hasSize(10);
+		received.values().forEach(payloads -> assertThat(payloads).hasSize(100).isSorted());
+		threads.values().forEach(names -> assertThat(names).hasSize(1));
+		int n = 0;
+		while (n++ < 100 && handledCount(channel) < 1000) {
+			Thread.sleep(100);
+		}
+		assertThat(handledCount(channel)).isEqualTo(1000);
+		channel.destroy();
+	}
+
+	private static long handledCount(PartitionedChannel channel) {
+		long handled = 0;
+		for (int i = 0; i < channel.getPartitionCount(); i++) {
+			handled += channel.getPartitionHandledCount(i);
+		}
+		return handled;
+	}
+
+	@Test
+	void fullPartitionBlocksTheSender() throws InterruptedException {
+		PartitionedChannel channel = new PartitionedChannel(1, 1);
+		CountDownLatch handling = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			handling.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertThat(channel.send(new GenericMessage<>("one"))).isTrue();
+		assertThat(handling.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(channel.send(new GenericMessage<>("two"), 0)).isTrue();
+		assertThat(channel.getPartitionQueueSize(0)).isEqualTo(1);
+		assertThat(channel.send(new GenericMessage<>("three"), 10)).isFalse();
+		release.countDown();
+		assertThat(channel.send(new GenericMessage<>("three"), 10_000)).isTrue();
+		channel.destroy();
+	}
+
+	@Test
+	void partitionKeyExpressionFromDsl() throws InterruptedException {
+		PartitionedChannel channel = MessageChannels.partitioned(3)
+				.partitionKeyExpression("payload % 2")
+				.capacity(10)
+				.get();
+		Map<Object, List<Integer>> received = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(20);
+		channel.subscribe(message -> {
+			received.computeIfAbsent(Thread.currentThread().getName(),
+					k -> Collections.synchronizedList(new ArrayList<>()))
+					.add((Integer) message.getPayload());
+			latch.countDown();
+		});
+		for (int i = 0; i < 20; i++) {
+			channel.send(new GenericMessage<>(i));
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received.values())
+				.allSatisfy(payloads -> assertThat(payloads).isSorted()
+						.extracting(payload -> payload % 2)
+						.containsOnly(payloads.get(0) % 2));
+		channel.destroy();
+	}
+
+	@Test
+	void noSubscribersIsRejected() {
+		PartitionedChannel channel = new PartitionedChannel(2);
+		Message<?> message = new GenericMessage<>("test");
+		assertThatExceptionOfType(MessageDeliveryException.class)
+				.isThrownBy(() -> channel.send(message))
+				.withMessageContaining("Dispatcher has no subscribers");
+		channel.destroy();
+	}
+
+	@Test
+	void handledCounterAndDaemonThreads() throws InterruptedException {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PartitionedChannel channel = new PartitionedChannel(2);
+		channel.setBeanName("partitioned");
+		channel.registerMetricsCaptor(new MicrometerMetricsCaptor(registry));
+		channel.afterPropertiesSet();
+		Set<Boolean> daemon = ConcurrentHashMap.newKeySet();
+		CountDownLatch latch = new CountDownLatch(10);
+		channel.subscribe(message -> {
+			daemon.add(Thread.currentThread().isDaemon());
+			latch.countDown();
+		});
+		for (int i = 0; i < 10; i++) {
+			channel.send(new GenericMessage<>(i));
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(daemon).containsExactly(true);
+		int n = 0;
+		while (n++ < 100 && handledCount(channel) < 10) {
+			Thread.sleep(100);
+		}
+		double counted = registry.find("spring.integration.channel.partition.handled")
+				.tag("name", "partitioned")
+				.counters()
+				.stream()
+				.mapToDouble(Counter::count)
+				.sum();
+		assertThat(counted).isEqualTo(10);
+		channel.destroy();
+		assertThat(registry.find("spring.integration.channel.partition.handled").counters()).isEmpty();
+	}
+
+	@Test
+	void sendBlockedOnFullPartitionIsRejectedOnShutdown() throws Exception {
+		PartitionedChannel channel = new PartitionedChannel(1, 1);
+		CountDownLatch handling = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			handling.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertThat(channel.send(new GenericMessage<>("one"))).isTrue();
+		assertThat(handling.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(channel.send(new GenericMessage<>("two"))).isTrue();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Boolean> blocked = executor.submit(() -> channel.send(new GenericMessage<>("three")));
+		Thread.sleep(100);
+		assertThat(blocked.isDone()).isFalse();
+		channel.destroy();
+		assertThatExceptionOfType(ExecutionException.class)
+				.isThrownBy(() -> blocked.get(10, TimeUnit.SECONDS))
+				.withCauseInstanceOf(MessageDeliveryException.class)
+				.withMessageContaining("Dispatcher has been shut down");
+		assertThat(channel.getPartitionQueueSize(0)).isEqualTo(0);
+		executor.shutdownNow();
+	}
+
+}
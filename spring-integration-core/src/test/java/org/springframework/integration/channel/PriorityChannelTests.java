@@ -19,6 +19,7 @@ package org.springframework.integration.channel;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -27,6 +28,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 
+import org.springframework.integration.dsl.MessageChannels;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
@@ -49,6 +51,19 @@ public class PriorityChannelTests {
 		assertThat(channel.send(new GenericMessage<>("test5"))).isTrue();
 	}
 
+	@Test
+	public void testBatchReceiveReleasesCapacity() {
+		PriorityChannel channel = new PriorityChannel(3);
+		channel.send(MessageBuilder.withPayload("low").setPriority(1).build());
+		channel.send(MessageBuilder.withPayload("high").setPriority(5).build());
+		channel.send(MessageBuilder.withPayload("medium").setPriority(3).build());
+		assertThat(channel.getRemainingCapacity()).isEqualTo(0);
+		List<Message<?>> messages = channel.receive(2, 0);
+		assertThat(messages).extracting("payload").containsExactly("high", "medium");
+		assertThat(channel.getRemainingCapacity()).isEqualTo(2);
+		assertThat(channel.receive(2, 0)).extracting("payload").containsExactly("low");
+	}
+
 	@Test
 	public void testDefaultComparatorWithTimestampFallback() {
 		PriorityChannel channel = new PriorityChannel();
@@ -80,6 +95,35 @@ public class PriorityChannelTests {
 		assertThat(channel.receive(0).getPayload()).isEqualTo("test:-99");
 	}
 
+	@Test
+	public void testPriorityBuckets() {
+		PriorityChannel channel = new PriorityChannel(4, 10, null);
+		channel.send(MessageBuilder.withPayload("low").setPriority(1).build());
+		channel.send(MessageBuilder.withPayload("high1").setPriority(9).build());
+		channel.send(new GenericMessage<>("none"));
+		channel.send(MessageBuilder.withPayload("high2").setPriority(42).build());
+		assertThat(channel.send(new GenericMessage<>("full"), 0)).isFalse();
+		assertThat(channel.receive(0).getPayload()).isEqualTo("high1");
+		assertThat(channel.receive(3, 0)).extracting("payload").containsExactly("high2", "low", "none");
+		assertThat(channel.getRemainingCapacity()).isEqualTo(4);
+		assertThat(channel.receive(0)).isNull();
+	}
+
+	@Test
+	public void testPriorityBucketsWithFallbackComparator() {
+		PriorityChannel channel = MessageChannels.priority()
+				.priorityBuckets(3)
+				.comparator(new StringPayloadComparator())
+				.get();
+		channel.send(MessageBuilder.withPayload("b").setPriority(-5).build());
+		channel.send(MessageBuilder.withPayload("a").setPriority(-1).build());
+		channel.send(MessageBuilder.withPayload("mid").setPriority(1).build());
+		channel.send(MessageBuilder.withPayload("z").setPriority(10).build());
+		channel.send(MessageBuilder.withPayload("y").setPriority(100).build());
+		List<Message<?>> messages = channel.receive(5, 0);
+		assertThat(messages).extracting("payload").containsExactly("y", "z", "mid", "a", "b");
+	}
+
 	// although this test has no assertions it results in ConcurrentModificationException
 	// if executed before changes for INT-2508
 	@Test
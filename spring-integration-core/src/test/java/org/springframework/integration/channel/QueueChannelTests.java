@@ -17,6 +17,7 @@
 package org.springframework.integration.channel;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.spy;
 
@@ -28,14 +29,18 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import org.springframework.integration.dsl.MessageChannels;
 import org.springframework.integration.selector.UnexpiredMessageSelector;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.GenericMessage;
 
 /**
@@ -286,6 +291,78 @@ public class QueueChannelTests {
 		assertThat(channel.send(new GenericMessage<>("roomAvailable"), 0)).isTrue();
 	}
 
+	@Test
+	public void testBatchReceive() {
+		QueueChannel channel = new QueueChannel();
+		AtomicInteger preReceiveCount = new AtomicInteger();
+		channel.addInterceptor(new ChannelInterceptor() {
+
+			@Override
+			public boolean preReceive(MessageChannel channel) {
+				preReceiveCount.incrementAndGet();
+				return true;
+			}
+
+			@Override
+			public Message<?> postReceive(Message<?> message, MessageChannel channel) {
+				return "skip".equals(message.getPayload()) ? null : message;
+			}
+
+		});
+		assertThat(channel.receive(3, 0)).isEmpty();
+		channel.send(new GenericMessage<>("foo"));
+		channel.send(new GenericMessage<>("skip"));
+		channel.send(new GenericMessage<>("bar"));
+		channel.send(new GenericMessage<>("baz"));
+		List<Message<?>> messages = channel.receive(3, 10);
+		assertThat(messages).extracting("payload").containsExactly("foo", "bar");
+		assertThat(preReceiveCount.get()).isEqualTo(2);
+		assertThat(channel.getQueueSize()).isEqualTo(1);
+		assertThat(channel.receive(3, 10)).extracting("payload").containsExactly("baz");
+	}
+
+	@Test
+	public void testBatchReceiveKeepsMessagesWhenPostReceiveFails() {
+		QueueChannel channel = new QueueChannel();
+		channel.addInterceptor(new ChannelInterceptor() {
+
+			@Override
+			public Message<?> postReceive(Message<?> message, MessageChannel channel) {
+				if ("bad".equals(message.getPayload())) {
+					throw new IllegalStateException("intentional test failure");
+				}
+				return message;
+			}
+
+		});
+		channel.send(new GenericMessage<>("foo"));
+		channel.send(new GenericMessage<>("bad"));
+		channel.send(new GenericMessage<>("bar"));
+		assertThat(channel.receive(3, 10)).extracting("payload").containsExactly("foo", "bar");
+		channel.send(new GenericMessage<>("bad"));
+		assertThatIllegalStateException().isThrownBy(() -> channel.receive(3, 10));
+	}
+
+	@Test
+	public void testLockFreeQueueChannelOperations() {
+		QueueChannel channel = MessageChannels.queue(2).lockFree().get();
+		long time = System.currentTimeMillis();
+		Message<String> expiredMessage = MessageBuilder.withPayload("test1")
+				.setExpirationDate(time - 60_000).build();
+		Message<String> unexpiredMessage = MessageBuilder.withPayload("test2")
+				.setExpirationDate(time + 60_000).build();
+		assertThat(channel.send(expiredMessage, 0)).isTrue();
+		assertThat(channel.send(unexpiredMessage, 0)).isTrue();
+		assertThat(channel.send(new GenericMessage<>("atCapacity"), 10)).isFalse();
+		assertThat(channel.getQueueSize()).isEqualTo(2);
+		assertThat(channel.getRemainingCapacity()).isEqualTo(0);
+		List<Message<?>> purgedMessages = channel.purge(new UnexpiredMessageSelector());
+		assertThat(purgedMessages).containsExactly(expiredMessage);
+		assertThat(channel.getRemainingCapacity()).isEqualTo(1);
+		assertThat(channel.clear()).containsExactly(unexpiredMessage);
+		assertThat(channel.receive(10)).isNull();
+	}
+
 	@Rule
 	public final TemporaryFolder tempFolder = new TemporaryFolder();
 
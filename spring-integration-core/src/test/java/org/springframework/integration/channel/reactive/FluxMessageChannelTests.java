@@ -17,6 +17,7 @@
 package org.springframework.integration.channel.reactive;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +28,7 @@ import java.util.stream.IntStream;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.reactivestreams.Subscription;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -42,6 +44,7 @@ import org.springframework.integration.dsl.context.IntegrationFlowContext;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.GenericMessage;
@@ -49,6 +52,7 @@ import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
 
 /**
@@ -135,6 +139,80 @@ public class FluxMessageChannelTests {
 		flowRegistration.destroy();
 	}
 
+	@Test
+	public void testBufferDropOldest() {
+		FluxMessageChannel channel = MessageChannels.flux()
+				.bufferSize(2)
+				.overflowStrategy(FluxMessageChannel.OverflowStrategy.DROP_OLDEST)
+				.prefetch(1)
+				.get();
+		List<Object> received = new ArrayList<>();
+		NoDemandSubscriber subscriber = new NoDemandSubscriber(received);
+		channel.subscribe(subscriber);
+		for (int i = 0; i < 20; i++) {
+			assertThat(channel.send(new GenericMessage<>(i))).isTrue();
+		}
+		assertThat(channel.getBufferedCount()).isEqualTo(2);
+		assertThat(channel.getDroppedCount()).isGreaterThan(0);
+		subscriber.request(Long.MAX_VALUE);
+		assertThat(channel.getBufferedCount()).isEqualTo(0);
+		// whatever was prefetched before the buffer filled up, then the latest two
+		assertThat(received).hasSize(20 - (int) channel.getDroppedCount())
+				.endsWith(18, 19)
+				.isSorted();
+		subscriber.dispose();
+	}
+
+	@Test
+	public void testBufferErrorAndBlock() {
+		FluxMessageChannel channel = new FluxMessageChannel(1, FluxMessageChannel.OverflowStrategy.ERROR, 1);
+		NoDemandSubscriber subscriber = new NoDemandSubscriber(new ArrayList<>());
+		channel.subscribe(subscriber);
+		assertThatExceptionOfType(MessageDeliveryException.class)
+				.isThrownBy(() -> {
+					for (int i = 0; i < 20; i++) {
+						channel.send(new GenericMessage<>(i));
+					}
+				})
+				.withMessageContaining("is full");
+		assertThat(channel.getBufferedCount()).isEqualTo(1);
+		subscriber.dispose();
+
+		FluxMessageChannel blockingChannel =
+				new FluxMessageChannel(1, FluxMessageChannel.OverflowStrategy.BLOCK, 1);
+		subscriber = new NoDemandSubscriber(new ArrayList<>());
+		blockingChannel.subscribe(subscriber);
+		int sent = 0;
+		while (sent < 20 && blockingChannel.send(new GenericMessage<>(sent), 10)) {
+			sent++;
+		}
+		assertThat(sent).isLessThan(20);
+		subscriber.request(Long.MAX_VALUE);
+		assertThat(blockingChannel.send(new GenericMessage<>("accepted"), 10)).isTrue();
+		assertThat(blockingChannel.getDroppedCount()).isEqualTo(0);
+		subscriber.dispose();
+	}
+
+	private static class NoDemandSubscriber extends BaseSubscriber<Message<?>> {
+
+		private final List<Object> received;
+
+		NoDemandSubscriber(List<Object> received) {
+			this.received = received;
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			// request on demand only
+		}
+
+		@Override
+		protected void hookOnNext(Message<?> value) {
+			this.received.add(value.getPayload());
+		}
+
+	}
+
 	@Configuration
 	@EnableIntegration
 	public static class TestConfiguration {
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.integration.codec.kryo.KryoClassListRegistrar;
+import org.springframework.integration.codec.kryo.MessageCodec;
+import org.springframework.integration.codec.kryo.MessageKryoRegistrar;
+import org.springframework.integration.store.MessageGroupMetadata;
+import org.springframework.integration.store.SimpleMessageGroup;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.PersistentMessageBuilder;
+import org.springframework.integration.support.PersistentMessageHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+import org.springframework.messaging.support.ErrorMessage;
+
+/**
+ * @since 5.2
+ */
+public class CodecSerializerTests {
+
+	@Test
+	public void testMessages() throws IOException {
+		CodecSerializer<Message<?>> serializer = new CodecSerializer<>();
+		Message<?> message = MessageBuilder.withPayload("foo")
+				.setHeader("bar", 42)
+				.setCorrelationId("baz")
+				.build();
+		assertThat(serializer.deserialize(new ByteArrayInputStream(serialize(serializer, message))))
+				.isEqualTo(message);
+
+		ErrorMessage errorMessage = new ErrorMessage(new MessageHandlingException(message, "test"),
+				Collections.singletonMap("qux", "quux"), message);
+		Message<?> decoded = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, errorMessage)));
+		assertThat(decoded).isInstanceOf(ErrorMessage.class);
+		assertThat(decoded.getHeaders()).isEqualTo(errorMessage.getHeaders());
+		assertThat(((ErrorMessage) decoded).getOriginalMessage()).isEqualTo(message);
+		assertThat(((ErrorMessage) decoded).getPayload()).hasMessage("test");
+	}
+
+	@Test
+	public void testReencodeDecodedMessage() throws IOException {
+		CodecSerializer<Message<?>> serializer = new CodecSerializer<>();
+		Message<?> message = MessageBuilder.withPayload("foo")
+				.setHeader("bar", 42)
+				.build();
+		Message<?> decoded = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, message)));
+		Message<?> reencoded = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, decoded)));
+		assertThat(reencoded).isEqualTo(message);
+		assertThat(reencoded.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+	}
+
+	@Test
+	public void testPersistentMessageHeaders() throws IOException {
+		CodecSerializer<Message<?>> serializer = new CodecSerializer<>();
+		Message<?> message = PersistentMessageBuilder.withPayload("foo")
+				.setHeader("bar", 42)
+				.setCorrelationId("baz")
+				.build();
+		Message<?> decoded = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, message)));
+		assertThat(decoded.getPayload()).isEqualTo("foo");
+		assertThat(decoded.getHeaders()).isInstanceOf(PersistentMessageHeaders.class);
+		assertThat(decoded.getHeaders()).isEqualTo(message.getHeaders());
+		assertThat(decoded.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+		Message<?> reencoded = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, decoded)));
+		assertThat(reencoded.getHeaders()).isEqualTo(message.getHeaders());
+		Message<?> javaSerialized = (Message<?>) new DeserializingConverter()
+				.convert(new SerializingConverter().convert(decoded));
+		assertThat(javaSerialized.getHeaders()).isEqualTo(message.getHeaders());
+	}
+
+	@Test
+	public void testOtherObjects() throws IOException {
+		CodecSerializer<Object> serializer = new CodecSerializer<>();
+		SimpleMessageGroup group = new SimpleMessageGroup("foo");
+		group.add(MessageBuilder.withPayload("bar").build());
+		MessageGroupMetadata metadata = new MessageGroupMetadata(group);
+		Object decoded = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, metadata)));
+		assertThat(decoded).isInstanceOf(MessageGroupMetadata.class);
+		assertThat(((MessageGroupMetadata) decoded).getMessageIds()).isEqualTo(metadata.getMessageIds());
+	}
+
+	@Test
+	public void testCompression() throws IOException {
+		CodecSerializer<Message<?>> serializer = new CodecSerializer<>();
+		Message<String> small = MessageBuilder.withPayload("foo").build();
+		Message<String> large = MessageBuilder.withPayload(String.join("", Collections.nCopies(1000, "foo"))).build();
+		int uncompressedSize = serialize(serializer, large).length;
+
+		serializer.setCompressionThreshold(1024);
+		byte[] bytes = serialize(serializer, large);
+		assertThat(bytes.length).isLessThan(uncompressedSize / 10);
+		assertThat(serializer.deserialize(new ByteArrayInputStream(bytes))).isEqualTo(large);
+		assertThat(serializer.deserialize(new ByteArrayInputStream(serialize(serializer, small)))).isEqualTo(small);
+	}
+
+	@Test
+	public void testTypeRegistryAndCompatibleFields() throws IOException {
+		MessageKryoRegistrar registrar = new MessageKryoRegistrar();
+		registrar.setPreserveIdAndTimestamp(true);
+		MessageCodec codec = new MessageCodec(registrar,
+				Collections.singletonList(new KryoClassListRegistrar(Collections.singletonList(Foo.class))));
+		codec.setCompatibleFields(true);
+		CodecSerializer<Message<?>> serializer = new CodecSerializer<>(codec);
+		Message<Foo> message = MessageBuilder.withPayload(new Foo("bar")).build();
+		Message<?> decoded = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, message)));
+		assertThat(decoded.getPayload()).isInstanceOf(Foo.class);
+		assertThat(((Foo) decoded.getPayload()).bar).isEqualTo("bar");
+		assertThat(decoded.getHeaders()).isEqualTo(message.getHeaders());
+	}
+
+	@Test
+	public void testLegacyData() throws IOException {
+		CodecSerializer<Message<?>> serializer = new CodecSerializer<>();
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		byte[] legacy = new SerializingConverter().convert(message);
+		assertThat(serializer.deserialize(new ByteArrayInputStream(legacy))).isEqualTo(message);
+	}
+
+	@Test
+	public void testUnsupportedVersion() throws IOException {
+		CodecSerializer<Message<?>> serializer = new CodecSerializer<>();
+		byte[] bytes = serialize(serializer, MessageBuilder.withPayload("foo").build());
+		bytes[4] = 2;
+		assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> serializer.deserialize(new ByteArrayInputStream(bytes)))
+				.withMessageContaining("Unsupported format version 2");
+	}
+
+	@Test
+	public void testWhiteList() throws IOException {
+		CodecSerializer<Object> serializer = new CodecSerializer<>();
+		serializer.addWhiteListPatterns("java.util.*", "org.springframework.messaging.*");
+		byte[] metadata = serialize(serializer, new MessageGroupMetadata(new SimpleMessageGroup("foo")));
+		assertThatExceptionOfType(SecurityException.class)
+				.isThrownBy(() -> serializer.deserialize(new ByteArrayInputStream(metadata)))
+				.withMessageContaining(MessageGroupMetadata.class.getName());
+		assertThatExceptionOfType(SecurityException.class)
+				.isThrownBy(() -> serializer.deserialize(new ByteArrayInputStream(metadata)))
+				.withMessageContaining(MessageGroupMetadata.class.getName());
+
+		byte[] message = serialize(serializer, MessageBuilder.withPayload(new Foo("bar")).build());
+		assertThatThrownBy(() -> serializer.deserialize(new ByteArrayInputStream(message)))
+				.hasRootCauseInstanceOf(SecurityException.class)
+				.hasStackTraceContaining(Foo.class.getName());
+
+		serializer.addWhiteListPatterns(Foo.class.getName());
+		assertThat(((Message<?>) serializer.deserialize(new ByteArrayInputStream(message))).getPayload())
+				.isInstanceOf(Foo.class);
+	}
+
+	private static <T> byte[] serialize(CodecSerializer<T> serializer, T object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		serializer.serialize(object, bytes);
+		return bytes.toByteArray();
+	}
+
+	static class Foo {
+
+		private final String bar;
+
+		Foo(String bar) {
+			this.bar = bar;
+		}
+
+	}
+
+}
@@ -19,7 +19,12 @@ package org.springframework.integration.config;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
@@ -29,6 +34,7 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.integration.support.IdGenerators.JdkIdGenerator;
 import org.springframework.integration.support.IdGenerators.SimpleIncrementingIdGenerator;
+import org.springframework.integration.support.IdGenerators.TimeOrderedIdGenerator;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.IdGenerator;
@@ -201,6 +207,40 @@ public class IdGeneratorConfigurerTests {
 		context.close();
 	}
 
+	@Test
+	public void testTimeOrdered() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("bfpp", new RootBeanDefinition(DefaultConfiguringBeanFactoryPostProcessor.class));
+		context.registerBeanDefinition("foo", new RootBeanDefinition(TimeOrderedIdGenerator.class));
+		context.refresh();
+		long before = System.currentTimeMillis();
+		UUID previous = new MessageHeaders(null).getId();
+		assertThat(previous.version()).isEqualTo(7);
+		assertThat(previous.variant()).isEqualTo(2);
+		assertThat(previous.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis());
+		for (int i = 0; i < 10000; i++) {
+			UUID id = new MessageHeaders(null).getId();
+			assertThat(id).isGreaterThan(previous);
+			previous = id;
+		}
+		context.close();
+
+		TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(1234);
+		assertThat((idGenerator.generateId().getLeastSignificantBits() >>> 48) & 0x3fff).isEqualTo(1234);
+		Set<UUID> ids = ConcurrentHashMap.newKeySet();
+		ExecutorService exec = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4; i++) {
+			exec.execute(() -> {
+				for (int j = 0; j < 10000; j++) {
+					ids.add(idGenerator.generateId());
+				}
+			});
+		}
+		exec.shutdown();
+		assertThat(exec.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(ids).hasSize(40000);
+	}
+
 	public static class MyIdGenerator implements IdGenerator {
 
 		@Override
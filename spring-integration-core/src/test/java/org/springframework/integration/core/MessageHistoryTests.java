@@ -18,6 +18,10 @@ package org.springframework.integration.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Properties;
 
 import org.junit.Test;
@@ -27,6 +31,7 @@ import org.springframework.integration.message.AdviceMessage;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.support.MutableMessage;
 import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.messaging.support.GenericMessage;
@@ -122,6 +127,61 @@ public class MessageHistoryTests {
 		assertThat(history2.toString()).isEqualTo("testComponent-1,testComponent-2");
 	}
 
+	@Test
+	public void testLongHistory() throws Exception {
+		Message<String> message = new GenericMessage<>("foo");
+		for (int i = 0; i < 1000; i++) {
+			message = MessageHistory.write(message, new TestComponent(i));
+		}
+		MessageHistory history = MessageHistory.read(message);
+		assertThat(history).hasSize(1000);
+		Properties entry = history.get(999);
+		assertThat(entry.getProperty(MessageHistory.NAME_PROPERTY)).isEqualTo("testComponent-999");
+		assertThat(entry.getProperty(MessageHistory.TYPE_PROPERTY)).isEqualTo("type-999");
+		assertThat(entry.getProperty(MessageHistory.TIMESTAMP_PROPERTY)).isNotNull();
+		assertThat(history.get(0).getProperty(MessageHistory.NAME_PROPERTY)).isEqualTo("testComponent-0");
+
+		Message<String> next = MessageHistory.write(message, new TestComponent(1000));
+		MessageHistory nextHistory = MessageHistory.read(next);
+		assertThat(nextHistory).hasSize(1001);
+		assertThat(nextHistory.get(999)).isSameAs(entry);
+		assertThat(history).hasSize(1000);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ObjectOutputStream(out).writeObject(nextHistory);
+		MessageHistory deserialized = (MessageHistory) new ObjectInputStream(
+				new ByteArrayInputStream(out.toByteArray())).readObject();
+		assertThat(deserialized).hasSize(1001);
+		assertThat(deserialized.get(999)).isEqualTo(entry);
+		assertThat(deserialized.toString()).isEqualTo(nextHistory.toString());
+
+		Message<String> afterDeserialization = MessageHistory.write(
+				MessageBuilder.withPayload("foo").setHeader(MessageHistory.HEADER_NAME, deserialized).build(),
+				new TestComponent(1001));
+		assertThat(MessageHistory.read(afterDeserialization)).hasSize(1002);
+		assertThat(MessageHistory.read(afterDeserialization).get(1001).getProperty(MessageHistory.NAME_PROPERTY))
+				.isEqualTo("testComponent-1001");
+	}
+
+	@Test
+	public void testOnlyLastReadHopCachesHistory() {
+		Message<String> message = new GenericMessage<>("foo");
+		for (int i = 0; i < 100; i++) {
+			message = MessageHistory.write(message, new TestComponent(i));
+			assertThat(MessageHistory.read(message).get(i).getProperty(MessageHistory.NAME_PROPERTY))
+					.isEqualTo("testComponent-" + i);
+		}
+		MessageHistory history = MessageHistory.read(message);
+		assertThat(TestUtils.getPropertyValue(history, "components.expanded")).isNotNull();
+		Object hop = TestUtils.getPropertyValue(history, "components.previous");
+		while (hop != null) {
+			assertThat(TestUtils.getPropertyValue(hop, "expanded")).isNull();
+			hop = TestUtils.getPropertyValue(hop, "previous");
+		}
+		assertThat(history.get(0).getProperty(MessageHistory.NAME_PROPERTY)).isEqualTo("testComponent-0");
+		assertThat(history.get(99).getProperty(MessageHistory.NAME_PROPERTY)).isEqualTo("testComponent-99");
+	}
+
 
 	private static class TestComponent implements NamedComponent {
 
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.verify;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
@@ -36,6 +37,7 @@ import org.springframework.core.task.TaskExecutor;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.MessageDispatchingException;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
@@ -338,6 +340,81 @@ public class BroadcastingDispatcherTests {
 		}).when(taskExecutorMock).execute(Mockito.any(Runnable.class));
 	}
 
+	@Test
+	public void batchedTasksPreserveOrderPerHandler() {
+		List<Runnable> tasks = new ArrayList<>();
+		dispatcher = new BroadcastingDispatcher(tasks::add);
+		dispatcher.setBatchSize(4);
+		List<Message<?>> received1 = new ArrayList<>();
+		List<Message<?>> received2 = new ArrayList<>();
+		dispatcher.addHandler(new MessageStoringTestEndpoint(received1));
+		dispatcher.addHandler(new MessageStoringTestEndpoint(received2));
+		for (int i = 0; i < 10; i++) {
+			dispatcher.dispatch(new GenericMessage<>(i));
+		}
+		assertThat(tasks).hasSize(2);
+		int submitted = 0;
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+			submitted++;
+		}
+		assertThat(submitted).isEqualTo(6);
+		assertThat(received1).extracting("payload").containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		assertThat(received2).extracting("payload").containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+	}
+
+	@Test
+	public void batchedTaskFailureReschedulesRemainingMessages() {
+		List<Runnable> tasks = new ArrayList<>();
+		dispatcher = new BroadcastingDispatcher(tasks::add);
+		dispatcher.setBatchSize(10);
+		List<Object> received = new ArrayList<>();
+		dispatcher.addHandler(message -> {
+			received.add(message.getPayload());
+			if ("bad".equals(message.getPayload())) {
+				throw new MessagingException(message, "bad");
+			}
+		});
+		dispatcher.dispatch(new GenericMessage<>("one"));
+		dispatcher.dispatch(new GenericMessage<>("bad"));
+		dispatcher.dispatch(new GenericMessage<>("two"));
+		int failures = 0;
+		while (!tasks.isEmpty()) {
+			try {
+				tasks.remove(0).run();
+			}
+			catch (MessagingException e) {
+				failures++;
+			}
+		}
+		assertThat(failures).isEqualTo(1);
+		assertThat(received).containsExactly("one", "bad", "two");
+	}
+
+	@Test
+	public void batchedMailboxesFollowTheSubscribedHandlers() {
+		List<Runnable> tasks = new ArrayList<>();
+		dispatcher = new BroadcastingDispatcher(tasks::add);
+		dispatcher.setBatchSize(4);
+		List<Message<?>> received1 = new ArrayList<>();
+		List<Message<?>> received2 = new ArrayList<>();
+		MessageHandler handler1 = new MessageStoringTestEndpoint(received1);
+		dispatcher.addHandler(handler1);
+		dispatcher.addHandler(new MessageStoringTestEndpoint(received2));
+		Map<?, ?> mailboxes = TestUtils.getPropertyValue(dispatcher, "mailboxes", Map.class);
+		assertThat(mailboxes).hasSize(2);
+		dispatcher.dispatch(new GenericMessage<>("one"));
+		assertThat(dispatcher.removeHandler(handler1)).isTrue();
+		assertThat(mailboxes).hasSize(1);
+		dispatcher.dispatch(new GenericMessage<>("two"));
+		assertThat(mailboxes).hasSize(1);
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+		}
+		assertThat(received1).extracting("payload").containsExactly("one");
+		assertThat(received2).extracting("payload").containsExactly("one", "two");
+	}
+
 	/*
 	 * runs the runnable based on the array of passes
 	 */
@@ -23,10 +23,14 @@ import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
@@ -97,6 +101,34 @@ public class RoundRobinDispatcherTests {
 		verify(this.differentHandler, times(3)).handleMessage(this.message);
 	}
 
+	@Test
+	public void handlerRemovalIsVisibleToNextDispatch() {
+		this.dispatcher.addHandler(this.handler);
+		this.dispatcher.addHandler(this.differentHandler);
+		this.dispatcher.dispatch(this.message);
+		this.dispatcher.removeHandler(this.handler);
+		this.dispatcher.dispatch(this.message);
+		this.dispatcher.dispatch(this.message);
+		verify(this.handler).handleMessage(this.message);
+		verify(this.differentHandler, times(2)).handleMessage(this.message);
+		assertThat(this.dispatcher.getHandlerCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void iteratorStrategyIsUsedWithoutStartIndex() {
+		this.dispatcher.setLoadBalancingStrategy((message, handlers) -> {
+			List<MessageHandler> reversed = new ArrayList<>(handlers);
+			Collections.reverse(reversed);
+			return reversed.iterator();
+		});
+		this.dispatcher.addHandler(this.handler);
+		this.dispatcher.addHandler(this.differentHandler);
+		this.dispatcher.dispatch(this.message);
+		this.dispatcher.dispatch(this.message);
+		verify(this.handler, never()).handleMessage(this.message);
+		verify(this.differentHandler, times(2)).handleMessage(this.message);
+	}
+
 	@Test
 	public void currentHandlerIndexOverFlow() {
 		this.dispatcher.addHandler(this.handler);
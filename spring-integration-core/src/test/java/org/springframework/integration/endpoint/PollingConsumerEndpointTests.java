@@ -19,6 +19,10 @@ package org.springframework.integration.endpoint;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
@@ -28,8 +32,10 @@ import org.mockito.Mockito;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.integration.MessageRejectedException;
+import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.support.MessagingExceptionWrapper;
 import org.springframework.integration.test.util.OnlyOnceTrigger;
+import org.springframework.integration.util.AdaptivePollingTrigger;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.PollableChannel;
@@ -115,6 +121,130 @@ public class PollingConsumerEndpointTests {
 		assertThat(this.consumer.counter.get()).isEqualTo(5);
 	}
 
+	@Test
+	public void batchReceive() {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 5; i++) {
+			channel.send(this.message);
+		}
+		this.endpoint = new PollingConsumer(channel, this.consumer);
+		this.endpoint.setTaskScheduler(this.taskScheduler);
+		this.endpoint.setTrigger(this.trigger);
+		this.endpoint.setBeanFactory(mock(BeanFactory.class));
+		this.endpoint.setReceiveTimeout(0);
+		this.endpoint.setReceiveBatchSize(3);
+		this.endpoint.afterPropertiesSet();
+		this.endpoint.start();
+		this.trigger.await();
+		this.endpoint.stop();
+		assertThat(this.consumer.counter.get()).isEqualTo(5);
+		assertThat(channel.getQueueSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void batchIsHandledWithinPoll() {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 5; i++) {
+			channel.send(this.message);
+		}
+		this.endpoint = new PollingConsumer(channel, this.consumer);
+		this.endpoint.setTaskScheduler(this.taskScheduler);
+		this.endpoint.setTrigger(this.trigger);
+		this.endpoint.setBeanFactory(mock(BeanFactory.class));
+		this.endpoint.setReceiveTimeout(0);
+		this.endpoint.setReceiveBatchSize(2);
+		this.endpoint.setMaxMessagesPerPoll(4);
+		this.endpoint.afterPropertiesSet();
+		this.endpoint.start();
+		this.trigger.await();
+		this.endpoint.stop();
+		// each message of a batch counts toward maxMessagesPerPoll
+		assertThat(this.consumer.counter.get()).isEqualTo(4);
+		assertThat(channel.getQueueSize()).isEqualTo(1);
+	}
+
+	@Test(expected = MessageRejectedException.class)
+	public void batchFailureDoesNotDropOtherMessages() throws Throwable {
+		QueueChannel channel = new QueueChannel();
+		channel.send(this.message);
+		channel.send(this.badMessage);
+		channel.send(this.message);
+		this.endpoint = new PollingConsumer(channel, this.consumer);
+		this.endpoint.setErrorHandler(this.errorHandler);
+		this.endpoint.setTaskScheduler(this.taskScheduler);
+		this.endpoint.setTrigger(this.trigger);
+		this.endpoint.setBeanFactory(mock(BeanFactory.class));
+		this.endpoint.setReceiveTimeout(0);
+		this.endpoint.setReceiveBatchSize(3);
+		this.endpoint.afterPropertiesSet();
+		this.endpoint.start();
+		this.trigger.await();
+		this.endpoint.stop();
+		assertThat(this.consumer.counter.get()).isEqualTo(3);
+		assertThat(channel.getQueueSize()).isEqualTo(0);
+		assertThat(this.errorHandler.lastError).isInstanceOf(MessagingExceptionWrapper.class);
+		assertThat(((MessagingExceptionWrapper) this.errorHandler.lastError).getFailedMessage())
+				.isSameAs(this.badMessage);
+		this.errorHandler.throwLastErrorIfAvailable();
+	}
+
+	@Test
+	public void adaptiveTrigger() throws InterruptedException {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 10; i++) {
+			channel.send(this.message);
+		}
+		AdaptivePollingTrigger adaptiveTrigger =
+				new AdaptivePollingTrigger(Duration.ofMillis(200), Duration.ofSeconds(10));
+		this.endpoint = new PollingConsumer(channel, this.consumer);
+		this.endpoint.setTaskScheduler(this.taskScheduler);
+		this.endpoint.setTrigger(adaptiveTrigger);
+		this.endpoint.setBeanFactory(mock(BeanFactory.class));
+		this.endpoint.setReceiveTimeout(0);
+		this.endpoint.setMaxMessagesPerPoll(5);
+		this.endpoint.afterPropertiesSet();
+		this.endpoint.start();
+		int n = 0;
+		while (n++ < 100 && adaptiveTrigger.getPeriod().toMillis() < 400) {
+			Thread.sleep(50);
+		}
+		this.endpoint.stop();
+		assertThat(this.consumer.counter.get()).isEqualTo(10);
+		// two full polls, then empty polls back off from the base period
+		assertThat(adaptiveTrigger.getPeriod()).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+	}
+
+	@Test
+	public void adaptiveTriggerWithDefaults() throws InterruptedException {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 10; i++) {
+			channel.send(this.message);
+		}
+		BlockingQueue<String> polls = new LinkedBlockingQueue<>();
+		AdaptivePollingTrigger adaptiveTrigger =
+				new AdaptivePollingTrigger(Duration.ofMillis(200), Duration.ofSeconds(10)) {
+
+					@Override
+					public void pollCompleted(int messageCount, boolean full) {
+						polls.add(messageCount + ":" + full);
+						super.pollCompleted(messageCount, full);
+					}
+
+				};
+		this.endpoint = new PollingConsumer(channel, this.consumer);
+		this.endpoint.setTaskScheduler(this.taskScheduler);
+		this.endpoint.setTrigger(adaptiveTrigger);
+		this.endpoint.setBeanFactory(mock(BeanFactory.class));
+		this.endpoint.setReceiveTimeout(0);
+		this.endpoint.afterPropertiesSet();
+		this.endpoint.start();
+		// without maxMessagesPerPoll, a poll which received messages is full
+		assertThat(polls.poll(10, TimeUnit.SECONDS)).isEqualTo("10:true");
+		assertThat(polls.poll(10, TimeUnit.SECONDS)).isEqualTo("0:false");
+		this.endpoint.stop();
+		assertThat(this.consumer.counter.get()).isEqualTo(10);
+	}
+
 	@Test
 	public void heavierLoadTest() {
 		for (int i = 0; i < 1000; i++) {
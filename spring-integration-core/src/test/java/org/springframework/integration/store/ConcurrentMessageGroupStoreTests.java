@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 5.2
+ */
+public class ConcurrentMessageGroupStoreTests {
+
+	@Test
+	public void testGroupOperations() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		Message<String> message1 = new GenericMessage<>("foo");
+		Message<String> message2 = new GenericMessage<>("bar");
+		MessageGroup group = store.addMessageToGroup("group", message1);
+		assertThat(group.getMessages()).containsExactly(message1);
+		store.addMessagesToGroup("group", message2, message1);
+		assertThat(store.getMessageGroup("group").getMessages()).containsExactly(message1, message2);
+		assertThat(group.getMessages()).containsExactly(message1);
+		assertThat(store.getMessageGroupCount()).isEqualTo(1);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(2);
+		assertThat(store.messageGroupSize("group")).isEqualTo(2);
+
+		store.setLastReleasedSequenceNumberForGroup("group", 3);
+		store.completeGroup("group");
+		group = store.getMessageGroup("group");
+		assertThat(group.isComplete()).isTrue();
+		assertThat(group.getLastReleasedMessageSequenceNumber()).isEqualTo(3);
+		assertThatThrownBy(() -> store.getMessageGroup("group").add(message1))
+				.isInstanceOf(UnsupportedOperationException.class);
+
+		assertThat(store.pollMessageFromGroup("group")).isSameAs(message1);
+		store.removeMessagesFromGroup("group", message2);
+		assertThat(store.messageGroupSize("group")).isEqualTo(0);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(0);
+		assertThat(store.getMessageGroup("group").isComplete()).isTrue();
+
+		store.removeMessageGroup("group");
+		assertThat(store.getMessageGroupCount()).isEqualTo(0);
+		assertThat(store.getMessageGroup("group").isComplete()).isFalse();
+		assertThatThrownBy(() -> store.completeGroup("group"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("can not be located");
+	}
+
+	@Test
+	public void testExpiryVisitsOnlyDueGroups() throws Exception {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		List<Object> expired = new ArrayList<>();
+		store.registerMessageGroupExpiryCallback((s, group) -> {
+			expired.add(group.getGroupId());
+			s.removeMessageGroup(group.getGroupId());
+		});
+		store.addMessagesToGroup("old", new GenericMessage<>("foo"));
+		Thread.sleep(50);
+		store.addMessagesToGroup("new", new GenericMessage<>("bar"));
+		store.addMessagesToGroup("old", new GenericMessage<>("baz"));
+
+		assertThat(store.expireMessageGroups(30)).isEqualTo(1);
+		assertThat(expired).containsExactly("old");
+		assertThat(store.getMessageGroupCount()).isEqualTo(1);
+		assertThat(store.expireMessageGroups(0)).isEqualTo(1);
+		assertThat(expired).containsExactly("old", "new");
+	}
+
+	@Test
+	public void testEviction() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		store.setMaxGroups(2);
+		store.setEvictionExecutor(new SyncTaskExecutor());
+		List<Object> evicted = new ArrayList<>();
+		store.registerMessageGroupExpiryCallback((s, group) -> evicted.add(group.getGroupId()));
+		store.addMessagesToGroup("a", new GenericMessage<>("foo"));
+		store.addMessagesToGroup("b", new GenericMessage<>("foo"));
+		store.removeMessageGroup("a");
+		store.addMessagesToGroup("c", new GenericMessage<>("foo"));
+		assertThat(evicted).isEmpty();
+		store.addMessagesToGroup("d", new GenericMessage<>("foo"));
+		assertThat(evicted).containsExactly("b");
+		assertThat(store.getMessageGroupCount()).isEqualTo(2);
+		assertThat(store.getEvictionCount()).isEqualTo(1);
+
+		ConcurrentMessageGroupStore weighted = new ConcurrentMessageGroupStore();
+		weighted.setMaxWeight(10, message -> ((String) message.getPayload()).length());
+		weighted.setEvictionExecutor(new SyncTaskExecutor());
+		weighted.addMessagesToGroup("a", new GenericMessage<>("12345"));
+		weighted.addMessagesToGroup("b", new GenericMessage<>("1234"));
+		assertThat(weighted.getWeight()).isEqualTo(9);
+		weighted.addMessagesToGroup("b", new GenericMessage<>("12"));
+		assertThat(weighted.getMessageGroupCount()).isEqualTo(1);
+		assertThat(weighted.getWeight()).isEqualTo(6);
+		weighted.addMessagesToGroup("c", new GenericMessage<>("12345678901"));
+		assertThat(weighted.getMessageGroup("b").size()).isEqualTo(0);
+		assertThat(weighted.getMessageGroupCount()).isEqualTo(1);
+		assertThat(weighted.getWeight()).isEqualTo(11);
+		assertThat(weighted.getEvictionCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testEvictionCallbackIsNotInvokedOnSendingThread() throws Exception {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		store.setMaxGroups(1);
+		CountDownLatch added = new CountDownLatch(1);
+		CountDownLatch evicted = new CountDownLatch(2);
+		AtomicReference<Thread> evictingThread = new AtomicReference<>();
+		store.registerMessageGroupExpiryCallback((s, group) -> {
+			evictingThread.set(Thread.currentThread());
+			try {
+				added.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			evicted.countDown();
+		});
+		store.addMessagesToGroup("a", new GenericMessage<>("foo"));
+		store.addMessagesToGroup("b", new GenericMessage<>("foo"));
+		store.addMessagesToGroup("c", new GenericMessage<>("foo"));
+		added.countDown();
+		assertThat(evicted.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(evictingThread.get()).isNotSameAs(Thread.currentThread());
+		assertThat(store.getEvictionCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testConcurrentAdds() throws Exception {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		ExecutorService exec = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4; i++) {
+			exec.execute(() -> {
+				for (int j = 0; j < 1000; j++) {
+					store.addMessagesToGroup(j % 10, new GenericMessage<>(j));
+				}
+			});
+		}
+		exec.shutdown();
+		assertThat(exec.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(store.getMessageGroupCount()).isEqualTo(10);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(4000);
+		assertThat(store.messageGroupSize(3)).isEqualTo(400);
+	}
+
+	@Test
+	public void testLargeGroupSnapshots() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		List<Message<?>> messages = new ArrayList<>();
+		MessageGroup snapshot = null;
+		for (int i = 0; i < 10000; i++) {
+			Message<?> message = new GenericMessage<>(i);
+			messages.add(message);
+			store.addMessagesToGroup("group", message);
+			if (i == 4999) {
+				snapshot = store.getMessageGroup("group");
+			}
+		}
+		store.addMessagesToGroup("group", messages.get(0), messages.get(9999));
+		assertThat(store.messageGroupSize("group")).isEqualTo(10000);
+		assertThat(store.getMessageGroup("group").getMessages()).containsExactlyElementsOf(messages);
+		assertThat(snapshot.getMessages()).containsExactlyElementsOf(messages.subList(0, 5000));
+
+		store.removeMessagesFromGroup("group", messages.get(0));
+		store.addMessagesToGroup("group", messages.get(1), messages.get(0));
+		assertThat(store.messageGroupSize("group")).isEqualTo(10000);
+		assertThat(store.getMessageGroup("group").getOne()).isSameAs(messages.get(1));
+		assertThat(snapshot.getMessages()).containsExactlyElementsOf(messages.subList(0, 5000));
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(10000);
+	}
+
+	@Test
+	public void testWithAggregator() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		AggregatingMessageHandler handler =
+				new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(), store);
+		QueueChannel output = new QueueChannel();
+		handler.setOutputChannel(output);
+		for (int i = 1; i <= 3; i++) {
+			handler.handleMessage(MessageBuilder.withPayload(i)
+					.setCorrelationId("corr")
+					.setSequenceNumber(i)
+					.setSequenceSize(3)
+					.build());
+		}
+		Message<?> result = output.receive(0);
+		assertThat(result).isNotNull();
+		assertThat(result.getPayload()).asList().containsExactly(1, 2, 3);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(0);
+		assertThat(store.getMessageGroup("corr").isComplete()).isTrue();
+	}
+
+}
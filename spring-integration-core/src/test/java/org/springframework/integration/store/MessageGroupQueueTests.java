@@ -20,7 +20,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.spy;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.CountDownLatch;
@@ -119,6 +121,19 @@ public class MessageGroupQueueTests {
 		assertThat(queue.offer(new GenericMessage<>("bar"), 100, TimeUnit.MILLISECONDS)).isFalse();
 	}
 
+	@Test
+	public void testCapacityExceededAddOutsideLock() throws Exception {
+		SimpleMessageStore messageGroupStore = new SimpleMessageStore();
+		MessageGroupQueue queue = new MessageGroupQueue(messageGroupStore, "FOO", 1);
+		queue.setAddOutsideLock(true);
+		queue.put(new GenericMessage<>("foo"));
+		assertThat(queue.offer(new GenericMessage<>("bar"), 100, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(queue.offer(new GenericMessage<>("bar"))).isFalse();
+		assertThat(queue.poll()).isNotNull();
+		assertThat(queue.offer(new GenericMessage<>("bar"))).isTrue();
+		assertThat(queue.remainingCapacity()).isEqualTo(0);
+	}
+
 	@Test
 	public void testPutAndTake() throws Exception {
 		MessageGroupQueue queue = new MessageGroupQueue(new SimpleMessageStore(), "FOO");
@@ -127,6 +142,22 @@ public class MessageGroupQueueTests {
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	public void testDrainToWithTimeout() throws Exception {
+		MessageGroupQueue queue = new MessageGroupQueue(new SimpleMessageStore(), "FOO");
+		List<Message<?>> messages = new ArrayList<>();
+		assertThat(queue.drainTo(messages, 2, 10, TimeUnit.MILLISECONDS)).isEqualTo(0);
+		queue.put(new GenericMessage<>("foo"));
+		queue.put(new GenericMessage<>("bar"));
+		queue.put(new GenericMessage<>("baz"));
+		assertThat(queue.drainTo(messages, 2, 10, TimeUnit.MILLISECONDS)).isEqualTo(2);
+		assertThat(messages).extracting("payload").containsExactly("foo", "bar");
+		assertThat(queue.size()).isEqualTo(1);
+		messages.clear();
+		assertThat(queue.drainTo(messages, 1)).isEqualTo(1);
+		assertThat(messages).extracting("payload").containsExactly("baz");
+	}
+
 	@Test
 	public void testConcurrentAccess() throws Exception {
 		doTestConcurrentAccess(50, 20, new HashSet<>());
@@ -83,6 +83,7 @@ public class MessageStoreTests {
 
 		TestMessageStore() {
 			super();
+			setUseExpiryIndex(false);
 		}
 
 		@Override
@@ -17,6 +17,7 @@
 package org.springframework.integration.store;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.mock;
 
@@ -97,6 +98,26 @@ public class SimpleMessageGroupTests {
 		assertThat(grp.getMessages().size()).isEqualTo(2);
 	}
 
+	@Test
+	public void testSequenceIndexAfterDuplicateRemoved() {
+		SimpleMessageGroup group = new SimpleMessageGroup(this.key);
+		Message<?> message1 = MessageBuilder.withPayload("foo").setSequenceNumber(1).build();
+		Message<?> message2 = MessageBuilder.withPayload("bar").setSequenceNumber(1).build();
+		Message<?> message3 = MessageBuilder.withPayload("baz").setSequenceNumber(2).build();
+		group.add(message1);
+		group.add(message2);
+		group.add(message3);
+		assertThat(group.getMessagesBySequence()).isNull();
+		group.remove(message2);
+		assertThat(group.getMessagesBySequence()).containsExactly(entry(1, message1), entry(2, message3));
+		group.add(message2);
+		group.remove(message1);
+		assertThat(group.getMessagesBySequence()).containsExactly(entry(1, message2), entry(2, message3));
+		group.remove(message2);
+		assertThat(group.containsSequence(1)).isFalse();
+		assertThat(group.getMessagesBySequence()).containsExactly(entry(2, message3));
+	}
+
 	@Test
 	// This test used to take 2 min and half to run; now ~200 milliseconds.
 	public void testPerformance_INT3846() {
@@ -277,6 +277,53 @@ public class SimpleMessageStoreTests {
 
 	}
 
+	@Test
+	public void testExpiryVisitsOnlyDueGroups() throws Exception {
+		SimpleMessageStore store = new SimpleMessageStore();
+		List<Object> expired = new ArrayList<>();
+		store.registerMessageGroupExpiryCallback((messageGroupStore, group) -> {
+			expired.add(group.getGroupId());
+			messageGroupStore.removeMessageGroup(group.getGroupId());
+		});
+		store.addMessageToGroup("old", new GenericMessage<>("foo"));
+		store.addMessageToGroup("removed", new GenericMessage<>("foo"));
+		store.removeMessageGroup("removed");
+		Thread.sleep(50);
+		long threshold = System.currentTimeMillis() - 30;
+		for (int i = 0; i < 100; i++) {
+			store.addMessageToGroup(i, new GenericMessage<>("bar"));
+		}
+		store.addMessageToGroup("old", new GenericMessage<>("baz"));
+
+		assertThat(store.getExpiryCandidates(threshold - 5000)).isEmpty();
+		assertThat(store.expireMessageGroups(30)).isEqualTo(1);
+		assertThat(expired).containsExactly("old");
+		assertThat(store.expireMessageGroups(-10000)).isEqualTo(100);
+		assertThat(store.getMessageGroupCount()).isEqualTo(0);
+		assertThat(store.getExpiryCandidates(Long.MAX_VALUE)).isEmpty();
+	}
+
+	@Test
+	public void testExpiryIndexOnIdle() throws Exception {
+		SimpleMessageStore store = new SimpleMessageStore();
+		store.setTimeoutOnIdle(true);
+		List<Object> expired = new ArrayList<>();
+		store.registerMessageGroupExpiryCallback((messageGroupStore, group) -> {
+			expired.add(group.getGroupId());
+			messageGroupStore.removeMessageGroup(group.getGroupId());
+		});
+		store.addMessageToGroup("idle", new GenericMessage<>("foo"));
+		store.addMessageToGroup("busy", new GenericMessage<>("foo"));
+		Thread.sleep(50);
+		store.addMessageToGroup("busy", new GenericMessage<>("bar"));
+
+		assertThat(store.expireMessageGroups(30)).isEqualTo(1);
+		assertThat(expired).containsExactly("idle");
+		Thread.sleep(50);
+		assertThat(store.expireMessageGroups(30)).isEqualTo(1);
+		assertThat(expired).containsExactly("idle", "busy");
+	}
+
 	@Test
 	public void testAddAndRemoveMessagesFromMessageGroup() throws Exception {
 		SimpleMessageStore messageStore = new SimpleMessageStore();
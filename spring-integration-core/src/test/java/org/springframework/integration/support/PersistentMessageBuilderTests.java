@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ErrorMessage;
+
+/**
+ * @since 5.2
+ */
+public class PersistentMessageBuilderTests {
+
+	@Test
+	public void testBuildAndDerive() {
+		Message<String> message1 = PersistentMessageBuilder.withPayload("foo")
+				.setHeader("foo", "bar")
+				.setCorrelationId("corr")
+				.setPriority(5)
+				.build();
+		assertThat(message1.getHeaders()).isInstanceOf(PersistentMessageHeaders.class);
+		assertThat(message1.getHeaders().getId()).isNotNull();
+		assertThat(message1.getHeaders().getTimestamp()).isNotNull();
+		assertThat(message1.getHeaders())
+				.containsEntry("foo", "bar")
+				.containsEntry(IntegrationMessageHeaderAccessor.CORRELATION_ID, "corr")
+				.containsEntry(IntegrationMessageHeaderAccessor.PRIORITY, 5)
+				.hasSize(5);
+		assertThat(new IntegrationMessageHeaderAccessor(message1).getPriority()).isEqualTo(5);
+
+		Message<String> message2 = PersistentMessageBuilder.fromMessage(message1)
+				.setHeader("baz", "qux")
+				.removeHeader("foo")
+				.build();
+		assertThat(message2.getHeaders().getId()).isNotEqualTo(message1.getHeaders().getId());
+		assertThat(message2.getHeaders())
+				.containsEntry("baz", "qux")
+				.containsEntry(IntegrationMessageHeaderAccessor.CORRELATION_ID, "corr")
+				.doesNotContainKey("foo")
+				.hasSize(5);
+		assertThat(message1.getHeaders())
+				.containsEntry("foo", "bar")
+				.doesNotContainKey("baz");
+
+		assertThat(PersistentMessageBuilder.fromMessage(message2).setHeader("baz", "qux").build())
+				.isSameAs(message2);
+		assertThat(PersistentMessageBuilder.fromMessage(message2).removeHeader(MessageHeaders.ID).build())
+				.isSameAs(message2);
+	}
+
+	@Test
+	public void testSameHeadersAsMessageBuilder() {
+		Message<String> message = MessageBuilder.withPayload("foo")
+				.setHeader("foo", "bar")
+				.setHeader("baz", 42)
+				.setExpirationDate(1000L)
+				.build();
+		Message<String> persistent = PersistentMessageBuilder.fromMessage(message)
+				.pushSequenceDetails("corr", 1, 2)
+				.build();
+		Message<String> standard = MessageBuilder.fromMessage(message)
+				.pushSequenceDetails("corr", 1, 2)
+				.build();
+
+		Map<String, Object> expected = new HashMap<>(standard.getHeaders());
+		expected.remove(MessageHeaders.ID);
+		expected.remove(MessageHeaders.TIMESTAMP);
+		assertThat(persistent.getHeaders()).containsAllEntriesOf(expected).hasSize(expected.size() + 2);
+
+		Message<String> pushed = PersistentMessageBuilder.fromMessage(persistent)
+				.pushSequenceDetails("corr2", 3, 4)
+				.build();
+		assertThat(pushed.getHeaders())
+				.containsEntry(IntegrationMessageHeaderAccessor.CORRELATION_ID, "corr2")
+				.containsKey(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS);
+
+		Message<String> popped = PersistentMessageBuilder.fromMessage(pushed)
+				.popSequenceDetails()
+				.build();
+		assertThat(popped.getHeaders())
+				.containsEntry(IntegrationMessageHeaderAccessor.CORRELATION_ID, "corr")
+				.containsEntry(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, 1)
+				.containsEntry(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE, 2)
+				.doesNotContainKey(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS)
+				.containsEntry("baz", 42);
+	}
+
+	@Test
+	public void testManyHeaders() {
+		PersistentMessageBuilder<String> builder = PersistentMessageBuilder.withPayload("foo");
+		for (int i = 0; i < 1000; i++) {
+			builder.setHeader("header" + i, i);
+		}
+		// same hash code
+		builder.setHeader("Aa", "Aa").setHeader("BB", "BB");
+		Message<String> message = builder.build();
+		assertThat(message.getHeaders()).hasSize(1004);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(message.getHeaders().get("header" + i, Integer.class)).isEqualTo(i);
+		}
+		assertThat(message.getHeaders()).containsEntry("Aa", "Aa").containsEntry("BB", "BB");
+
+		builder = PersistentMessageBuilder.fromMessage(message);
+		for (int i = 0; i < 1000; i += 2) {
+			builder.removeHeader("header" + i);
+		}
+		Message<String> derived = builder.removeHeader("Aa").build();
+		assertThat(derived.getHeaders()).hasSize(503);
+		assertThat(derived.getHeaders().keySet()).hasSize(503);
+		assertThat(derived.getHeaders()).doesNotContainKeys("header0", "header998", "Aa")
+				.containsEntry("header999", 999)
+				.containsEntry("BB", "BB");
+		assertThat(message.getHeaders()).hasSize(1004).containsEntry("header0", 0);
+
+		Message<String> removed = PersistentMessageBuilder.fromMessage(derived)
+				.removeHeaders("header*", "BB")
+				.build();
+		assertThat(removed.getHeaders()).hasSize(2);
+	}
+
+	@Test
+	public void testReadOnlyAndTypes() {
+		Message<String> message = PersistentMessageBuilder.withPayload("foo")
+				.setHeader("foo", "bar")
+				.setHeader("baz", "qux")
+				.build();
+
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> PersistentMessageBuilder.withPayload("foo").setHeader(MessageHeaders.ID, "bar"));
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> PersistentMessageBuilder.withPayload("foo")
+						.setHeader(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, "bar"));
+
+		PersistentMessageBuilderFactory factory = new PersistentMessageBuilderFactory();
+		factory.setReadOnlyHeaders("foo");
+		Message<String> derived = factory.fromMessage(message).build();
+		assertThat(derived).isNotSameAs(message);
+		assertThat(derived.getHeaders()).doesNotContainKey("foo").containsEntry("baz", "qux");
+		assertThat(factory.withPayload("foo").copyHeaders(message.getHeaders()).build().getHeaders())
+				.doesNotContainKey("foo")
+				.containsEntry("baz", "qux")
+				.hasSize(3);
+	}
+
+	@Test
+	public void testErrorMessage() {
+		Message<RuntimeException> message = PersistentMessageBuilder.withPayload(new RuntimeException("test"))
+				.setHeader("foo", "bar")
+				.build();
+		assertThat(message).isInstanceOf(ErrorMessage.class);
+		assertThat(message.getHeaders()).containsEntry("foo", "bar");
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		Message<String> message = PersistentMessageBuilder.withPayload("foo")
+				.setHeader("foo", "bar")
+				.setHeader("notSerializable", new Object())
+				.setCorrelationId("corr")
+				.build();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ObjectOutputStream(out).writeObject(message);
+		Message<?> deserialized = (Message<?>) new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))
+				.readObject();
+
+		assertThat(deserialized.getHeaders()).isInstanceOf(PersistentMessageHeaders.class);
+		assertThat(deserialized.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+		assertThat(deserialized.getHeaders().getTimestamp()).isEqualTo(message.getHeaders().getTimestamp());
+		assertThat(deserialized.getHeaders())
+				.containsEntry("foo", "bar")
+				.containsEntry(IntegrationMessageHeaderAccessor.CORRELATION_ID, "corr")
+				.doesNotContainKey("notSerializable");
+	}
+
+}
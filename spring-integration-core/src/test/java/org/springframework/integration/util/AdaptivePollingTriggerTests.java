@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Date;
+
+import org.junit.Test;
+
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+/**
+ * @since 5.2
+ */
+public class AdaptivePollingTriggerTests {
+
+	@Test
+	public void testShrinkOnFullAndBackOffOnEmpty() {
+		AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(Duration.ofMillis(100), Duration.ofMillis(1000));
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(100));
+		trigger.pollCompleted(10, true);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(50));
+		for (int i = 0; i < 10; i++) {
+			trigger.pollCompleted(10, true);
+		}
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ZERO);
+		trigger.pollCompleted(0, false);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(100));
+		trigger.pollCompleted(0, false);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(200));
+		for (int i = 0; i < 10; i++) {
+			trigger.pollCompleted(0, false);
+		}
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(1000));
+		trigger.pollCompleted(3, false);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(100));
+	}
+
+	@Test
+	public void testMinPeriodAndMultiplier() {
+		AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(Duration.ZERO, Duration.ofMillis(100));
+		trigger.setMultiplier(10);
+		trigger.pollCompleted(0, false);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(1));
+		trigger.pollCompleted(0, false);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(10));
+		trigger.pollCompleted(0, false);
+		trigger.pollCompleted(0, false);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(100));
+
+		trigger = new AdaptivePollingTrigger(Duration.ofMillis(100), Duration.ofMillis(100));
+		trigger.setMinPeriod(Duration.ofMillis(20));
+		trigger.pollCompleted(5, true);
+		trigger.pollCompleted(5, true);
+		trigger.pollCompleted(5, true);
+		assertThat(trigger.getPeriod()).isEqualTo(Duration.ofMillis(20));
+	}
+
+	@Test
+	public void testNextExecutionTimeIsFixedDelay() {
+		AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(Duration.ofMillis(100), Duration.ofMillis(1000));
+		SimpleTriggerContext context = new SimpleTriggerContext();
+		long now = System.currentTimeMillis();
+		assertThat(trigger.nextExecutionTime(context).getTime()).isGreaterThanOrEqualTo(now);
+		Date completion = new Date(now);
+		context.update(completion, completion, completion);
+		trigger.pollCompleted(0, false);
+		assertThat(trigger.nextExecutionTime(context).getTime()).isEqualTo(now + 200);
+	}
+
+}
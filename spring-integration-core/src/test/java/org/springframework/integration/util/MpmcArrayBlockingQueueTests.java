@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * @since 5.2
+ */
+public class MpmcArrayBlockingQueueTests {
+
+	@Test
+	public void testCapacityIsHonoredForNonPowerOfTwo() {
+		MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(3);
+		assertThat(queue.offer(1)).isTrue();
+		assertThat(queue.offer(2)).isTrue();
+		assertThat(queue.offer(3)).isTrue();
+		assertThat(queue.offer(4)).isFalse();
+		assertThat(queue.size()).isEqualTo(3);
+		assertThat(queue.remainingCapacity()).isEqualTo(0);
+		assertThat(queue.peek()).isEqualTo(1);
+		assertThat(queue.poll()).isEqualTo(1);
+		assertThat(queue.offer(4)).isTrue();
+		assertThat(queue.toArray()).containsExactly(2, 3, 4);
+		assertThat(queue.remove(3)).isTrue();
+		assertThat(queue.remove(5)).isFalse();
+		List<Integer> drained = new ArrayList<>();
+		assertThat(queue.drainTo(drained)).isEqualTo(2);
+		assertThat(drained).containsExactly(2, 4);
+		assertThat(queue.isEmpty()).isTrue();
+		assertThat(queue.poll()).isNull();
+	}
+
+	@Test
+	public void testRemoveSkipsSlots() {
+		MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(4);
+		for (int i = 1; i <= 4; i++) {
+			queue.offer(i);
+		}
+		assertThat(queue.remove(2)).isTrue();
+		assertThat(queue.remove(2)).isFalse();
+		assertThat(queue.toArray()).containsExactly(1, 3, 4);
+		assertThat(queue.remove(1)).isTrue();
+		assertThat(queue.size()).isEqualTo(2);
+		assertThat(queue.peek()).isEqualTo(3);
+		assertThat(queue.offer(5)).isTrue();
+		assertThat(queue.offer(6)).isTrue();
+		assertThat(queue.offer(7)).isFalse();
+		List<Integer> drained = new ArrayList<>();
+		queue.drainTo(drained);
+		assertThat(drained).containsExactly(3, 4, 5, 6);
+	}
+
+	@Test
+	public void testRemoveWithConcurrentProducersAndConsumers() throws InterruptedException {
+		MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(64);
+		int count = 20_000;
+		ExecutorService exec = Executors.newFixedThreadPool(3);
+		ConcurrentHashMap<Integer, Boolean> received = new ConcurrentHashMap<>();
+		ConcurrentHashMap<Integer, Boolean> removed = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(count);
+		exec.execute(() -> {
+			try {
+				for (int i = 0; i < count; i++) {
+					queue.put(i);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		exec.execute(() -> {
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					assertThat(received.put(queue.take(), Boolean.TRUE)).isNull();
+					done.countDown();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		exec.execute(() -> {
+			for (int i = 0; i < count; i += 2) {
+				while (!received.containsKey(i)) {
+					if (queue.remove(i)) {
+						removed.put(i, Boolean.TRUE);
+						done.countDown();
+						break;
+					}
+				}
+			}
+		});
+		assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(received.size() + removed.size()).isEqualTo(count);
+		assertThat(removed).isNotEmpty();
+		removed.keySet().forEach(i -> assertThat(received).doesNotContainKey(i));
+		exec.shutdownNow();
+	}
+
+	@Test
+	public void testTimedOperations() throws InterruptedException {
+		MpmcArrayBlockingQueue<String> queue = new MpmcArrayBlockingQueue<>(1, MpmcArrayBlockingQueue.WaitStrategy.YIELD);
+		assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isNull();
+		assertThat(queue.offer("foo", 10, TimeUnit.MILLISECONDS)).isTrue();
+		assertThat(queue.offer("bar", 10, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isEqualTo("foo");
+	}
+
+	@Test
+	public void testTakeIsInterruptible() throws InterruptedException {
+		MpmcArrayBlockingQueue<String> queue = new MpmcArrayBlockingQueue<>(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			try {
+				queue.take();
+			}
+			catch (InterruptedException e) {
+				interrupted.set(true);
+			}
+			latch.countDown();
+		});
+		thread.start();
+		thread.interrupt();
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(interrupted.get()).isTrue();
+	}
+
+	@Test
+	public void testMultipleProducersAndConsumers() throws InterruptedException {
+		MpmcArrayBlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(64);
+		int threads = 4;
+		int perProducer = 10_000;
+		ExecutorService exec = Executors.newFixedThreadPool(threads * 2);
+		ConcurrentHashMap<Integer, Boolean> received = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(threads * perProducer);
+		for (int i = 0; i < threads; i++) {
+			int producer = i;
+			exec.execute(() -> {
+				try {
+					for (int j = 0; j < perProducer; j++) {
+						queue.put(producer * perProducer + j);
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			exec.execute(() -> {
+				try {
+					while (!Thread.currentThread().isInterrupted()) {
+						assertThat(received.put(queue.take(), Boolean.TRUE)).isNull();
+						done.countDown();
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).hasSize(threads * perProducer);
+		assertThat(queue.isEmpty()).isTrue();
+		exec.shutdownNow();
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @since 5.2
+ */
+public class PriorityBucketQueueTests {
+
+	@Test
+	public void testBucketsAreReadFromHighestAndFifoWithin() {
+		PriorityBucketQueue<Integer> queue = new PriorityBucketQueue<>(3, i -> i / 10);
+		queue.offer(1);
+		queue.offer(21);
+		queue.offer(11);
+		queue.offer(2);
+		queue.offer(99);
+		queue.offer(-7);
+		assertThat(queue.size()).isEqualTo(6);
+		assertThat(queue.peek()).isEqualTo(21);
+		assertThat(queue.toArray()).containsExactly(21, 99, 11, 1, 2, -7);
+		assertThat(queue.remove(11)).isTrue();
+		assertThat(queue.remove(11)).isFalse();
+		List<Integer> drained = new ArrayList<>();
+		assertThat(queue.drainTo(drained, 3)).isEqualTo(3);
+		assertThat(drained).containsExactly(21, 99, 1);
+		assertThat(queue.poll()).isEqualTo(2);
+		assertThat(queue.poll()).isEqualTo(-7);
+		assertThat(queue.poll()).isNull();
+		assertThat(queue.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testFallbackComparatorForOutOfRangePriorities() {
+		PriorityBucketQueue<Integer> queue =
+				new PriorityBucketQueue<>(2, i -> i, Comparator.reverseOrder());
+		queue.offer(-3);
+		queue.offer(5);
+		queue.offer(0);
+		queue.offer(-1);
+		queue.offer(7);
+		queue.offer(1);
+		assertThat(queue.toArray()).containsExactly(7, 5, 1, 0, -1, -3);
+		assertThat(queue.remove(-1)).isTrue();
+		List<Integer> drained = new ArrayList<>();
+		queue.drainTo(drained);
+		assertThat(drained).containsExactly(7, 5, 1, 0, -3);
+	}
+
+	@Test
+	public void testTimedPollAndTake() throws Exception {
+		PriorityBucketQueue<String> queue = new PriorityBucketQueue<>(1, s -> 0);
+		assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isNull();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		Set<String> taken = ConcurrentHashMap.newKeySet();
+		for (int i = 0; i < 4; i++) {
+			executor.execute(() -> {
+				try {
+					for (int j = 0; j < 250; j++) {
+						taken.add(queue.take());
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		for (int i = 0; i < 1000; i++) {
+			queue.put("" + i);
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(taken).hasSize(1000);
+		assertThat(queue.isEmpty()).isTrue();
+	}
+
+}
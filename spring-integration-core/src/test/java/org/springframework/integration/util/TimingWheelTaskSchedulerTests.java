@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.expression.ValueExpression;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * @since 5.2
+ */
+public class TimingWheelTaskSchedulerTests {
+
+	private ThreadPoolTaskScheduler delegate;
+
+	private TimingWheelTaskScheduler scheduler;
+
+	@Before
+	public void setUp() {
+		this.delegate = new ThreadPoolTaskScheduler();
+		this.delegate.setPoolSize(2);
+		this.delegate.afterPropertiesSet();
+		this.scheduler = new TimingWheelTaskScheduler(this.delegate, Duration.ofMillis(5), 4);
+	}
+
+	@After
+	public void tearDown() {
+		this.scheduler.destroy();
+		this.delegate.destroy();
+	}
+
+	@Test
+	public void testTasksRunInOrderAndNotEarly() throws Exception {
+		BlockingQueue<Long> runTimes = new LinkedBlockingQueue<>();
+		List<Integer> order = new CopyOnWriteArrayList<>();
+		long start = System.currentTimeMillis();
+		int[] delays = { 150, 30, 80, 0 };
+		for (int delay : delays) {
+			long due = start + delay;
+			this.scheduler.schedule(() -> {
+				order.add(delay);
+				runTimes.add(System.currentTimeMillis() - due);
+			}, new Date(due));
+		}
+		for (int i = 0; i < delays.length; i++) {
+			Long lateness = runTimes.poll(10, TimeUnit.SECONDS);
+			assertThat(lateness).isNotNull().isGreaterThanOrEqualTo(0L);
+		}
+		assertThat(order).containsExactly(0, 30, 80, 150);
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		CountDownLatch cancelledRun = new CountDownLatch(1);
+		CountDownLatch latch = new CountDownLatch(1);
+		ScheduledFuture<?> cancelled =
+				this.scheduler.schedule(cancelledRun::countDown, new Date(System.currentTimeMillis() + 50));
+		ScheduledFuture<?> future =
+				this.scheduler.schedule(latch::countDown, new Date(System.currentTimeMillis() + 100));
+		assertThat(cancelled.cancel(false)).isTrue();
+		assertThat(cancelled.isCancelled()).isTrue();
+		assertThat(future.getDelay(TimeUnit.MILLISECONDS)).isGreaterThan(0L);
+
+		future.get(10, TimeUnit.SECONDS);
+		assertThat(latch.getCount()).isEqualTo(0);
+		assertThat(cancelledRun.await(100, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(future.cancel(false)).isFalse();
+	}
+
+	@Test
+	public void testDestroyCancelsPendingTasks() {
+		ScheduledFuture<?> future = this.scheduler.schedule(() -> { }, new Date(System.currentTimeMillis() + 10_000));
+		this.scheduler.destroy();
+		assertThat(future.isCancelled()).isTrue();
+	}
+
+	@Test
+	public void testGroupTimeout() {
+		QueueChannel output = new QueueChannel();
+		AggregatingMessageHandler handler =
+				new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(), new SimpleMessageStore());
+		handler.setOutputChannel(output);
+		handler.setTaskScheduler(this.scheduler);
+		handler.setSendPartialResultOnExpiry(true);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.setGroupTimeoutExpression(new ValueExpression<>(50L));
+		handler.afterPropertiesSet();
+		for (int i = 0; i < 100; i++) {
+			handler.handleMessage(message(i % 10, i));
+		}
+		for (int i = 0; i < 10; i++) {
+			Message<?> result = output.receive(10_000);
+			assertThat(result).isNotNull();
+			assertThat((List<?>) result.getPayload()).hasSize(10);
+		}
+		assertThat(output.receive(100)).isNull();
+	}
+
+	private static Message<Integer> message(int correlationId, int payload) {
+		return MessageBuilder.withPayload(payload)
+				.setCorrelationId(correlationId)
+				.setSequenceSize(100)
+				.build();
+	}
+
+}
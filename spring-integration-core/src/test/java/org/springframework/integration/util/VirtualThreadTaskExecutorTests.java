@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * @since 5.2
+ */
+class VirtualThreadTaskExecutorTests {
+
+	@Test
+	void tasksRunOnVirtualThreads() throws InterruptedException {
+		Assumptions.assumeTrue(VirtualThreadTaskExecutor.isSupported());
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("test-");
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		executor.execute(() -> {
+			thread.set(Thread.currentThread());
+			latch.countDown();
+		});
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(thread.get().getName()).startsWith("test-");
+		assertThat(ReflectionUtils.invokeMethod(ReflectionUtils.findMethod(Thread.class, "isVirtual"), thread.get()))
+				.isEqualTo(Boolean.TRUE);
+	}
+
+	@Test
+	void unsupportedJvmFailsFast() {
+		Assumptions.assumeFalse(VirtualThreadTaskExecutor.isSupported());
+		assertThatIllegalStateException()
+				.isThrownBy(VirtualThreadTaskExecutor::new)
+				.withMessageContaining("not supported");
+	}
+
+	@Test
+	void threadFactoryIfEnabledHonorsGlobalProperty() {
+		assertThat(VirtualThreadTaskExecutor.threadFactoryIfEnabled(null, "test-")).isNull();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		assertThat(VirtualThreadTaskExecutor.threadFactoryIfEnabled(beanFactory, "test-")).isNull();
+
+		beanFactory = new DefaultListableBeanFactory();
+		Properties properties = new Properties();
+		properties.setProperty(IntegrationProperties.VIRTUAL_THREADS, "true");
+		beanFactory.registerSingleton(IntegrationContextUtils.INTEGRATION_GLOBAL_PROPERTIES_BEAN_NAME, properties);
+		if (VirtualThreadTaskExecutor.isSupported()) {
+			assertThat(VirtualThreadTaskExecutor.threadFactoryIfEnabled(beanFactory, "test-")).isNotNull();
+		}
+		else {
+			assertThat(VirtualThreadTaskExecutor.threadFactoryIfEnabled(beanFactory, "test-")).isNull();
+		}
+	}
+
+}
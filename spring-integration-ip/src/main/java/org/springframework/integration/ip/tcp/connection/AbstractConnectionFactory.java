@@ -41,6 +41,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.context.ApplicationEventPublisher;
@@ -49,6 +50,7 @@ import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.integration.context.IntegrationObjectSupport;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
+import org.springframework.integration.util.VirtualThreadTaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.MessagingException;
 import org.springframework.util.Assert;
@@ -525,6 +527,9 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 
 	/**
 	 * Creates a taskExecutor (if one was not provided).
+	 * The threads are virtual when the
+	 * {@link org.springframework.integration.context.IntegrationProperties#VIRTUAL_THREADS}
+	 * global property is enabled and the JVM supports them.
 	 * @return The executor.
 	 */
 	protected Executor getTaskExecutor() {
@@ -534,7 +539,11 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		synchronized (this.lifecycleMonitor) {
 			if (this.taskExecutor == null) {
 				this.privateExecutor = true;
-				this.taskExecutor = Executors.newCachedThreadPool();
+				ThreadFactory threadFactory =
+						VirtualThreadTaskExecutor.threadFactoryIfEnabled(getBeanFactory(), getComponentName() + "-");
+				this.taskExecutor = threadFactory != null
+						? Executors.newCachedThreadPool(threadFactory)
+						: Executors.newCachedThreadPool();
 			}
 			return this.taskExecutor;
 		}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Base class for {@link ChannelMessageNotifier}s, keeping the listeners by group key.
+ *
+ * @since 5.2
+ */
+public abstract class AbstractChannelMessageNotifier implements ChannelMessageNotifier {
+
+	protected final Log logger = LogFactory.getLog(getClass()); // NOSONAR final
+
+	private final Map<String, Set<Runnable>> listeners = new ConcurrentHashMap<>();
+
+	@Override
+	public void subscribe(String groupKey, Runnable listener) {
+		Assert.notNull(groupKey, "'groupKey' must not be null");
+		Assert.notNull(listener, "'listener' must not be null");
+		this.listeners.computeIfAbsent(groupKey, key -> new CopyOnWriteArraySet<>()).add(listener);
+	}
+
+	@Override
+	public void unsubscribe(String groupKey, Runnable listener) {
+		this.listeners.computeIfPresent(groupKey, (key, groupListeners) -> {
+			groupListeners.remove(listener);
+			return groupListeners.isEmpty() ? null : groupListeners;
+		});
+	}
+
+	/**
+	 * Return true if any listener is registered.
+	 * @return true if any listener is registered.
+	 */
+	protected boolean hasListeners() {
+		return !this.listeners.isEmpty();
+	}
+
+	/**
+	 * Invoke the listeners of the group.
+	 * @param groupKey the group key.
+	 */
+	protected void notifyListeners(String groupKey) {
+		if (groupKey != null) {
+			Set<Runnable> groupListeners = this.listeners.get(groupKey.trim());
+			if (groupListeners != null) {
+				groupListeners.forEach(this::notifyListener);
+			}
+		}
+	}
+
+	/**
+	 * Invoke the listeners of all the groups, for example when notifications may have
+	 * been missed.
+	 */
+	protected void notifyAllListeners() {
+		this.listeners.values().forEach(groupListeners -> groupListeners.forEach(this::notifyListener));
+	}
+
+	private void notifyListener(Runnable listener) {
+		try {
+			listener.run();
+		}
+		catch (RuntimeException e) {
+			this.logger.error("Failed to notify a listener", e);
+		}
+	}
+
+}
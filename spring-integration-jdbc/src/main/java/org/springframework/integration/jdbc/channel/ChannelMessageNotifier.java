@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+/**
+ * A strategy to notify the consumers of a {@link SubscribableJdbcChannel} that messages
+ * were stored for their group in the {@code INT_CHANNEL_MESSAGE} table, so they do not
+ * have to poll the table.
+ * <p>
+ * The groups are identified by their key in the table ({@code GROUP_KEY} column).
+ * The notifications may be spurious or, when the notifier loses its connection to the
+ * database, missed; the channel polls the table when it is notified and at increasing
+ * intervals otherwise.
+ *
+ * @since 5.2
+ */
+public interface ChannelMessageNotifier {
+
+	/**
+	 * Register a listener to invoke when messages are stored for the group.
+	 * The listener must return quickly.
+	 * @param groupKey the group key.
+	 * @param listener the listener.
+	 */
+	void subscribe(String groupKey, Runnable listener);
+
+	/**
+	 * Unregister a listener.
+	 * @param groupKey the group key.
+	 * @param listener the listener.
+	 */
+	void unsubscribe(String groupKey, Runnable listener);
+
+	/**
+	 * Invoked by the {@link SubscribableJdbcChannel} after it stored a message, in the
+	 * transaction of the sender, if any; does nothing by default, for the notifiers
+	 * relying on a database trigger.
+	 * @param groupKey the group key.
+	 */
+	default void messageStored(String groupKey) {
+		// NOOP
+	}
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ChannelMessageNotifier} for PostgreSQL, based on {@code LISTEN/NOTIFY}: the
+ * channel sends a notification with the group key after storing a message, in its
+ * transaction (so it is delivered when the message is committed), and a dedicated
+ * connection listens to them. In a transaction, a single notification is sent for each
+ * group, just before the commit.
+ * <p>
+ * The messages inserted by other applications can be notified by a trigger, for example:
+ * <pre class="code">
+ * CREATE FUNCTION INT_CHANNEL_MESSAGE_NOTIFY_FCT() RETURNS TRIGGER AS $$
+ * BEGIN
+ *     PERFORM pg_notify('int_channel_message', NEW.GROUP_KEY);
+ *     RETURN NEW;
+ * END;
+ * $$ LANGUAGE plpgsql;
+ * CREATE TRIGGER INT_CHANNEL_MESSAGE_NOTIFY_TRG AFTER INSERT ON INT_CHANNEL_MESSAGE
+ *     FOR EACH ROW EXECUTE PROCEDURE INT_CHANNEL_MESSAGE_NOTIFY_FCT();
+ * </pre>
+ * The listening connection is obtained from the {@link DataSource} and held while the
+ * notifier is running; when it fails, all the listeners are notified (notifications
+ * may have been missed) and a new connection is obtained after the recovery interval.
+ * The connection is only used by the listening task: on {@link #stop()}, the task stops
+ * listening ({@code UNLISTEN *}) within a second and then closes the connection, so a
+ * pooled connection is returned to the pool without a subscription.
+ *
+ * @since 5.2
+ */
+public class PostgresChannelMessageNotifier extends AbstractChannelMessageNotifier implements SmartLifecycle {
+
+	/**
+	 * The default notification channel.
+	 */
+	public static final String DEFAULT_NOTIFICATION_CHANNEL = "int_channel_message";
+
+	private static final int NOTIFICATION_TIMEOUT = 1000;
+
+	private final DataSource dataSource;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final String notificationChannel;
+
+	private Executor taskExecutor = new SimpleAsyncTaskExecutor("postgres-notifier-");
+
+	private Duration recoveryInterval = Duration.ofSeconds(5);
+
+	private boolean autoStartup = true;
+
+	private int phase = Integer.MIN_VALUE + 1000;
+
+	private volatile boolean running;
+
+	private volatile CountDownLatch stopped = new CountDownLatch(0);
+
+	/**
+	 * Construct an instance for the {@link #DEFAULT_NOTIFICATION_CHANNEL}.
+	 * @param dataSource the data source.
+	 */
+	public PostgresChannelMessageNotifier(DataSource dataSource) {
+		this(dataSource, DEFAULT_NOTIFICATION_CHANNEL);
+	}
+
+	/**
+	 * Construct an instance for the provided notification channel.
+	 * @param dataSource the data source.
+	 * @param notificationChannel the notification channel (a PostgreSQL identifier).
+	 */
+	public PostgresChannelMessageNotifier(DataSource dataSource, String notificationChannel) {
+		Assert.notNull(dataSource, "'dataSource' must not be null");
+		Assert.isTrue(notificationChannel != null && notificationChannel.matches("[a-zA-Z_][a-zA-Z0-9_]*"),
+				"'notificationChannel' must be an unquoted identifier");
+		this.dataSource = dataSource;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.notificationChannel = notificationChannel;
+	}
+
+	/**
+	 * Set the {@link Executor} to run the listening task on; it is busy while the
+	 * notifier is running.
+	 * @param taskExecutor the executor.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the interval between the attempts to obtain a listening connection after a
+	 * failure. Default 5 seconds.
+	 * @param recoveryInterval the interval.
+	 */
+	public void setRecoveryInterval(Duration recoveryInterval) {
+		Assert.notNull(recoveryInterval, "'recoveryInterval' must not be null");
+		this.recoveryInterval = recoveryInterval;
+	}
+
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	/**
+	 * Set the phase; defaults to a phase before the channels (so they are notified as
+	 * soon as they start).
+	 * @param phase the phase.
+	 */
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	/**
+	 * Send a notification for the group. In a transaction, the notifications are sent
+	 * once per group, just before the commit, whatever the number of messages stored;
+	 * otherwise, a notification is sent for each message.
+	 * @param groupKey the group key.
+	 */
+	@Override
+	public void messageStored(String groupKey) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			PendingNotifications pending = (PendingNotifications) TransactionSynchronizationManager.getResource(this);
+			if (pending == null) {
+				pending = new PendingNotifications();
+				TransactionSynchronizationManager.bindResource(this, pending);
+				TransactionSynchronizationManager.registerSynchronization(pending);
+			}
+			pending.groupKeys.add(groupKey);
+		}
+		else {
+			sendNotification(groupKey);
+		}
+	}
+
+	private void sendNotification(String groupKey) {
+		this.jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, this.notificationChannel, groupKey);
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return this.autoStartup;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!this.running) {
+			this.running = true;
+			CountDownLatch listening = new CountDownLatch(1);
+			this.stopped = listening;
+			this.taskExecutor.execute(() -> listen(listening));
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.running) {
+			this.running = false;
+			try {
+				if (!this.stopped.await(NOTIFICATION_TIMEOUT * 2, TimeUnit.MILLISECONDS)) {
+					this.logger.warn("The listening task did not stop in time");
+				}
+			}
+			catch (@SuppressWarnings("unused") InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void listen(CountDownLatch listening) {
+		try {
+			while (this.running) {
+				try (Connection listeningConnection = this.dataSource.getConnection()) {
+					PGConnection pgConnection = listeningConnection.unwrap(PGConnection.class);
+					try {
+						try (Statement statement = listeningConnection.createStatement()) {
+							statement.execute("LISTEN " + this.notificationChannel);
+						}
+						// the notifications sent while not listening are lost
+						notifyAllListeners();
+						while (this.running) {
+							PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_TIMEOUT);
+							if (notifications != null) {
+								for (PGNotification notification : notifications) {
+									notifyListeners(notification.getParameter());
+								}
+							}
+						}
+					}
+					finally {
+						unlisten(listeningConnection, pgConnection);
+					}
+				}
+				catch (SQLException | RuntimeException e) {
+					if (this.running) {
+						this.logger.error("Failed to listen to the notifications on channel '"
+								+ this.notificationChannel + "'; retrying in " + this.recoveryInterval, e);
+						notifyAllListeners();
+						Thread.sleep(this.recoveryInterval.toMillis());
+					}
+				}
+			}
+		}
+		catch (@SuppressWarnings("unused") InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.running = false;
+		}
+		finally {
+			listening.countDown();
+		}
+	}
+
+	private void unlisten(Connection listeningConnection, PGConnection pgConnection) {
+		try (Statement statement = listeningConnection.createStatement()) {
+			statement.execute("UNLISTEN *");
+			// discard the notifications received before
+			pgConnection.getNotifications();
+		}
+		catch (SQLException e) {
+			this.logger.debug("Failed to stop listening on channel '" + this.notificationChannel + "'", e);
+		}
+	}
+
+	/**
+	 * The groups notified in the current transaction.
+	 */
+	private final class PendingNotifications extends TransactionSynchronizationAdapter {
+
+		private final Set<String> groupKeys = new LinkedHashSet<>();
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			// still in the transaction: delivered when the messages are committed
+			this.groupKeys.forEach(PostgresChannelMessageNotifier.this::sendNotification);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(PostgresChannelMessageNotifier.this);
+		}
+
+	}
+
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.MessageDispatchingException;
+import org.springframework.integration.channel.AbstractMessageChannel;
+import org.springframework.integration.channel.ChannelUtils;
+import org.springframework.integration.channel.MessagePublishingErrorHandler;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.integration.dispatcher.RoundRobinLoadBalancingStrategy;
+import org.springframework.integration.dispatcher.UnicastingDispatcher;
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.util.UUIDConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link SubscribableChannel} backed by a {@link JdbcChannelMessageStore}: the sent
+ * messages are stored in the group of the channel and consumer tasks poll them from
+ * the store and dispatch them to a subscriber.
+ * <p>
+ * The consumers do not poll the table at a fixed rate: they poll again immediately
+ * after a message, and are woken up when a message is sent through this channel instance
+ * (after the commit, if a transaction is active) or when the {@link ChannelMessageNotifier},
+ * if any, notifies that messages were stored for the group (for example, by another
+ * application instance). When a poll returns nothing, the consumers wait for a
+ * notification up to the poll interval, which doubles from the
+ * {@link #setMinPollInterval(Duration) minimum} to the
+ * {@link #setMaxPollInterval(Duration) maximum}; the polling is the fallback for the
+ * missed notifications.
+ *
+ * @since 5.2
+ */
+public class SubscribableJdbcChannel extends AbstractMessageChannel implements SubscribableChannel, SmartLifecycle {
+
+	private final JdbcChannelMessageStore messageStore;
+
+	private final Object groupId;
+
+	private final String groupKey;
+
+	private final UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+
+	private final Object monitor = new Object();
+
+	private final Runnable wakeUpListener = this::wakeUp;
+
+	private final List<Future<?>> consumers = new ArrayList<>();
+
+	private ChannelMessageNotifier notifier;
+
+	private Executor taskExecutor = new SimpleAsyncTaskExecutor();
+
+	private int concurrency = 1;
+
+	private long minPollInterval = 10;
+
+	private long maxPollInterval = 1000;
+
+	private long shutdownTimeout = 5000;
+
+	private TransactionTemplate transactionTemplate;
+
+	private ErrorHandler errorHandler;
+
+	private Integer maxSubscribers;
+
+	private boolean autoStartup = true;
+
+	private int phase;
+
+	private volatile boolean running;
+
+	private volatile boolean notifierStarted;
+
+	private long wakeUps;
+
+	/**
+	 * Construct an instance storing the messages in the group of the provided id.
+	 * @param messageStore the message store.
+	 * @param groupId the group id.
+	 */
+	public SubscribableJdbcChannel(JdbcChannelMessageStore messageStore, Object groupId) {
+		Assert.notNull(messageStore, "'messageStore' must not be null");
+		Assert.notNull(groupId, "'groupId' must not be null");
+		this.messageStore = messageStore;
+		this.groupId = groupId;
+		this.groupKey = UUIDConverter.getUUID(groupId).toString();
+		this.dispatcher.setLoadBalancingStrategy(new RoundRobinLoadBalancingStrategy());
+	}
+
+	/**
+	 * Set the {@link ChannelMessageNotifier} to wake up the consumers when messages are
+	 * stored by other channel instances; without a notifier, they are only polled.
+	 * If the notifier is a {@link Lifecycle} which is not running when this channel
+	 * starts, it is started and stopped with this channel.
+	 * @param notifier the notifier.
+	 */
+	public void setNotifier(ChannelMessageNotifier notifier) {
+		this.notifier = notifier;
+	}
+
+	/**
+	 * Set the {@link Executor} to run the consumer tasks on; each task is busy while the
+	 * channel is running.
+	 * @param taskExecutor the executor.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the number of consumer tasks. Default 1.
+	 * @param concurrency the concurrency.
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "'concurrency' must be greater than 0");
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Set the poll interval after an empty poll. Default 10 milliseconds.
+	 * @param minPollInterval the interval.
+	 */
+	public void setMinPollInterval(Duration minPollInterval) {
+		Assert.isTrue(minPollInterval != null && minPollInterval.toMillis() > 0,
+				"'minPollInterval' must be at least 1 millisecond");
+		this.minPollInterval = minPollInterval.toMillis();
+	}
+
+	/**
+	 * Set the maximum poll interval, after successive empty polls. Default 1 second.
+	 * @param maxPollInterval the interval.
+	 */
+	public void setMaxPollInterval(Duration maxPollInterval) {
+		Assert.isTrue(maxPollInterval != null && maxPollInterval.toMillis() > 0,
+				"'maxPollInterval' must be at least 1 millisecond");
+		this.maxPollInterval = maxPollInterval.toMillis();
+	}
+
+	/**
+	 * Set how long {@link #stop()} waits for the consumer tasks to complete their
+	 * current dispatch; the tasks still running after that are cancelled (interrupted).
+	 * Default 5 seconds.
+	 * @param shutdownTimeout the timeout.
+	 */
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		Assert.isTrue(shutdownTimeout != null && !shutdownTimeout.isNegative(),
+				"'shutdownTimeout' must not be negative");
+		this.shutdownTimeout = shutdownTimeout.toMillis();
+	}
+
+	/**
+	 * Set a {@link PlatformTransactionManager} to poll and dispatch each message in a
+	 * transaction, so the message is not lost when the subscriber fails.
+	 * @param transactionManager the transaction manager.
+	 */
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+	}
+
+	/**
+	 * Set the {@link ErrorHandler} for the exceptions thrown by the subscriber. Default
+	 * the {@link ChannelUtils#getErrorHandler(BeanFactory) error handler} of the application
+	 * context.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Specify the maximum number of subscribers supported by the
+	 * channel's dispatcher.
+	 * @param maxSubscribers The maximum number of subscribers allowed.
+	 */
+	public void setMaxSubscribers(int maxSubscribers) {
+		this.maxSubscribers = maxSubscribers;
+		this.dispatcher.setMaxSubscribers(maxSubscribers);
+	}
+
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	@Override
+	public boolean subscribe(MessageHandler handler) {
+		boolean added = this.dispatcher.addHandler(handler);
+		wakeUp();
+		return added;
+	}
+
+	@Override
+	public boolean unsubscribe(MessageHandler handler) {
+		return this.dispatcher.removeHandler(handler);
+	}
+
+	@Override
+	protected void onInit() {
+		super.onInit();
+		if (this.maxSubscribers == null) {
+			setMaxSubscribers(
+					getIntegrationProperty(IntegrationProperties.CHANNELS_MAX_UNICAST_SUBSCRIBERS, Integer.class));
+		}
+		if (this.errorHandler == null) {
+			BeanFactory beanFactory = getBeanFactory();
+			this.errorHandler = beanFactory != null
+					? ChannelUtils.getErrorHandler(beanFactory)
+					: new MessagePublishingErrorHandler();
+		}
+	}
+
+	@Override
+	protected boolean doSend(Message<?> message, long timeout) {
+		this.messageStore.addMessageToGroup(this.groupId, message);
+		if (this.notifier != null) {
+			this.notifier.messageStored(this.groupKey);
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+				@Override
+				public void afterCommit() {
+					wakeUp();
+				}
+
+			});
+		}
+		else {
+			wakeUp();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return this.autoStartup;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!this.running) {
+			if (this.errorHandler == null) {
+				this.errorHandler = new MessagePublishingErrorHandler();
+			}
+			this.running = true;
+			if (this.notifier != null) {
+				this.notifier.subscribe(this.groupKey, this.wakeUpListener);
+				if (this.notifier instanceof Lifecycle && !((Lifecycle) this.notifier).isRunning()) {
+					((Lifecycle) this.notifier).start();
+					this.notifierStarted = true;
+				}
+			}
+			for (int i = 0; i < this.concurrency; i++) {
+				FutureTask<Void> consumer = new FutureTask<>(this::consume, null);
+				this.consumers.add(consumer);
+				this.taskExecutor.execute(consumer);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.running) {
+			this.running = false;
+			if (this.notifier != null) {
+				this.notifier.unsubscribe(this.groupKey, this.wakeUpListener);
+				if (this.notifierStarted) {
+					((Lifecycle) this.notifier).stop();
+					this.notifierStarted = false;
+				}
+			}
+			wakeUp();
+			awaitConsumers();
+		}
+	}
+
+	private void awaitConsumers() {
+		long deadline = System.currentTimeMillis() + this.shutdownTimeout;
+		for (Future<?> consumer : this.consumers) {
+			try {
+				consumer.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+			}
+			catch (@SuppressWarnings("unused") TimeoutException e) {
+				this.logger.warn("A consumer task of jdbc-channel '" + getFullChannelName()
+						+ "' did not stop within the shutdown timeout; cancelling it");
+				consumer.cancel(true);
+			}
+			catch (@SuppressWarnings("unused") InterruptedException e) {
+				Thread.currentThread().interrupt();
+				consumer.cancel(true);
+			}
+			catch (ExecutionException | CancellationException e) {
+				this.logger.debug("A consumer task of jdbc-channel '" + getFullChannelName() + "' failed", e);
+			}
+		}
+		this.consumers.clear();
+	}
+
+	private void wakeUp() {
+		synchronized (this.monitor) {
+			this.wakeUps++;
+			this.monitor.notifyAll();
+		}
+	}
+
+	private void consume() {
+		long pollInterval = this.minPollInterval;
+		while (this.running && !Thread.currentThread().isInterrupted()) {
+			long lastWakeUp;
+			synchronized (this.monitor) {
+				lastWakeUp = this.wakeUps;
+			}
+			boolean dispatched = false;
+			try {
+				dispatched = this.dispatcher.getHandlerCount() > 0 && pollAndDispatch();
+			}
+			catch (Exception e) {
+				this.errorHandler.handleError(e);
+			}
+			if (dispatched) {
+				pollInterval = this.minPollInterval;
+			}
+			else {
+				pollInterval = awaitWakeUp(lastWakeUp, pollInterval);
+			}
+		}
+	}
+
+	private boolean pollAndDispatch() {
+		if (this.transactionTemplate != null) {
+			Boolean dispatched = this.transactionTemplate.execute(status -> doPollAndDispatch());
+			return Boolean.TRUE.equals(dispatched);
+		}
+		else {
+			return doPollAndDispatch();
+		}
+	}
+
+	private boolean doPollAndDispatch() {
+		Message<?> message = this.messageStore.pollMessageFromGroup(this.groupId);
+		if (message == null) {
+			return false;
+		}
+		try {
+			this.dispatcher.dispatch(message);
+		}
+		catch (MessageDispatchingException e) {
+			String exceptionMessage = e.getMessage();
+			throw new MessageDeliveryException(message,
+					(exceptionMessage == null ? e.getClass().getSimpleName() : exceptionMessage)
+							+ " for jdbc-channel '" + getFullChannelName() + "'.", e);
+		}
+		return true;
+	}
+
+	/**
+	 * Wait for a wake up, up to the poll interval.
+	 * @param lastWakeUp the wake up count before the poll.
+	 * @param pollInterval the current poll interval.
+	 * @return the next poll interval.
+	 */
+	private long awaitWakeUp(long lastWakeUp, long pollInterval) {
+		synchronized (this.monitor) {
+			if (this.wakeUps == lastWakeUp && this.running) {
+				try {
+					this.monitor.wait(pollInterval);
+				}
+				catch (@SuppressWarnings("unused") InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (this.wakeUps != lastWakeUp) {
+				return this.minPollInterval;
+			}
+		}
+		return Math.min(pollInterval * 2, this.maxPollInterval);
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ChannelMessageNotifier} for embedded databases running Java procedures in the
+ * application JVM, such as Derby: an insert trigger on the {@code INT_CHANNEL_MESSAGE}
+ * table calls the {@link #messageInserted(String)} procedure with the group key of the
+ * new row. For example, with Derby:
+ * <pre class="code">
+ * CREATE PROCEDURE INT_CHANNEL_MESSAGE_NOTIFY(IN GROUP_KEY CHAR(36))
+ *     PARAMETER STYLE JAVA LANGUAGE JAVA NO SQL
+ *     EXTERNAL NAME 'org.springframework.integration.jdbc.channel.TriggerChannelMessageNotifier.messageInserted';
+ * CREATE TRIGGER INT_CHANNEL_MESSAGE_INSERTED AFTER INSERT ON INT_CHANNEL_MESSAGE
+ *     REFERENCING NEW AS NEW_ROW FOR EACH ROW CALL INT_CHANNEL_MESSAGE_NOTIFY(NEW_ROW.GROUP_KEY);
+ * </pre>
+ * The trigger fires before the insert is committed, so the channel may poll before the
+ * message is visible; it then polls again shortly.
+ * <p>
+ * Since the procedure is static, the notifiers are registered in a JVM-wide registry
+ * while they have listeners, until they are destroyed. When several application contexts
+ * (or databases) share the JVM, give each notifier a scope and call the
+ * {@link #messageInserted(String, String)} procedure with that scope from the trigger
+ * (for example, {@code CALL INT_CHANNEL_MESSAGE_NOTIFY('orders', NEW_ROW.GROUP_KEY)}
+ * with a procedure declaring two parameters), so the inserts of one database do not
+ * wake up the channels of another.
+ *
+ * @since 5.2
+ */
+public class TriggerChannelMessageNotifier extends AbstractChannelMessageNotifier implements DisposableBean {
+
+	/**
+	 * The scope of the notifiers created without one, notified by
+	 * {@link #messageInserted(String)}.
+	 */
+	public static final String DEFAULT_SCOPE = "";
+
+	private static final Map<String, Set<TriggerChannelMessageNotifier>> NOTIFIERS = new ConcurrentHashMap<>();
+
+	private final String scope;
+
+	/**
+	 * Construct an instance in the {@link #DEFAULT_SCOPE}.
+	 */
+	public TriggerChannelMessageNotifier() {
+		this(DEFAULT_SCOPE);
+	}
+
+	/**
+	 * Construct an instance notified by the {@link #messageInserted(String, String)}
+	 * procedure for the provided scope.
+	 * @param scope the scope.
+	 */
+	public TriggerChannelMessageNotifier(String scope) {
+		Assert.notNull(scope, "'scope' must not be null");
+		this.scope = scope;
+	}
+
+	/**
+	 * The procedure to call from the insert trigger, for the notifiers of the
+	 * {@link #DEFAULT_SCOPE}.
+	 * @param groupKey the group key of the inserted row.
+	 */
+	public static void messageInserted(String groupKey) {
+		messageInserted(DEFAULT_SCOPE, groupKey);
+	}
+
+	/**
+	 * The procedure to call from the insert trigger, for the notifiers of the provided
+	 * scope.
+	 * @param scope the scope.
+	 * @param groupKey the group key of the inserted row.
+	 */
+	public static void messageInserted(String scope, String groupKey) {
+		Set<TriggerChannelMessageNotifier> notifiers = NOTIFIERS.get(scope);
+		if (notifiers != null) {
+			notifiers.forEach(notifier -> notifier.notifyListeners(groupKey));
+		}
+	}
+
+	@Override
+	public synchronized void subscribe(String groupKey, Runnable listener) {
+		super.subscribe(groupKey, listener);
+		NOTIFIERS.computeIfAbsent(this.scope, key -> new CopyOnWriteArraySet<>()).add(this);
+	}
+
+	@Override
+	public synchronized void unsubscribe(String groupKey, Runnable listener) {
+		super.unsubscribe(groupKey, listener);
+		if (!hasListeners()) {
+			deregister();
+		}
+	}
+
+	@Override
+	public synchronized void destroy() {
+		deregister();
+	}
+
+	private void deregister() {
+		NOTIFIERS.computeIfPresent(this.scope, (key, notifiers) -> {
+			notifiers.remove(this);
+			return notifiers.isEmpty() ? null : notifiers;
+		});
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.store;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Coalesces the writes of concurrent callers into batches (group commit).
+ * <p>
+ * The first caller with nothing in progress becomes the leader: it waits up to the
+ * batch window for other writes (or until the batch is full), then writes the batch in
+ * one transaction while the other callers wait.
+ * When the batch fails, its items are written one by one, so each caller gets its own
+ * result. Then the leadership is passed to the oldest waiting caller, if any.
+ * <p>
+ * Callers in an active transaction write directly, to keep the write in their transaction.
+ *
+ * @param <T> the item type.
+ *
+ * @since 5.2
+ */
+final class GroupCommitWriter<T> {
+
+	private static final Log logger = LogFactory.getLog(GroupCommitWriter.class);
+
+	private final Object monitor = new Object();
+
+	private final long windowNanos;
+
+	private final int maxBatchSize;
+
+	private final TransactionOperations transactionOperations;
+
+	private final Consumer<List<T>> batchWriter;
+
+	private final Consumer<T> itemWriter;
+
+	private List<Write<T>> pending = new ArrayList<>();
+
+	private boolean leading;
+
+	/**
+	 * Create an instance.
+	 * @param window how long the leader waits for other writes.
+	 * @param maxBatchSize the maximum number of items in a batch.
+	 * @param jdbcOperations the operations to obtain the {@link DataSource} for the batch transactions.
+	 * @param batchWriter writes a batch.
+	 * @param itemWriter writes an item; used directly and when its batch fails.
+	 */
+	GroupCommitWriter(Duration window, int maxBatchSize, JdbcOperations jdbcOperations,
+			Consumer<List<T>> batchWriter, Consumer<T> itemWriter) {
+
+		this.windowNanos = window.toNanos();
+		this.maxBatchSize = maxBatchSize;
+		DataSource dataSource = jdbcOperations instanceof JdbcTemplate
+				? ((JdbcTemplate) jdbcOperations).getDataSource()
+				: null;
+		this.transactionOperations = dataSource != null
+				? new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+				: TransactionOperations.withoutTransaction();
+		this.batchWriter = batchWriter;
+		this.itemWriter = itemWriter;
+	}
+
+	/**
+	 * Write the item, in a batch with the concurrent writes, and wait for the result.
+	 * @param item the item.
+	 */
+	void write(T item) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			this.itemWriter.accept(item);
+			return;
+		}
+		Write<T> write = new Write<>(item);
+		boolean interrupted = false;
+		synchronized (this.monitor) {
+			this.pending.add(write);
+			if (!this.leading) {
+				this.leading = true;
+				write.leader = true;
+			}
+			else if (this.pending.size() >= this.maxBatchSize) {
+				this.monitor.notifyAll();
+			}
+			while (!write.done && !write.leader) {
+				try {
+					this.monitor.wait();
+				}
+				catch (@SuppressWarnings("unused") InterruptedException e) {
+					// the item is queued anyway, so wait for its result
+					interrupted = true;
+				}
+			}
+		}
+		if (!write.done) {
+			interrupted |= lead();
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (write.failure instanceof RuntimeException) {
+			throw (RuntimeException) write.failure;
+		}
+		else if (write.failure != null) {
+			throw (Error) write.failure;
+		}
+	}
+
+	private boolean lead() {
+		boolean interrupted = false;
+		List<Write<T>> batch;
+		synchronized (this.monitor) {
+			long deadline = System.nanoTime() + this.windowNanos;
+			long remaining = this.windowNanos;
+			while (this.pending.size() < this.maxBatchSize && remaining > 0) {
+				try {
+					TimeUnit.NANOSECONDS.timedWait(this.monitor, remaining);
+				}
+				catch (@SuppressWarnings("unused") InterruptedException e) {
+					interrupted = true;
+				}
+				remaining = deadline - System.nanoTime();
+			}
+			if (this.pending.size() > this.maxBatchSize) {
+				batch = new ArrayList<>(this.pending.subList(0, this.maxBatchSize));
+				this.pending = new ArrayList<>(this.pending.subList(this.maxBatchSize, this.pending.size()));
+			}
+			else {
+				batch = this.pending;
+				this.pending = new ArrayList<>();
+			}
+		}
+		try {
+			flush(batch);
+		}
+		finally {
+			synchronized (this.monitor) {
+				for (Write<T> write : batch) {
+					write.done = true;
+				}
+				if (this.pending.isEmpty()) {
+					this.leading = false;
+				}
+				else {
+					this.pending.get(0).leader = true;
+				}
+				this.monitor.notifyAll();
+			}
+		}
+		return interrupted;
+	}
+
+	private void flush(List<Write<T>> batch) {
+		if (batch.size() > 1) {
+			List<T> items = new ArrayList<>(batch.size());
+			for (Write<T> write : batch) {
+				items.add(write.item);
+			}
+			try {
+				this.transactionOperations.executeWithoutResult(status -> this.batchWriter.accept(items));
+				return;
+			}
+			catch (RuntimeException | Error e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to write a batch of " + batch.size() + " items; writing them one by one", e);
+				}
+			}
+		}
+		for (Write<T> write : batch) {
+			try {
+				this.transactionOperations.executeWithoutResult(status -> this.itemWriter.accept(write.item));
+			}
+			catch (RuntimeException | Error e) {
+				write.failure = e;
+			}
+		}
+	}
+
+	private static final class Write<T> {
+
+		private final T item;
+
+		private boolean leader;
+
+		private boolean done;
+
+		@Nullable
+		private Throwable failure;
+
+		Write(T item) {
+			this.item = item;
+		}
+
+	}
+
+}
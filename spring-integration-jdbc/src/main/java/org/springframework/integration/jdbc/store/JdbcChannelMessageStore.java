@@ -17,6 +17,9 @@
 package org.springframework.integration.jdbc.store;
 
 import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +30,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
@@ -47,9 +51,12 @@ import org.springframework.integration.store.PriorityCapableChannelMessageStore;
 import org.springframework.integration.store.SimpleMessageGroupFactory;
 import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
 import org.springframework.integration.util.UUIDConverter;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
@@ -102,6 +109,13 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 	 */
 	public static final String DEFAULT_TABLE_PREFIX = "INT_";
 
+	/**
+	 * Default value for the write batch size property.
+	 */
+	public static final int DEFAULT_WRITE_BATCH_SIZE = 100;
+
+	private static final int MAX_BATCH_FETCH_SIZE = 100;
+
 	private enum Query {
 		CREATE_MESSAGE,
 		COUNT_GROUPS,
@@ -111,6 +125,8 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		POLL_WITH_EXCLUSIONS,
 		PRIORITY,
 		PRIORITY_WITH_EXCLUSIONS,
+		POLL_BATCH,
+		PRIORITY_BATCH,
 		DELETE_MESSAGE
 	}
 
@@ -163,6 +179,12 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 
 	private boolean priorityEnabled;
 
+	private Duration writeBatchWindow;
+
+	private int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+
+	private GroupCommitWriter<GroupMessage> writer;
+
 	/**
 	 * Convenient constructor for configuration use.
 	 */
@@ -363,6 +385,36 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return this.priorityEnabled;
 	}
 
+	/**
+	 * Set a window to coalesce the messages added concurrently (outside of a transaction)
+	 * into a JDBC batch insert, committed in one transaction (group commit).
+	 * The first sender waits up to this window for other messages, or until the
+	 * {@link #setWriteBatchSize(int) write batch size} is reached, and each sender waits
+	 * until its message is committed; if the batch fails, its messages are inserted one
+	 * by one, so each sender gets its own result.
+	 * Messages added in a transaction are inserted in that transaction, without batching.
+	 * By default, each message is inserted when it is added.
+	 * @param writeBatchWindow the window.
+	 * @since 5.2
+	 */
+	public void setWriteBatchWindow(Duration writeBatchWindow) {
+		Assert.isTrue(writeBatchWindow == null || !writeBatchWindow.isNegative(),
+				"'writeBatchWindow' must not be negative");
+		this.writeBatchWindow = writeBatchWindow;
+	}
+
+	/**
+	 * Set the maximum number of messages inserted in one batch when a
+	 * {@link #setWriteBatchWindow(Duration) write batch window} is set.
+	 * Defaults to {@link #DEFAULT_WRITE_BATCH_SIZE}.
+	 * @param writeBatchSize the batch size.
+	 * @since 5.2
+	 */
+	public void setWriteBatchSize(int writeBatchSize) {
+		Assert.isTrue(writeBatchSize > 0, "'writeBatchSize' must be greater than 0");
+		this.writeBatchSize = writeBatchSize;
+	}
+
 	/**
 	 * Specify the {@link MessageGroupFactory} to create {@link MessageGroup} object where
 	 * it is necessary.
@@ -410,6 +462,11 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 					this.lobHandler);
 		}
 		this.jdbcTemplate.afterPropertiesSet();
+		if (this.writeBatchWindow != null) {
+			this.writer = new GroupCommitWriter<>(this.writeBatchWindow, this.writeBatchSize, this.jdbcTemplate,
+					this::doAddMessagesToGroups,
+					groupMessage -> doAddMessageToGroup(groupMessage.groupId, groupMessage.message));
+		}
 	}
 
 	/**
@@ -421,6 +478,16 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 	 */
 	@Override
 	public MessageGroup addMessageToGroup(Object groupId, final Message<?> message) {
+		if (this.writer != null) {
+			this.writer.write(new GroupMessage(groupId, message));
+		}
+		else {
+			doAddMessageToGroup(groupId, message);
+		}
+		return getMessageGroup(groupId);
+	}
+
+	private void doAddMessageToGroup(Object groupId, Message<?> message) {
 		try {
 			this.jdbcTemplate.update(getQuery(Query.CREATE_MESSAGE,
 						() -> this.channelMessageStoreQueryProvider.getCreateMessageQuery()),
@@ -433,7 +500,14 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 				logger.debug("The Message with id [" + messageId + "] already exists.\nIgnoring INSERT...");
 			}
 		}
-		return getMessageGroup(groupId);
+	}
+
+	private void doAddMessagesToGroups(List<GroupMessage> groupMessages) {
+		this.jdbcTemplate.batchUpdate(getQuery(Query.CREATE_MESSAGE,
+					() -> this.channelMessageStoreQueryProvider.getCreateMessageQuery()),
+				groupMessages, groupMessages.size(),
+				(ps, groupMessage) -> this.preparedStatementSetter.setValues(ps, groupMessage.message,
+						groupMessage.groupId, this.region, this.priorityEnabled));
 	}
 
 	/**
@@ -522,6 +596,62 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return polledMessage;
 	}
 
+	/**
+	 * Polls the database for up to the given number of messages persisted for the given
+	 * group id, which represents the channel identifier, and deletes them in one batch.
+	 * If supported by the {@link ChannelMessageStoreQueryProvider}, the messages are
+	 * claimed with a single query, skipping the rows locked by other transactions;
+	 * otherwise, or when {@link #setUsingIdCache(boolean) usingIdCache} is set, they are
+	 * polled one by one.
+	 * The messages should be polled in a transaction, so the claimed rows remain locked
+	 * until they are deleted.
+	 * @since 5.2
+	 */
+	@Override
+	public List<Message<?>> pollMessagesFromGroup(Object groupId, int maxMessages) {
+		String query = null;
+		if (!this.usingIdCache) {
+			if (this.priorityEnabled) {
+				query = getQuery(Query.PRIORITY_BATCH,
+						() -> this.channelMessageStoreQueryProvider.getPriorityPollBatchFromGroupQuery());
+			}
+			else {
+				query = getQuery(Query.POLL_BATCH,
+						() -> this.channelMessageStoreQueryProvider.getPollBatchFromGroupQuery());
+			}
+		}
+		if (query == null) {
+			return PriorityCapableChannelMessageStore.super.pollMessagesFromGroup(groupId, maxMessages);
+		}
+		String key = getKey(groupId);
+		MapSqlParameterSource parameters = new MapSqlParameterSource()
+				.addValue("region", this.region)
+				.addValue("group_key", key)
+				.addValue("max_rows", maxMessages);
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(query);
+		ArgumentPreparedStatementSetter argumentSetter =
+				new ArgumentPreparedStatementSetter(NamedParameterUtils.buildValueArray(parsedSql, parameters, null));
+		List<Message<?>> messages = this.jdbcTemplate.query(
+				NamedParameterUtils.substituteNamedParameters(parsedSql, parameters),
+				ps -> {
+					// override the single row settings of the JdbcTemplate for this statement
+					ps.setMaxRows(maxMessages);
+					ps.setFetchSize(Math.min(maxMessages, MAX_BATCH_FETCH_SIZE));
+					argumentSetter.setValues(ps);
+				},
+				rs -> {
+					List<Message<?>> rows = new ArrayList<>();
+					while (rows.size() < maxMessages && rs.next()) {
+						rows.add(this.messageRowMapper.mapRow(rs, rows.size()));
+					}
+					return rows;
+				});
+		if (messages == null || messages.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return doRemoveMessagesFromGroup(key, messages);
+	}
+
 	/**
 	 * This method executes a call to the DB to get the oldest Message in the
 	 * MessageGroup which in the context of the {@link JdbcChannelMessageStore}
@@ -617,6 +747,30 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return result;
 	}
 
+	private List<Message<?>> doRemoveMessagesFromGroup(String groupIdKey, List<Message<?>> messages) {
+		int[] updated = this.jdbcTemplate.batchUpdate(
+				getQuery(Query.DELETE_MESSAGE, () -> this.channelMessageStoreQueryProvider.getDeleteMessageQuery()),
+				messages.stream()
+						.map(message -> new Object[] { getKey(message.getHeaders().getId()), groupIdKey, this.region })
+						.collect(Collectors.toList()),
+				new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR });
+
+		List<Message<?>> removed = new ArrayList<>(messages.size());
+		for (int i = 0; i < messages.size(); i++) {
+			Message<?> message = messages.get(i);
+			if (updated[i] != 0) {
+				removed.add(message);
+			}
+			else {
+				logger.warn(String.format("Message with id '%s' was not deleted.", message.getHeaders().getId()));
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("%d messages were deleted.", removed.size()));
+		}
+		return removed;
+	}
+
 	/**
 	 * <p>Remove a Message Id from the idCache. Should be used in conjunction
 	 * with the Spring Integration Transaction Synchronization feature to remove
@@ -649,4 +803,17 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return this.idCache.size();
 	}
 
+	private static final class GroupMessage {
+
+		private final Object groupId;
+
+		private final Message<?> message;
+
+		GroupMessage(Object groupId, Message<?> message) {
+			this.groupId = groupId;
+			this.message = message;
+		}
+
+	}
+
 }
@@ -19,14 +19,21 @@ package org.springframework.integration.jdbc.store;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.sql.DataSource;
@@ -44,14 +51,20 @@ import org.springframework.integration.store.MessageMetadata;
 import org.springframework.integration.store.MessageStore;
 import org.springframework.integration.store.SimpleMessageGroup;
 import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.integration.util.UUIDConverter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -86,6 +99,16 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 	 */
 	public static final String DEFAULT_TABLE_PREFIX = "INT_";
 
+	/**
+	 * Default value for the iteration page size property.
+	 */
+	public static final int DEFAULT_ITERATION_PAGE_SIZE = 100;
+
+	/**
+	 * Default value for the write batch size property.
+	 */
+	public static final int DEFAULT_WRITE_BATCH_SIZE = 100;
+
 	private enum Query {
 		GROUP_EXISTS("SELECT COUNT(GROUP_KEY) FROM %PREFIX%MESSAGE_GROUP where GROUP_KEY=? and REGION=?"),
 
@@ -108,6 +131,13 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 				"(SELECT MESSAGE_ID from %PREFIX%GROUP_TO_MESSAGE where GROUP_KEY = ? and REGION = ?) and REGION = ? " +
 				"ORDER BY CREATED_DATE"),
 
+		LIST_MESSAGE_IDS_BY_GROUP_KEY("SELECT MESSAGE_ID from %PREFIX%MESSAGE where MESSAGE_ID in " +
+				"(SELECT MESSAGE_ID from %PREFIX%GROUP_TO_MESSAGE where GROUP_KEY = ? and REGION = ?) and REGION = ? " +
+				"ORDER BY CREATED_DATE"),
+
+		LIST_MESSAGES_BY_IDS("SELECT MESSAGE_ID, MESSAGE_BYTES from %PREFIX%MESSAGE " +
+				"where MESSAGE_ID in (:messageIds) and REGION = :region"),
+
 		POLL_FROM_GROUP("SELECT %PREFIX%MESSAGE.MESSAGE_ID, %PREFIX%MESSAGE.MESSAGE_BYTES from %PREFIX%MESSAGE " +
 				"where %PREFIX%MESSAGE.MESSAGE_ID = " +
 				"(SELECT min(m.MESSAGE_ID) from %PREFIX%MESSAGE m " +
@@ -120,8 +150,9 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 				"and %PREFIX%GROUP_TO_MESSAGE.GROUP_KEY = ? " +
 				"and m.REGION = ?)"),
 
-		GET_GROUP_INFO("SELECT COMPLETE, LAST_RELEASED_SEQUENCE, CREATED_DATE, UPDATED_DATE" +
-				" from %PREFIX%MESSAGE_GROUP where GROUP_KEY = ? and REGION=?"),
+		GET_GROUP_INFO("SELECT COMPLETE, LAST_RELEASED_SEQUENCE, CREATED_DATE, UPDATED_DATE, " +
+				"(SELECT COUNT(MESSAGE_ID) from %PREFIX%GROUP_TO_MESSAGE where GROUP_KEY = ? and REGION = ?) " +
+				"as MESSAGE_COUNT from %PREFIX%MESSAGE_GROUP where GROUP_KEY = ? and REGION=?"),
 
 		GET_MESSAGE("SELECT MESSAGE_ID, CREATED_DATE, MESSAGE_BYTES from %PREFIX%MESSAGE where MESSAGE_ID=? and REGION=?"),
 
@@ -151,7 +182,13 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 
 		UPDATE_GROUP("UPDATE %PREFIX%MESSAGE_GROUP set UPDATED_DATE=? where GROUP_KEY=? and REGION=?"),
 
-		LIST_GROUP_KEYS("SELECT distinct GROUP_KEY as CREATED from %PREFIX%MESSAGE_GROUP where REGION=?");
+		LIST_GROUP_KEYS("SELECT distinct GROUP_KEY as CREATED from %PREFIX%MESSAGE_GROUP where REGION=?"),
+
+		LIST_GROUP_KEYS_CREATED_BEFORE("SELECT GROUP_KEY from %PREFIX%MESSAGE_GROUP " +
+				"where REGION=? and CREATED_DATE<=?"),
+
+		LIST_GROUP_KEYS_UPDATED_BEFORE("SELECT GROUP_KEY from %PREFIX%MESSAGE_GROUP " +
+				"where REGION=? and UPDATED_DATE<=?");
 
 		private String sql;
 
@@ -195,6 +232,18 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 
 	private volatile Map<Query, String> queryCache = new HashMap<Query, String>();
 
+	private final NamedParameterJdbcOperations namedParameterJdbcTemplate;
+
+	private int iterationPageSize = DEFAULT_ITERATION_PAGE_SIZE;
+
+	private boolean streamingMessageGroups;
+
+	private Duration writeBatchWindow;
+
+	private int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+
+	private volatile GroupCommitWriter<GroupMessages> writer;
+
 	/**
 	 * Create a {@link MessageStore} with all mandatory properties.
 	 * @param dataSource a {@link DataSource}
@@ -211,6 +260,7 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 	public JdbcMessageStore(JdbcOperations jdbcOperations) {
 		Assert.notNull(jdbcOperations, "'dataSource' must not be null");
 		this.jdbcTemplate = jdbcOperations;
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcOperations);
 		this.deserializer = new WhiteListDeserializingConverter();
 		this.serializer = new SerializingConverter();
 	}
@@ -236,6 +286,65 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		this.region = region;
 	}
 
+	/**
+	 * Set the number of messages {@link #iterateMessagesForGroup(Object)} retrieves with
+	 * each query. Defaults to {@link #DEFAULT_ITERATION_PAGE_SIZE}.
+	 * @param iterationPageSize the page size.
+	 * @since 5.2
+	 */
+	public void setIterationPageSize(int iterationPageSize) {
+		Assert.isTrue(iterationPageSize > 0, "'iterationPageSize' must be greater than 0");
+		this.iterationPageSize = iterationPageSize;
+	}
+
+	/**
+	 * Set to true for the lazy-load groups returned by {@link #getMessageGroup(Object)}
+	 * (see {@link #setLazyLoadMessageGroups(boolean)}) to retrieve their messages with
+	 * {@link #iterateMessagesForGroup(Object)}, a page of
+	 * {@link #setIterationPageSize(int) iterationPageSize} messages at a time, on each
+	 * iteration, instead of loading all of them at once; useful for large groups, which
+	 * are usually iterated only once or twice.
+	 * The group size is always retrieved with the group metadata.
+	 * Default false.
+	 * @param streamingMessageGroups true to stream the messages of the groups.
+	 * @since 5.2
+	 */
+	public void setStreamingMessageGroups(boolean streamingMessageGroups) {
+		this.streamingMessageGroups = streamingMessageGroups;
+	}
+
+	/**
+	 * Set a window to coalesce the messages added concurrently to groups (outside of a
+	 * transaction) into JDBC batch inserts, committed in one transaction (group commit).
+	 * The first caller waits up to this window for other additions, or until the
+	 * {@link #setWriteBatchSize(int) write batch size} is reached, and each caller waits
+	 * until its messages are committed; if the batch fails, its additions are performed
+	 * one by one, so each caller gets its own result.
+	 * Messages added in a transaction are inserted in that transaction, without batching.
+	 * By default, the messages are inserted when they are added.
+	 * @param writeBatchWindow the window.
+	 * @since 5.2
+	 */
+	public void setWriteBatchWindow(Duration writeBatchWindow) {
+		Assert.isTrue(writeBatchWindow == null || !writeBatchWindow.isNegative(),
+				"'writeBatchWindow' must not be negative");
+		this.writeBatchWindow = writeBatchWindow;
+		this.writer = null;
+	}
+
+	/**
+	 * Set the maximum number of {@link #addMessagesToGroup(Object, Message...)} calls
+	 * written in one batch when a {@link #setWriteBatchWindow(Duration) write batch window}
+	 * is set. Defaults to {@link #DEFAULT_WRITE_BATCH_SIZE}.
+	 * @param writeBatchSize the batch size.
+	 * @since 5.2
+	 */
+	public void setWriteBatchSize(int writeBatchSize) {
+		Assert.isTrue(writeBatchSize > 0, "'writeBatchSize' must be greater than 0");
+		this.writeBatchSize = writeBatchSize;
+		this.writer = null;
+	}
+
 	/**
 	 * Override the {@link LobHandler} that is used to create and unpack large objects in SQL queries. The default is
 	 * fine for almost all platforms, but some Oracle drivers require a native implementation.
@@ -356,7 +465,71 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 
 	@Override
 	public void addMessagesToGroup(Object groupId, Message<?>... messages) {
-		final String groupKey = getKey(groupId);
+		GroupCommitWriter<GroupMessages> groupCommitWriter = getWriter();
+		if (groupCommitWriter != null) {
+			groupCommitWriter.write(new GroupMessages(getKey(groupId), messages));
+		}
+		else {
+			doAddMessagesToGroup(getKey(groupId), messages);
+		}
+	}
+
+	@Nullable
+	private GroupCommitWriter<GroupMessages> getWriter() {
+		if (this.writeBatchWindow == null) {
+			return null;
+		}
+		GroupCommitWriter<GroupMessages> groupCommitWriter = this.writer;
+		if (groupCommitWriter == null) {
+			synchronized (this) {
+				groupCommitWriter = this.writer;
+				if (groupCommitWriter == null) {
+					groupCommitWriter = new GroupCommitWriter<>(this.writeBatchWindow, this.writeBatchSize,
+							this.jdbcTemplate, this::doAddMessagesToGroups,
+							groupMessages -> doAddMessagesToGroup(groupMessages.groupKey, groupMessages.messages));
+					this.writer = groupCommitWriter;
+				}
+			}
+		}
+		return groupCommitWriter;
+	}
+
+	private void doAddMessagesToGroups(List<GroupMessages> batch) {
+		Set<String> groupKeys = new HashSet<>();
+		List<Message<?>> messages = new ArrayList<>();
+		for (GroupMessages groupMessages : batch) {
+			if (groupKeys.add(groupMessages.groupKey)) {
+				createOrUpdateMessageGroup(groupMessages.groupKey);
+			}
+			Collections.addAll(messages, groupMessages.messages);
+		}
+		Timestamp createdDate = new Timestamp(System.currentTimeMillis());
+		this.jdbcTemplate.batchUpdate(getQuery(Query.CREATE_MESSAGE),
+				messages,
+				100,
+				(ps, messageToAdd) -> {
+					ps.setString(1, getKey(messageToAdd.getHeaders().getId()));
+					ps.setString(2, this.region);
+					ps.setTimestamp(3, createdDate);
+					this.lobHandler.getLobCreator().setBlobAsBytes(ps, 4, this.serializer.convert(messageToAdd));
+				});
+		List<String[]> groupToMessages = new ArrayList<>();
+		for (GroupMessages groupMessages : batch) {
+			for (Message<?> message : groupMessages.messages) {
+				groupToMessages.add(new String[] { groupMessages.groupKey, getKey(message.getHeaders().getId()) });
+			}
+		}
+		this.jdbcTemplate.batchUpdate(getQuery(Query.CREATE_GROUP_TO_MESSAGE),
+				groupToMessages,
+				100,
+				(ps, groupToMessage) -> {
+					ps.setString(1, groupToMessage[0]);
+					ps.setString(2, groupToMessage[1]);
+					ps.setString(3, this.region);
+				});
+	}
+
+	private Timestamp createOrUpdateMessageGroup(String groupKey) {
 		boolean groupNotExist = this.jdbcTemplate.queryForObject(this.getQuery(Query.GROUP_EXISTS), // NOSONAR query never returns null
 				Integer.class, groupKey, this.region) < 1;
 
@@ -379,6 +552,11 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		else {
 			doUpdateMessageGroup(groupKey, updatedDate);
 		}
+		return createdDate;
+	}
+
+	private void doAddMessagesToGroup(String groupKey, Message<?>... messages) {
+		final Timestamp createdDate = createOrUpdateMessageGroup(groupKey);
 
 		for (Message<?> message : messages) {
 			addMessage(message);
@@ -427,6 +605,7 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		final AtomicReference<Date> updateDate = new AtomicReference<Date>();
 		final AtomicReference<Boolean> completeFlag = new AtomicReference<Boolean>();
 		final AtomicReference<Integer> lastReleasedSequenceRef = new AtomicReference<Integer>();
+		final AtomicInteger messageCount = new AtomicInteger();
 
 		this.jdbcTemplate.query(getQuery(Query.GET_GROUP_INFO), rs -> {
 			updateDate.set(rs.getTimestamp("UPDATED_DATE"));
@@ -436,14 +615,23 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 			completeFlag.set(rs.getInt("COMPLETE") > 0);
 
 			lastReleasedSequenceRef.set(rs.getInt("LAST_RELEASED_SEQUENCE"));
-		}, key, this.region);
+
+			messageCount.set(rs.getInt("MESSAGE_COUNT"));
+		}, key, this.region, key, this.region);
 
 		if (createDate.get() == null && updateDate.get() == null) {
 			return new SimpleMessageGroup(groupId);
 		}
 
-		MessageGroup messageGroup = getMessageGroupFactory()
-				.create(this, groupId, createDate.get().getTime(), completeFlag.get());
+		MessageGroup messageGroup;
+		if (isLazyLoadMessageGroups()) {
+			messageGroup = createLazyMessageGroup(groupId, createDate.get().getTime(), completeFlag.get(),
+					messageCount.get(), this.streamingMessageGroups);
+		}
+		else {
+			messageGroup = getMessageGroupFactory()
+					.create(this, groupId, createDate.get().getTime(), completeFlag.get());
+		}
 		messageGroup.setLastModified(updateDate.get().getTime());
 		messageGroup.setLastReleasedMessageSequenceNumber(lastReleasedSequenceRef.get());
 		return messageGroup;
@@ -560,6 +748,22 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 				this.region, this.region);
 	}
 
+	/**
+	 * Retrieve the ids of the messages for the provided group id, then retrieve the
+	 * messages a page at a time as they are iterated.
+	 * Messages removed from the store in the meantime are skipped.
+	 * @param groupId The group id to retrieve messages for.
+	 * @return the iterator over the messages for group.
+	 * @since 5.2
+	 * @see #setIterationPageSize(int)
+	 */
+	@Override
+	public CloseableIterator<Message<?>> iterateMessagesForGroup(Object groupId) {
+		List<String> messageIds = this.jdbcTemplate.queryForList(getQuery(Query.LIST_MESSAGE_IDS_BY_GROUP_KEY),
+				String.class, getKey(groupId), this.region, this.region);
+		return new PagingMessageIterator(messageIds);
+	}
+
 	@Override
 	public Iterator<MessageGroup> iterator() {
 
@@ -586,6 +790,23 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		};
 	}
 
+	/**
+	 * Select the keys of the due groups in the database, so only those groups are loaded
+	 * instead of all of them.
+	 * @param threshold the time at or before which groups are expired.
+	 * @return the candidate groups.
+	 * @since 5.2
+	 */
+	@Override
+	protected Iterable<MessageGroup> getExpiryCandidates(long threshold) {
+		Query query = isTimeoutOnIdle() ? Query.LIST_GROUP_KEYS_UPDATED_BEFORE : Query.LIST_GROUP_KEYS_CREATED_BEFORE;
+		List<String> keys = this.jdbcTemplate.query(getQuery(query), new SingleColumnRowMapper<String>(),
+				this.region, new Timestamp(threshold));
+		return () -> keys.stream()
+				.map(this::getMessageGroup)
+				.iterator();
+	}
+
 	/**
 	 * Replace patterns in the input to produce a valid SQL query. This implementation lazily initializes a
 	 * simple map-based cache, only replacing the table prefix on the first access to a named query. Further
@@ -670,6 +891,23 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 		return input == null ? null : UUIDConverter.getUUID(input).toString();
 	}
 
+	private List<Message<?>> getMessages(List<String> messageIds) {
+		Map<String, Message<?>> messages = new HashMap<>();
+		MapSqlParameterSource parameters = new MapSqlParameterSource()
+				.addValue("messageIds", messageIds)
+				.addValue("region", this.region);
+		this.namedParameterJdbcTemplate.query(getQuery(Query.LIST_MESSAGES_BY_IDS), parameters,
+				(RowCallbackHandler) rs -> messages.put(rs.getString("MESSAGE_ID"), this.mapper.mapRow(rs, 0)));
+		List<Message<?>> page = new ArrayList<>(messages.size());
+		for (String messageId : messageIds) {
+			Message<?> message = messages.get(messageId);
+			if (message != null) {
+				page.add(message);
+			}
+		}
+		return page;
+	}
+
 	/**
 	 * Convenience class to be used to unpack a message from a result set row. Uses column named in the result set to
 	 * extract the required data, so that select clause ordering is unimportant.
@@ -689,4 +927,55 @@ public class JdbcMessageStore extends AbstractMessageGroupStore implements Messa
 
 	}
 
+	private final class PagingMessageIterator implements CloseableIterator<Message<?>> {
+
+		private final List<String> messageIds;
+
+		private int position;
+
+		private Iterator<Message<?>> page = Collections.emptyIterator();
+
+		PagingMessageIterator(List<String> messageIds) {
+			this.messageIds = messageIds;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!this.page.hasNext() && this.position < this.messageIds.size()) {
+				int end = Math.min(this.position + JdbcMessageStore.this.iterationPageSize, this.messageIds.size());
+				this.page = getMessages(this.messageIds.subList(this.position, end)).iterator();
+				this.position = end;
+			}
+			return this.page.hasNext();
+		}
+
+		@Override
+		public Message<?> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return this.page.next();
+		}
+
+		@Override
+		public void close() {
+			this.position = this.messageIds.size();
+			this.page = Collections.emptyIterator();
+		}
+
+	}
+
+	private static final class GroupMessages {
+
+		private final String groupKey;
+
+		private final Message<?>[] messages;
+
+		GroupMessages(String groupKey, Message<?>[] messages) {
+			this.groupKey = groupKey;
+			this.messages = messages;
+		}
+
+	}
+
 }
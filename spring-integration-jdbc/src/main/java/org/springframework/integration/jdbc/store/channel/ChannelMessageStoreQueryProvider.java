@@ -66,6 +66,32 @@ public interface ChannelMessageStoreQueryProvider {
 	 */
 	String getPriorityPollFromGroupQuery();
 
+	/**
+	 * Get the query used to retrieve and lock the oldest messages for a channel, up to
+	 * the number provided as the {@code max_rows} parameter, skipping the rows locked by
+	 * other transactions.
+	 * Return {@code null} (default) if not supported by the database, so the messages are
+	 * polled one by one.
+	 * @return Sql Query
+	 * @since 5.2
+	 */
+	default String getPollBatchFromGroupQuery() {
+		return null;
+	}
+
+	/**
+	 * Get the query used to retrieve and lock the oldest messages by priority for a channel,
+	 * up to the number provided as the {@code max_rows} parameter, skipping the rows locked
+	 * by other transactions.
+	 * Return {@code null} (default) if not supported by the database, so the messages are
+	 * polled one by one.
+	 * @return Sql Query
+	 * @since 5.2
+	 */
+	default String getPriorityPollBatchFromGroupQuery() {
+		return null;
+	}
+
 	/**
 	 * Query that retrieves a message for the provided message id, channel and
 	 * region.
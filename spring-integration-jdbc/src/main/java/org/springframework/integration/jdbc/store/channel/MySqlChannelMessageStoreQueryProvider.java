@@ -54,4 +54,24 @@ public class MySqlChannelMessageStoreQueryProvider extends AbstractChannelMessag
 				"order by MESSAGE_PRIORITY DESC, CREATED_DATE, MESSAGE_SEQUENCE LIMIT 1";
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>Requires MySQL 8.0 or later.
+	 */
+	@Override
+	public String getPollBatchFromGroupQuery() {
+		return SELECT_COMMON +
+				"order by CREATED_DATE, MESSAGE_SEQUENCE LIMIT :max_rows FOR UPDATE SKIP LOCKED";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Requires MySQL 8.0 or later.
+	 */
+	@Override
+	public String getPriorityPollBatchFromGroupQuery() {
+		return SELECT_COMMON +
+				"order by MESSAGE_PRIORITY DESC, CREATED_DATE, MESSAGE_SEQUENCE LIMIT :max_rows FOR UPDATE SKIP LOCKED";
+	}
+
 }
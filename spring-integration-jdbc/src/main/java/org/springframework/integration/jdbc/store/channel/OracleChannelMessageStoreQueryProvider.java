@@ -75,4 +75,26 @@ public class OracleChannelMessageStoreQueryProvider extends AbstractChannelMessa
 				"order by MESSAGE_PRIORITY DESC NULLS LAST, CREATED_DATE, MESSAGE_SEQUENCE FOR UPDATE SKIP LOCKED";
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>Oracle does not allow limiting the rows of a {@code FOR UPDATE} query, so the
+	 * rows are only locked as they are fetched, and no more than {@code max_rows} rows
+	 * are read.
+	 */
+	@Override
+	public String getPollBatchFromGroupQuery() {
+		return getPollFromGroupQuery();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Oracle does not allow limiting the rows of a {@code FOR UPDATE} query, so the
+	 * rows are only locked as they are fetched, and no more than {@code max_rows} rows
+	 * are read.
+	 */
+	@Override
+	public String getPriorityPollBatchFromGroupQuery() {
+		return getPriorityPollFromGroupQuery();
+	}
+
 }
@@ -28,6 +28,11 @@ public class SqlServerChannelMessageStoreQueryProvider extends AbstractChannelMe
 			+ "from %PREFIX%CHANNEL_MESSAGE "
 			+ "where %PREFIX%CHANNEL_MESSAGE.GROUP_KEY = :group_key and %PREFIX%CHANNEL_MESSAGE.REGION = :region ";
 
+	private static final String SELECT_BATCH_COMMON =
+			"SELECT TOP (:max_rows) %PREFIX%CHANNEL_MESSAGE.MESSAGE_ID, %PREFIX%CHANNEL_MESSAGE.MESSAGE_BYTES "
+			+ "from %PREFIX%CHANNEL_MESSAGE with (UPDLOCK, READPAST, ROWLOCK) "
+			+ "where %PREFIX%CHANNEL_MESSAGE.GROUP_KEY = :group_key and %PREFIX%CHANNEL_MESSAGE.REGION = :region ";
+
 	@Override
 	public String getPollFromGroupExcludeIdsQuery() {
 		return SELECT_COMMON +
@@ -60,4 +65,16 @@ public class SqlServerChannelMessageStoreQueryProvider extends AbstractChannelMe
 				+ " values (?, ?, ?, ?, ?,(NEXT VALUE FOR %PREFIX%MESSAGE_SEQ), ?)";
 	}
 
+	@Override
+	public String getPollBatchFromGroupQuery() {
+		return SELECT_BATCH_COMMON +
+				"order by CREATED_DATE, MESSAGE_SEQUENCE";
+	}
+
+	@Override
+	public String getPriorityPollBatchFromGroupQuery() {
+		return SELECT_BATCH_COMMON +
+				"order by MESSAGE_PRIORITY DESC, CREATED_DATE, MESSAGE_SEQUENCE";
+	}
+
 }
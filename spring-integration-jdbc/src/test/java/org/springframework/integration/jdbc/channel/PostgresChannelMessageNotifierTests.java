@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * @since 5.2
+ */
+public class PostgresChannelMessageNotifierTests {
+
+	@Test
+	public void testListeningConnectionIsUnlistenedOnStop() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		PGConnection pgConnection = mock(PGConnection.class);
+		Statement statement = mock(Statement.class);
+		PGNotification notification = mock(PGNotification.class);
+		given(dataSource.getConnection()).willReturn(connection);
+		given(connection.unwrap(PGConnection.class)).willReturn(pgConnection);
+		given(connection.createStatement()).willReturn(statement);
+		given(notification.getParameter()).willReturn("foo");
+		AtomicBoolean notified = new AtomicBoolean();
+		willAnswer(invocation -> {
+			if (notified.compareAndSet(false, true)) {
+				return new PGNotification[] { notification };
+			}
+			Thread.sleep(10);
+			return null;
+		}).given(pgConnection).getNotifications(anyInt());
+
+		PostgresChannelMessageNotifier notifier = new PostgresChannelMessageNotifier(dataSource);
+		// once when listening starts, once for the notification
+		CountDownLatch wakeUps = new CountDownLatch(2);
+		notifier.subscribe("foo", wakeUps::countDown);
+		notifier.start();
+		assertThat(wakeUps.await(10, TimeUnit.SECONDS)).isTrue();
+		notifier.stop();
+		assertThat(notifier.isRunning()).isFalse();
+
+		InOrder inOrder = inOrder(statement, pgConnection, connection);
+		inOrder.verify(statement).execute("LISTEN int_channel_message");
+		inOrder.verify(statement).execute("UNLISTEN *");
+		inOrder.verify(pgConnection).getNotifications();
+		inOrder.verify(connection).close();
+	}
+
+	@Test
+	public void testNotificationsAreCoalescedInTransaction() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		given(dataSource.getConnection()).willReturn(connection);
+		given(connection.prepareStatement(anyString())).willReturn(preparedStatement);
+		given(preparedStatement.executeQuery()).willReturn(mock(ResultSet.class));
+		PostgresChannelMessageNotifier notifier = new PostgresChannelMessageNotifier(dataSource);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		transactionTemplate.execute(status -> {
+			notifier.messageStored("foo");
+			notifier.messageStored("bar");
+			notifier.messageStored("foo");
+			return null;
+		});
+
+		InOrder inOrder = inOrder(preparedStatement, connection);
+		inOrder.verify(preparedStatement).setString(2, "foo");
+		inOrder.verify(preparedStatement).setString(2, "bar");
+		inOrder.verify(connection).commit();
+		verify(connection, times(2)).prepareStatement("SELECT pg_notify(?, ?)");
+
+		transactionTemplate.execute(status -> {
+			notifier.messageStored("baz");
+			status.setRollbackOnly();
+			return null;
+		});
+		verify(preparedStatement, never()).setString(2, "baz");
+	}
+
+}
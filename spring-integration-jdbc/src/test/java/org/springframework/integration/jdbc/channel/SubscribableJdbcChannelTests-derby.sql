@@ -0,0 +1,6 @@
+CREATE PROCEDURE INT_CHANNEL_MESSAGE_NOTIFY(IN GROUP_KEY CHAR(36))
+	PARAMETER STYLE JAVA LANGUAGE JAVA NO SQL
+	EXTERNAL NAME 'org.springframework.integration.jdbc.channel.TriggerChannelMessageNotifier.messageInserted';
+
+CREATE TRIGGER INT_CHANNEL_MESSAGE_INSERTED AFTER INSERT ON INT_CHANNEL_MESSAGE
+	REFERENCING NEW AS NEW_ROW FOR EACH ROW CALL INT_CHANNEL_MESSAGE_NOTIFY(NEW_ROW.GROUP_KEY);
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.jdbc.store.channel.DerbyChannelMessageStoreQueryProvider;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.messaging.Message;
+
+/**
+ * @since 5.2
+ */
+public class SubscribableJdbcChannelTests {
+
+	private static final String GROUP_ID = "subscribableJdbcChannelTests";
+
+	private static EmbeddedDatabase embeddedDatabase;
+
+	private final BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+
+	private JdbcChannelMessageStore channelStore;
+
+	private JdbcChannelMessageStore senderStore;
+
+	private SubscribableJdbcChannel channel;
+
+	@BeforeClass
+	public static void setUp() {
+		embeddedDatabase = new EmbeddedDatabaseBuilder()
+				.setType(EmbeddedDatabaseType.DERBY)
+				.generateUniqueName(true)
+				.addScript("classpath:org/springframework/integration/jdbc/schema-derby.sql")
+				.addScript("classpath:org/springframework/integration/jdbc/channel/SubscribableJdbcChannelTests-derby.sql")
+				.build();
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		embeddedDatabase.shutdown();
+	}
+
+	@Before
+	public void setUpChannel() {
+		this.channelStore = createStore();
+		this.senderStore = createStore();
+		this.channel = new SubscribableJdbcChannel(this.channelStore, GROUP_ID);
+		this.channel.subscribe(this.received::add);
+	}
+
+	@After
+	public void cleanup() {
+		this.channel.stop();
+		new JdbcTemplate(embeddedDatabase).execute("DELETE FROM INT_CHANNEL_MESSAGE");
+	}
+
+	@Test
+	public void testNotifiedMessageIsDispatchedWithoutPolling() throws Exception {
+		this.channel.setNotifier(new TriggerChannelMessageNotifier());
+		this.channel.setMinPollInterval(Duration.ofMinutes(1));
+		this.channel.setMaxPollInterval(Duration.ofMinutes(1));
+		this.channel.afterPropertiesSet();
+		this.channel.start();
+		// let the consumer poll the empty table and wait
+		Thread.sleep(200);
+
+		this.senderStore.addMessageToGroup(GROUP_ID, MessageBuilder.withPayload("foo").build());
+		Message<?> message = this.received.poll(10, TimeUnit.SECONDS);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("foo");
+	}
+
+	@Test
+	public void testMessageIsDispatchedByPollingWithoutNotifier() throws Exception {
+		this.channel.setMinPollInterval(Duration.ofMillis(10));
+		this.channel.setMaxPollInterval(Duration.ofMillis(100));
+		this.channel.afterPropertiesSet();
+		this.channel.start();
+
+		this.senderStore.addMessageToGroup(GROUP_ID, MessageBuilder.withPayload("foo").build());
+		this.senderStore.addMessageToGroup(GROUP_ID, MessageBuilder.withPayload("bar").build());
+		Message<?> message = this.received.poll(10, TimeUnit.SECONDS);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("foo");
+		message = this.received.poll(10, TimeUnit.SECONDS);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("bar");
+	}
+
+	@Test
+	public void testSentMessageWakesUpConsumer() throws Exception {
+		this.channel.setMinPollInterval(Duration.ofMinutes(1));
+		this.channel.setMaxPollInterval(Duration.ofMinutes(1));
+		this.channel.afterPropertiesSet();
+		this.channel.start();
+		Thread.sleep(200);
+
+		assertThat(this.channel.send(MessageBuilder.withPayload("foo").build())).isTrue();
+		Message<?> message = this.received.poll(10, TimeUnit.SECONDS);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("foo");
+		assertThat(this.channelStore.messageGroupSize(GROUP_ID)).isEqualTo(0);
+	}
+
+	@Test
+	public void testStopWaitsForTheCurrentDispatch() throws Exception {
+		CountDownLatch dispatching = new CountDownLatch(1);
+		AtomicBoolean dispatched = new AtomicBoolean();
+		this.channel = new SubscribableJdbcChannel(this.channelStore, GROUP_ID);
+		this.channel.subscribe(message -> {
+			dispatching.countDown();
+			try {
+				Thread.sleep(500);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			dispatched.set(true);
+		});
+		this.channel.afterPropertiesSet();
+		this.channel.start();
+		assertThat(this.channel.send(MessageBuilder.withPayload("foo").build())).isTrue();
+		assertThat(dispatching.await(10, TimeUnit.SECONDS)).isTrue();
+
+		this.channel.stop();
+		assertThat(dispatched.get()).isTrue();
+	}
+
+	@Test
+	public void testStopCancelsTheDispatchAfterTheShutdownTimeout() throws Exception {
+		CountDownLatch dispatching = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		this.channel = new SubscribableJdbcChannel(this.channelStore, GROUP_ID);
+		this.channel.subscribe(message -> {
+			dispatching.countDown();
+			try {
+				Thread.sleep(60_000);
+			}
+			catch (@SuppressWarnings("unused") InterruptedException e) {
+				interrupted.countDown();
+			}
+		});
+		this.channel.setShutdownTimeout(Duration.ofMillis(100));
+		this.channel.afterPropertiesSet();
+		this.channel.start();
+		assertThat(this.channel.send(MessageBuilder.withPayload("foo").build())).isTrue();
+		assertThat(dispatching.await(10, TimeUnit.SECONDS)).isTrue();
+
+		this.channel.stop();
+		assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private static JdbcChannelMessageStore createStore() {
+		JdbcChannelMessageStore store = new JdbcChannelMessageStore(embeddedDatabase);
+		store.setChannelMessageStoreQueryProvider(new DerbyChannelMessageStoreQueryProvider());
+		store.afterPropertiesSet();
+		return store;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jdbc.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @since 5.2
+ */
+public class TriggerChannelMessageNotifierTests {
+
+	@Test
+	public void testNotifiersAreScopedAndDeregisteredOnDestroy() {
+		TriggerChannelMessageNotifier scoped = new TriggerChannelMessageNotifier("triggerTests");
+		TriggerChannelMessageNotifier unscoped = new TriggerChannelMessageNotifier();
+		AtomicInteger scopedWakeUps = new AtomicInteger();
+		AtomicInteger unscopedWakeUps = new AtomicInteger();
+		scoped.subscribe("foo", scopedWakeUps::incrementAndGet);
+		unscoped.subscribe("foo", unscopedWakeUps::incrementAndGet);
+		try {
+			TriggerChannelMessageNotifier.messageInserted("triggerTests", "foo");
+			assertThat(scopedWakeUps.get()).isEqualTo(1);
+			assertThat(unscopedWakeUps.get()).isEqualTo(0);
+
+			TriggerChannelMessageNotifier.messageInserted("foo");
+			assertThat(scopedWakeUps.get()).isEqualTo(1);
+			assertThat(unscopedWakeUps.get()).isEqualTo(1);
+
+			scoped.destroy();
+			TriggerChannelMessageNotifier.messageInserted("triggerTests", "foo");
+			assertThat(scopedWakeUps.get()).isEqualTo(1);
+		}
+		finally {
+			scoped.destroy();
+			unscoped.destroy();
+		}
+	}
+
+}
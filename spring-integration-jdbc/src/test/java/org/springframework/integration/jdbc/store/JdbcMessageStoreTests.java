@@ -17,15 +17,21 @@
 package org.springframework.integration.jdbc.store;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
@@ -35,12 +41,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.serializer.support.SerializationFailedException;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.predicate.MessagePredicate;
+import org.springframework.integration.util.CloseableIterator;
 import org.springframework.integration.util.UUIDConverter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementSetter;
@@ -49,6 +57,7 @@ import org.springframework.messaging.support.GenericMessage;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -301,6 +310,86 @@ public class JdbcMessageStoreTests {
 		assertThat(this.messageStore.pollMessageFromGroup(groupId).getPayload()).isEqualTo("bar");
 	}
 
+	@Test
+	public void testIterateMessagesForGroup() throws Exception {
+		String groupId = "X";
+		List<Message<?>> messages = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Message<?> message = MessageBuilder.withPayload(i).setCorrelationId(groupId).build();
+			messages.add(message);
+			this.messageStore.addMessagesToGroup(groupId, message);
+			Thread.sleep(1);
+		}
+		this.messageStore.setIterationPageSize(2);
+		List<Object> payloads = new ArrayList<>();
+		try (CloseableIterator<Message<?>> iterator = this.messageStore.iterateMessagesForGroup(groupId)) {
+			payloads.add(iterator.next().getPayload());
+			payloads.add(iterator.next().getPayload());
+			this.messageStore.removeMessage(messages.get(3).getHeaders().getId());
+			iterator.forEachRemaining(message -> payloads.add(message.getPayload()));
+		}
+		assertThat(payloads).containsExactly(0, 1, 2, 4);
+		assertThat(this.messageStore.iterateMessagesForGroup("Y").hasNext()).isFalse();
+	}
+
+	@Test
+	public void testStreamingMessageGroup() throws Exception {
+		String groupId = "X";
+		List<Message<?>> messages = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Message<?> message = MessageBuilder.withPayload(i).setCorrelationId(groupId).build();
+			messages.add(message);
+			this.messageStore.addMessagesToGroup(groupId, message);
+			Thread.sleep(1);
+		}
+		this.messageStore.setIterationPageSize(2);
+		this.messageStore.setStreamingMessageGroups(true);
+		MessageGroup group = this.messageStore.getMessageGroup(groupId);
+		assertThat(group.size()).isEqualTo(5);
+		assertThat(group.getMessages()).extracting("payload").containsExactly(0, 1, 2, 3, 4);
+
+		this.messageStore.removeMessagesFromGroup(groupId, messages.get(3));
+		assertThat(group.getMessages()).extracting("payload").containsExactly(0, 1, 2, 4);
+		assertThat(group.getMessages().contains(messages.get(0))).isTrue();
+		assertThat(this.messageStore.getMessageGroup(groupId).size()).isEqualTo(4);
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void testWriteBatching() throws Exception {
+		this.messageStore.setWriteBatchWindow(Duration.ofMillis(50));
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				String groupId = "batch" + (i % 2);
+				Message<?> message = new GenericMessage<>(i == 3 ? new Object() : i);
+				results.add(executor.submit(() -> this.messageStore.addMessagesToGroup(groupId, message)));
+			}
+			for (int i = 0; i < 5; i++) {
+				if (i == 3) {
+					assertThatExceptionOfType(ExecutionException.class)
+							.isThrownBy(() -> results.get(3).get(10, TimeUnit.SECONDS))
+							.withCauseInstanceOf(SerializationFailedException.class);
+				}
+				else {
+					results.get(i).get(10, TimeUnit.SECONDS);
+				}
+			}
+			assertThat(this.messageStore.getMessageGroup("batch0").getMessages())
+					.extracting("payload")
+					.containsExactlyInAnyOrder(0, 2, 4);
+			assertThat(this.messageStore.getMessageGroup("batch1").getMessages())
+					.extracting("payload")
+					.containsExactly(1);
+		}
+		finally {
+			executor.shutdownNow();
+			this.messageStore.removeMessageGroup("batch0");
+			this.messageStore.removeMessageGroup("batch1");
+		}
+	}
+
 	@Test
 	public void testExpireMessageGroupOnCreateOnly() throws Exception {
 		final String groupId = "X";
@@ -366,6 +455,37 @@ public class JdbcMessageStoreTests {
 		assertThat(group.size()).isEqualTo(0);
 	}
 
+	@Test
+	public void testExpiryCandidates() {
+		messageStore.addMessagesToGroup("X", new GenericMessage<>("x"));
+		messageStore.addMessagesToGroup("Y", new GenericMessage<>("y"));
+		JdbcMessageStore otherRegion = new JdbcMessageStore(this.dataSource);
+		otherRegion.setRegion("OTHER");
+		otherRegion.addMessagesToGroup("X", new GenericMessage<>("other"));
+
+		JdbcTemplate template = new JdbcTemplate(this.dataSource);
+		template.afterPropertiesSet();
+		template.update("UPDATE INT_MESSAGE_GROUP set CREATED_DATE=? where GROUP_KEY=?",
+				(PreparedStatementSetter) ps -> {
+					ps.setTimestamp(1, new Timestamp(System.currentTimeMillis() - 10000));
+					ps.setString(2, UUIDConverter.getUUID("X").toString());
+				});
+		updateMessageGroup(template, "Y", 10000);
+
+		long threshold = System.currentTimeMillis() - 5000;
+		assertThat(messageStore.getExpiryCandidates(threshold))
+				.extracting(group -> (Object) group.getOne().getPayload())
+				.containsExactly("x");
+		messageStore.setTimeoutOnIdle(true);
+		assertThat(messageStore.getExpiryCandidates(threshold))
+				.extracting(group -> (Object) group.getOne().getPayload())
+				.containsExactly("y");
+		assertThat(otherRegion.getExpiryCandidates(threshold))
+				.extracting(group -> (Object) group.getOne().getPayload())
+				.containsExactly("other");
+		assertThat(messageStore.getExpiryCandidates(threshold - 10000)).isEmpty();
+	}
+
 	private void updateMessageGroup(JdbcTemplate template, final String groupId, final long timeout) {
 		template.update("UPDATE INT_MESSAGE_GROUP set UPDATED_DATE=? where GROUP_KEY=? and REGION=?",
 				(PreparedStatementSetter) ps -> {
@@ -20,6 +20,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sql.DataSource;
 
@@ -29,11 +38,16 @@ import org.junit.runner.RunWith;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.store.MessageGroupQueue;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -131,6 +145,83 @@ public abstract class AbstractJdbcChannelMessageStoreTests {
 		assertThat(messageFromDb.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
 	}
 
+	@Test
+	public void testPollMessagesFromGroupAndDrainQueueChannel() {
+		for (int i = 0; i < 5; i++) {
+			messageStore.addMessageToGroup(TEST_MESSAGE_GROUP, new GenericMessage<>("foo" + i));
+		}
+
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		List<Message<?>> messages =
+				transactionTemplate.execute(status -> messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 3));
+		assertThat(messages).extracting("payload").containsExactly("foo0", "foo1", "foo2");
+		assertThat(messageStore.messageGroupSize(TEST_MESSAGE_GROUP)).isEqualTo(2);
+
+		QueueChannel channel = new QueueChannel(new MessageGroupQueue(messageStore, TEST_MESSAGE_GROUP));
+		messages = transactionTemplate.execute(status -> channel.receive(10, 0));
+		assertThat(messages).extracting("payload").containsExactly("foo3", "foo4");
+		assertThat(messageStore.messageGroupSize(TEST_MESSAGE_GROUP)).isEqualTo(0);
+		assertThat(messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 3)).isEmpty();
+	}
+
+	@Test
+	public void testWriteBatching() throws Exception {
+		messageStore.setWriteBatchWindow(Duration.ofMillis(50));
+		messageStore.afterPropertiesSet();
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		List<Future<?>> results = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Message<?> message = new GenericMessage<>("foo" + i);
+			results.add(executor.submit(() -> messageStore.addMessageToGroup(TEST_MESSAGE_GROUP, message)));
+		}
+		for (Future<?> result : results) {
+			result.get(10, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+		assertThat(messageStore.messageGroupSize(TEST_MESSAGE_GROUP)).isEqualTo(10);
+	}
+
+	@Test
+	public void testWriteBatchingThroughQueueChannel() throws Exception {
+		AtomicInteger batches = new AtomicInteger();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource) {
+
+			@Override
+			public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+					ParameterizedPreparedStatementSetter<T> pss) {
+
+				batches.incrementAndGet();
+				return super.batchUpdate(sql, batchArgs, batchSize, pss);
+			}
+
+		};
+		jdbcTemplate.setFetchSize(1);
+		jdbcTemplate.setMaxRows(1);
+		messageStore.setJdbcTemplate(jdbcTemplate);
+		// the leader waits for the full batch, so the sends must be coalesced to complete
+		messageStore.setWriteBatchWindow(Duration.ofSeconds(30));
+		messageStore.setWriteBatchSize(10);
+		messageStore.afterPropertiesSet();
+		MessageGroupQueue queue = new MessageGroupQueue(messageStore, TEST_MESSAGE_GROUP);
+		queue.setAddOutsideLock(true);
+		QueueChannel channel = new QueueChannel(queue);
+		ExecutorService executor = Executors.newFixedThreadPool(10);
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Message<?> message = new GenericMessage<>("foo" + i);
+			results.add(executor.submit(() -> channel.send(message)));
+		}
+		for (Future<Boolean> result : results) {
+			assertThat(result.get(10, TimeUnit.SECONDS)).isTrue();
+		}
+		executor.shutdown();
+		assertThat(batches.get()).isEqualTo(1);
+		for (int i = 0; i < 10; i++) {
+			assertThat(channel.receive(0)).isNotNull();
+		}
+		assertThat(channel.receive(0)).isNull();
+	}
+
 	private ChannelMessageStorePreparedStatementSetter getMessageGroupPreparedStatementSetter() {
 		return new ChannelMessageStorePreparedStatementSetter() {
 
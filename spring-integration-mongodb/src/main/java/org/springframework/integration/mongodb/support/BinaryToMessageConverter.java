@@ -19,6 +19,7 @@ package org.springframework.integration.mongodb.support;
 import org.bson.types.Binary;
 
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.serializer.Deserializer;
 import org.springframework.data.convert.ReadingConverter;
 import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
 import org.springframework.messaging.Message;
@@ -31,7 +32,22 @@ import org.springframework.messaging.Message;
 @ReadingConverter
 public class BinaryToMessageConverter implements Converter<Binary, Message<?>> {
 
-	private final WhiteListDeserializingConverter deserializingConverter = new WhiteListDeserializingConverter();
+	private final WhiteListDeserializingConverter deserializingConverter;
+
+	public BinaryToMessageConverter() {
+		this.deserializingConverter = new WhiteListDeserializingConverter();
+	}
+
+	/**
+	 * Construct an instance delegating to the provided {@link Deserializer}, such as a
+	 * {@link org.springframework.integration.codec.CodecSerializer}.
+	 * @param deserializer the deserializer.
+	 * @since 5.2
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public BinaryToMessageConverter(Deserializer<? extends Message<?>> deserializer) {
+		this.deserializingConverter = new WhiteListDeserializingConverter((Deserializer) deserializer);
+	}
 
 	@Override
 	public Message<?> convert(Binary source) {
@@ -26,6 +26,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -34,6 +35,8 @@ import java.util.concurrent.locks.ReentrantLock;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -41,6 +44,7 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.integration.support.locks.ExpirableLockRegistry;
+import org.springframework.integration.util.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
@@ -73,7 +77,7 @@ import org.springframework.util.ReflectionUtils;
  * @since 4.0
  *
  */
-public final class RedisLockRegistry implements ExpirableLockRegistry, DisposableBean {
+public final class RedisLockRegistry implements ExpirableLockRegistry, BeanFactoryAware, DisposableBean {
 
 	private static final Log logger = LogFactory.getLog(RedisLockRegistry.class);
 
@@ -154,6 +158,25 @@ public final class RedisLockRegistry implements ExpirableLockRegistry, Disposabl
 		this.executorExplicitlySet = true;
 	}
 
+	/**
+	 * Switch the default executor to virtual threads when the
+	 * {@link org.springframework.integration.context.IntegrationProperties#VIRTUAL_THREADS}
+	 * global property is enabled and no executor has been provided.
+	 * @param beanFactory the bean factory.
+	 * @since 5.2
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		if (!this.executorExplicitlySet) {
+			ThreadFactory threadFactory =
+					VirtualThreadTaskExecutor.threadFactoryIfEnabled(beanFactory, "redis-lock-registry-");
+			if (threadFactory != null) {
+				((ExecutorService) this.executor).shutdown();
+				this.executor = Executors.newCachedThreadPool(threadFactory);
+			}
+		}
+	}
+
 	@Override
 	public Lock obtain(Object lockKey) {
 		Assert.isInstanceOf(String.class, lockKey);